@@ -0,0 +1,12 @@
+package com.mobgen.halo.android.content.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({})
+@Retention(RetentionPolicy.SOURCE)
+public @interface HaloIndex {
+    String name() default "";
+    String[] columnNames();
+}
@@ -10,4 +10,5 @@ import java.lang.annotation.Target;
 public @interface HaloSearchable {
     int version();
     String tableName();
+    HaloIndex[] indexes() default {};
 }
@@ -3,15 +3,18 @@ package com.mobgen.halo.android.content.generated;
 import com.google.auto.service.AutoService;
 import com.mobgen.halo.android.content.annotations.HaloConstructor;
 import com.mobgen.halo.android.content.annotations.HaloField;
+import com.mobgen.halo.android.content.annotations.HaloIndex;
 import com.mobgen.halo.android.content.annotations.HaloQueries;
 import com.mobgen.halo.android.content.annotations.HaloQuery;
 import com.mobgen.halo.android.content.annotations.HaloSearchable;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
 import java.io.File;
@@ -19,10 +22,15 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
@@ -34,12 +42,15 @@ import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
 
 import static javax.lang.model.element.ElementKind.FIELD;
@@ -61,7 +72,11 @@ public class HaloContentDatabaseProcessor extends AbstractProcessor {
     private List<Integer> databaseVersion = new ArrayList<>();
     private List<Element> constructorElements =  new ArrayList<>();
     private List<Element> queriesElments = new ArrayList<>();
-    private HashMap<String, List<String>> indexableFields = new HashMap<>();
+    private HashMap<String, List<String[]>> indexableFields = new HashMap<>();
+    private HashMap<String, String> columnTypes = new HashMap<>();
+    private boolean queriesValidated = false;
+    private HashMap<String, String> indexNames = new HashMap<>();
+    private Set<String> uniqueIndexes = new HashSet<>();
 
     //CONSTANTS
     private String PACKAGE_GENERATED = "com.mobgen.halo.android.app.generated";
@@ -92,6 +107,7 @@ public class HaloContentDatabaseProcessor extends AbstractProcessor {
     private ClassName cursor2GeneratedModelClassConverterFactory = ClassName.get("com.mobgen.halo.android.content.generated","Cursor2GeneratedModelClassConverterFactory");
     private ClassName storageData = ClassName.get("com.mobgen.halo.android.framework.toolbox.data","Data");
     private ClassName checkResult = ClassName.get("android.support.annotation","CheckResult");
+    private ClassName generatedModelMapper = ClassName.get("com.mobgen.halo.android.content.generated","GeneratedModelMapper");
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -130,17 +146,34 @@ public class HaloContentDatabaseProcessor extends AbstractProcessor {
         //add all constructor to dabase
         for (Element constructor : roundEnvironment.getElementsAnnotatedWith(HaloConstructor.class)) {
             constructorElements.add(constructor);
+            generateCursorMapper(constructor);
         }
         //add all annotated query elements
         int haloConstructorIndex = 0;
         for (Element element : roundEnvironment.getElementsAnnotatedWith(HaloSearchable.class)) {
             String haloTableName = generateHaloSearchableClass(element,constructorElements.get(haloConstructorIndex));
             databaseTables.add(haloTableName);
-            //get index fields
-            List<String> indexFields = new ArrayList<>();
+            //get index fields and the composite indexes
+            List<String[]> indexFields = new ArrayList<>();
             for(Element encloseElements : element.getEnclosedElements()){
-                if(encloseElements.getAnnotation(HaloField.class)!=null && encloseElements.getAnnotation(HaloField.class).index()) {
-                    indexFields.add(encloseElements.getAnnotation(HaloField.class).columnName());
+                HaloField haloField = encloseElements.getAnnotation(HaloField.class);
+                if(haloField!=null) {
+                    columnTypes.put(columnKey(haloTableName, haloField.columnName()), resolveSimpleTypeName(encloseElements.asType()));
+                    if(haloField.index()) {
+                        //field indexes keep being unique as in previous versions
+                        indexFields.add(new String[]{haloField.columnName()});
+                        uniqueIndexes.add(columnKey(haloTableName, haloField.columnName()));
+                    }
+                }
+            }
+            for(HaloIndex haloIndex : element.getAnnotation(HaloSearchable.class).indexes()){
+                if(haloIndex.columnNames().length > 0) {
+                    indexFields.add(haloIndex.columnNames());
+                    if(!haloIndex.name().isEmpty()) {
+                        indexNames.put(columnKey(haloTableName, Arrays.toString(haloIndex.columnNames())), haloIndex.name());
+                    }
+                } else {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "The index " + haloIndex.name() + " has no columns.", element);
                 }
             }
             indexableFields.put(haloTableName,indexFields);
@@ -149,6 +182,10 @@ public class HaloContentDatabaseProcessor extends AbstractProcessor {
         }
         //generate version table and database generated model creation
         if(databaseTables.size()>0) {
+            if(!queriesValidated) {
+                validateQueriesUseIndexes();
+                queriesValidated = true;
+            }
             generateHaloContentVersionTable();
             generateDatabaseMigration(roundEnvironment,1);
         }
@@ -283,6 +320,113 @@ public class HaloContentDatabaseProcessor extends AbstractProcessor {
         return element.getAnnotation(HaloSearchable.class).tableName();
     }
 
+    /**
+     * Create a cursor mapper per model annotated with HaloConstructor, so the rows are read with the
+     * typed getters of the constructor parameters instead of using reflection.
+     * @param constructorElement Constructor model annotation with column names.
+     */
+    private void generateCursorMapper(Element constructorElement){
+        ExecutableElement constructor = (ExecutableElement) constructorElement;
+        TypeElement model = (TypeElement) constructor.getEnclosingElement();
+        String[] columnNames = constructor.getAnnotation(HaloConstructor.class).columnNames();
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        if(columnNames.length != parameters.size()){
+            messager.printMessage(Diagnostic.Kind.WARNING, "The column names do not match the constructor parameters, the missing ones are read as null.", constructorElement);
+        }
+        String className = "HaloMapper$$" + elementUtils.getBinaryName(model).toString().replace('.', '_');
+        ClassName modelClass = ClassName.get(model);
+
+        CodeBlock.Builder columnsBlock = CodeBlock.builder().add("new $T[]{", String.class);
+        CodeBlock.Builder readersBlock = CodeBlock.builder();
+        for(int i=0;i<parameters.size();i++){
+            String separator = i == 0 ? "" : ", ";
+            if(i < columnNames.length){
+                columnsBlock.add("$L$S", separator, columnNames[i]);
+            } else {
+                columnsBlock.add("$L$S", separator, "");
+            }
+            readersBlock.add(separator).add(resolveCursorReader(parameters.get(i).asType(), i));
+        }
+        columnsBlock.add("}");
+
+        MethodSpec constructorMethod = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("super($L)", columnsBlock.build())
+                .build();
+
+        MethodSpec mapMethod = MethodSpec.methodBuilder("map")
+                .addAnnotation(Override.class)
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                .addModifiers(Modifier.PROTECTED)
+                .returns(modelClass)
+                .addParameter(cursor, "cursor")
+                .addParameter(int[].class, "columns")
+                .addStatement("return new $T($L)", modelClass, readersBlock.build())
+                .build();
+
+        TypeSpec mapperClass = TypeSpec.classBuilder(className)
+                .addJavadoc("This class was autogenerated to map the rows of a cursor to $T.\n", modelClass)
+                .addAnnotation(keepClass)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(generatedModelMapper, modelClass))
+                .addMethod(constructorMethod)
+                .addMethod(mapMethod)
+                .build();
+        generatedJavaFile(className, mapperClass);
+    }
+
+    /**
+     * Get the typed reader of a constructor parameter
+     * @param typeMirror The type of the parameter.
+     * @param index The index of the parameter.
+     * @return The code that reads the parameter from the cursor.
+     */
+    private CodeBlock resolveCursorReader(TypeMirror typeMirror, int index){
+        switch (typeMirror.getKind()){
+            case INT:
+                return CodeBlock.of("readIntValue(cursor, columns[$L])", index);
+            case SHORT:
+                return CodeBlock.of("(short) readIntValue(cursor, columns[$L])", index);
+            case BYTE:
+                return CodeBlock.of("(byte) readIntValue(cursor, columns[$L])", index);
+            case CHAR:
+                return CodeBlock.of("(char) readIntValue(cursor, columns[$L])", index);
+            case LONG:
+                return CodeBlock.of("readLongValue(cursor, columns[$L])", index);
+            case DOUBLE:
+                return CodeBlock.of("readDoubleValue(cursor, columns[$L])", index);
+            case FLOAT:
+                return CodeBlock.of("readFloatValue(cursor, columns[$L])", index);
+            case BOOLEAN:
+                return CodeBlock.of("readBooleanValue(cursor, columns[$L])", index);
+            default:
+                break;
+        }
+        String typeName = typeUtils.erasure(typeMirror).toString();
+        if(typeName.equals(String.class.getName())){
+            return CodeBlock.of("readString(cursor, columns[$L])", index);
+        } else if(typeName.equals(Integer.class.getName())){
+            return CodeBlock.of("readInteger(cursor, columns[$L])", index);
+        } else if(typeName.equals(Long.class.getName())){
+            return CodeBlock.of("readLong(cursor, columns[$L])", index);
+        } else if(typeName.equals(Double.class.getName())){
+            return CodeBlock.of("readDouble(cursor, columns[$L])", index);
+        } else if(typeName.equals(Float.class.getName())){
+            return CodeBlock.of("readFloat(cursor, columns[$L])", index);
+        } else if(typeName.equals(Boolean.class.getName())){
+            return CodeBlock.of("readBoolean(cursor, columns[$L])", index);
+        } else if(typeName.equals(Date.class.getName())){
+            return CodeBlock.of("readDate(cursor, columns[$L])", index);
+        } else {
+            TypeName rawType = TypeName.get(typeUtils.erasure(typeMirror));
+            TypeName parameterType = TypeName.get(typeMirror);
+            if(rawType.equals(parameterType)){
+                return CodeBlock.of("readObject(cursor, columns[$L], $T.class)", index, rawType);
+            }
+            return CodeBlock.of("($T) readObject(cursor, columns[$L], $T.class)", parameterType, index, rawType);
+        }
+    }
+
     /**
      * Generates a shared table to store the versions of the content tables
      * @return The name of the database table.
@@ -399,10 +543,16 @@ public class HaloContentDatabaseProcessor extends AbstractProcessor {
             //insert shared table statement
             updateDatabaseBuilder.addCode("$1T.table($2L.class).on(database, \"Creates the $2L table from codegen\");\n",createQuery,classNameTable);
             //set index
-            List<String> indexFields = indexableFields.get(databaseTables.get(i));
+            List<String[]> indexFields = indexableFields.get(databaseTables.get(i));
             for(int j=0;j<indexFields.size();j++) {
-                String indexName = indexFields.get(j) + "index";
-                updateDatabaseBuilder.addCode("$1T.index($2L.class,$3S,new String[]{$4S}).on(database, \"Creates index into the $2L table from codegen\");\n",createQuery,classNameTable,indexName, indexFields.get(j));
+                String[] indexColumns = indexFields.get(j);
+                String indexName = indexColumns.length == 1 ? indexColumns[0] + "index" : resolveIndexName(databaseTables.get(i), indexColumns);
+                CodeBlock.Builder columnsBlock = CodeBlock.builder();
+                for(int k=0;k<indexColumns.length;k++){
+                    columnsBlock.add(k == 0 ? "$S" : ", $S", indexColumns[k]);
+                }
+                boolean unique = indexColumns.length == 1 && uniqueIndexes.contains(columnKey(databaseTables.get(i), indexColumns[0]));
+                updateDatabaseBuilder.addCode("$1T.index($2L.class,$3S,new String[]{$4L},$5L).on(database, \"Creates index into the $2L table from codegen\");\n",createQuery,classNameTable,indexName, columnsBlock.build(), unique);
             }
             updateDatabaseBuilder.addCode("$1T now$2L = new $1T();\n",dateClass,index);
             updateDatabaseBuilder.addCode("$1T values$2L = new $1T();\n" +
@@ -531,8 +681,128 @@ public class HaloContentDatabaseProcessor extends AbstractProcessor {
             return Date.class;
         } else if(type.equals("Boolean")){
             return Boolean.class;
+        } else if(type.equals("Long")){
+            return Long.class;
+        } else if(type.equals("Double")){
+            return Double.class;
+        } else if(type.equals("Float")){
+            return Float.class;
         }else {
             return Object.class;
         }
     }
+
+    /**
+     * Warns about the select queries that filter a generated table by columns that are not the leading
+     * column of any index, or that compare a column with a bind argument of a different storage class,
+     * because sqlite scans the whole table in both cases.
+     */
+    private void validateQueriesUseIndexes(){
+        Pattern fromPattern = Pattern.compile("\\bFROM\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+        Pattern comparePattern = Pattern.compile("(\\w+)\\s*(?:==|=|<=|>=|<>|!=|<|>|\\bIN\\b|\\bLIKE\\b|\\bBETWEEN\\b|\\bIS\\b)\\s*\\(?\\s*@\\{\\w+:(\\w+)\\}", Pattern.CASE_INSENSITIVE);
+        for(Element queriesElement : queriesElments) {
+            for (HaloQuery haloQuery : queriesElement.getAnnotation(HaloQueries.class).queries()) {
+                String query = haloQuery.query().trim();
+                Matcher fromMatcher = fromPattern.matcher(query);
+                if (!query.toUpperCase(Locale.US).startsWith("SELECT") || !fromMatcher.find()) {
+                    continue;
+                }
+                String tableName = resolveTableName(fromMatcher.group(1));
+                int whereIndex = query.toUpperCase(Locale.US).indexOf(" WHERE ");
+                if (tableName == null || whereIndex == -1) {
+                    continue;
+                }
+                List<String> filteredColumns = new ArrayList<>();
+                Matcher compareMatcher = comparePattern.matcher(query.substring(whereIndex));
+                while (compareMatcher.find()) {
+                    String column = compareMatcher.group(1);
+                    filteredColumns.add(column.toLowerCase(Locale.US));
+                    String columnType = columnTypes.get(columnKey(tableName, column));
+                    if (columnType != null && !resolveStorageClass(columnType).equals(resolveStorageClass(compareMatcher.group(2)))) {
+                        messager.printMessage(Diagnostic.Kind.WARNING, "The query " + haloQuery.name() + " compares the column " + column + " of type " + columnType
+                                + " with an argument of type " + compareMatcher.group(2) + ", so it can not use an index.", queriesElement);
+                    }
+                }
+                if (filteredColumns.isEmpty()) {
+                    continue;
+                }
+                boolean indexed = false;
+                for (String[] indexColumns : indexableFields.get(tableName)) {
+                    indexed |= filteredColumns.contains(indexColumns[0].toLowerCase(Locale.US));
+                }
+                if (!indexed) {
+                    messager.printMessage(Diagnostic.Kind.WARNING, "The query " + haloQuery.name() + " filters " + tableName + " by " + filteredColumns
+                            + " but no index starts with any of them, so it scans the whole table. Use @HaloField(index = true) or @HaloIndex.", queriesElement);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the generated table name ignoring the case
+     * @param name The name in the query.
+     * @return The table name or null if it is not a generated table.
+     */
+    private String resolveTableName(String name){
+        for(String tableName : databaseTables){
+            if(tableName.equalsIgnoreCase(name)){
+                return tableName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the name of a composite index
+     * @param tableName The table name.
+     * @param columns The columns of the index.
+     * @return The name given in the annotation or one made with the table and the columns.
+     */
+    private String resolveIndexName(String tableName, String[] columns){
+        String name = indexNames.get(columnKey(tableName, Arrays.toString(columns)));
+        if(name != null){
+            return name;
+        }
+        StringBuilder builder = new StringBuilder(tableName);
+        for(String column : columns){
+            builder.append("_").append(column);
+        }
+        return builder.append("index").toString();
+    }
+
+    /**
+     * Get the key of a column of a table
+     * @param tableName The table name.
+     * @param column The column.
+     * @return The key.
+     */
+    private String columnKey(String tableName, String column){
+        return (tableName + "." + column).toLowerCase(Locale.US);
+    }
+
+    /**
+     * Get the simple name of a type, boxing the primitives
+     * @param typeMirror The type.
+     * @return The simple name.
+     */
+    private String resolveSimpleTypeName(TypeMirror typeMirror){
+        if(typeMirror.getKind().isPrimitive()){
+            return typeUtils.boxedClass((PrimitiveType) typeMirror).getSimpleName().toString();
+        }
+        Element element = typeUtils.asElement(typeMirror);
+        return element != null ? element.getSimpleName().toString() : typeMirror.toString();
+    }
+
+    /**
+     * Get how sqlite stores a value of the given type when it is bound. Booleans are bound as text.
+     * @param type The simple name of the type.
+     * @return NUMERIC or TEXT.
+     */
+    private String resolveStorageClass(String type){
+        if(type.equals("Integer") || type.equals("Long") || type.equals("Short") || type.equals("Byte")
+                || type.equals("Double") || type.equals("Float") || type.equals("Date")){
+            return "NUMERIC";
+        }
+        return "TEXT";
+    }
 }
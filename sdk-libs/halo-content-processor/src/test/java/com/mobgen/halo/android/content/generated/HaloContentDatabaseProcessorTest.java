@@ -0,0 +1,145 @@
+package com.mobgen.halo.android.content.generated;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class HaloContentDatabaseProcessorTest {
+
+    private File mOutput;
+
+    @Before
+    public void initialize() throws IOException {
+        mOutput = Files.createTempDirectory("processor").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(mOutput);
+    }
+
+    @Test
+    public void thatWarnsWhenAQueryFiltersByAColumnWithoutIndex() {
+        List<String> warnings = givenTheWarningsOf("",
+                "SELECT * FROM Note WHERE title = @{title:String}");
+
+        assertThat(warnings).hasSize(1);
+        assertThat(warnings.get(0)).contains("byQuery").contains("no index starts with");
+    }
+
+    @Test
+    public void thatDoesNotWarnWhenAQueryFiltersByAnIndexedColumn() {
+        List<String> warnings = givenTheWarningsOf("",
+                "SELECT * FROM Note WHERE noteId = @{noteId:Integer} AND title = @{title:String}");
+
+        assertThat(warnings).isEmpty();
+    }
+
+    @Test
+    public void thatDoesNotWarnWhenACompositeIndexStartsWithTheColumn() {
+        List<String> warnings = givenTheWarningsOf(", indexes = {@HaloIndex(columnNames = {\"title\", \"noteId\"})}",
+                "SELECT * FROM Note WHERE title = @{title:String}");
+
+        assertThat(warnings).isEmpty();
+    }
+
+    @Test
+    public void thatWarnsWhenAColumnIsComparedWithAnotherStorageClass() {
+        List<String> warnings = givenTheWarningsOf("",
+                "SELECT * FROM Note WHERE noteId = @{noteId:String}");
+
+        assertThat(warnings).hasSize(1);
+        assertThat(warnings.get(0)).contains("compares the column noteId of type Integer");
+    }
+
+    @Test
+    public void thatTheFieldIndexesAreUniqueAndTheCompositeOnesAreNot() throws IOException {
+        givenTheWarningsOf(", indexes = {@HaloIndex(name = \"titleindex\", columnNames = {\"title\", \"noteId\"})}",
+                "SELECT * FROM Note WHERE title = @{title:String}");
+
+        String migration = new String(Files.readAllBytes(new File(mOutput, "com/mobgen/halo/android/app/generated/GeneratedDatabaseFromModel.java").toPath()), Charset.forName("UTF-8"));
+        assertThat(migration).contains("\"noteIdindex\",new String[]{\"noteId\"},true)");
+        assertThat(migration).contains("\"titleindex\",new String[]{\"title\", \"noteId\"},false)");
+    }
+
+    private List<String> givenTheWarningsOf(String indexes, String query) {
+        String source = "package com.mobgen.halo.test;\n" +
+                "import com.mobgen.halo.android.content.annotations.*;\n" +
+                "@HaloSearchable(version = 1, tableName = \"Note\"" + indexes + ")\n" +
+                "@HaloQueries(queries = {@HaloQuery(name = \"byQuery\", query = \"" + query + "\")})\n" +
+                "public class Note {\n" +
+                "    @HaloField(index = true, columnName = \"noteId\")\n" +
+                "    Integer mNoteId;\n" +
+                "    @HaloField(columnName = \"title\")\n" +
+                "    String mTitle;\n" +
+                "    @HaloConstructor(columnNames = {\"noteId\", \"title\"})\n" +
+                "    public Note(Integer noteId, String title) {\n" +
+                "        mNoteId = noteId;\n" +
+                "        mTitle = title;\n" +
+                "    }\n" +
+                "}\n";
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = Arrays.asList("-proc:only",
+                "-classpath", System.getProperty("java.class.path"),
+                "-s", mOutput.getPath(),
+                "-d", mOutput.getPath());
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null,
+                Collections.singletonList(new SourceFile("com/mobgen/halo/test/Note", source)));
+        task.setProcessors(Collections.singletonList(new HaloContentDatabaseProcessor()));
+        task.call();
+
+        List<String> warnings = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.WARNING && diagnostic.getMessage(Locale.US).startsWith("The query")) {
+                warnings.add(diagnostic.getMessage(Locale.US));
+            }
+        }
+        return warnings;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String mSource;
+
+        private SourceFile(String name, String source) {
+            super(URI.create("string:///" + name + Kind.SOURCE.extension), Kind.SOURCE);
+            mSource = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return mSource;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.mobgen.halo.android.content.search.SearchInteractor;
 import com.mobgen.halo.android.content.selectors.HaloContentSelectorFactory;
 import com.mobgen.halo.android.content.spec.HaloContentContract;
 import com.mobgen.halo.android.content.spec.HaloContentMigration2$0$0;
+import com.mobgen.halo.android.content.spec.HaloContentMigration2$4$0;
 import com.mobgen.halo.android.content.sync.ContentSyncLocalDatasource;
 import com.mobgen.halo.android.content.sync.ContentSyncRemoteDatasource;
 import com.mobgen.halo.android.content.sync.ContentSyncRepository;
@@ -35,9 +36,12 @@ import com.mobgen.halo.android.content.sync.SyncModuleSchedule;
 import com.mobgen.halo.android.framework.api.HaloStorageApi;
 import com.mobgen.halo.android.framework.api.StorageConfig;
 import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
+import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
 import com.mobgen.halo.android.framework.common.helpers.subscription.ISubscription;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
 import com.mobgen.halo.android.framework.storage.database.HaloDatabaseErrorHandler;
+import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageGeneralException;
 import com.mobgen.halo.android.framework.toolbox.bus.Event;
 import com.mobgen.halo.android.framework.toolbox.bus.EventId;
 import com.mobgen.halo.android.framework.toolbox.bus.Subscriber;
@@ -206,6 +210,19 @@ public class HaloContentApi extends HaloPluginApi {
         SyncQuery.create("myModuleId", Threading.POOL_QUEUE_POLICY);
     }
 
+    /**
+     * Provides the default locale of this api.
+     *
+     * @return The locale or null if there is no default locale.
+     */
+    @Api(2.4)
+    @Keep
+    @Nullable
+    @HaloLocale.LocaleDefinition
+    public String getLocale() {
+        return mLocale;
+    }
+
     /**
      * Creates the internal search repository.
      *
@@ -343,7 +360,8 @@ public class HaloContentApi extends HaloPluginApi {
                 .databaseVersion(HaloContentContract.CURRENT_VERSION)
                 .errorHandler(new HaloDatabaseErrorHandler())
                 .addMigrations(
-                        new HaloContentMigration2$0$0())
+                        new HaloContentMigration2$0$0(),
+                        new HaloContentMigration2$4$0())
                 .build()
         );
     }
@@ -409,7 +427,24 @@ public class HaloContentApi extends HaloPluginApi {
                     }
                 },
                 mode,
-                "search");
+                "search")
+                .revalidationKey(mode == Data.STALE_WHILE_REVALIDATE ? revalidationKey(query) : null);
+    }
+
+    /**
+     * Provides the key that identifies a search to track its revalidations.
+     *
+     * @param query The query.
+     * @return The key or null if it cannot be created.
+     */
+    @Nullable
+    private String revalidationKey(@NonNull SearchQuery query) {
+        try {
+            return query.createHash(halo().framework().parser());
+        } catch (HaloStorageGeneralException | HaloParsingException e) {
+            Halog.w(getClass(), "The search cannot be tracked for revalidation, it will be revalidated always.");
+            return null;
+        }
     }
 
 
@@ -11,11 +11,14 @@ import com.mobgen.halo.android.content.edition.batch.BatchInteractor;
 import com.mobgen.halo.android.content.edition.batch.BatchLocalDataSource;
 import com.mobgen.halo.android.content.edition.batch.BatchRemoteDataSource;
 import com.mobgen.halo.android.content.edition.batch.BatchRepository;
+import com.mobgen.halo.android.content.edition.batch.BatchSyncCoalescer;
 import com.mobgen.halo.android.content.edition.batch.BatchBundleizeHelper;
 import com.mobgen.halo.android.content.models.BatchOperations;
 import com.mobgen.halo.android.content.models.BatchOperationResults;
 import com.mobgen.halo.android.content.models.HaloContentInstance;
 import com.mobgen.halo.android.content.spec.HaloContentContract;
+import com.mobgen.halo.android.content.sync.ContentSyncLocalDatasource;
+import com.mobgen.halo.android.framework.api.HaloStorageApi;
 import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.common.helpers.builder.IBuilder;
 import com.mobgen.halo.android.framework.common.helpers.subscription.ISubscription;
@@ -29,6 +32,8 @@ import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.api.HaloPluginApi;
 import com.mobgen.halo.android.sdk.core.threading.HaloInteractorExecutor;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * The edit content api allows you to add, modify or delete general content from the Android SDK.
  */
@@ -43,6 +48,11 @@ public class HaloContentEditApi extends HaloPluginApi {
     @Api(2.3)
     public static final String BATCH_FINISHED_EVENT = ":halo:event:batch_finished:";
 
+    /**
+     * Coalesces the syncs requested after the batches of this api.
+     */
+    private final BatchSyncCoalescer mSyncCoalescer;
+
     /**
      * Constructor that accepts halo.
      *
@@ -50,6 +60,7 @@ public class HaloContentEditApi extends HaloPluginApi {
      */
     private HaloContentEditApi(@NonNull Halo halo) {
         super(halo);
+        mSyncCoalescer = new BatchSyncCoalescer(HaloContentApi.with(halo));
     }
 
     /**
@@ -136,12 +147,37 @@ public class HaloContentEditApi extends HaloPluginApi {
     @NonNull
     @CheckResult(suggest = "You may want to call execute() to run the task")
     public HaloInteractorExecutor<BatchOperationResults> batch(@NonNull BatchOperations batchOperations, boolean syncResults) {
+        return batch(batchOperations, syncResults, BatchRepository.DEFAULT_SYNC_DEBOUNCE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Advanced batch operations to create, delete or update content. The results are applied on the
+     * modules already synced, and the syncs of the rest of modules requested during the debounce window
+     * are coalesced by module and locale.
+     *
+     * @param batchOperations The batch operations to perfom.
+     * @param syncResults     Flag to perfom sync after batch.
+     * @param syncDebounce    The debounce window for the syncs.
+     * @param unit            The unit of the debounce window.
+     * @return HaloInteractorExecutor
+     */
+    @Api(2.4)
+    @Keep
+    @NonNull
+    @CheckResult(suggest = "You may want to call execute() to run the task")
+    public HaloInteractorExecutor<BatchOperationResults> batch(@NonNull BatchOperations batchOperations, boolean syncResults, long syncDebounce, @NonNull TimeUnit unit) {
         AssertionUtils.notNull(batchOperations, "batchOperations");
+        AssertionUtils.notNull(unit, "unit");
+        HaloStorageApi storage = halo().framework().storage(HaloContentContract.HALO_CONTENT_STORAGE);
         return new HaloInteractorExecutor<>(halo(),
                 "Batch content manipulation operations",
                 new BatchInteractor(new BatchRepository(HaloContentApi.with(halo()), new
                         BatchRemoteDataSource(halo().framework().network()),
-                        new BatchLocalDataSource(halo().framework().storage(HaloContentContract.HALO_CONTENT_STORAGE)), syncResults),
+                        new BatchLocalDataSource(storage),
+                        new ContentSyncLocalDatasource(storage),
+                        mSyncCoalescer,
+                        syncResults,
+                        unit.toMillis(syncDebounce)),
                         batchOperations)
         );
     }
@@ -0,0 +1,456 @@
+package com.mobgen.halo.android.content.edition.batch;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.content.models.BatchOperations;
+import com.mobgen.halo.android.content.models.BatchOperator;
+import com.mobgen.halo.android.content.models.HaloContentInstance;
+import com.mobgen.halo.android.content.spec.HaloContentContract.BatchOutboxOperation;
+import com.mobgen.halo.android.framework.api.HaloStorageApi;
+import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
+import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
+import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.storage.database.HaloDataLite;
+import com.mobgen.halo.android.framework.storage.database.dsl.ORMUtils;
+import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageException;
+import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageGeneralException;
+import com.mobgen.halo.android.sdk.api.Halo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mobgen.halo.android.content.models.BatchOperator.CREATE;
+import static com.mobgen.halo.android.content.models.BatchOperator.CREATEORUPDATE;
+import static com.mobgen.halo.android.content.models.BatchOperator.DELETE;
+import static com.mobgen.halo.android.content.models.BatchOperator.TRUNCATE;
+import static com.mobgen.halo.android.content.models.BatchOperator.UPDATE;
+
+/**
+ * Durable outbox of the batch operations that could not be sent. The operations are sent in
+ * chunks in the order they were requested, and every chunk is removed only once the server
+ * acknowledges it. An operation that was never sent is replaced by the next operation on the
+ * same instance when it supersedes it, so an update followed by a delete only sends the delete.
+ */
+public class BatchOutbox {
+
+    /**
+     * The wait after the first failed attempt, doubled on every attempt.
+     */
+    static final long BASE_BACKOFF = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * The maximum wait between attempts.
+     */
+    static final long MAX_BACKOFF = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * The operation returned when two operations cancel each other.
+     */
+    private static final String CANCELLED = "";
+
+    /**
+     * The name of the table.
+     */
+    private static final String TABLE = ORMUtils.getTableName(BatchOutboxOperation.class);
+
+    /**
+     * The storage api.
+     */
+    private HaloStorageApi mStorage;
+
+    /**
+     * Constructor for the outbox.
+     *
+     * @param storageApi The storage api.
+     */
+    public BatchOutbox(@NonNull HaloStorageApi storageApi) {
+        AssertionUtils.notNull(storageApi, "storageApi");
+        mStorage = storageApi;
+    }
+
+    /**
+     * Adds the operations at the end of the outbox, replacing the pending operations they supersede.
+     *
+     * @param batchOperations The operations.
+     * @throws HaloStorageGeneralException Error storing the operations.
+     */
+    public void enqueue(@NonNull BatchOperations batchOperations) throws HaloStorageGeneralException {
+        AssertionUtils.notNull(batchOperations, "batchOperations");
+        final List<ContentValues> entries = new ArrayList<>();
+        try {
+            addEntries(entries, batchOperations.getTruncate(), TRUNCATE);
+            addEntries(entries, batchOperations.getCreated(), CREATE);
+            addEntries(entries, batchOperations.getCreatedOrUpdated(), CREATEORUPDATE);
+            addEntries(entries, batchOperations.getUpdated(), UPDATE);
+            addEntries(entries, batchOperations.getDeleted(), DELETE);
+        } catch (HaloParsingException e) {
+            throw new HaloStorageGeneralException("The batch operations could not be serialized.", e);
+        }
+        mStorage.db().transaction(new HaloDataLite.HaloDataLiteTransaction() {
+            @Override
+            public void onTransaction(@NonNull SQLiteDatabase database) throws HaloStorageException {
+                for (ContentValues entry : entries) {
+                    enqueue(database, entry);
+                }
+            }
+        });
+    }
+
+    /**
+     * Takes the oldest operations of the outbox. The chunk is counted as an attempt unless it has to
+     * wait for its backoff, which is told by {@link Chunk#getWaitTime()}. Its operations are not
+     * replaced by new ones unless it is released with {@link #release(Chunk)}.
+     *
+     * @param limit The maximum number of operations.
+     * @param now   The current time.
+     * @return The chunk or null if the outbox is empty.
+     * @throws HaloStorageGeneralException Error reading the outbox.
+     */
+    @Nullable
+    public Chunk takeChunk(final int limit, final long now) throws HaloStorageGeneralException {
+        final Chunk[] chunk = {null};
+        mStorage.db().transaction(new HaloDataLite.HaloDataLiteTransaction() {
+            @Override
+            public void onTransaction(@NonNull SQLiteDatabase database) throws HaloStorageException {
+                chunk[0] = readChunk(database, limit, now);
+                if (chunk[0] != null && chunk[0].getWaitTime() == 0) {
+                    database.execSQL("UPDATE " + TABLE + " SET " + BatchOutboxOperation.ATTEMPTS + " = " + BatchOutboxOperation.ATTEMPTS + " + 1" +
+                            " WHERE " + BatchOutboxOperation.ID + " <= ?", new Object[]{chunk[0].mLastId});
+                    chunk[0].mAttempts++;
+                }
+            }
+        });
+        return chunk[0];
+    }
+
+    /**
+     * Removes the chunk once the server has acknowledged it.
+     *
+     * @param chunk The chunk.
+     */
+    public void acknowledge(@NonNull Chunk chunk) {
+        AssertionUtils.notNull(chunk, "chunk");
+        mStorage.db().getDatabase().delete(TABLE, BatchOutboxOperation.ID + " <= ?", new String[]{String.valueOf(chunk.mLastId)});
+    }
+
+    /**
+     * Gives back a chunk that did not reach the server, so the attempt is not counted and its
+     * operations can be replaced again by the next ones.
+     *
+     * @param chunk The chunk.
+     */
+    public void release(@NonNull Chunk chunk) {
+        AssertionUtils.notNull(chunk, "chunk");
+        mStorage.db().getDatabase().execSQL("UPDATE " + TABLE + " SET " + BatchOutboxOperation.ATTEMPTS + " = " + BatchOutboxOperation.ATTEMPTS + " - 1" +
+                " WHERE " + BatchOutboxOperation.ID + " <= ? AND " + BatchOutboxOperation.ATTEMPTS + " > 0", new Object[]{chunk.mLastId});
+        chunk.mAttempts = Math.max(chunk.mAttempts - 1, 0);
+    }
+
+    /**
+     * Delays the next attempt of a failed chunk.
+     *
+     * @param chunk The chunk.
+     * @param now   The current time.
+     * @return The time to wait before sending it again.
+     */
+    public long backoff(@NonNull Chunk chunk, long now) {
+        AssertionUtils.notNull(chunk, "chunk");
+        long delay = backoffDelay(chunk.mAttempts);
+        ContentValues values = new ContentValues();
+        values.put(BatchOutboxOperation.NEXT_ATTEMPT, now + delay);
+        mStorage.db().getDatabase().update(TABLE, values, BatchOutboxOperation.ID + " <= ?", new String[]{String.valueOf(chunk.mLastId)});
+        return delay;
+    }
+
+    /**
+     * Provides all the operations of the outbox.
+     *
+     * @return The operations.
+     * @throws HaloStorageGeneralException Error reading the outbox.
+     */
+    @NonNull
+    public BatchOperations getAll() throws HaloStorageGeneralException {
+        final Chunk[] chunk = {null};
+        mStorage.db().transaction(new HaloDataLite.HaloDataLiteTransaction() {
+            @Override
+            public void onTransaction(@NonNull SQLiteDatabase database) throws HaloStorageException {
+                chunk[0] = readChunk(database, Integer.MAX_VALUE, 0);
+            }
+        });
+        return chunk[0] != null ? chunk[0].getOperations() : BatchOperations.builder().build();
+    }
+
+    /**
+     * Removes the operations of the given instances.
+     *
+     * @param instances The instances.
+     * @return The number of operations removed.
+     * @throws HaloStorageGeneralException Error removing the operations.
+     */
+    public int remove(@NonNull HaloContentInstance... instances) throws HaloStorageGeneralException {
+        AssertionUtils.notNull(instances, "instances");
+        SQLiteDatabase database = mStorage.db().getDatabase();
+        int removed = 0;
+        for (HaloContentInstance instance : instances) {
+            try {
+                removed += database.delete(TABLE, BatchOutboxOperation.CONTENT_INSTANCE + " = ?",
+                        new String[]{HaloContentInstance.serialize(instance, Halo.instance().framework().parser())});
+            } catch (HaloParsingException e) {
+                throw new HaloStorageGeneralException("The instance could not be serialized.", e);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all the operations.
+     */
+    public void clear() {
+        mStorage.db().getDatabase().delete(TABLE, null, null);
+    }
+
+    /**
+     * Provides the number of operations in the outbox.
+     *
+     * @return The number of operations.
+     */
+    public long count() {
+        return DatabaseUtils.queryNumEntries(mStorage.db().getDatabase(), TABLE);
+    }
+
+    /**
+     * Provides the wait before the next attempt, that doubles with every attempt.
+     *
+     * @param attempts The attempts done.
+     * @return The wait in milliseconds.
+     */
+    static long backoffDelay(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 16);
+        return Math.min(BASE_BACKOFF << exponent, MAX_BACKOFF);
+    }
+
+    /**
+     * Provides the operation that replaces a pending operation followed by another one on the
+     * same instance.
+     *
+     * @param previous The pending operation.
+     * @param next     The new operation.
+     * @return The operation that replaces both, {@link #CANCELLED} if none has to be sent or null
+     * if both have to be sent.
+     */
+    @Nullable
+    static String supersede(@NonNull @BatchOperator.BatchOperation String previous, @NonNull @BatchOperator.BatchOperation String next) {
+        if (DELETE.equals(next)) {
+            return CREATE.equals(previous) ? CANCELLED : DELETE;
+        }
+        if (DELETE.equals(previous) || CREATE.equals(next)) {
+            return null;
+        }
+        if (CREATE.equals(previous)) {
+            return CREATE;
+        }
+        if (UPDATE.equals(next)) {
+            return previous;
+        }
+        return CREATEORUPDATE;
+    }
+
+    /**
+     * Serializes the operations into entries of the outbox.
+     *
+     * @param entries   The entries.
+     * @param instances The instances of the operation.
+     * @param operation The operation.
+     * @throws HaloParsingException Error serializing the instances.
+     */
+    private static void addEntries(@NonNull List<ContentValues> entries, @Nullable List<HaloContentInstance> instances, @NonNull String operation) throws HaloParsingException {
+        if (instances == null) {
+            return;
+        }
+        for (HaloContentInstance instance : instances) {
+            ContentValues values = new ContentValues();
+            if (!TRUNCATE.equals(operation) && instance.getModuleName() != null && instance.getItemId() != null) {
+                values.put(BatchOutboxOperation.INSTANCE_KEY, instance.getModuleName() + "/" + instance.getItemId());
+            }
+            values.put(BatchOutboxOperation.OPERATION, operation);
+            values.put(BatchOutboxOperation.CONTENT_INSTANCE, HaloContentInstance.serialize(instance, Halo.instance().framework().parser()));
+            values.put(BatchOutboxOperation.ATTEMPTS, 0);
+            values.put(BatchOutboxOperation.NEXT_ATTEMPT, 0);
+            entries.add(values);
+        }
+    }
+
+    /**
+     * Adds an entry to the outbox. If a pending operation that was never sent is superseded by the new
+     * one, it is removed and the result is added at the end.
+     *
+     * @param database The database.
+     * @param entry    The entry.
+     */
+    private static void enqueue(@NonNull SQLiteDatabase database, @NonNull ContentValues entry) {
+        String key = entry.getAsString(BatchOutboxOperation.INSTANCE_KEY);
+        if (key != null) {
+            Cursor cursor = database.query(TABLE, new String[]{BatchOutboxOperation.ID, BatchOutboxOperation.OPERATION},
+                    BatchOutboxOperation.INSTANCE_KEY + " = ? AND " + BatchOutboxOperation.ATTEMPTS + " = 0",
+                    new String[]{key}, null, null, BatchOutboxOperation.ID + " DESC", "1");
+            try {
+                if (cursor.moveToFirst()) {
+                    String operation = supersede(cursor.getString(1), entry.getAsString(BatchOutboxOperation.OPERATION));
+                    if (operation != null) {
+                        database.delete(TABLE, BatchOutboxOperation.ID + " = ?", new String[]{String.valueOf(cursor.getLong(0))});
+                        if (CANCELLED.equals(operation)) {
+                            return;
+                        }
+                        entry.put(BatchOutboxOperation.OPERATION, operation);
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        database.insertOrThrow(TABLE, null, entry);
+    }
+
+    /**
+     * Reads the oldest operations. The operations that cannot be parsed are discarded.
+     *
+     * @param database The database.
+     * @param limit    The maximum number of operations.
+     * @param now      The current time.
+     * @return The chunk or null if there are no operations.
+     */
+    @Nullable
+    private static Chunk readChunk(@NonNull SQLiteDatabase database, int limit, long now) {
+        Cursor cursor = database.query(TABLE,
+                new String[]{BatchOutboxOperation.ID, BatchOutboxOperation.OPERATION, BatchOutboxOperation.CONTENT_INSTANCE, BatchOutboxOperation.ATTEMPTS, BatchOutboxOperation.NEXT_ATTEMPT},
+                null, null, null, null, BatchOutboxOperation.ID, String.valueOf(limit));
+        try {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            Chunk chunk = new Chunk();
+            BatchOperations.Builder builder = BatchOperations.builder();
+            do {
+                chunk.mLastId = cursor.getLong(0);
+                chunk.mAttempts = Math.max(chunk.mAttempts, cursor.getInt(3));
+                chunk.mWaitTime = Math.max(chunk.mWaitTime, cursor.getLong(4) - now);
+                try {
+                    HaloContentInstance instance = HaloContentInstance.deserialize(cursor.getString(2), Halo.instance().framework().parser());
+                    addOperation(builder, cursor.getString(1), instance);
+                    chunk.mSize++;
+                } catch (HaloParsingException e) {
+                    Halog.e(BatchOutbox.class, "A batch operation could not be parsed, it is discarded.", e);
+                }
+            } while (cursor.moveToNext());
+            chunk.mOperations = builder.build();
+            return chunk;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Adds an operation to the builder.
+     *
+     * @param builder   The builder.
+     * @param operation The operation.
+     * @param instance  The instance.
+     */
+    private static void addOperation(@NonNull BatchOperations.Builder builder, @NonNull String operation, @NonNull HaloContentInstance instance) {
+        switch (operation) {
+            case TRUNCATE:
+                builder.truncate(instance);
+                break;
+            case CREATE:
+                builder.create(instance);
+                break;
+            case CREATEORUPDATE:
+                builder.createOrUpdate(instance);
+                break;
+            case UPDATE:
+                builder.update(instance);
+                break;
+            case DELETE:
+                builder.delete(instance);
+                break;
+            default:
+                Halog.w(BatchOutbox.class, "Unknown batch operation " + operation + ", it is discarded.");
+        }
+    }
+
+    /**
+     * The oldest operations of the outbox, sent in a single request.
+     */
+    public static final class Chunk {
+        /**
+         * The operations.
+         */
+        private BatchOperations mOperations;
+        /**
+         * The id of the last operation.
+         */
+        private long mLastId;
+        /**
+         * The number of operations.
+         */
+        private int mSize;
+        /**
+         * The times the chunk has been sent.
+         */
+        private int mAttempts;
+        /**
+         * The time to wait before sending the chunk.
+         */
+        private long mWaitTime;
+
+        /**
+         * Constructor for the chunk.
+         */
+        private Chunk() {
+            //Built by the outbox
+        }
+
+        /**
+         * Provides the operations of the chunk.
+         *
+         * @return The operations.
+         */
+        @NonNull
+        public BatchOperations getOperations() {
+            return mOperations;
+        }
+
+        /**
+         * Provides the number of operations.
+         *
+         * @return The number of operations.
+         */
+        public int size() {
+            return mSize;
+        }
+
+        /**
+         * Provides the times the chunk has been sent, including the current attempt.
+         *
+         * @return The attempts.
+         */
+        public int getAttempts() {
+            return mAttempts;
+        }
+
+        /**
+         * Provides the time to wait before sending the chunk. It is 0 when it can be sent.
+         *
+         * @return The time in milliseconds.
+         */
+        public long getWaitTime() {
+            return mWaitTime;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.mobgen.halo.android.content.edition.batch;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.content.HaloContentApi;
 import com.mobgen.halo.android.content.models.BatchErrorInfo;
@@ -10,12 +13,17 @@ import com.mobgen.halo.android.content.models.BatchOperationResults;
 import com.mobgen.halo.android.content.models.BatchOperations;
 import com.mobgen.halo.android.content.models.BatchOperator;
 import com.mobgen.halo.android.content.models.HaloContentInstance;
-import com.mobgen.halo.android.content.models.SyncQuery;
+import com.mobgen.halo.android.content.search.SearchResultCache;
+import com.mobgen.halo.android.content.sync.ContentSyncLocalDatasource;
 import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
+import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
 import com.mobgen.halo.android.framework.network.exceptions.HaloAuthenticationException;
 import com.mobgen.halo.android.framework.network.exceptions.HaloConnectionException;
 import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetParseException;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNotFoundException;
+import com.mobgen.halo.android.framework.network.exceptions.HaloServerException;
 import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageGeneralException;
 import com.mobgen.halo.android.framework.toolbox.bus.Event;
 import com.mobgen.halo.android.framework.toolbox.bus.EventId;
@@ -25,9 +33,16 @@ import com.mobgen.halo.android.framework.toolbox.scheduler.Job;
 import com.mobgen.halo.android.framework.toolbox.threading.Threading;
 import com.mobgen.halo.android.sdk.api.Halo;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.mobgen.halo.android.content.edition.HaloContentEditApi.BATCH_FINISHED_EVENT;
+import static com.mobgen.halo.android.content.models.BatchOperator.CREATE;
 import static com.mobgen.halo.android.content.models.BatchOperator.CREATEORUPDATE;
 import static com.mobgen.halo.android.content.models.BatchOperator.DELETE;
 import static com.mobgen.halo.android.content.models.BatchOperator.UPDATE;
@@ -44,6 +59,16 @@ public class BatchRepository {
      */
     private static final String JOB_NAME = "batchOperation";
 
+    /**
+     * The default debounce window for the syncs after the batch operations.
+     */
+    public static final long DEFAULT_SYNC_DEBOUNCE = TimeUnit.SECONDS.toMillis(2);
+
+    /**
+     * The maximum number of operations of the outbox sent in a single request.
+     */
+    static final int MAX_OPERATIONS_PER_REQUEST = 50;
+
     /**
      * Remote data source.
      */
@@ -59,11 +84,26 @@ public class BatchRepository {
      */
     private HaloContentApi mHaloContentApi;
 
+    /**
+     * The sync local data source to apply the results of the batch.
+     */
+    private ContentSyncLocalDatasource mSyncLocalDataSource;
+
     /**
      * Flag to force sync of module.
      */
     private boolean mSyncResults;
 
+    /**
+     * The debounce window in milliseconds for the syncs after the batch.
+     */
+    private long mSyncDebounce;
+
+    /**
+     * Coalesces the syncs requested after the batches.
+     */
+    private BatchSyncCoalescer mSyncCoalescer;
+
     /**
      * Constructor for the repository.
      *
@@ -76,13 +116,39 @@ public class BatchRepository {
                            @NonNull BatchRemoteDataSource batchRemoteDataSource,
                            @NonNull BatchLocalDataSource batchLocalDataSource,
                            boolean syncResults) {
+        this(haloContentApi, batchRemoteDataSource, batchLocalDataSource, null, new BatchSyncCoalescer(haloContentApi), syncResults, DEFAULT_SYNC_DEBOUNCE);
+    }
+
+    /**
+     * Constructor for the repository.
+     *
+     * @param batchRemoteDataSource The remote data source.
+     * @param haloContentApi        The halo content api.
+     * @param batchLocalDataSource  The local data source.
+     * @param syncLocalDataSource   The sync local data source to apply the results on the modules already
+     *                              synced instead of syncing them again. Null to always sync.
+     * @param syncCoalescer         The coalescer of the syncs, shared by the batches of the same edit api.
+     * @param syncResults           Flag to perfom sync after batch.
+     * @param syncDebounce          The debounce window in milliseconds to coalesce the syncs.
+     */
+    public BatchRepository(@NonNull HaloContentApi haloContentApi,
+                           @NonNull BatchRemoteDataSource batchRemoteDataSource,
+                           @NonNull BatchLocalDataSource batchLocalDataSource,
+                           @Nullable ContentSyncLocalDatasource syncLocalDataSource,
+                           @NonNull BatchSyncCoalescer syncCoalescer,
+                           boolean syncResults,
+                           long syncDebounce) {
         AssertionUtils.notNull(haloContentApi, "haloContentApi");
         AssertionUtils.notNull(batchRemoteDataSource, "batchRemoteDataSource");
         AssertionUtils.notNull(batchLocalDataSource, "batchLocalDataSource");
+        AssertionUtils.notNull(syncCoalescer, "syncCoalescer");
         mRemoteDatasource = batchRemoteDataSource;
         mLocalDataSource = batchLocalDataSource;
         mHaloContentApi = haloContentApi;
+        mSyncLocalDataSource = syncLocalDataSource;
         mSyncResults = syncResults;
+        mSyncDebounce = syncDebounce;
+        mSyncCoalescer = syncCoalescer;
     }
 
     /**
@@ -113,12 +179,7 @@ public class BatchRepository {
                 status.error(haloNetException);
                 mLocalDataSource.saveErrors(batchOperations);
                 //schedule a job to execute when network works again
-                Job.Builder job = Job.builder(new BatchSchedule(halo(), this))
-                        .persist(true)
-                        .thread(Threading.SINGLE_QUEUE_POLICY)
-                        .tag(JOB_NAME)
-                        .needsNetwork(Job.NETWORK_TYPE_ANY);
-                halo().framework().toolbox().schedule(job.build());
+                scheduleOutbox(0);
             } else {
                 status.error(haloNetException);
             }
@@ -137,12 +198,30 @@ public class BatchRepository {
     private void syncAndNofifyConflicts(@NonNull final BatchOperationResults batchOperationResults) {
         final BatchOperations.Builder conflictBuilder = BatchOperations.builder();
         List<BatchOperationResult> batchResult = batchOperationResults.getContentResult();
+        Map<String, List<HaloContentInstance>> upserts = new LinkedHashMap<>();
+        Map<String, List<HaloContentInstance>> deletions = new LinkedHashMap<>();
+        Set<String> writtenModules = new HashSet<>();
         for (int i = 0; i < batchResult.size(); i++) {
-            //sync every success module which contains the instance
+            //collect the modules written to invalidate their searches
+            if (batchResult.get(i).isSuccess() && batchResult.get(i).getData() != null) {
+                writtenModules.add(batchResult.get(i).getData().getModuleName());
+                writtenModules.add(batchResult.get(i).getData().getModuleId());
+            }
+            //collect the success instances of every module
             if (mSyncResults && !batchResult.get(i).getOperation().equals(TRUNCATE)) {
                 HaloContentInstance instance = batchResult.get(i).getData();
                 if (instance != null && instance.getModuleName() != null && batchResult.get(i).isSuccess()) {
-                    mHaloContentApi.sync(SyncQuery.create(instance.getModuleName(), Threading.POOL_QUEUE_POLICY), true);
+                    String moduleName = instance.getModuleName();
+                    if (!upserts.containsKey(moduleName)) {
+                        upserts.put(moduleName, new ArrayList<HaloContentInstance>());
+                        deletions.put(moduleName, new ArrayList<HaloContentInstance>());
+                    }
+                    String operation = batchResult.get(i).getOperation();
+                    if (operation.equals(DELETE)) {
+                        deletions.get(moduleName).add(instance);
+                    } else if (operation.equals(CREATE) || operation.equals(UPDATE) || operation.equals(CREATEORUPDATE)) {
+                        upserts.get(moduleName).add(instance);
+                    }
                 }
             }
             //look for conflict operations
@@ -162,6 +241,12 @@ public class BatchRepository {
                 conflictBuilder.createOrUpdate(batchResult.get(i).getDataError().getError().getExtraInstance());
             }
         }
+        if (!writtenModules.isEmpty()) {
+            SearchResultCache.instance().invalidateModules(writtenModules);
+        }
+        for (Map.Entry<String, List<HaloContentInstance>> module : upserts.entrySet()) {
+            syncModule(module.getKey(), module.getValue(), deletions.get(module.getKey()));
+        }
         //Notify the user the conflicts on delete, createorupdate or update operations
         BatchOperations conflictOperations = conflictBuilder.build();
         if (conflictOperations.getDeleted() != null || conflictOperations.getUpdated() != null
@@ -172,50 +257,136 @@ public class BatchRepository {
     }
 
     /**
-     * Get all pending batch operations from local data source.
+     * Applies the results of the batch on a module already synced, since the instances returned are the
+     * ones stored on the server. Otherwise a sync of the module is coalesced with the ones requested by
+     * other batches. The instances returned are not localized, so they are only applied on modules synced
+     * without locale.
      *
-     * @return The pending batch operations to perfom.
-     * @throws HaloStorageGeneralException
+     * @param moduleName The module name.
+     * @param upserts    The instances created or updated.
+     * @param deletions  The instances deleted.
      */
-    @NonNull
-    public BatchOperations getPendingOperations() throws HaloStorageGeneralException {
-        return mLocalDataSource.getPendingBatchOperations();
+    private void syncModule(@NonNull String moduleName, @NonNull List<HaloContentInstance> upserts, @NonNull List<HaloContentInstance> deletions) {
+        if (mSyncLocalDataSource != null) {
+            try {
+                if (mSyncLocalDataSource.applyDelta(moduleName, null, upserts, deletions)) {
+                    return;
+                }
+            } catch (HaloStorageGeneralException e) {
+                Halog.e(getClass(), "The batch results could not be applied on " + moduleName + ", it will be synced.", e);
+            }
+        }
+        mSyncCoalescer.request(moduleName, mSyncDebounce);
     }
 
     /**
-     * Remove all pending operations to restore status.
+     * Sends the operations of the outbox in chunks, removing every chunk once the server acknowledges
+     * it. When a chunk fails it is retried with backoff until it is sent, unless the server rejects it,
+     * in which case it is discarded. The results of every chunk are notified, also the failure of a
+     * discarded chunk.
      *
-     * @throws HaloStorageGeneralException
+     * @return The number of operations sent.
+     * @throws HaloStorageGeneralException Error reading the outbox.
      */
-    public void removePendingOperations() throws HaloStorageGeneralException {
-        //remove pending tasks if batchOperation works on remote data source
-        BatchOperations instances = mLocalDataSource.getPendingBatchOperations();
-        if (instances.getTruncate() != null && instances.getTruncate().size() > 0) {
-            removePendingOperations(instances.getTruncate().toArray(new HaloContentInstance[instances.getTruncate().size()]));
-        }
-        if (instances.getCreated() != null && instances.getCreated().size() > 0) {
-            removePendingOperations(instances.getCreated().toArray(new HaloContentInstance[instances.getCreated().size()]));
-        }
-        if (instances.getCreatedOrUpdated() != null && instances.getCreatedOrUpdated().size() > 0) {
-            removePendingOperations(instances.getCreatedOrUpdated().toArray(new HaloContentInstance[instances.getCreatedOrUpdated().size()]));
+    public int flushOutbox() throws HaloStorageGeneralException {
+        BatchOutbox outbox = mLocalDataSource.getOutbox();
+        int sent = 0;
+        BatchOutbox.Chunk chunk = outbox.takeChunk(MAX_OPERATIONS_PER_REQUEST, System.currentTimeMillis());
+        while (chunk != null) {
+            if (chunk.getWaitTime() > 0) {
+                scheduleOutbox(chunk.getWaitTime());
+                break;
+            }
+            if (chunk.size() > 0) {
+                try {
+                    BatchOperationResults response = mRemoteDatasource.batchOperation(chunk.getOperations());
+                    outbox.acknowledge(chunk);
+                    sent += chunk.size();
+                    syncAndNofifyConflicts(response);
+                    Bundle batchResult = BatchBundleizeHelper.bundleizeBatchOperationsResults(new HaloResultV2<>(HaloStatus.builder().build(), response));
+                    Halo.instance().framework().emit(new Event(EventId.create(BATCH_FINISHED_EVENT), batchResult));
+                } catch (HaloConnectionException e) {
+                    //wait for the network to try again without counting the attempt
+                    outbox.release(chunk);
+                    scheduleOutbox(0);
+                    break;
+                } catch (HaloNetException | HaloParsingException e) {
+                    if (isRejected(e)) {
+                        Halog.e(getClass(), "The batch of " + chunk.size() + " operations was rejected, it is discarded.", e);
+                        outbox.acknowledge(chunk);
+                        Bundle batchResult = BatchBundleizeHelper.bundleizeBatchOperationsResults(new HaloResultV2<BatchOperationResults>(HaloStatus.builder().error(e).build(), null));
+                        Halo.instance().framework().emit(new Event(EventId.create(BATCH_FINISHED_EVENT), batchResult));
+                    } else {
+                        scheduleOutbox(outbox.backoff(chunk, System.currentTimeMillis()));
+                        break;
+                    }
+                }
+            } else {
+                outbox.acknowledge(chunk);
+            }
+            chunk = outbox.takeChunk(MAX_OPERATIONS_PER_REQUEST, System.currentTimeMillis());
         }
-        if (instances.getUpdated() != null && instances.getUpdated().size() > 0) {
-            removePendingOperations(instances.getUpdated().toArray(new HaloContentInstance[instances.getUpdated().size()]));
+        return sent;
+    }
+
+    /**
+     * Tells if the chunk failed because the server does not accept it, so sending it again will fail
+     * too. The server errors, the authentication errors and the errors reaching the server are retried.
+     *
+     * @param exception The exception of the request.
+     * @return True if the chunk is rejected.
+     */
+    private static boolean isRejected(@NonNull Exception exception) {
+        if (exception instanceof HaloServerException) {
+            return ((HaloServerException) exception).getErrorCode() == 400;
         }
-        if (instances.getDeleted() != null && instances.getDeleted().size() > 0) {
-            removePendingOperations(instances.getDeleted().toArray(new HaloContentInstance[instances.getDeleted().size()]));
+        return exception instanceof HaloNotFoundException
+                || exception instanceof HaloNetParseException
+                || exception instanceof HaloParsingException;
+    }
+
+    /**
+     * Schedules the job that sends the outbox once the network is available.
+     *
+     * @param delay The time to wait before scheduling it.
+     */
+    private void scheduleOutbox(long delay) {
+        final Job job = Job.builder(new BatchSchedule(halo(), this))
+                .persist(true)
+                .thread(Threading.SINGLE_QUEUE_POLICY)
+                .tag(JOB_NAME)
+                .needsNetwork(Job.NETWORK_TYPE_ANY)
+                .build();
+        if (delay > 0) {
+            new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    halo().framework().toolbox().schedule(job);
+                }
+            }, delay);
+        } else {
+            halo().framework().toolbox().schedule(job);
         }
     }
 
     /**
-     * Remove all pending batch operations from local data source.
+     * Get all pending batch operations from local data source.
      *
      * @return The pending batch operations to perfom.
      * @throws HaloStorageGeneralException
      */
     @NonNull
-    private boolean removePendingOperations(HaloContentInstance... instances) throws HaloStorageGeneralException {
-        return mLocalDataSource.deleteErrors(instances);
+    public BatchOperations getPendingOperations() throws HaloStorageGeneralException {
+        return mLocalDataSource.getPendingBatchOperations();
+    }
+
+    /**
+     * Remove all pending operations to restore status.
+     *
+     * @throws HaloStorageGeneralException
+     */
+    public void removePendingOperations() throws HaloStorageGeneralException {
+        mLocalDataSource.getOutbox().clear();
     }
 
 }
@@ -0,0 +1,153 @@
+package com.mobgen.halo.android.content.edition.batch;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.content.HaloContentApi;
+import com.mobgen.halo.android.content.models.SyncQuery;
+import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.toolbox.threading.Threading;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @hide Coalesces the module syncs requested after the batch operations of an edit api. The syncs
+ * requested during the debounce window are deduplicated by module and locale, so many batches on the
+ * same module end in a single sync.
+ */
+public final class BatchSyncCoalescer {
+
+    /**
+     * The content api that syncs.
+     */
+    private final HaloContentApi mContentApi;
+
+    /**
+     * The syncs waiting for the window to end, by module and locale.
+     */
+    private final Map<String, PendingSync> mPending;
+
+    /**
+     * Handler for the debounce window.
+     */
+    private final Handler mHandler;
+
+    /**
+     * Ends the debounce window.
+     */
+    private final Runnable mFlush;
+
+    /**
+     * The uptime when the window ends.
+     */
+    private long mFlushAt;
+
+    /**
+     * Constructor for the coalescer.
+     *
+     * @param contentApi The content api that syncs.
+     */
+    public BatchSyncCoalescer(@NonNull HaloContentApi contentApi) {
+        AssertionUtils.notNull(contentApi, "contentApi");
+        mContentApi = contentApi;
+        mPending = new LinkedHashMap<>();
+        mHandler = new Handler(Looper.getMainLooper());
+        mFlush = new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        };
+    }
+
+    /**
+     * Requests the sync of a module. The sync starts when the debounce window ends, that is opened by
+     * the first request and joined by the next ones. A request with a shorter debounce brings the end
+     * of the window forward.
+     *
+     * @param moduleName The module name.
+     * @param debounce   The debounce window in milliseconds.
+     */
+    void request(@NonNull String moduleName, long debounce) {
+        String locale = mContentApi.getLocale();
+        long flushAt = SystemClock.uptimeMillis() + Math.max(debounce, 0);
+        synchronized (mPending) {
+            boolean windowOpen = !mPending.isEmpty();
+            mPending.put(key(moduleName, locale), new PendingSync(moduleName, locale));
+            if (!windowOpen || flushAt < mFlushAt) {
+                mHandler.removeCallbacks(mFlush);
+                mHandler.postAtTime(mFlush, flushAt);
+                mFlushAt = flushAt;
+            }
+        }
+    }
+
+    /**
+     * Starts all the syncs pending.
+     */
+    void flush() {
+        List<PendingSync> syncs;
+        synchronized (mPending) {
+            mHandler.removeCallbacks(mFlush);
+            syncs = new ArrayList<>(mPending.values());
+            mPending.clear();
+        }
+        for (PendingSync sync : syncs) {
+            mContentApi.sync(SyncQuery.create(sync.mModuleName, sync.mLocale, Threading.POOL_QUEUE_POLICY), true);
+        }
+    }
+
+    /**
+     * Provides the number of syncs pending.
+     *
+     * @return The number of syncs.
+     */
+    int pending() {
+        synchronized (mPending) {
+            return mPending.size();
+        }
+    }
+
+    /**
+     * Provides the key of a sync.
+     *
+     * @param moduleName The module name.
+     * @param locale     The locale.
+     * @return The key.
+     */
+    @NonNull
+    private static String key(@NonNull String moduleName, @Nullable String locale) {
+        return moduleName + "|" + locale;
+    }
+
+    /**
+     * A sync waiting for the window to end.
+     */
+    private static class PendingSync {
+        /**
+         * The module name.
+         */
+        private final String mModuleName;
+        /**
+         * The locale.
+         */
+        private final String mLocale;
+
+        /**
+         * Constructor for the pending sync.
+         *
+         * @param moduleName The module name.
+         * @param locale     The locale.
+         */
+        private PendingSync(@NonNull String moduleName, @Nullable String locale) {
+            mModuleName = moduleName;
+            mLocale = locale;
+        }
+    }
+}
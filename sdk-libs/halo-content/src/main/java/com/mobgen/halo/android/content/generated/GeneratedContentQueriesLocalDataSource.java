@@ -2,13 +2,16 @@ package com.mobgen.halo.android.content.generated;
 
 import android.database.Cursor;
 import android.database.SQLException;
-import android.support.annotation.BoolRes;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
+import android.database.sqlite.SQLiteQuery;
 import android.support.annotation.Keep;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.content.models.GeneratedContent;
-import com.mobgen.halo.android.content.models.HaloContentInstance;
 import com.mobgen.halo.android.content.spec.HaloContentContract;
 import com.mobgen.halo.android.framework.api.HaloFramework;
 import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
@@ -36,7 +39,9 @@ public class GeneratedContentQueriesLocalDataSource {
     }
 
     /**
-     * Perfom the query against dabase from annotated code.
+     * Perfom the query against dabase from annotated code. The arguments are bound with their native
+     * sqlite type so comparisons against numeric columns can use the indexes, and the query text is
+     * constant so its compiled statement is reused from the connection cache.
      *
      * @param query the query to perfom.
      * @param bindArgs the args to the query.
@@ -45,33 +50,71 @@ public class GeneratedContentQueriesLocalDataSource {
      */
     @Nullable
     public Cursor perfomQuery(@NonNull String query,@NonNull Object[] bindArgs) throws SQLException {
-        //convert obects to string to perfom raw queries
-        int length = bindArgs.length;
-        String[] bindstringArgs = new String[length];
-        for(int i=0;i<length;i++){
-            if(bindArgs[i]==null){
-                bindstringArgs[i] = "";
-            } else if(bindArgs[i] instanceof String) {
-                bindstringArgs[i] = (String)bindArgs[i];
-            } else if(bindArgs[i] instanceof Integer) {
-                bindstringArgs[i] = bindArgs[i].toString();
-            } else if(bindArgs[i] instanceof Date) {
-                bindstringArgs[i] = String.valueOf(((Date)bindArgs[i]).getTime());
-            } else if(bindArgs[i] instanceof Boolean) {
-                bindstringArgs[i] = String.valueOf(bindArgs[i]);
-            } else {
-                try {
-                    bindstringArgs[i] = GeneratedContent.serialize(bindArgs[i], Halo.instance().framework().parser());
-                } catch (HaloParsingException e) {
-                    bindstringArgs[i] = "";
-                }
-            }
-        }
-        Cursor rawResult = mDataLite.getDatabase().rawQuery(query,bindstringArgs);
+        Cursor rawResult = mDataLite.getDatabase().rawQueryWithFactory(new TypedBindCursorFactory(bindArgs), query, null, null);
         if(rawResult!=null) {
             rawResult.moveToFirst();
         }
         return rawResult;
     }
 
+    /**
+     * Binds an argument with its native type. Booleans, nulls and objects that can not be serialized
+     * keep the text binding of previous versions, "true"/"false" and an empty text, since the rows
+     * already stored by the generated queries hold those values and would not match anymore otherwise.
+     *
+     * @param program The statement.
+     * @param index The index of the argument, starting at 1.
+     * @param arg The argument.
+     */
+    static void bindTyped(@NonNull SQLiteProgram program, int index, @Nullable Object arg) {
+        if(arg==null){
+            program.bindString(index, "");
+        } else if(arg instanceof String) {
+            program.bindString(index, (String) arg);
+        } else if(arg instanceof Boolean) {
+            program.bindString(index, String.valueOf(arg));
+        } else if(arg instanceof Date) {
+            program.bindLong(index, ((Date) arg).getTime());
+        } else if(arg instanceof Double || arg instanceof Float) {
+            program.bindDouble(index, ((Number) arg).doubleValue());
+        } else if(arg instanceof Number) {
+            program.bindLong(index, ((Number) arg).longValue());
+        } else if(arg instanceof byte[]) {
+            program.bindBlob(index, (byte[]) arg);
+        } else {
+            try {
+                program.bindString(index, GeneratedContent.serialize(arg, Halo.instance().framework().parser()));
+            } catch (HaloParsingException e) {
+                program.bindString(index, "");
+            }
+        }
+    }
+
+    /**
+     * Cursor factory that binds the arguments of the query with their native type.
+     */
+    private static class TypedBindCursorFactory implements SQLiteDatabase.CursorFactory {
+
+        /**
+         * The arguments.
+         */
+        private final Object[] mBindArgs;
+
+        /**
+         * Constructor for the factory.
+         *
+         * @param bindArgs The arguments.
+         */
+        private TypedBindCursorFactory(@NonNull Object[] bindArgs) {
+            mBindArgs = bindArgs;
+        }
+
+        @Override
+        public Cursor newCursor(SQLiteDatabase db, SQLiteCursorDriver masterQuery, String editTable, SQLiteQuery query) {
+            for(int i=0;i<mBindArgs.length;i++){
+                bindTyped(query, i + 1, mBindArgs[i]);
+            }
+            return new SQLiteCursor(masterQuery, editTable, query);
+        }
+    }
 }
@@ -0,0 +1,335 @@
+package com.mobgen.halo.android.content.generated;
+
+import android.database.Cursor;
+import android.support.annotation.Keep;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.content.models.GeneratedContent;
+import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
+import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
+import com.mobgen.halo.android.sdk.api.Halo;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @hide Base class of the cursor mappers generated by the content processor for every model with a
+ * {@link com.mobgen.halo.android.content.annotations.HaloConstructor}. The columns of the constructor are
+ * resolved once per cursor and every row is read with the typed getter of its parameter, so no reflection
+ * is done while reading the rows.
+ *
+ * @param <T> The type of the model.
+ */
+@Keep
+public abstract class GeneratedModelMapper<T> {
+
+    /**
+     * The prefix of the generated mappers.
+     */
+    private static final String MAPPER_PREFIX = "com.mobgen.halo.android.app.generated.HaloMapper$$";
+
+    /**
+     * Marker for the classes without a generated mapper.
+     */
+    private static final GeneratedModelMapper<Object> NO_MAPPER = new GeneratedModelMapper<Object>(new String[0]) {
+        @Override
+        protected Object map(@NonNull Cursor cursor, @NonNull int[] columns) {
+            return null;
+        }
+    };
+
+    /**
+     * The mappers already loaded by model class.
+     */
+    private static final Map<Class<?>, GeneratedModelMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+    /**
+     * The column names in the order of the constructor parameters.
+     */
+    private final String[] mColumnNames;
+
+    /**
+     * Constructor for the generated mappers.
+     *
+     * @param columnNames The column names in the order of the constructor parameters.
+     */
+    protected GeneratedModelMapper(@NonNull String[] columnNames) {
+        mColumnNames = columnNames;
+    }
+
+    /**
+     * Provides the generated mapper of a model class.
+     *
+     * @param clazz The model class.
+     * @param <T>   The type of the model.
+     * @return The mapper or null if the model has no generated mapper.
+     */
+    @Api(2.4)
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static <T> GeneratedModelMapper<T> forClass(@NonNull Class<T> clazz) {
+        GeneratedModelMapper<?> mapper = MAPPERS.get(clazz);
+        if (mapper == null) {
+            try {
+                String name = MAPPER_PREFIX + clazz.getName().replace('.', '_');
+                mapper = (GeneratedModelMapper<?>) Class.forName(name, true, clazz.getClassLoader()).newInstance();
+            } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+                mapper = NO_MAPPER;
+            }
+            MAPPERS.put(clazz, mapper);
+        }
+        return mapper == NO_MAPPER ? null : (GeneratedModelMapper<T>) mapper;
+    }
+
+    /**
+     * Maps all the rows of the cursor. The cursor is not closed.
+     *
+     * @param cursor The cursor.
+     * @return The models, skipping the rows that could not be mapped.
+     */
+    @Api(2.4)
+    @NonNull
+    public List<T> createList(@NonNull Cursor cursor) {
+        List<T> models = new ArrayList<>(Math.max(cursor.getCount(), 0));
+        if (cursor.moveToFirst()) {
+            int[] columns = resolveColumns(cursor);
+            do {
+                try {
+                    T model = map(cursor, columns);
+                    if (model != null) {
+                        models.add(model);
+                    }
+                } catch (RuntimeException e) {
+                    Halog.e(getClass(), "The row could not be mapped to the model", e);
+                }
+            } while (cursor.moveToNext());
+        }
+        return models;
+    }
+
+    /**
+     * Creates the model from the current row.
+     *
+     * @param cursor  The cursor.
+     * @param columns The index of the column of every constructor parameter, -1 if it is not in the cursor.
+     * @return The model.
+     */
+    protected abstract T map(@NonNull Cursor cursor, @NonNull int[] columns);
+
+    /**
+     * Finds the index of the column of every constructor parameter, ignoring the case.
+     *
+     * @param cursor The cursor.
+     * @return The indexes.
+     */
+    @NonNull
+    private int[] resolveColumns(@NonNull Cursor cursor) {
+        String[] cursorColumns = cursor.getColumnNames();
+        int[] columns = new int[mColumnNames.length];
+        for (int i = 0; i < mColumnNames.length; i++) {
+            columns[i] = -1;
+            for (int j = 0; j < cursorColumns.length; j++) {
+                if (mColumnNames[i].equalsIgnoreCase(cursorColumns[j])) {
+                    columns[i] = j;
+                    break;
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Tells if the column has no value.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return True if it is missing or null.
+     */
+    private static boolean isNull(@NonNull Cursor cursor, int column) {
+        return column == -1 || cursor.isNull(column);
+    }
+
+    /**
+     * Reads a string.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or null.
+     */
+    @Nullable
+    protected static String readString(@NonNull Cursor cursor, int column) {
+        return isNull(cursor, column) ? null : cursor.getString(column);
+    }
+
+    /**
+     * Reads an integer.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or null.
+     */
+    @Nullable
+    protected static Integer readInteger(@NonNull Cursor cursor, int column) {
+        return isNull(cursor, column) ? null : cursor.getInt(column);
+    }
+
+    /**
+     * Reads a long.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or null.
+     */
+    @Nullable
+    protected static Long readLong(@NonNull Cursor cursor, int column) {
+        return isNull(cursor, column) ? null : cursor.getLong(column);
+    }
+
+    /**
+     * Reads a double.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or null.
+     */
+    @Nullable
+    protected static Double readDouble(@NonNull Cursor cursor, int column) {
+        return isNull(cursor, column) ? null : cursor.getDouble(column);
+    }
+
+    /**
+     * Reads a float.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or null.
+     */
+    @Nullable
+    protected static Float readFloat(@NonNull Cursor cursor, int column) {
+        return isNull(cursor, column) ? null : cursor.getFloat(column);
+    }
+
+    /**
+     * Reads a boolean, stored as a number or as text.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or null.
+     */
+    @Nullable
+    protected static Boolean readBoolean(@NonNull Cursor cursor, int column) {
+        if (isNull(cursor, column)) {
+            return null;
+        }
+        if (cursor.getType(column) == Cursor.FIELD_TYPE_INTEGER) {
+            return cursor.getLong(column) != 0;
+        }
+        String value = cursor.getString(column);
+        return "true".equalsIgnoreCase(value) || "1".equals(value);
+    }
+
+    /**
+     * Reads a date stored in millis.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or null.
+     */
+    @Nullable
+    protected static Date readDate(@NonNull Cursor cursor, int column) {
+        if (isNull(cursor, column)) {
+            return null;
+        }
+        if (cursor.getType(column) == Cursor.FIELD_TYPE_INTEGER) {
+            return new Date(cursor.getLong(column));
+        }
+        try {
+            return new Date(Long.parseLong(cursor.getString(column)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads an object stored as json.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @param clazz  The class of the object.
+     * @param <O>    The type of the object.
+     * @return The value or null if there is no value or it can not be parsed.
+     */
+    @Nullable
+    protected static <O> O readObject(@NonNull Cursor cursor, int column, @NonNull Class<O> clazz) {
+        if (isNull(cursor, column)) {
+            return null;
+        }
+        try {
+            return GeneratedContent.deserialize(cursor.getString(column), Halo.instance().framework().parser(), clazz);
+        } catch (HaloParsingException e) {
+            Halog.e(GeneratedModelMapper.class, "The column could not be parsed as " + clazz.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads a primitive int.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or 0.
+     */
+    protected static int readIntValue(@NonNull Cursor cursor, int column) {
+        return isNull(cursor, column) ? 0 : cursor.getInt(column);
+    }
+
+    /**
+     * Reads a primitive long.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or 0.
+     */
+    protected static long readLongValue(@NonNull Cursor cursor, int column) {
+        return isNull(cursor, column) ? 0L : cursor.getLong(column);
+    }
+
+    /**
+     * Reads a primitive double.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or 0.
+     */
+    protected static double readDoubleValue(@NonNull Cursor cursor, int column) {
+        return isNull(cursor, column) ? 0d : cursor.getDouble(column);
+    }
+
+    /**
+     * Reads a primitive float.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or 0.
+     */
+    protected static float readFloatValue(@NonNull Cursor cursor, int column) {
+        return isNull(cursor, column) ? 0f : cursor.getFloat(column);
+    }
+
+    /**
+     * Reads a primitive boolean.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value or false.
+     */
+    protected static boolean readBooleanValue(@NonNull Cursor cursor, int column) {
+        Boolean value = readBoolean(cursor, column);
+        return value != null && value;
+    }
+}
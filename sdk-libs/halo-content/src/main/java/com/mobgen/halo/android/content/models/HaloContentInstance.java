@@ -6,14 +6,14 @@ import android.support.annotation.Keep;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
-import com.bluelinelabs.logansquare.JsonMapper;
-import com.bluelinelabs.logansquare.LoganSquare;
 import com.bluelinelabs.logansquare.annotation.JsonField;
 import com.bluelinelabs.logansquare.annotation.JsonObject;
+import com.bluelinelabs.logansquare.annotation.OnPreJsonSerialize;
 import com.bluelinelabs.logansquare.internal.objectmappers.ObjectMapper;
 import com.bluelinelabs.logansquare.typeconverters.TypeConverter;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.mobgen.halo.android.content.utils.HaloContentHelper;
 import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
 import com.mobgen.halo.android.framework.common.helpers.builder.IBuilder;
@@ -30,7 +30,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The general content element. This element allows to bring data from a general content middleware and transform
@@ -46,19 +45,17 @@ public class HaloContentInstance implements Parcelable {
     @Keep
     public static class JSONObjectConverter implements TypeConverter<JSONObject> {
 
-        /**
-         * The mapper for objects.
-         */
-        private static final JsonMapper<Object> mapper = LoganSquare.mapperFor(Object.class);
-
         @Override
         public JSONObject parse(JsonParser jsonParser) throws IOException {
-            //convert map to json string to create the object due to problems on pre 4.3 devices
+            //Build the object from the raw json text instead of a map due to problems on pre 4.3 devices
             //See https://mobgen.atlassian.net/browse/HALO-2918
-            Map map = (Map) mapper.parse(jsonParser);
+            String values = HaloContentHelper.readRawJson(jsonParser);
+            if (values == null) {
+                return null;
+            }
             try {
-                return new JSONObject(LoganSquare.serialize(map));
-            } catch (JSONException | NullPointerException e) {
+                return new JSONObject(values);
+            } catch (JSONException e) {
                 return null;
             }
         }
@@ -100,11 +97,18 @@ public class HaloContentInstance implements Parcelable {
     String mName;
 
     /**
-     * The values field.
+     * The values field. Null while the values are materialised as a json object.
+     */
+    @JsonField(name = "values", typeConverter = HaloContentValues.Converter.class)
+    @Nullable
+    HaloContentValues mValues;
+
+    /**
+     * The values materialised as a json object, only available once they are requested as an object
+     * and until they are requested in the compact form again. Only one of both forms is kept.
      */
-    @JsonField(name = "values", typeConverter = JSONObjectConverter.class)
     @Nullable
-    JSONObject mValues;
+    JSONObject mValuesObject;
 
     /**
      * The tags of this element.
@@ -182,7 +186,7 @@ public class HaloContentInstance implements Parcelable {
      * @param moduleName      The module name.
      * @param moduleId        The module id.
      * @param name            The name.
-     * @param values          The values.
+     * @param values          The values. They are copied, so later changes in the object are not kept.
      * @param tags            The author of this item.
      * @param author          The author of this item.
      * @param createdDate     The creation date.
@@ -202,7 +206,7 @@ public class HaloContentInstance implements Parcelable {
         mModuleId = moduleId;
         mModuleName = moduleName;
         mName = name;
-        mValues = values;
+        mValues = values != null ? HaloContentValues.from(values) : null;
         mAuthor = author;
         mTags = tags;
         mCreatedDate = createdDate;
@@ -217,12 +221,8 @@ public class HaloContentInstance implements Parcelable {
         this.mModuleName = in.readString();
         this.mModuleId = in.readString();
         this.mName = in.readString();
-        try {
-            String values = in.readString();
-            this.mValues = values != null ? new JSONObject(values) : null;
-        } catch (JSONException e) {
-            Halog.e(getClass(), "The values of the general content item " + mItemId + "could not be parsed on the parceling op.");
-        }
+        String values = in.readString();
+        this.mValues = values != null ? HaloContentValues.fromJson(values) : null;
         this.mTags = in.createTypedArrayList(HaloSegmentationTag.CREATOR);
         this.mAuthor = in.readString();
         long tmpMarchivedDate = in.readLong();
@@ -248,7 +248,7 @@ public class HaloContentInstance implements Parcelable {
         dest.writeString(this.mModuleName);
         dest.writeString(this.mModuleId);
         dest.writeString(this.mName);
-        dest.writeString(mValues != null ? this.mValues.toString() : null);
+        dest.writeString(valuesJson());
         dest.writeTypedList(mTags);
         dest.writeString(this.mAuthor);
         dest.writeLong(mArchived != null ? mArchived.getTime() : -1);
@@ -304,7 +304,10 @@ public class HaloContentInstance implements Parcelable {
     }
 
     /**
-     * Provides the custom values of this item.
+     * Provides the custom values of this item as a json object. The object is materialised the first
+     * time it is requested and the changes made on it are kept in this instance until the values are
+     * requested with {@link #getContentValues()} or the instance is serialized. Use
+     * {@link #getContentValues()} to read the values without decoding all of them.
      *
      * @return The custom values of this item.
      */
@@ -312,9 +315,63 @@ public class HaloContentInstance implements Parcelable {
     @Api(2.0)
     @Nullable
     public JSONObject getValues() {
+        if (mValuesObject == null && mValues != null) {
+            try {
+                mValuesObject = mValues.toJSONObject();
+                mValues = null;
+            } catch (JSONException e) {
+                Halog.e(getClass(), "The values of the general content item " + mItemId + " could not be parsed.");
+            }
+        }
+        return mValuesObject;
+    }
+
+    /**
+     * Provides the custom values of this item in its compact form. If the values were materialised
+     * as a json object they are compacted again, so the object previously returned by
+     * {@link #getValues()} is no longer linked to this instance.
+     *
+     * @return The custom values of this item.
+     */
+    @Keep
+    @Api(2.4)
+    @Nullable
+    public HaloContentValues getContentValues() {
+        compactValues();
         return mValues;
     }
 
+    /**
+     * Moves the values materialised as a json object back to the compact form.
+     */
+    private void compactValues() {
+        if (mValuesObject != null) {
+            mValues = HaloContentValues.from(mValuesObject);
+            mValuesObject = null;
+        }
+    }
+
+    /**
+     * Provides the values as json text.
+     *
+     * @return The json or null if there are no values.
+     */
+    @Nullable
+    private String valuesJson() {
+        if (mValuesObject != null) {
+            return mValuesObject.toString();
+        }
+        return mValues != null ? mValues.toJson() : null;
+    }
+
+    /**
+     * Updates the compact values with the json object before serializing, since it can have changed.
+     */
+    @OnPreJsonSerialize
+    void onPreJsonSerialize() {
+        compactValues();
+    }
+
     /**
      * Provides the author of this instance item.
      *
@@ -406,7 +463,7 @@ public class HaloContentInstance implements Parcelable {
                 ", mModuleName='" + mModuleName + '\'' +
                 ", mModuleId='" + mModuleId + '\'' +
                 ", mName='" + mName + '\'' +
-                ", mValues=" + mValues +
+                ", mValues=" + valuesJson() +
                 ", mAuthor='" + mAuthor + '\'' +
                 ", mTags=" + tags +
                 ", mCreatedDate=" + mCreatedDate +
@@ -504,7 +561,7 @@ public class HaloContentInstance implements Parcelable {
         /**
          * The values field.
          */
-        JSONObject mValues;
+        HaloContentValues mValues;
 
         /**
          * The name of the author who created this element.
@@ -617,26 +674,37 @@ public class HaloContentInstance implements Parcelable {
          */
         public HaloContentInstance.Builder withContentData(@NonNull Object values) {
             AssertionUtils.notNull(values, "values");
-            Map<String, Object> mapped = mapValues(values);
-            if (mapped != null) {
-                JSONObject data = new JSONObject(mapped);
-                mValues = data;
+            String json = serializeValues(values);
+            if (json != null && json.trim().startsWith("{")) {
+                mValues = HaloContentValues.fromJson(json);
             }
             return this;
         }
 
         /**
-         * Map values from model object.
+         * Set the content values already in its compact form.
+         *
+         * @param values The values.
+         * @return The builder.
+         */
+        @Api(2.4)
+        @NonNull
+        public HaloContentInstance.Builder withValues(@NonNull HaloContentValues values) {
+            AssertionUtils.notNull(values, "values");
+            mValues = values;
+            return this;
+        }
+
+        /**
+         * Serializes the values from model object.
          *
          * @param object
-         * @return The mapped values or null
+         * @return The json of the values or null
          */
         @Nullable
-        private Map<String, Object> mapValues(Object object) {
+        private String serializeValues(Object object) {
             try {
-                ObjectMapper mapper = new ObjectMapper();
-                Map<String, Object> map = mapper.parseMap(mapper.serialize(object));
-                return map;
+                return new ObjectMapper().serialize(object);
             } catch (IOException e) {
                 return null;
             }
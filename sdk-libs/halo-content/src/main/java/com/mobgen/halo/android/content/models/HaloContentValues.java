@@ -0,0 +1,346 @@
+package com.mobgen.halo.android.content.models;
+
+import android.support.annotation.Keep;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.bluelinelabs.logansquare.LoganSquare;
+import com.bluelinelabs.logansquare.typeconverters.TypeConverter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.common.utils.HaloUtils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable container for the values of a content instance. The values are kept as the raw utf-8 json
+ * and only the fields that are read are decoded, so big lists of instances do not need a map for each of
+ * them. The content hash is computed the first time it is requested and then kept.
+ */
+@Keep
+public final class HaloContentValues {
+
+    /**
+     * The charset of the raw json.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Json converter to read and write the values as raw json.
+     */
+    @Keep
+    public static class Converter implements TypeConverter<HaloContentValues> {
+
+        @Override
+        public HaloContentValues parse(JsonParser jsonParser) throws IOException {
+            if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+                jsonParser.skipChildren();
+                return null;
+            }
+            return new HaloContentValues(copyCurrent(jsonParser));
+        }
+
+        @Override
+        public void serialize(HaloContentValues object, String fieldName, boolean writeFieldNameForObject, JsonGenerator jsonGenerator) throws IOException {
+            if (object != null) {
+                jsonGenerator.writeFieldName(fieldName);
+                jsonGenerator.writeRawValue(object.toJson());
+            }
+        }
+    }
+
+    /**
+     * The raw json.
+     */
+    private final byte[] mJson;
+
+    /**
+     * The hash of the content, computed the first time it is requested.
+     */
+    private volatile String mHash;
+
+    /**
+     * The plain fields already decoded. Created the first time a field is read.
+     */
+    private volatile Map<String, Object> mFields;
+
+    /**
+     * Creates the values from the raw json.
+     *
+     * @param json The utf-8 json.
+     */
+    private HaloContentValues(@NonNull byte[] json) {
+        mJson = json;
+    }
+
+    /**
+     * Creates the values from a json text. The json is not parsed until a field is read.
+     *
+     * @param json The json object as text.
+     * @return The values created.
+     */
+    @Api(2.4)
+    @NonNull
+    public static HaloContentValues fromJson(@NonNull String json) {
+        AssertionUtils.notNull(json, "json");
+        return new HaloContentValues(json.getBytes(UTF_8));
+    }
+
+    /**
+     * Creates the values from a json object, taking a snapshot of its current content.
+     *
+     * @param json The json object.
+     * @return The values created.
+     */
+    @Api(2.4)
+    @NonNull
+    public static HaloContentValues from(@NonNull JSONObject json) {
+        AssertionUtils.notNull(json, "json");
+        return fromJson(json.toString());
+    }
+
+    /**
+     * Provides the values as json text.
+     *
+     * @return The json.
+     */
+    @Api(2.4)
+    @NonNull
+    public String toJson() {
+        return new String(mJson, UTF_8);
+    }
+
+    /**
+     * Provides a stream over the raw utf-8 json, without copying it.
+     *
+     * @return The stream.
+     */
+    @Api(2.4)
+    @NonNull
+    public InputStream stream() {
+        return new ByteArrayInputStream(mJson);
+    }
+
+    /**
+     * Provides the size in bytes of the raw json.
+     *
+     * @return The size.
+     */
+    @Api(2.4)
+    public int size() {
+        return mJson.length;
+    }
+
+    /**
+     * Materialises all the values in a new json object. Changes in the object are not
+     * reflected in this container.
+     *
+     * @return The json object.
+     * @throws JSONException Error parsing the values.
+     */
+    @Api(2.4)
+    @NonNull
+    public JSONObject toJSONObject() throws JSONException {
+        return new JSONObject(toJson());
+    }
+
+    /**
+     * Provides the stable hash of the values, the sha-1 of the raw json. It is computed only the first
+     * time it is requested.
+     *
+     * @return The hash.
+     */
+    @Api(2.4)
+    @NonNull
+    public String hash() {
+        String hash = mHash;
+        if (hash == null) {
+            hash = hash(mJson);
+            mHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Provides the value of a field, decoding only that field. Objects are returned as {@link JSONObject},
+     * arrays as {@link JSONArray} and null values as {@link JSONObject#NULL}, like a json object does.
+     *
+     * @param key The key of the field.
+     * @return The value or null if there is no such field or it cannot be decoded.
+     */
+    @Api(2.4)
+    @Nullable
+    public Object opt(@NonNull String key) {
+        Map<String, Object> fields = mFields;
+        if (fields != null) {
+            Object value = fields.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        Object value;
+        try {
+            value = decode(key);
+        } catch (IOException | JSONException e) {
+            value = null;
+        }
+        //Nested objects are mutable so they are decoded again on every read
+        if (value != null && !(value instanceof JSONObject) && !(value instanceof JSONArray)) {
+            if (fields == null) {
+                synchronized (this) {
+                    if (mFields == null) {
+                        mFields = new ConcurrentHashMap<>();
+                    }
+                    fields = mFields;
+                }
+            }
+            fields.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Provides the value of a field as a string.
+     *
+     * @param key The key of the field.
+     * @return The value as string or null if there is no such field or it is null.
+     */
+    @Api(2.4)
+    @Nullable
+    public String optString(@NonNull String key) {
+        Object value = opt(key);
+        return value == null || value == JSONObject.NULL ? null : value.toString();
+    }
+
+    /**
+     * Tells if the values contain a field.
+     *
+     * @param key The key of the field.
+     * @return True if the field exists.
+     */
+    @Api(2.4)
+    public boolean has(@NonNull String key) {
+        return opt(key) != null;
+    }
+
+    /**
+     * Scans the raw json to decode a single field.
+     *
+     * @param key The key.
+     * @return The value or null if the field does not exist.
+     * @throws IOException   Error reading the json.
+     * @throws JSONException Error creating a nested object.
+     */
+    @Nullable
+    private Object decode(@NonNull String key) throws IOException, JSONException {
+        JsonParser parser = LoganSquare.JSON_FACTORY.createParser(mJson);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (!key.equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                switch (token) {
+                    case VALUE_STRING:
+                        return parser.getText();
+                    case VALUE_NUMBER_INT:
+                        return parser.getNumberValue();
+                    case VALUE_NUMBER_FLOAT:
+                        return parser.getDoubleValue();
+                    case VALUE_TRUE:
+                        return Boolean.TRUE;
+                    case VALUE_FALSE:
+                        return Boolean.FALSE;
+                    case VALUE_NULL:
+                        return JSONObject.NULL;
+                    case START_OBJECT:
+                        return new JSONObject(new String(copyCurrent(parser), UTF_8));
+                    case START_ARRAY:
+                        return new JSONArray(new String(copyCurrent(parser), UTF_8));
+                    default:
+                        return null;
+                }
+            }
+            return null;
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Copies the current structure of the parser as utf-8 json.
+     *
+     * @param parser The parser.
+     * @return The raw json.
+     * @throws IOException Error reading.
+     */
+    @NonNull
+    private static byte[] copyCurrent(@NonNull JsonParser parser) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonGenerator generator = LoganSquare.JSON_FACTORY.createGenerator(stream);
+        try {
+            generator.copyCurrentStructure(parser);
+        } finally {
+            generator.close();
+        }
+        return stream.toByteArray();
+    }
+
+    /**
+     * Computes the hash of the raw json.
+     *
+     * @param json The raw json.
+     * @return The hash.
+     */
+    @NonNull
+    private static String hash(@NonNull byte[] json) {
+        try {
+            return HaloUtils.convertToHex(MessageDigest.getInstance("SHA-1").digest(json));
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(Arrays.hashCode(json));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HaloContentValues that = (HaloContentValues) o;
+        return Arrays.equals(mJson, that.mJson);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(mJson);
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
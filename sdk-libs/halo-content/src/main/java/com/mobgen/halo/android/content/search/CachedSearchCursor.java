@@ -0,0 +1,154 @@
+package com.mobgen.halo.android.content.search;
+
+import android.database.AbstractCursor;
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.content.models.HaloContentInstance;
+import com.mobgen.halo.android.content.models.Paginated;
+import com.mobgen.halo.android.content.models.SearchQuery;
+import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageException;
+import com.mobgen.halo.android.sdk.core.selectors.IFingerprinted;
+
+/**
+ * @hide Cursor of a search found in the {@link SearchResultCache}. The converters take the decoded result
+ * from it, the selectors take the fingerprint of its rows, and the search is only queried in the database
+ * if the rows of the cursor are read.
+ */
+public class CachedSearchCursor extends AbstractCursor implements IFingerprinted {
+
+    /**
+     * The decoded result.
+     */
+    private final Paginated<HaloContentInstance> mResult;
+    /**
+     * The fingerprint of the rows.
+     */
+    private final long mFingerprint;
+    /**
+     * The datasource that queries the rows.
+     */
+    private final ContentSearchLocalDatasource mLocalDatasource;
+    /**
+     * The query.
+     */
+    private final SearchQuery mQuery;
+    /**
+     * The cursor with the rows, queried the first time they are read.
+     */
+    private Cursor mRows;
+
+    /**
+     * Constructor for the cursor.
+     *
+     * @param result          The result found in the cache.
+     * @param localDatasource The datasource that queries the rows.
+     * @param query           The query.
+     */
+    CachedSearchCursor(@NonNull SearchResultCache.CachedResult result, @NonNull ContentSearchLocalDatasource localDatasource, @NonNull SearchQuery query) {
+        mResult = result.getResult();
+        mFingerprint = result.getFingerprint();
+        mLocalDatasource = localDatasource;
+        mQuery = query;
+    }
+
+    /**
+     * Provides the decoded result without reading the rows.
+     *
+     * @return The result.
+     */
+    @NonNull
+    public Paginated<HaloContentInstance> getResult() {
+        return mResult;
+    }
+
+    @Override
+    public long fingerprint() {
+        return mFingerprint;
+    }
+
+    /**
+     * Provides the rows, querying them if they were not queried yet.
+     *
+     * @return The rows.
+     */
+    @NonNull
+    private Cursor rows() {
+        if (mRows == null) {
+            try {
+                mRows = mLocalDatasource.findInStorage(mQuery);
+            } catch (HaloStorageException e) {
+                throw new IllegalStateException("The cached search could not be read from the database.", e);
+            }
+        }
+        return mRows;
+    }
+
+    @Override
+    public boolean onMove(int oldPosition, int newPosition) {
+        return rows().moveToPosition(newPosition);
+    }
+
+    @Override
+    public int getCount() {
+        return rows().getCount();
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return rows().getColumnNames();
+    }
+
+    @Override
+    public String getString(int column) {
+        return rows().getString(column);
+    }
+
+    @Override
+    public short getShort(int column) {
+        return rows().getShort(column);
+    }
+
+    @Override
+    public int getInt(int column) {
+        return rows().getInt(column);
+    }
+
+    @Override
+    public long getLong(int column) {
+        return rows().getLong(column);
+    }
+
+    @Override
+    public float getFloat(int column) {
+        return rows().getFloat(column);
+    }
+
+    @Override
+    public double getDouble(int column) {
+        return rows().getDouble(column);
+    }
+
+    @Override
+    public byte[] getBlob(int column) {
+        return rows().getBlob(column);
+    }
+
+    @Override
+    public int getType(int column) {
+        return rows().getType(column);
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return rows().isNull(column);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (mRows != null) {
+            mRows.close();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.mobgen.halo.android.content.search;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.MatrixCursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.support.annotation.NonNull;
@@ -27,6 +28,9 @@ import com.mobgen.halo.android.sdk.core.management.models.Device;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 
@@ -38,6 +42,16 @@ import static com.mobgen.halo.android.content.spec.HaloContentContract.ContentSe
  */
 public class ContentSearchLocalDatasource {
 
+    /**
+     * The maximum number of ids bound in a single query, the default limit of variables in sqlite.
+     */
+    static final int MAX_BOUND_IDS = 999;
+
+    /**
+     * The alias of the row id column used to merge the instances queried in chunks.
+     */
+    private static final String SORT_COLUMN = "SORT_ROW_ID";
+
     /**
      * Provides the storage access.
      */
@@ -53,7 +67,8 @@ public class ContentSearchLocalDatasource {
     }
 
     /**
-     * Provides the cursor for the given query.
+     * Provides the cursor for the given query. If the result is in the {@link SearchResultCache} the
+     * database is not queried unless the rows of the cursor are read.
      *
      * @param query The query.
      * @return The cursor.
@@ -61,6 +76,26 @@ public class ContentSearchLocalDatasource {
      */
     @NonNull
     public Cursor findByQuery(@NonNull SearchQuery query) throws HaloStorageException {
+        try {
+            SearchResultCache.CachedResult cached = SearchResultCache.instance().get(query.createHash(mStorage.framework().parser()));
+            if (cached != null) {
+                return new CachedSearchCursor(cached, this, query);
+            }
+        } catch (HaloParsingException e) {
+            throw new HaloStorageParseException("Error creating options hash.", e);
+        }
+        return findInStorage(query);
+    }
+
+    /**
+     * Provides the cursor for the given query from the database.
+     *
+     * @param query The query.
+     * @return The cursor.
+     * @throws HaloStorageException Storage exception.
+     */
+    @NonNull
+    Cursor findInStorage(@NonNull SearchQuery query) throws HaloStorageException {
         Cursor optionsData = null;
         //Bring the data to life
         try {
@@ -85,11 +120,14 @@ public class ContentSearchLocalDatasource {
             optionsData.close();
 
             // Select the ids based on the search
-            return Select.all().from(ContentSearch.class)
-                    .where(ContentSearch.HASH_ID)
-                    .in(ids)
-                    .order(HaloContentContract.ROW_ID, Select.ORDER_ASC)
-                    .on(mStorage.db(), "Queries the found instances in the search table by hash id");
+            if (ids.length <= MAX_BOUND_IDS) {
+                return Select.all().from(ContentSearch.class)
+                        .where(ContentSearch.HASH_ID)
+                        .in(ids)
+                        .order(HaloContentContract.ROW_ID, Select.ORDER_ASC)
+                        .on(mStorage.db(), "Queries the found instances in the search table by hash id");
+            }
+            return findInChunks(ids);
         } catch (HaloParsingException e) {
             throw new HaloStorageParseException("Error creating options hash.", e);
         } finally {
@@ -99,6 +137,79 @@ public class ContentSearchLocalDatasource {
         }
     }
 
+    /**
+     * Queries the instances of a search with more ids than the variables sqlite can bind. The ids are
+     * queried in chunks and the rows are merged in the order they were stored.
+     *
+     * @param ids The hash ids.
+     * @return The cursor with the rows.
+     */
+    @NonNull
+    private Cursor findInChunks(@NonNull String[] ids) {
+        SQLiteDatabase database = mStorage.db().getDatabase();
+        List<Object[]> rows = new ArrayList<>(ids.length);
+        String[] columns = null;
+        for (int start = 0; start < ids.length; start += MAX_BOUND_IDS) {
+            String[] chunk = Arrays.copyOfRange(ids, start, Math.min(start + MAX_BOUND_IDS, ids.length));
+            StringBuilder sql = new StringBuilder("SELECT ").append(HaloContentContract.ROW_ID).append(" AS ").append(SORT_COLUMN)
+                    .append(", * FROM ").append(ORMUtils.getTableName(ContentSearch.class))
+                    .append(" WHERE ").append(ContentSearch.HASH_ID).append(" IN (");
+            for (int i = 0; i < chunk.length; i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            Cursor cursor = database.rawQuery(sql.append(")").toString(), chunk);
+            try {
+                if (columns == null) {
+                    columns = Arrays.copyOfRange(cursor.getColumnNames(), 1, cursor.getColumnCount());
+                }
+                while (cursor.moveToNext()) {
+                    Object[] row = new Object[cursor.getColumnCount()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = value(cursor, i);
+                    }
+                    rows.add(row);
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        Collections.sort(rows, new Comparator<Object[]>() {
+            @Override
+            public int compare(Object[] first, Object[] second) {
+                long firstId = (Long) first[0];
+                long secondId = (Long) second[0];
+                return firstId < secondId ? -1 : (firstId == secondId ? 0 : 1);
+            }
+        });
+        MatrixCursor merged = new MatrixCursor(columns, rows.size());
+        for (Object[] row : rows) {
+            merged.addRow(Arrays.copyOfRange(row, 1, row.length));
+        }
+        return merged;
+    }
+
+    /**
+     * Reads the value of a column keeping its type.
+     *
+     * @param cursor The cursor.
+     * @param column The column.
+     * @return The value.
+     */
+    private static Object value(@NonNull Cursor cursor, int column) {
+        switch (cursor.getType(column)) {
+            case Cursor.FIELD_TYPE_INTEGER:
+                return cursor.getLong(column);
+            case Cursor.FIELD_TYPE_FLOAT:
+                return cursor.getDouble(column);
+            case Cursor.FIELD_TYPE_BLOB:
+                return cursor.getBlob(column);
+            case Cursor.FIELD_TYPE_NULL:
+                return null;
+            default:
+                return cursor.getString(column);
+        }
+    }
+
     /**
      * Saves the current query and the result that this query produces.
      *
@@ -107,6 +218,7 @@ public class ContentSearchLocalDatasource {
      * @throws HaloStorageGeneralException Error while operating with the query.
      */
     public void save(@NonNull final SearchQuery query, @NonNull final Paginated<HaloContentInstance> instances) throws HaloStorageGeneralException {
+        final String[] queryId = new String[1];
         mStorage.db().transaction(new HaloDataLite.HaloDataLiteTransaction() {
             @Override
             public void onTransaction(@NonNull SQLiteDatabase database) throws HaloStorageException {
@@ -115,12 +227,16 @@ public class ContentSearchLocalDatasource {
                 clearExpiredSearchItems(database);
                 //Insert the new values
                 try {
-                    insertSearch(createContentValues(query, instances, expireDate, mStorage.framework().parser()), database);
+                    Pair<ContentValues, List<ContentValues>> contentValues = createContentValues(query, instances, expireDate, mStorage.framework().parser());
+                    insertSearch(contentValues, database);
+                    queryId[0] = contentValues.first.getAsString(ContentSearchQuery.QUERY_ID);
                 } catch (HaloParsingException e) {
                     throw new HaloStorageParseException("Error while creating the content values for one item.", e);
                 }
             }
         });
+        //Invalidated once written, so the results read before are not cached
+        SearchResultCache.instance().invalidate(queryId[0]);
     }
 
     /**
@@ -228,5 +344,6 @@ public class ContentSearchLocalDatasource {
                 Delete.from(HaloContentContract.ContentSearch.class).on(database, "Remove all the search instances");
             }
         });
+        SearchResultCache.instance().clear();
     }
 }
@@ -17,6 +17,7 @@ import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageGeneralEx
 import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageParseException;
 import com.mobgen.halo.android.framework.toolbox.data.HaloResultV2;
 import com.mobgen.halo.android.sdk.core.selectors.ISelectorConverter;
+import com.mobgen.halo.android.sdk.core.selectors.Selector;
 
 import java.util.List;
 
@@ -58,7 +59,8 @@ public class Cursor2ContentInstanceSearchConverter implements ISelectorConverter
     }
 
     /**
-     * Parses the cursor into a paginated content instance list.
+     * Parses the cursor into a paginated content instance list. The result is taken from the cursor if
+     * it comes from the {@link SearchResultCache}, otherwise it is cached once parsed.
      *
      * @param cursor The cursor.
      * @return The paginated instances.
@@ -68,6 +70,12 @@ public class Cursor2ContentInstanceSearchConverter implements ISelectorConverter
      */
     @NonNull
     private Paginated<HaloContentInstance> parse(@NonNull Cursor cursor) throws HaloStorageParseException, HaloStorageGeneralException {
+        if (cursor instanceof CachedSearchCursor) {
+            cursor.close();
+            return ((CachedSearchCursor) cursor).getResult();
+        }
+        //Taken before reading, so a result older than a concurrent write is not cached
+        long generation = SearchResultCache.instance().generation();
         Cursor optionsCursor = null;
         try {
             String optionsId = mQuery.createHash(mParser);
@@ -88,8 +96,12 @@ public class Cursor2ContentInstanceSearchConverter implements ISelectorConverter
                 int limit = optionsCursor.getInt(optionsCursor.getColumnIndexOrThrow(HaloContentContract.ContentSearchQuery.PAGINATION_LIMIT));
                 int page = optionsCursor.getInt(optionsCursor.getColumnIndexOrThrow(HaloContentContract.ContentSearchQuery.PAGINATION_PAGE));
                 int count = optionsCursor.getInt(optionsCursor.getColumnIndexOrThrow(HaloContentContract.ContentSearchQuery.PAGINATION_COUNT));
+                long expiresOn = optionsCursor.getLong(optionsCursor.getColumnIndexOrThrow(HaloContentContract.ContentSearchQuery.EXPIRES_ON));
                 optionsCursor.close();
                 info = new PaginationInfo(page, limit, count);
+                Paginated<HaloContentInstance> result = new Paginated<>(instances, info);
+                SearchResultCache.instance().put(optionsId, mQuery, result, Selector.fingerprint(cursor), expiresOn, generation);
+                return result;
             } else {
                 //TODO: remove this pagination info change also when it comes ready
                 // From the server
@@ -0,0 +1,342 @@
+package com.mobgen.halo.android.content.search;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.content.models.HaloContentInstance;
+import com.mobgen.halo.android.content.models.HaloContentValues;
+import com.mobgen.halo.android.content.models.Paginated;
+import com.mobgen.halo.android.content.models.SearchQuery;
+import com.mobgen.halo.android.sdk.core.selectors.Revalidations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @hide In memory cache of the decoded search results by query hash, shared by all the searches of the
+ * process. The results expire with the search stored in the database, and the least recently used
+ * ones are evicted when the size of the instances cached exceeds the limit. The size of an instance is
+ * the size of its raw values plus a fixed overhead. The results of a module are invalidated when its
+ * content is written by a sync or a batch, and a result read before an invalidation is not cached,
+ * since it may be older than the data written. All the results are dropped when the session is flushed
+ * or halo is uninstalled.
+ */
+public final class SearchResultCache {
+
+    /**
+     * The maximum size in bytes of the instances cached.
+     */
+    public static final long MAX_BYTES = 2 * 1024 * 1024;
+
+    /**
+     * The estimated size in bytes of an instance without its values.
+     */
+    static final int INSTANCE_OVERHEAD = 256;
+
+    /**
+     * The cache shared by the searches.
+     */
+    private static final SearchResultCache INSTANCE = new SearchResultCache(MAX_BYTES);
+
+    /**
+     * The results by query hash, in access order.
+     */
+    private final LinkedHashMap<String, Entry> mEntries;
+    /**
+     * The maximum size in bytes of the instances cached.
+     */
+    private final long mMaxBytes;
+    /**
+     * The size in bytes of the instances cached.
+     */
+    private long mBytes;
+    /**
+     * The number of invalidations done.
+     */
+    private long mGeneration;
+    /**
+     * The generation of the revalidations when the results were cached.
+     */
+    private long mSessionGeneration;
+
+    /**
+     * Constructor for the cache.
+     *
+     * @param maxBytes The maximum size in bytes of the instances cached.
+     */
+    SearchResultCache(long maxBytes) {
+        mEntries = new LinkedHashMap<>(16, 0.75f, true);
+        mMaxBytes = maxBytes;
+        mSessionGeneration = Revalidations.generation();
+    }
+
+    /**
+     * Provides the cache shared by the searches.
+     *
+     * @return The cache.
+     */
+    @NonNull
+    public static SearchResultCache instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Provides the result of a query if it is cached and not expired.
+     *
+     * @param hash The hash of the query.
+     * @return A copy of the result or null if it is not cached.
+     */
+    @Nullable
+    public synchronized CachedResult get(@NonNull String hash) {
+        dropPreviousSession();
+        Entry entry = mEntries.get(hash);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.mExpiresOn < System.currentTimeMillis()) {
+            remove(hash);
+            return null;
+        }
+        return new CachedResult(new Paginated<>(new ArrayList<>(entry.mResult.data()), entry.mResult.info()), entry.mFingerprint);
+    }
+
+    /**
+     * Provides the current generation of the cache, that changes with every invalidation. It must be
+     * taken before reading a result from the database to cache it.
+     *
+     * @return The generation.
+     */
+    public synchronized long generation() {
+        dropPreviousSession();
+        return mGeneration;
+    }
+
+    /**
+     * Caches the result of a query. The results bigger than the cache are not cached, neither the ones
+     * read before an invalidation.
+     *
+     * @param hash        The hash of the query.
+     * @param query       The query.
+     * @param result      The decoded result.
+     * @param fingerprint The fingerprint of the rows the result was decoded from.
+     * @param expiresOn   The time when the result expires.
+     * @param generation  The {@link #generation()} taken before reading the result.
+     */
+    public synchronized void put(@NonNull String hash, @NonNull SearchQuery query, @NonNull Paginated<HaloContentInstance> result, long fingerprint, long expiresOn, long generation) {
+        dropPreviousSession();
+        if (generation != mGeneration) {
+            return;
+        }
+        remove(hash);
+        Entry entry = new Entry(query, result, fingerprint, expiresOn);
+        if (entry.mSize > mMaxBytes || expiresOn < System.currentTimeMillis()) {
+            return;
+        }
+        mEntries.put(hash, entry);
+        mBytes += entry.mSize;
+        Iterator<Entry> eldest = mEntries.values().iterator();
+        while (mBytes > mMaxBytes && eldest.hasNext()) {
+            mBytes -= eldest.next().mSize;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Removes the result of a query.
+     *
+     * @param hash The hash of the query.
+     */
+    public synchronized void invalidate(@NonNull String hash) {
+        mGeneration++;
+        remove(hash);
+    }
+
+    /**
+     * Removes the results that may contain instances of the modules. The results of searches
+     * that are not limited to some modules are removed always.
+     *
+     * @param modules The names or ids of the modules written.
+     */
+    public synchronized void invalidateModules(@NonNull Collection<String> modules) {
+        mGeneration++;
+        Iterator<Entry> iterator = mEntries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.affectedBy(modules)) {
+                mBytes -= entry.mSize;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all the results.
+     */
+    public synchronized void clear() {
+        mGeneration++;
+        mEntries.clear();
+        mBytes = 0;
+    }
+
+    /**
+     * Provides the size in bytes of the instances cached.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long size() {
+        return mBytes;
+    }
+
+    /**
+     * Drops all the results if the session was flushed or halo was uninstalled since they were cached,
+     * since they may belong to another user or environment.
+     */
+    private void dropPreviousSession() {
+        long sessionGeneration = Revalidations.generation();
+        if (sessionGeneration != mSessionGeneration) {
+            mSessionGeneration = sessionGeneration;
+            clear();
+        }
+    }
+
+    /**
+     * Removes an entry.
+     *
+     * @param hash The hash of the query.
+     */
+    private void remove(@NonNull String hash) {
+        Entry entry = mEntries.remove(hash);
+        if (entry != null) {
+            mBytes -= entry.mSize;
+        }
+    }
+
+    /**
+     * A result found in the cache.
+     */
+    public static final class CachedResult {
+        /**
+         * The decoded result.
+         */
+        private final Paginated<HaloContentInstance> mResult;
+        /**
+         * The fingerprint of the rows.
+         */
+        private final long mFingerprint;
+
+        /**
+         * Constructor for the cached result.
+         *
+         * @param result      The decoded result.
+         * @param fingerprint The fingerprint of the rows.
+         */
+        private CachedResult(@NonNull Paginated<HaloContentInstance> result, long fingerprint) {
+            mResult = result;
+            mFingerprint = fingerprint;
+        }
+
+        /**
+         * Provides the decoded result.
+         *
+         * @return The result.
+         */
+        @NonNull
+        public Paginated<HaloContentInstance> getResult() {
+            return mResult;
+        }
+
+        /**
+         * Provides the fingerprint of the rows the result was decoded from.
+         *
+         * @return The fingerprint.
+         */
+        public long getFingerprint() {
+            return mFingerprint;
+        }
+    }
+
+    /**
+     * A cached result.
+     */
+    private static class Entry {
+        /**
+         * The decoded result.
+         */
+        private final Paginated<HaloContentInstance> mResult;
+        /**
+         * The fingerprint of the rows.
+         */
+        private final long mFingerprint;
+        /**
+         * The time when the result expires.
+         */
+        private final long mExpiresOn;
+        /**
+         * The names and ids of the modules searched and found.
+         */
+        private final Set<String> mModules;
+        /**
+         * Tells if the search is limited to some modules.
+         */
+        private final boolean mScoped;
+        /**
+         * The size in bytes of the instances of the result, at least the overhead of one instance.
+         */
+        private final long mSize;
+
+        /**
+         * Constructor for the entry.
+         *
+         * @param query       The query.
+         * @param result      The result.
+         * @param fingerprint The fingerprint of the rows.
+         * @param expiresOn   The expiration time.
+         */
+        private Entry(@NonNull SearchQuery query, @NonNull Paginated<HaloContentInstance> result, long fingerprint, long expiresOn) {
+            List<HaloContentInstance> instances = result.data();
+            mResult = new Paginated<>(new ArrayList<>(instances), result.info());
+            mFingerprint = fingerprint;
+            mExpiresOn = expiresOn;
+            mModules = new HashSet<>();
+            if (query.getModuleName() != null) {
+                mModules.add(query.getModuleName());
+            }
+            if (query.getModuleIds() != null) {
+                mModules.addAll(query.getModuleIds());
+            }
+            mScoped = !mModules.isEmpty();
+            long size = 0;
+            for (HaloContentInstance instance : instances) {
+                mModules.add(instance.getModuleName());
+                mModules.add(instance.getModuleId());
+                HaloContentValues values = instance.getContentValues();
+                size += INSTANCE_OVERHEAD + (values != null ? values.size() : 0);
+            }
+            mSize = Math.max(size, INSTANCE_OVERHEAD);
+        }
+
+        /**
+         * Tells if the result may change when the modules are written.
+         *
+         * @param modules The names or ids of the modules.
+         * @return True if the result is affected.
+         */
+        private boolean affectedBy(@NonNull Collection<String> modules) {
+            if (!mScoped) {
+                return true;
+            }
+            for (String module : modules) {
+                if (mModules.contains(module)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import com.mobgen.halo.android.sdk.core.threading.HaloInteractorExecutor;
 import com.mobgen.halo.android.sdk.core.threading.InteractorExecutionCallback;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This selector allows the user of the sdk to select which type of content
@@ -63,7 +64,25 @@ public class HaloContentSelectorFactory<P, U> extends HaloSelectorFactory<P, U>
         return new HaloInteractorExecutor<>(
                 mHalo,
                 mName,
-                mConverterFactory.createList(mDataProvider, clazz, mMode),
+                revalidating(mConverterFactory.createList(mDataProvider, clazz, mMode)),
                 mExecutionCallback);
     }
+
+    @Keep
+    @Api(2.4)
+    @NonNull
+    @Override
+    public HaloContentSelectorFactory<P, U> maxAge(@NonNull TimeUnit unit, long time) {
+        super.maxAge(unit, time);
+        return this;
+    }
+
+    @Keep
+    @Api(2.4)
+    @NonNull
+    @Override
+    public HaloContentSelectorFactory<P, U> revalidationKey(@Nullable String key) {
+        super.revalidationKey(key);
+        return this;
+    }
 }
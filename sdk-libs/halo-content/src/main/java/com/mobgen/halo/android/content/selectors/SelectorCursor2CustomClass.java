@@ -1,6 +1,7 @@
 package com.mobgen.halo.android.content.selectors;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.toolbox.data.Data;
 import com.mobgen.halo.android.framework.toolbox.data.HaloResultV2;
@@ -61,12 +62,22 @@ public class SelectorCursor2CustomClass<F, P, U> extends Selector<F> {
             case Data.NETWORK_ONLY:
                 result = mParsedConverter.convert(mDataProvider.fromNetwork());
                 break;
+            case Data.STALE_WHILE_REVALIDATE:
+                result = mUnparsedConverter.convert(stale(mDataProvider.fromStorage()));
+                break;
             default:
                 throw new UnsupportedOperationException("The operation provided is not supported.");
         }
         return result;
     }
 
+    @Nullable
+    @Override
+    protected HaloResultV2<F> revalidateInteractor() throws Exception {
+        HaloResultV2<U> result = changed(mDataProvider.fromNetworkStorage());
+        return result == null ? null : mUnparsedConverter.convert(result);
+    }
+
     /**
      * Factory that creates the converters based on data types.
      */
@@ -26,7 +26,7 @@ public final class HaloContentContract {
     /**
      * The database version for the HALO cache.
      */
-    public static final int CURRENT_VERSION = HaloContentMigration2$0$0.VERSION;
+    public static final int CURRENT_VERSION = HaloContentMigration2$4$0.VERSION;
 
     /**
      * Private constructor that does not allow instances.
@@ -254,7 +254,8 @@ public final class HaloContentContract {
     }
 
     /**
-     * Batch operation with error in the synchronization.
+     * Batch operation with error in the synchronization. The pending operations are now kept in
+     * the {@link BatchOutboxOperation} table, this one is only read to migrate them.
      *
      */
     @Keep
@@ -292,4 +293,55 @@ public final class HaloContentContract {
 
 
     }
+
+    /**
+     * Batch operations waiting to be sent to the server, in the order they were requested.
+     */
+    @Keep
+    @Table("HALO_GC_BATCH_OUTBOX")
+    public interface BatchOutboxOperation extends HaloTable {
+
+        /**
+         * The id of the operation, assigned in insertion order.
+         */
+        @Keep
+        @Column(type = Column.Type.INTEGER, isPrimaryKey = true)
+        String ID = "OUTBOX_ID";
+
+        /**
+         * The key of the instance to find the operations that supersede each other. Null when
+         * the instance has no id.
+         */
+        @Keep
+        @Column(type = Column.Type.TEXT)
+        String INSTANCE_KEY = "OUTBOX_INSTANCE_KEY";
+
+        /**
+         * The operation to perform.
+         */
+        @Keep
+        @Column(type = Column.Type.TEXT)
+        String OPERATION = "OUTBOX_OPERATION";
+
+        /**
+         * The instance as a JSON String.
+         */
+        @Keep
+        @Column(type = Column.Type.TEXT)
+        String CONTENT_INSTANCE = "OUTBOX_CONTENT_INSTANCE";
+
+        /**
+         * The number of times the operation has been sent.
+         */
+        @Keep
+        @Column(type = Column.Type.INTEGER)
+        String ATTEMPTS = "OUTBOX_ATTEMPTS";
+
+        /**
+         * The date before which the operation must not be sent again.
+         */
+        @Keep
+        @Column(type = Column.Type.DATE)
+        String NEXT_ATTEMPT = "OUTBOX_NEXT_ATTEMPT";
+    }
 }
@@ -0,0 +1,49 @@
+package com.mobgen.halo.android.content.spec;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.content.spec.HaloContentContract.Batch;
+import com.mobgen.halo.android.content.spec.HaloContentContract.BatchOutboxOperation;
+import com.mobgen.halo.android.content.spec.HaloContentContract.ContentSearch;
+import com.mobgen.halo.android.content.spec.HaloContentContract.ContentSearchQuery;
+import com.mobgen.halo.android.framework.storage.database.HaloDatabaseMigration;
+import com.mobgen.halo.android.framework.storage.database.dsl.ORMUtils;
+import com.mobgen.halo.android.framework.storage.database.dsl.queries.Create;
+import com.mobgen.halo.android.framework.storage.database.dsl.queries.Delete;
+
+/**
+ * @hide Migration for the 2.4.0 release. Creates the batch outbox and moves the pending
+ * batch operations into it, and clears the stored searches since the ids of their instances
+ * are computed in a different way.
+ */
+public class HaloContentMigration2$4$0 extends HaloDatabaseMigration {
+
+    /**
+     * The version for the 2.4.0 version.
+     */
+    public static final int VERSION = 3;
+
+    @Override
+    public void updateDatabase(@NonNull SQLiteDatabase database) {
+        Create.table(BatchOutboxOperation.class).on(database, "Create the batch outbox table");
+        database.execSQL("INSERT INTO " + ORMUtils.getTableName(BatchOutboxOperation.class) + " (" +
+                BatchOutboxOperation.OPERATION + "," +
+                BatchOutboxOperation.CONTENT_INSTANCE + "," +
+                BatchOutboxOperation.ATTEMPTS + "," +
+                BatchOutboxOperation.NEXT_ATTEMPT +
+                ") SELECT " +
+                Batch.OPERATION + "," +
+                Batch.CONTENT_INSTANCE + ",0,0 FROM " + ORMUtils.getTableName(Batch.class) +
+                " ORDER BY rowid;");
+        database.execSQL("DELETE FROM " + ORMUtils.getTableName(Batch.class) + ";");
+        //The stored searches reference the instances with the previous ids
+        Delete.from(ContentSearchQuery.class).on(database, "Remove the searches stored with the previous instance ids");
+        Delete.from(ContentSearch.class).on(database, "Remove the search instances stored with the previous ids");
+    }
+
+    @Override
+    public int getDatabaseVersion() {
+        return VERSION;
+    }
+}
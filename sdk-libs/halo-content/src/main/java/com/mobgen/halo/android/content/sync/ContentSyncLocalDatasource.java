@@ -4,12 +4,12 @@ import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
 import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.content.models.HaloContentInstance;
-import com.mobgen.halo.android.content.models.HaloInstanceSync;
 import com.mobgen.halo.android.content.models.HaloSyncLog;
 import com.mobgen.halo.android.content.models.SyncQuery;
 import com.mobgen.halo.android.content.spec.HaloContentContract;
@@ -17,6 +17,7 @@ import com.mobgen.halo.android.content.spec.HaloContentContract.ContentSync;
 import com.mobgen.halo.android.framework.api.HaloStorageApi;
 import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
 import com.mobgen.halo.android.framework.storage.database.HaloDataLite;
 import com.mobgen.halo.android.framework.storage.database.dsl.ORMUtils;
 import com.mobgen.halo.android.framework.storage.database.dsl.queries.Delete;
@@ -29,7 +30,9 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @hide Sync data source for the operations needed.
@@ -39,7 +42,7 @@ public class ContentSyncLocalDatasource {
     /**
      * Sync operation definition.
      */
-    @IntDef({SYNC_OP_CREATION, SYNC_OP_UPDATE, SYNC_OP_DELETION})
+    @IntDef({SYNC_OP_CREATION, SYNC_OP_UPDATE, SYNC_OP_DELETION, SYNC_OP_DATE})
     @Retention(RetentionPolicy.SOURCE)
     private @interface SyncOperation {
     }
@@ -56,6 +59,14 @@ public class ContentSyncLocalDatasource {
      * Sync operation number for deletions.
      */
     private static final int SYNC_OP_DELETION = 3;
+    /**
+     * Sync operation number for a new sync date in a streamed response.
+     */
+    private static final int SYNC_OP_DATE = 4;
+    /**
+     * Max number of operations of a sync written in a single transaction.
+     */
+    private static final int OPERATIONS_PER_TRANSACTION = 500;
     /**
      * The locale constant to use as id when the locale is being used.
      */
@@ -126,131 +137,126 @@ public class ContentSyncLocalDatasource {
 
 
     /**
-     * Get all moduleId references of a given module name.
+     * Synchronizes the instances read from the source. The instances are written while the responses
+     * are read, in chunks of a bounded size kept as raw rows instead of parsed models, so the module is
+     * never kept in memory all together. Every chunk is written in its own transaction once it is
+     * complete, so other writers are neither blocked while the network is read nor by a big module. The
+     * validation of the module ids is done once all the instances are written, and for the first sync
+     * the instances not received are removed at the end instead of clearing the module first. The sync
+     * date is only stored once the last chunk is written, so if the sync fails the next one writes all
+     * the instances again.
      *
-     * @param moduleName The module name.
-     * @return List containing all module ids.
+     * @param isFirstSync True if this is the first sync attempt.
+     * @param syncQuery   The query that will be synced.
+     * @param source      The source of the sync responses.
+     * @return The result of the sync.
+     * @throws HaloNetException            Error reading the responses.
+     * @throws HaloStorageGeneralException Error writing the instances.
      */
     @NonNull
-    private List<String> getModuleIds(@NonNull String moduleName) {
-        Cursor result = Select.columns(ContentSync.MODULE_ID).from(ContentSync.class)
-                .where(ContentSync.MODULE_NAME)
-                .eq(moduleName)
-                .on(mStorage.db(), "Fetch all the items for the given module.");
-        List<String> currentIds = new ArrayList<>();
+    public SyncResult sync(final boolean isFirstSync, @NonNull final SyncQuery syncQuery, @NonNull SyncResponseReader.Source source) throws HaloNetException, HaloStorageGeneralException {
+        final String moduleName = syncQuery.getModuleName();
+        final SyncResult[] result = new SyncResult[1];
+        final HaloContentSyncQueryManager queryManager = new HaloContentSyncQueryManager(mStorage.db().getDatabase(), moduleName);
+        final StreamIngestion ingestion = new StreamIngestion(queryManager);
         try {
-            if (result != null && result.moveToFirst()) {
-                do {
-                    currentIds.add(result.getString(result.getColumnIndex(ContentSync.MODULE_ID)));
-                } while (result.moveToNext());
+            Halog.d(getClass(), "Sync in progress...");
+            ChunkedIngestion chunks = new ChunkedIngestion(mStorage.db(), ingestion);
+            try {
+                source.readInto(chunks);
+            } catch (ChunkWriteException e) {
+                throw e.getStorageException();
             }
+            chunks.write();
+            if (ingestion.mOldestSyncDate == null) {
+                throw new HaloStorageGeneralException("Database error: no sync response was read", new IllegalStateException("No sync date"));
+            }
+
+            mStorage.db().transaction(new HaloDataLite.HaloDataLiteTransaction() {
+                @Override
+                public void onTransaction(@NonNull SQLiteDatabase database) throws HaloStorageException {
+                    //Remove the instances of other module ids and the ones not received in a first sync
+                    boolean isDatabaseClean = removeInvalidModuleIds(moduleName, ingestion.mModuleIds, ingestion.mOldestSyncDate);
+                    if (isFirstSync) {
+                        removeSyncedBefore(moduleName, ingestion.mOldestSyncDate);
+                    }
+
+                    //Store the execution log
+                    HaloSyncLog syncLog = HaloSyncLog.create(moduleName, syncQuery.getLocale(), ingestion.mNewestSyncDate, ingestion.mCreations, ingestion.mUpdates, ingestion.mDeletions);
+                    long entryId = createSyncEntryLog(database, syncLog);
+                    Halog.d(getClass(), "Sync stats: " + syncLog.toString());
+                    result[0] = new SyncResult(entryId, isDatabaseClean);
+                }
+            });
         } finally {
-            result.close();
-            return currentIds;
+            queryManager.release();
         }
+        //Store the last execution date once everything is written
+        saveLastSyncDate(moduleName, syncQuery.getLocale(), ingestion.mNewestSyncDate);
+        return result[0];
     }
 
     /**
-     * Clear database by module name to avoid different modulesId with same moduleName
-     *
-     * @param syncQuery The syncquery .
-     * @param instancesToSync The instances to sync.
+     * Removes the instances of the module that do not belong to the module ids received. If all
+     * the instances received have the same module id the ones with a different id are removed,
+     * otherwise all the instances that were not written in this sync are removed.
      *
-     * @return True if database is consistent with the moduleIds; Otherwise false.
+     * @param moduleName     The module name.
+     * @param moduleIds      The module ids received.
+     * @param oldestSyncDate The oldest sync date written in this sync.
+     * @return True if nothing was removed.
      */
-    @NonNull
-    public Boolean cleanDuplicatedIds(@NonNull final SyncQuery syncQuery, @NonNull HaloInstanceSync instancesToSync) {
-        boolean isDatabaseClean = true;
-        Halog.d(getClass(), "Check  moduleIds and moduleNames...");
-        List<String> currentIds = getModuleIds(syncQuery.getModuleName());
-        if (currentIds.size() > 0) {
-            for (int i = 0; i < instancesToSync.getCreations().size(); i++) {
-                for (int j = 0; j < currentIds.size(); j++) {
-                    if (!currentIds.get(j).equals(instancesToSync.getCreations().get(i).getModuleId())) {
-                        Halog.d(getClass(), "Create clear database: different moduleIds for same moduleName...");
-                        clearInvalidSyncInstances(syncQuery.getModuleName(), currentIds.get(j));
-                        isDatabaseClean = false;
-                    }
-                }
-            }
-
-            for (int i = 0; i < instancesToSync.getUpdates().size(); i++) {
-                for (int j = 0; j < currentIds.size(); j++) {
-                    if (!currentIds.get(j).equals(instancesToSync.getUpdates().get(i).getModuleId())) {
-                        Halog.d(getClass(), "Update clear database: different moduleIds for same moduleName...");
-                        clearInvalidSyncInstances(syncQuery.getModuleName(), currentIds.get(j));
-                        isDatabaseClean = false;
-                    }
-                }
-            }
+    private boolean removeInvalidModuleIds(@NonNull String moduleName, @NonNull Set<String> moduleIds, @NonNull Date oldestSyncDate) {
+        if (moduleIds.isEmpty()) {
+            return true;
         }
-        Halog.d(getClass(), "Sync begins...");
-        return isDatabaseClean;
+        Delete.WhereJoinSyntax delete = Delete.from(ContentSync.class)
+                .where(ContentSync.MODULE_NAME)
+                .eq(moduleName);
+        if (moduleIds.size() == 1) {
+            delete = delete.and(ContentSync.MODULE_ID).neq(moduleIds.iterator().next());
+        } else {
+            delete = delete.and(ContentSync.LAST_SYNCED).lt(oldestSyncDate.getTime());
+        }
+        int removed = delete.on(mStorage.db(), "Deletes the instances synced with other module ids.");
+        if (removed > 0) {
+            Halog.d(getClass(), "Clear database: different moduleIds for same moduleName...");
+        }
+        return removed == 0;
     }
 
     /**
-     * Tries to synchronize the information.
+     * Removes the instances of the module synced before the given date.
      *
-     * @param isFirstSync     True if this is the first sync attempt.
-     * @param syncQuery       The query that will be synced.
-     * @param instancesToSync The instances to sync.
-     * @return The entry id of the log generated. -1 if there was some error creating the entry.
+     * @param moduleName The module name.
+     * @param syncDate   The date.
      */
-    public long sync(boolean isFirstSync, @NonNull final SyncQuery syncQuery, @NonNull final HaloInstanceSync instancesToSync) throws HaloStorageGeneralException {
-        final long[] entryId = {-1};
-
-        //Ensure there is no instances for the first execution
-        if (isFirstSync) {
-            clearSyncModule(syncQuery.getModuleName());
-        }
-
-        //Transact the sync
-        final HaloContentSyncQueryManager queryManager = new HaloContentSyncQueryManager(mStorage.db().getDatabase());
-        mStorage.db().transaction(new HaloDataLite.HaloDataLiteTransaction() {
-            @Override
-            public void onTransaction(@NonNull SQLiteDatabase database) throws HaloStorageException {
-                Halog.d(getClass(), "Sync in progress...");
-
-                int creations = doSync(queryManager, syncQuery.getModuleName(), instancesToSync.getSyncDate(), instancesToSync.getCreations(), SYNC_OP_CREATION);
-                int updates = doSync(queryManager, syncQuery.getModuleName(), instancesToSync.getSyncDate(), instancesToSync.getUpdates(), SYNC_OP_UPDATE);
-                int deletions = doSync(queryManager, syncQuery.getModuleName(), instancesToSync.getSyncDate(), instancesToSync.getDeletions(), SYNC_OP_DELETION);
-
-                //Store the execution log and append the entry
-                HaloSyncLog syncLog = HaloSyncLog.create(syncQuery.getModuleName(), syncQuery.getLocale(), instancesToSync.getSyncDate(), creations, updates, deletions);
-                entryId[0] = createSyncEntryLog(database, syncLog);
-                Halog.d(getClass(), "Sync stats: " + syncLog.toString());
-
-                //Store the last execution date
-                saveLastSyncDate(syncQuery.getModuleName(), syncQuery.getLocale(), instancesToSync.getSyncDate());
-            }
-        });
-        queryManager.release();
-        return entryId[0];
+    private void removeSyncedBefore(@NonNull String moduleName, @NonNull Date syncDate) {
+        Delete.from(ContentSync.class)
+                .where(ContentSync.MODULE_NAME)
+                .eq(moduleName)
+                .and(ContentSync.LAST_SYNCED)
+                .lt(syncDate.getTime())
+                .on(mStorage.db(), "Deletes the instances not received in the first sync of " + moduleName);
     }
 
     /**
      * Performs the execution based on the execution operation for the given instances.
      *
-     * @param syncDao       The dao to insert sync instances.
-     * @param moduleName    The module name.
-     * @param syncDate      The execution date.
+     * @param syncDao       The dao to write the sync instances.
      * @param data          The data to execution.
      * @param syncOperation The execution operation.
      * @return affectedItems
      * @throws HaloStorageGeneralException The storage exception.
      */
     private int doSync(@NonNull final HaloContentSyncQueryManager syncDao,
-                       @NonNull final String moduleName,
-                       @NonNull final Date syncDate,
                        @NonNull final List<HaloContentInstance> data,
                        @SyncOperation final int syncOperation) throws HaloStorageGeneralException {
         if (!data.isEmpty()) {
             switch (syncOperation) {
                 case SYNC_OP_CREATION:
-                    syncDao.insertOrFail(data, moduleName, syncDate);
-                    break;
                 case SYNC_OP_UPDATE:
-                    syncDao.insertOrReplace(data, moduleName, syncDate);
+                    syncDao.upsert(data);
                     break;
                 case SYNC_OP_DELETION:
                     syncDao.delete(data);
@@ -262,6 +268,39 @@ public class ContentSyncLocalDatasource {
         return data.size();
     }
 
+    /**
+     * Applies the instances changed by this device to a module already synced, without touching the
+     * sync date or the sync log, so the next sync still brings the changes made by others.
+     *
+     * @param moduleName The module name.
+     * @param locale     The locale of the instances.
+     * @param upserts    The instances created or updated.
+     * @param deletions  The instances deleted.
+     * @return True if the changes were applied, false if the module has not been synced with this locale.
+     * @throws HaloStorageGeneralException Error writing the instances.
+     */
+    public boolean applyDelta(@NonNull String moduleName, @HaloLocale.LocaleDefinition @Nullable String locale,
+                              @NonNull final List<HaloContentInstance> upserts, @NonNull final List<HaloContentInstance> deletions) throws HaloStorageGeneralException {
+        final Date lastSyncDate = getLastSyncDate(moduleName, locale);
+        if (lastSyncDate == null) {
+            return false;
+        }
+        final HaloContentSyncQueryManager queryManager = new HaloContentSyncQueryManager(mStorage.db().getDatabase(), moduleName);
+        try {
+            mStorage.db().transaction(new HaloDataLite.HaloDataLiteTransaction() {
+                @Override
+                public void onTransaction(@NonNull SQLiteDatabase database) throws HaloStorageException {
+                    queryManager.syncDate(lastSyncDate);
+                    doSync(queryManager, upserts, SYNC_OP_UPDATE);
+                    doSync(queryManager, deletions, SYNC_OP_DELETION);
+                }
+            });
+        } finally {
+            queryManager.release();
+        }
+        return true;
+    }
+
     /**
      * Clears a sync module.
      *
@@ -351,15 +390,276 @@ public class ContentSyncLocalDatasource {
     }
 
     /**
-     * Sync object that caches the queries for performance improvements.
+     * Result of a streamed sync.
+     */
+    public static final class SyncResult {
+
+        /**
+         * The entry id of the log generated.
+         */
+        private final long mLogId;
+        /**
+         * True if the database was consistent with the module ids.
+         */
+        private final boolean mDatabaseClean;
+
+        /**
+         * Constructor for the result.
+         *
+         * @param logId         The log id.
+         * @param databaseClean True if the database was clean.
+         */
+        private SyncResult(long logId, boolean databaseClean) {
+            mLogId = logId;
+            mDatabaseClean = databaseClean;
+        }
+
+        /**
+         * Provides the entry id of the log generated.
+         *
+         * @return The log id.
+         */
+        public long getLogId() {
+            return mLogId;
+        }
+
+        /**
+         * Tells if the database was consistent with the module ids received.
+         *
+         * @return True if it was consistent, false if some instances had to be removed.
+         */
+        public boolean isDatabaseClean() {
+            return mDatabaseClean;
+        }
+    }
+
+    /**
+     * Keeps the sync responses read, in the order they were read, until a chunk is complete and then
+     * writes them in a transaction, so the memory used does not depend on the size of the module.
+     */
+    private static class ChunkedIngestion implements SyncResponseReader.Handler {
+
+        /**
+         * The database where the chunks are written.
+         */
+        private final HaloDataLite mDatabase;
+        /**
+         * The handler that writes the responses.
+         */
+        private final StreamIngestion mIngestion;
+        /**
+         * The responses of the current chunk. Every element is the sync date, a row created, a row
+         * updated or the id deleted, depending on the operation with the same index.
+         */
+        private final List<Object> mValues;
+        /**
+         * The operation of every value of the current chunk.
+         */
+        private final List<Integer> mOperations;
+
+        /**
+         * Constructor for the chunks.
+         *
+         * @param database  The database.
+         * @param ingestion The handler that writes the responses.
+         */
+        private ChunkedIngestion(@NonNull HaloDataLite database, @NonNull StreamIngestion ingestion) {
+            mDatabase = database;
+            mIngestion = ingestion;
+            mValues = new ArrayList<>(OPERATIONS_PER_TRANSACTION);
+            mOperations = new ArrayList<>(OPERATIONS_PER_TRANSACTION);
+        }
+
+        @Override
+        public void onSyncDate(@NonNull Date syncDate) {
+            add(SYNC_OP_DATE, syncDate);
+        }
+
+        @Override
+        public void onCreated(@NonNull SyncResponseReader.Row row) {
+            add(SYNC_OP_CREATION, row);
+        }
+
+        @Override
+        public void onUpdated(@NonNull SyncResponseReader.Row row) {
+            add(SYNC_OP_UPDATE, row);
+        }
+
+        @Override
+        public void onDeleted(@Nullable String itemId) {
+            add(SYNC_OP_DELETION, itemId);
+        }
+
+        /**
+         * Keeps a value read, writing the chunk if it is complete.
+         *
+         * @param operation The operation.
+         * @param value     The value.
+         */
+        private void add(@SyncOperation int operation, @Nullable Object value) {
+            mOperations.add(operation);
+            mValues.add(value);
+            if (mOperations.size() == OPERATIONS_PER_TRANSACTION) {
+                try {
+                    write();
+                } catch (HaloStorageGeneralException e) {
+                    throw new ChunkWriteException(e);
+                }
+            }
+        }
+
+        /**
+         * Writes the responses of the current chunk in a transaction in the same order they were read.
+         *
+         * @throws HaloStorageGeneralException Error writing the chunk.
+         */
+        private void write() throws HaloStorageGeneralException {
+            if (mOperations.isEmpty()) {
+                return;
+            }
+            mDatabase.transaction(new HaloDataLite.HaloDataLiteTransaction() {
+                @Override
+                public void onTransaction(@NonNull SQLiteDatabase database) throws HaloStorageException {
+                    for (int i = 0; i < mOperations.size(); i++) {
+                        Object value = mValues.get(i);
+                        switch (mOperations.get(i)) {
+                            case SYNC_OP_DATE:
+                                mIngestion.onSyncDate((Date) value);
+                                break;
+                            case SYNC_OP_CREATION:
+                                mIngestion.onCreated((SyncResponseReader.Row) value);
+                                break;
+                            case SYNC_OP_UPDATE:
+                                mIngestion.onUpdated((SyncResponseReader.Row) value);
+                                break;
+                            default:
+                                mIngestion.onDeleted((String) value);
+                                break;
+                        }
+                    }
+                    mIngestion.mQueryManager.flush();
+                }
+            });
+            mOperations.clear();
+            mValues.clear();
+        }
+    }
+
+    /**
+     * Error writing a chunk while the responses are read. It stops the reading and is unwrapped
+     * once the source returns.
+     */
+    private static class ChunkWriteException extends RuntimeException {
+
+        /**
+         * Constructor for the exception.
+         *
+         * @param cause The storage exception.
+         */
+        private ChunkWriteException(@NonNull HaloStorageGeneralException cause) {
+            super(cause);
+        }
+
+        /**
+         * Provides the storage exception that caused the error.
+         *
+         * @return The storage exception.
+         */
+        @NonNull
+        private HaloStorageGeneralException getStorageException() {
+            return (HaloStorageGeneralException) getCause();
+        }
+    }
+
+    /**
+     * Handler that writes the instances read while counting them.
+     */
+    private static class StreamIngestion implements SyncResponseReader.Handler {
+
+        /**
+         * The writer of the instances.
+         */
+        private final HaloContentSyncQueryManager mQueryManager;
+        /**
+         * The module ids of the instances written.
+         */
+        private final Set<String> mModuleIds;
+        /**
+         * The number of creations.
+         */
+        private int mCreations;
+        /**
+         * The number of updates.
+         */
+        private int mUpdates;
+        /**
+         * The number of deletions.
+         */
+        private int mDeletions;
+        /**
+         * The oldest sync date read.
+         */
+        private Date mOldestSyncDate;
+        /**
+         * The newest sync date read.
+         */
+        private Date mNewestSyncDate;
+
+        /**
+         * Constructor for the ingestion.
+         *
+         * @param queryManager The writer.
+         */
+        private StreamIngestion(@NonNull HaloContentSyncQueryManager queryManager) {
+            mQueryManager = queryManager;
+            mModuleIds = new HashSet<>();
+        }
+
+        @Override
+        public void onSyncDate(@NonNull Date syncDate) {
+            mQueryManager.syncDate(syncDate);
+            if (mOldestSyncDate == null || syncDate.before(mOldestSyncDate)) {
+                mOldestSyncDate = syncDate;
+            }
+            if (mNewestSyncDate == null || syncDate.after(mNewestSyncDate)) {
+                mNewestSyncDate = syncDate;
+            }
+        }
+
+        @Override
+        public void onCreated(@NonNull SyncResponseReader.Row row) {
+            mModuleIds.add(row.mModuleId);
+            mQueryManager.upsert(row);
+            mCreations++;
+        }
+
+        @Override
+        public void onUpdated(@NonNull SyncResponseReader.Row row) {
+            mModuleIds.add(row.mModuleId);
+            mQueryManager.upsert(row);
+            mUpdates++;
+        }
+
+        @Override
+        public void onDeleted(@Nullable String itemId) {
+            mQueryManager.delete(itemId);
+            mDeletions++;
+        }
+    }
+
+    /**
+     * Sync object that writes the instances in bulk. Instances are written with multi row statements
+     * that are compiled once per shape. Multi row inserts need sqlite 3.7.11, so on older platforms a
+     * single row is written per statement. The rows are written in the transaction of the caller, so
+     * flush must be called before the transaction ends. The statements are kept between transactions.
      * Remember to call release to free the memory of the requests stored.
      */
     private static class HaloContentSyncQueryManager {
 
         /**
-         * Generic insert to add data into the database.
+         * Columns written for each instance.
          */
-        private static final String INSERT = " (" +
+        private static final String COLUMNS = " (" +
                 ContentSync.ID + "," +
                 ContentSync.MODULE_ID + "," +
                 ContentSync.NAME + "," +
@@ -371,78 +671,108 @@ public class ContentSyncLocalDatasource {
                 ContentSync.REMOVED + "," +
                 ContentSync.LAST_SYNCED + "," +
                 ContentSync.MODULE_NAME +
-                ") VALUES (?,?,?,?,?,?,?,?,?,?,?);";
+                ") VALUES ";
 
         /**
-         * Insert or fail statement.
+         * Number of arguments bound for each instance inserted.
          */
-        private static final String INSERT_FAIL_STATEMENT = "INSERT OR FAIL INTO " + ORMUtils.getTableName(ContentSync.class) + INSERT;
+        private static final int ARGUMENTS_PER_ROW = 11;
 
         /**
-         * Insert or replace statement.
+         * Placeholders of a single row.
          */
-        private static final String INSERT_REPLACE_STATEMENT = "INSERT OR REPLACE INTO " + ORMUtils.getTableName(ContentSync.class) + INSERT;
+        private static final String ROW_PLACEHOLDERS = "(?,?,?,?,?,?,?,?,?,?,?)";
 
         /**
-         * Delete statement name.
+         * Max number of rows written in a single statement, keeping the arguments under the
+         * 999 limit of sqlite.
          */
-        private static final String DELETE_STATEMENT = "DELETE FROM " +
-                ORMUtils.getTableName(ContentSync.class) +
-                " WHERE " +
-                ContentSync.ID +
-                " = ?;";
+        private static final int ROWS_PER_STATEMENT = 50;
+
+        /**
+         * First api level with sqlite 3.7.11, which supports multi row inserts.
+         */
+        private static final int MULTI_ROW_INSERT_API = 16;
+
+        /**
+         * Max number of ids deleted in a single statement.
+         */
+        private static final int IDS_PER_STATEMENT = 500;
 
         /**
          * The database instance.
          */
         private SQLiteDatabase mDatabase;
         /**
-         * Insert statement to introduce the instances.
+         * The module name written in the rows.
+         */
+        private final String mModuleName;
+        /**
+         * The sync date written in the rows.
+         */
+        private Date mSyncDate;
+        /**
+         * Number of rows written in a full upsert statement.
          */
-        private SQLiteStatement mInsertOrFailStatement;
+        private final int mRowsPerStatement;
         /**
-         * Inserts or replace statement to update the instances.
+         * Upsert statement for a full set of rows.
          */
-        private SQLiteStatement mInsertOrReplaceStatement;
+        private SQLiteStatement mUpsertStatement;
         /**
-         * Delete statement to remove the instances.
+         * Delete statement for a full set of ids.
          */
         private SQLiteStatement mDeleteStatement;
+        /**
+         * Rows waiting to be upserted.
+         */
+        private final List<SyncResponseReader.Row> mPendingUpserts;
+        /**
+         * Ids waiting to be deleted.
+         */
+        private final List<String> mPendingDeletes;
 
-        private HaloContentSyncQueryManager(@NonNull SQLiteDatabase database) {
+        private HaloContentSyncQueryManager(@NonNull SQLiteDatabase database, @NonNull String moduleName) {
             AssertionUtils.notNull(database, "database");
             mDatabase = database;
+            mModuleName = moduleName;
+            mRowsPerStatement = Build.VERSION.SDK_INT >= MULTI_ROW_INSERT_API ? ROWS_PER_STATEMENT : 1;
+            mPendingUpserts = new ArrayList<>(mRowsPerStatement);
+            mPendingDeletes = new ArrayList<>(IDS_PER_STATEMENT);
         }
 
         /**
-         * Inserts or fail a list of content instances.
+         * Sets the sync date for the next rows written. Pending rows are written with the previous date.
          *
-         * @param instances  The instances.
-         * @param moduleName The module name.
-         * @param syncDate   The sync date.
+         * @param syncDate The sync date.
          */
-        private void insertOrFail(@NonNull List<HaloContentInstance> instances, @NonNull String moduleName, @NonNull Date syncDate) {
-            if (mInsertOrFailStatement == null) {
-                mInsertOrFailStatement = mDatabase.compileStatement(INSERT_FAIL_STATEMENT);
-            }
-            for (HaloContentInstance instance : instances) {
-                insert(mInsertOrFailStatement, instance, moduleName, syncDate);
-            }
+        private void syncDate(@NonNull Date syncDate) {
+            flush();
+            mSyncDate = syncDate;
         }
 
         /**
          * Inserts or replaces the list of content instances.
          *
-         * @param instances  The instances.
-         * @param moduleName The module name.
-         * @param syncDate   The the sync date.
+         * @param instances The instances.
          */
-        private void insertOrReplace(@NonNull List<HaloContentInstance> instances, @NonNull String moduleName, @NonNull Date syncDate) {
-            if (mInsertOrReplaceStatement == null) {
-                mInsertOrReplaceStatement = mDatabase.compileStatement(INSERT_REPLACE_STATEMENT);
-            }
+        private void upsert(@NonNull List<HaloContentInstance> instances) {
             for (HaloContentInstance instance : instances) {
-                insert(mInsertOrReplaceStatement, instance, moduleName, syncDate);
+                upsert(SyncResponseReader.Row.from(instance));
+            }
+            flush();
+        }
+
+        /**
+         * Adds a row to be inserted or replaced. Rows are written once a full statement is pending.
+         *
+         * @param row The row.
+         */
+        private void upsert(@NonNull SyncResponseReader.Row row) {
+            flushDeletes();
+            mPendingUpserts.add(row);
+            if (mPendingUpserts.size() == mRowsPerStatement) {
+                flushUpserts();
             }
         }
 
@@ -451,28 +781,103 @@ public class ContentSyncLocalDatasource {
          *
          * @param instances The instances.
          */
-        private void delete(List<HaloContentInstance> instances) {
-            if (mDeleteStatement == null) {
-                mDeleteStatement = mDatabase.compileStatement(DELETE_STATEMENT);
-            }
+        private void delete(@NonNull List<HaloContentInstance> instances) {
             for (HaloContentInstance instance : instances) {
-                mDeleteStatement.clearBindings();
-                ORMUtils.bindStringOrNull(mDeleteStatement, 1, instance.getItemId());
-                mDeleteStatement.executeUpdateDelete();
+                delete(instance.getItemId());
+            }
+            flush();
+        }
+
+        /**
+         * Adds an id to be deleted. Ids are deleted once a full statement is pending.
+         *
+         * @param itemId The item id.
+         */
+        private void delete(@Nullable String itemId) {
+            flushUpserts();
+            mPendingDeletes.add(itemId);
+            if (mPendingDeletes.size() == IDS_PER_STATEMENT) {
+                flushDeletes();
             }
         }
 
+        /**
+         * Writes all the pending operations.
+         */
+        private void flush() {
+            flushUpserts();
+            flushDeletes();
+        }
+
+        /**
+         * Writes the pending rows.
+         */
+        private void flushUpserts() {
+            int rows = mPendingUpserts.size();
+            if (rows == 0) {
+                return;
+            }
+            SQLiteStatement statement;
+            if (rows == mRowsPerStatement) {
+                if (mUpsertStatement == null) {
+                    mUpsertStatement = mDatabase.compileStatement(upsertSql(mRowsPerStatement));
+                }
+                statement = mUpsertStatement;
+            } else {
+                statement = mDatabase.compileStatement(upsertSql(rows));
+            }
+            try {
+                statement.clearBindings();
+                for (int i = 0; i < rows; i++) {
+                    bind(statement, i * ARGUMENTS_PER_ROW, mPendingUpserts.get(i), mModuleName, mSyncDate);
+                }
+                statement.execute();
+            } finally {
+                if (statement != mUpsertStatement) {
+                    statement.close();
+                }
+            }
+            mPendingUpserts.clear();
+        }
+
+        /**
+         * Deletes the pending ids.
+         */
+        private void flushDeletes() {
+            int ids = mPendingDeletes.size();
+            if (ids == 0) {
+                return;
+            }
+            SQLiteStatement statement;
+            if (ids == IDS_PER_STATEMENT) {
+                if (mDeleteStatement == null) {
+                    mDeleteStatement = mDatabase.compileStatement(deleteSql(IDS_PER_STATEMENT));
+                }
+                statement = mDeleteStatement;
+            } else {
+                statement = mDatabase.compileStatement(deleteSql(ids));
+            }
+            try {
+                statement.clearBindings();
+                for (int i = 0; i < ids; i++) {
+                    ORMUtils.bindStringOrNull(statement, i + 1, mPendingDeletes.get(i));
+                }
+                statement.executeUpdateDelete();
+            } finally {
+                if (statement != mDeleteStatement) {
+                    statement.close();
+                }
+            }
+            mPendingDeletes.clear();
+        }
+
         /**
          * Releases the memory taken from the statement.
          */
         private void release() {
-            if (mInsertOrFailStatement != null) {
-                mInsertOrFailStatement.close();
-                mInsertOrFailStatement = null;
-            }
-            if (mInsertOrReplaceStatement != null) {
-                mInsertOrReplaceStatement.close();
-                mInsertOrReplaceStatement = null;
+            if (mUpsertStatement != null) {
+                mUpsertStatement.close();
+                mUpsertStatement = null;
             }
             if (mDeleteStatement != null) {
                 mDeleteStatement.close();
@@ -481,29 +886,68 @@ public class ContentSyncLocalDatasource {
         }
 
         /**
-         * Inserts the statement into the database binding the values.
+         * Creates the upsert sql for the given number of rows.
+         *
+         * @param rows The number of rows.
+         * @return The sql.
+         */
+        @NonNull
+        private static String upsertSql(int rows) {
+            StringBuilder builder = new StringBuilder("INSERT OR REPLACE INTO ")
+                    .append(ORMUtils.getTableName(ContentSync.class))
+                    .append(COLUMNS);
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) {
+                    builder.append(",");
+                }
+                builder.append(ROW_PLACEHOLDERS);
+            }
+            return builder.append(";").toString();
+        }
+
+        /**
+         * Creates the delete sql for the given number of ids.
+         *
+         * @param ids The number of ids.
+         * @return The sql.
+         */
+        @NonNull
+        private static String deleteSql(int ids) {
+            StringBuilder builder = new StringBuilder("DELETE FROM ")
+                    .append(ORMUtils.getTableName(ContentSync.class))
+                    .append(" WHERE ")
+                    .append(ContentSync.ID)
+                    .append(" IN (");
+            for (int i = 0; i < ids; i++) {
+                if (i > 0) {
+                    builder.append(",");
+                }
+                builder.append("?");
+            }
+            return builder.append(");").toString();
+        }
+
+        /**
+         * Binds the values of a row in the statement.
          *
          * @param statement  The statement.
-         * @param instance   The instance.
+         * @param offset     The number of arguments already bound before this row.
+         * @param row        The row.
          * @param moduleName The module name.
          * @param syncDate   The sync date.
-         * @return The line of the value inserted.
-         */
-        private long insert(@NonNull SQLiteStatement statement, @NonNull HaloContentInstance instance, @NonNull String moduleName, @NonNull Date syncDate) {
-            statement.clearBindings();
-            ORMUtils.bindStringOrNull(statement, 1, instance.getItemId());
-            ORMUtils.bindStringOrNull(statement, 2, instance.getModuleId());
-            ORMUtils.bindStringOrNull(statement, 3, instance.getName());
-            String values = instance.getValues() != null ? instance.getValues().toString() : null;
-            ORMUtils.bindStringOrNull(statement, 4, values);
-            ORMUtils.bindStringOrNull(statement, 5, instance.getAuthor());
-            ORMUtils.bindDateOrNull(statement, 6, instance.getPublishedDate());
-            ORMUtils.bindDateOrNull(statement, 7, instance.getCreatedDate());
-            ORMUtils.bindDateOrNull(statement, 8, instance.getLastUpdate());
-            ORMUtils.bindDateOrNull(statement, 9, instance.getRemoveDate());
-            ORMUtils.bindDateOrNull(statement, 10, syncDate);
-            ORMUtils.bindStringOrNull(statement, 11, moduleName);
-            return statement.executeInsert();
+         */
+        private static void bind(@NonNull SQLiteStatement statement, int offset, @NonNull SyncResponseReader.Row row, @NonNull String moduleName, @Nullable Date syncDate) {
+            ORMUtils.bindStringOrNull(statement, offset + 1, row.mItemId);
+            ORMUtils.bindStringOrNull(statement, offset + 2, row.mModuleId);
+            ORMUtils.bindStringOrNull(statement, offset + 3, row.mName);
+            ORMUtils.bindStringOrNull(statement, offset + 4, row.mValues);
+            ORMUtils.bindStringOrNull(statement, offset + 5, row.mAuthor);
+            ORMUtils.bindDateOrNull(statement, offset + 6, row.mPublishedAt);
+            ORMUtils.bindDateOrNull(statement, offset + 7, row.mCreatedAt);
+            ORMUtils.bindDateOrNull(statement, offset + 8, row.mUpdatedAt);
+            ORMUtils.bindDateOrNull(statement, offset + 9, row.mRemovedAt);
+            ORMUtils.bindDateOrNull(statement, offset + 10, syncDate);
+            ORMUtils.bindStringOrNull(statement, offset + 11, moduleName);
         }
     }
 }
@@ -3,7 +3,6 @@ package com.mobgen.halo.android.content.sync;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
-import com.mobgen.halo.android.content.models.HaloInstanceSync;
 import com.mobgen.halo.android.content.spec.HaloContentNetwork;
 import com.mobgen.halo.android.framework.api.HaloNetworkApi;
 import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
@@ -11,13 +10,17 @@ import com.mobgen.halo.android.framework.network.client.body.HaloBodyFactory;
 import com.mobgen.halo.android.framework.network.client.request.HaloRequest;
 import com.mobgen.halo.android.framework.network.client.request.HaloRequestMethod;
 import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetParseException;
 import com.mobgen.halo.android.sdk.core.internal.network.HaloNetworkConstants;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.Date;
 
+import okhttp3.Response;
+
 /**
  * @hide Remote datasource that request synced instances.
  */
@@ -38,28 +41,46 @@ public class ContentSyncRemoteDatasource {
     }
 
     /**
-     * Syncs a module and provides the result.
+     * Syncs a module streaming the responses into the handler provided as they are parsed. The
+     * handler decides how many instances are kept in memory before writing them. For the first sync
+     * the instances cached in the server since the first response are also requested.
      *
+     * @param cacheTime    Cache time selected by user.
      * @param moduleToSync The module to sync.
      * @param locale       Locale.
      * @param fromSync     The last synced date.
-     * @return The instances to sync.
-     * @throws HaloNetException Error while requesting the module.
+     * @param handler      The handler that receives the instances.
+     * @throws HaloNetException Error while requesting or reading the module.
      */
-    @NonNull
-    public HaloInstanceSync syncModule(int cacheTime, @NonNull String moduleToSync, @Nullable String locale, @Nullable Date fromSync) throws HaloNetException {
+    public void syncModule(int cacheTime, @NonNull String moduleToSync, @Nullable String locale, @Nullable Date fromSync, @NonNull SyncResponseReader.Handler handler) throws HaloNetException {
         long millis = System.currentTimeMillis();
-        HaloInstanceSync syncInstance = createSyncRequest(cacheTime, fromSync, moduleToSync, locale, false).execute(HaloInstanceSync.class);
+        Date syncDate = readSyncResponse(createSyncRequest(cacheTime, fromSync, moduleToSync, locale, false), handler);
         boolean isFirstSync = fromSync == null;
         if (isFirstSync) {
-            HaloRequest request = createSyncRequest(cacheTime, syncInstance.getSyncDate(), moduleToSync, locale, false);
-            HaloInstanceSync fromCacheSyncInstance = request.execute(HaloInstanceSync.class);
-            syncInstance.mergeWith(fromCacheSyncInstance);
+            readSyncResponse(createSyncRequest(cacheTime, syncDate, moduleToSync, locale, false), handler);
         }
         Halog.d(getClass(), Long.valueOf(System.currentTimeMillis() - millis).toString());
-        return syncInstance;
     }
 
+    /**
+     * Executes the request and streams its response into the handler.
+     *
+     * @param request The sync request.
+     * @param handler The handler.
+     * @return The sync date of the response.
+     * @throws HaloNetException Error while requesting or reading the response.
+     */
+    @NonNull
+    private Date readSyncResponse(@NonNull HaloRequest request, @NonNull SyncResponseReader.Handler handler) throws HaloNetException {
+        Response response = request.execute();
+        try {
+            return SyncResponseReader.read(response.body().byteStream(), handler);
+        } catch (IOException e) {
+            throw new HaloNetParseException("Error parsing the stream", e);
+        } finally {
+            response.body().close();
+        }
+    }
 
     /**
      * Force clear the cache for given module due to insconsistent data.
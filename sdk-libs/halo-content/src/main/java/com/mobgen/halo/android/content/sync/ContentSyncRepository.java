@@ -5,12 +5,14 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.WorkerThread;
 
-import com.mobgen.halo.android.content.models.HaloInstanceSync;
 import com.mobgen.halo.android.content.models.SyncQuery;
+import com.mobgen.halo.android.content.search.SearchResultCache;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
 import com.mobgen.halo.android.framework.toolbox.data.HaloResultV2;
 import com.mobgen.halo.android.framework.toolbox.data.HaloStatus;
 
+import java.util.Collections;
 import java.util.Date;
 
 /**
@@ -54,14 +56,13 @@ public class ContentSyncRepository {
         HaloStatus.Builder status = HaloStatus.builder().dataLocal();
         Date lastSyncDate = mLocalDatasource.getLastSyncDate(syncQuery.getModuleName(), syncQuery.getLocale());
         try {
-            HaloInstanceSync instanceSync = mRemoteDatasource.syncModule(syncQuery.getServerCache(), syncQuery.getModuleName(), syncQuery.getLocale(), lastSyncDate);
-            boolean isDatabaseClean = mLocalDatasource.cleanDuplicatedIds(syncQuery,instanceSync);
-            if(!isDatabaseClean){
+            ContentSyncLocalDatasource.SyncResult syncResult = mLocalDatasource.sync(lastSyncDate == null, syncQuery, createSyncSource(syncQuery, lastSyncDate));
+            if (!syncResult.isDatabaseClean()) {
                 //retry request to cache module again
                 mRemoteDatasource.forceCacheModule(syncQuery.getServerCache(), syncQuery.getModuleName(), syncQuery.getLocale());
             }
-            long logId = mLocalDatasource.sync(lastSyncDate == null, syncQuery, instanceSync);
-            result = mLocalDatasource.getSyncedModuleLog(logId);
+            result = mLocalDatasource.getSyncedModuleLog(syncResult.getLogId());
+            SearchResultCache.instance().invalidateModules(Collections.singletonList(syncQuery.getModuleName()));
         } catch (Exception e) {
             status.error(e);
         }
@@ -117,9 +118,27 @@ public class ContentSyncRepository {
         HaloStatus.Builder status = HaloStatus.builder().dataLocal();
         try {
             mLocalDatasource.clearSyncModule(moduleName);
+            SearchResultCache.instance().invalidateModules(Collections.singletonList(moduleName));
         } catch (Exception e) {
             status.error(e);
         }
         return new HaloResultV2<>(status.build(), null);
     }
+
+    /**
+     * Creates the source that streams the module sync responses.
+     *
+     * @param syncQuery    The query for the sync.
+     * @param lastSyncDate The last sync date.
+     * @return The source.
+     */
+    @NonNull
+    private SyncResponseReader.Source createSyncSource(@NonNull final SyncQuery syncQuery, @Nullable final Date lastSyncDate) {
+        return new SyncResponseReader.Source() {
+            @Override
+            public void readInto(@NonNull SyncResponseReader.Handler handler) throws HaloNetException {
+                mRemoteDatasource.syncModule(syncQuery.getServerCache(), syncQuery.getModuleName(), syncQuery.getLocale(), lastSyncDate, handler);
+            }
+        };
+    }
 }
@@ -0,0 +1,381 @@
+package com.mobgen.halo.android.content.sync;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.bluelinelabs.logansquare.LoganSquare;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.mobgen.halo.android.content.models.HaloContentInstance;
+import com.mobgen.halo.android.content.models.HaloContentValues;
+import com.mobgen.halo.android.content.utils.HaloContentHelper;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @hide Streaming reader for the module sync responses. It walks the json tokens and hands out the
+ * created, updated and deleted instances one by one instead of building the whole response in memory.
+ * The values of every instance are kept as raw json text so they can be stored directly.
+ */
+public final class SyncResponseReader {
+
+    /**
+     * The sync timestamp field.
+     */
+    private static final String FIELD_SYNC_TIMESTAMP = "syncTimestamp";
+    /**
+     * The created instances field.
+     */
+    private static final String FIELD_CREATED = "created";
+    /**
+     * The updated instances field.
+     */
+    private static final String FIELD_UPDATED = "updated";
+    /**
+     * The deleted instances field.
+     */
+    private static final String FIELD_DELETED = "deleted";
+
+    /**
+     * Receives the content of a sync response while it is being read. The sync date is always
+     * provided before any instance.
+     */
+    public interface Handler {
+        /**
+         * Called with the server timestamp of the sync.
+         *
+         * @param syncDate The sync date.
+         */
+        void onSyncDate(@NonNull Date syncDate);
+
+        /**
+         * Called for every instance created.
+         *
+         * @param row The instance.
+         */
+        void onCreated(@NonNull Row row);
+
+        /**
+         * Called for every instance updated.
+         *
+         * @param row The instance.
+         */
+        void onUpdated(@NonNull Row row);
+
+        /**
+         * Called for every instance deleted.
+         *
+         * @param itemId The id of the instance.
+         */
+        void onDeleted(@Nullable String itemId);
+    }
+
+    /**
+     * Source of sync responses that pushes all of them into a handler.
+     */
+    public interface Source {
+        /**
+         * Reads the sync responses into the handler.
+         *
+         * @param handler The handler.
+         * @throws HaloNetException Error requesting or reading the responses.
+         */
+        void readInto(@NonNull Handler handler) throws HaloNetException;
+    }
+
+    /**
+     * An instance as it is stored in the sync table.
+     */
+    public static final class Row {
+        /**
+         * The item id.
+         */
+        String mItemId;
+        /**
+         * The module id.
+         */
+        String mModuleId;
+        /**
+         * The name.
+         */
+        String mName;
+        /**
+         * The values as raw json.
+         */
+        String mValues;
+        /**
+         * The author.
+         */
+        String mAuthor;
+        /**
+         * The published date.
+         */
+        Date mPublishedAt;
+        /**
+         * The creation date.
+         */
+        Date mCreatedAt;
+        /**
+         * The last update date.
+         */
+        Date mUpdatedAt;
+        /**
+         * The removal date.
+         */
+        Date mRemovedAt;
+
+        /**
+         * Creates a row from a content instance.
+         *
+         * @param instance The instance.
+         * @return The row created.
+         */
+        @NonNull
+        static Row from(@NonNull HaloContentInstance instance) {
+            Row row = new Row();
+            row.mItemId = instance.getItemId();
+            row.mModuleId = instance.getModuleId();
+            row.mName = instance.getName();
+            HaloContentValues values = instance.getContentValues();
+            row.mValues = values != null ? values.toJson() : null;
+            row.mAuthor = instance.getAuthor();
+            row.mPublishedAt = instance.getPublishedDate();
+            row.mCreatedAt = instance.getCreatedDate();
+            row.mUpdatedAt = instance.getLastUpdate();
+            row.mRemovedAt = instance.getRemoveDate();
+            return row;
+        }
+    }
+
+    /**
+     * Constructor to avoid instances.
+     */
+    private SyncResponseReader() {
+        //Do nothing in this constructor
+    }
+
+    /**
+     * Reads a sync response from the stream.
+     *
+     * @param stream  The stream with the json response. It is not closed.
+     * @param handler The handler that receives the content.
+     * @return The sync date of the response.
+     * @throws IOException Error reading the response or the response is not a sync response.
+     */
+    @NonNull
+    public static Date read(@NonNull InputStream stream, @NonNull Handler handler) throws IOException {
+        JsonParser parser = LoganSquare.JSON_FACTORY.createParser(stream);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("The sync response is not a json object.");
+            }
+            Date syncDate = null;
+            PendingHandler pending = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (FIELD_SYNC_TIMESTAMP.equals(field)) {
+                    syncDate = readDate(parser);
+                    if (syncDate != null) {
+                        handler.onSyncDate(syncDate);
+                        if (pending != null) {
+                            pending.replay(handler);
+                            pending = null;
+                        }
+                    }
+                } else if (FIELD_CREATED.equals(field) || FIELD_UPDATED.equals(field) || FIELD_DELETED.equals(field)) {
+                    Handler target = handler;
+                    if (syncDate == null) {
+                        //Keep the instances until the timestamp arrives
+                        if (pending == null) {
+                            pending = new PendingHandler();
+                        }
+                        target = pending;
+                    }
+                    readInstances(parser, field, target);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (syncDate == null) {
+                throw new IOException("The sync response does not contain the " + FIELD_SYNC_TIMESTAMP + ".");
+            }
+            return syncDate;
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Reads an array of instances.
+     *
+     * @param parser  The parser positioned at the start of the array.
+     * @param field   The field of the array.
+     * @param handler The handler.
+     * @throws IOException Error reading.
+     */
+    private static void readInstances(@NonNull JsonParser parser, @NonNull String field, @NonNull Handler handler) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (FIELD_DELETED.equals(field)) {
+                handler.onDeleted(readItemId(parser));
+            } else if (parser.getCurrentToken() == JsonToken.START_OBJECT) {
+                Row row = readRow(parser);
+                if (FIELD_CREATED.equals(field)) {
+                    handler.onCreated(row);
+                } else {
+                    handler.onUpdated(row);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads the id of a deleted instance, that can be the instance or only its id.
+     *
+     * @param parser The parser positioned at the instance.
+     * @return The item id.
+     * @throws IOException Error reading.
+     */
+    @Nullable
+    private static String readItemId(@NonNull JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            return parser.getValueAsString();
+        }
+        String itemId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                itemId = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return itemId;
+    }
+
+    /**
+     * Reads an instance.
+     *
+     * @param parser The parser positioned at the start of the instance.
+     * @return The row read.
+     * @throws IOException Error reading.
+     */
+    @NonNull
+    private static Row readRow(@NonNull JsonParser parser) throws IOException {
+        Row row = new Row();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                row.mItemId = parser.getValueAsString();
+            } else if ("module".equals(field)) {
+                row.mModuleId = parser.getValueAsString();
+            } else if ("name".equals(field)) {
+                row.mName = parser.getValueAsString();
+            } else if ("values".equals(field)) {
+                row.mValues = HaloContentHelper.readRawJson(parser);
+            } else if ("createdBy".equals(field)) {
+                row.mAuthor = parser.getValueAsString();
+            } else if ("createdAt".equals(field)) {
+                row.mCreatedAt = readDate(parser);
+            } else if ("updatedAt".equals(field)) {
+                row.mUpdatedAt = readDate(parser);
+            } else if ("publishedAt".equals(field)) {
+                row.mPublishedAt = readDate(parser);
+            } else if ("removedAt".equals(field)) {
+                row.mRemovedAt = readDate(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Reads a date in millis.
+     *
+     * @param parser The parser.
+     * @return The date or null.
+     * @throws IOException Error reading.
+     */
+    @Nullable
+    private static Date readDate(@NonNull JsonParser parser) throws IOException {
+        String millis = parser.getValueAsString();
+        if (millis == null) {
+            return null;
+        }
+        try {
+            return new Date(Long.parseLong(millis));
+        } catch (NumberFormatException e) {
+            throw new IOException("The date " + millis + " is not a timestamp.", e);
+        }
+    }
+
+    /**
+     * Keeps the instances read before the sync date to replay them once it is known.
+     */
+    private static class PendingHandler implements Handler {
+
+        /**
+         * The created rows.
+         */
+        private final List<Row> mCreated = new ArrayList<>();
+        /**
+         * The updated rows.
+         */
+        private final List<Row> mUpdated = new ArrayList<>();
+        /**
+         * The deleted ids.
+         */
+        private final List<String> mDeleted = new ArrayList<>();
+
+        @Override
+        public void onSyncDate(@NonNull Date syncDate) {
+            //The date is never pending
+        }
+
+        @Override
+        public void onCreated(@NonNull Row row) {
+            mCreated.add(row);
+        }
+
+        @Override
+        public void onUpdated(@NonNull Row row) {
+            mUpdated.add(row);
+        }
+
+        @Override
+        public void onDeleted(@Nullable String itemId) {
+            mDeleted.add(itemId);
+        }
+
+        /**
+         * Replays the instances in the same order they are applied in a sync.
+         *
+         * @param handler The handler.
+         */
+        private void replay(@NonNull Handler handler) {
+            for (Row row : mCreated) {
+                handler.onCreated(row);
+            }
+            for (Row row : mUpdated) {
+                handler.onUpdated(row);
+            }
+            for (String itemId : mDeleted) {
+                handler.onDeleted(itemId);
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageParseExce
 import com.mobgen.halo.android.framework.toolbox.data.HaloResultV2;
 import com.mobgen.halo.android.sdk.core.selectors.ISelectorConverter;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -24,6 +25,10 @@ public class ContentCursor2ClassConverter<T> implements ISelectorConverter<List<
      * The class type.
      */
     private Class<T> mClazz;
+    /**
+     * The deserializer of the class, created with the first conversion.
+     */
+    private Parser<InputStream, T> mDeserializer;
 
     /**
      * Constructor for the instance class converter.
@@ -41,8 +46,27 @@ public class ContentCursor2ClassConverter<T> implements ISelectorConverter<List<
         Cursor cursor = cursorResult.data();
         List<T> parsedData = null;
         if (cursor != null) {
-            parsedData = HaloContentHelper.createList(cursor, false, mClazz, mParser);
+            //Decode the stored values straight into the model
+            parsedData = HaloContentHelper.createList(cursor, false, deserializer());
         }
         return new HaloResultV2<>(cursorResult.status(), parsedData);
     }
+
+    /**
+     * Provides the deserializer of the class.
+     *
+     * @return The deserializer.
+     * @throws HaloParsingException There is no deserializer for the class.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    private Parser<InputStream, T> deserializer() throws HaloParsingException {
+        if (mDeserializer == null) {
+            mDeserializer = (Parser<InputStream, T>) mParser.deserialize(mClazz);
+            if (mDeserializer == null) {
+                throw new HaloParsingException("There is no parser available for " + mClazz.getName(), null);
+            }
+        }
+        return mDeserializer;
+    }
 }
\ No newline at end of file
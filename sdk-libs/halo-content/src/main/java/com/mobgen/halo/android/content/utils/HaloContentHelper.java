@@ -6,9 +6,15 @@ import android.support.annotation.Keep;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.bluelinelabs.logansquare.LoganSquare;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.mobgen.halo.android.content.annotations.HaloConstructor;
+import com.mobgen.halo.android.content.generated.GeneratedModelMapper;
 import com.mobgen.halo.android.content.models.GeneratedContent;
 import com.mobgen.halo.android.content.models.HaloContentInstance;
+import com.mobgen.halo.android.content.models.HaloContentValues;
 import com.mobgen.halo.android.content.models.Paginated;
 import com.mobgen.halo.android.content.spec.HaloContentContract;
 import com.mobgen.halo.android.framework.common.annotations.Api;
@@ -22,14 +28,14 @@ import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageParseExce
 import com.mobgen.halo.android.framework.toolbox.data.HaloResultV2;
 import com.mobgen.halo.android.sdk.api.Halo;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.Charset;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -42,6 +48,11 @@ import java.util.List;
  */
 public final class HaloContentHelper {
 
+    /**
+     * The charset of the stored values.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
     /**
      * Constructor to avoid the instances from the utils.
      */
@@ -50,7 +61,9 @@ public final class HaloContentHelper {
     }
 
     /**
-     * Creates the hash of the item.
+     * Creates the hash of the item. Since 2.4 the values are hashed through their container instead
+     * of the text of the whole instance, so the searches stored with the previous ids are removed in
+     * the 2.4.0 migration.
      *
      * @param instance The content instance.
      * @return The hash of the item.
@@ -58,12 +71,30 @@ public final class HaloContentHelper {
      */
     public static String createDatabaseId(@NonNull HaloContentInstance instance) throws HaloStorageGeneralException {
         try {
-            return HaloUtils.sha1(instance.toString()) + "_" + instance.getItemId();
+            //The values are hashed once in its container, so only the rest of the fields are hashed here
+            HaloContentValues contentValues = instance.getContentValues();
+            String content = instance.getItemId() + "|" + instance.getModuleName() + "|" + instance.getModuleId() + "|" +
+                    instance.getName() + "|" + instance.getAuthor() + "|" + instance.getTags() + "|" +
+                    time(instance.getCreatedDate()) + "|" + time(instance.getLastUpdate()) + "|" +
+                    time(instance.getPublishedDate()) + "|" + time(instance.getArchivedDate()) + "|" +
+                    time(instance.getRemoveDate()) + "|" + (contentValues != null ? contentValues.hash() : null);
+            return HaloUtils.sha1(content) + "_" + instance.getItemId();
         } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
             throw new HaloStorageGeneralException("Error while creating hash of the general content instance: " + instance.getItemId(), e);
         }
     }
 
+    /**
+     * Provides the time of a date for the hash.
+     *
+     * @param date The date.
+     * @return The time or null.
+     */
+    @Nullable
+    private static Long time(@Nullable Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
 
     /**
      * Creates the default general content instance values for the database based on an instance.
@@ -77,8 +108,9 @@ public final class HaloContentHelper {
         values.put(HaloContentContract.Content.ID, instance.getItemId());
         values.put(HaloContentContract.Content.MODULE_ID, instance.getModuleId());
         values.put(HaloContentContract.Content.NAME, instance.getName());
-        if (instance.getValues() != null) {
-            values.put(HaloContentContract.Content.VALUES, instance.getValues().toString());
+        HaloContentValues contentValues = instance.getContentValues();
+        if (contentValues != null) {
+            values.put(HaloContentContract.Content.VALUES, contentValues.toJson());
         }
         values.put(HaloContentContract.Content.AUTHOR, instance.getAuthor());
         values.put(HaloContentContract.Content.CREATED_AT, instance.getCreatedDate() != null ? instance.getCreatedDate().getTime() : null);
@@ -186,39 +218,77 @@ public final class HaloContentHelper {
      * @throws HaloStorageParseException while parsing the content as json.
      */
     public static HaloContentInstance fromCursor(Cursor cursor, boolean close) throws HaloStorageParseException {
-        String itemId = cursor.getString(cursor.getColumnIndex(HaloContentContract.ContentSearch.ID));
-        String moduleId = cursor.getString(cursor.getColumnIndex(HaloContentContract.ContentSearch.MODULE_ID));
-        String name = cursor.getString(cursor.getColumnIndex(HaloContentContract.ContentSearch.NAME));
-        JSONObject values = null;
-        try {
-            if (!cursor.isNull(cursor.getColumnIndex(HaloContentContract.ContentSearch.VALUES))) {
-                values = new JSONObject(cursor.getString(cursor.getColumnIndex(HaloContentContract.ContentSearch.VALUES)));
-            }
-        } catch (JSONException e) {
-            throw new HaloStorageParseException("Error parsing the general content values.", e);
+        HaloContentInstance instance = fromCursor(cursor, new ContentColumns(cursor));
+        if (close) {
+            cursor.close();
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a general content instance from the current row of the cursor.
+     *
+     * @param cursor  The cursor.
+     * @param columns The column indexes of the cursor.
+     * @return The item generated.
+     */
+    @NonNull
+    private static HaloContentInstance fromCursor(@NonNull Cursor cursor, @NonNull ContentColumns columns) {
+        String itemId = cursor.getString(columns.mId);
+        String moduleId = cursor.getString(columns.mModuleId);
+        String name = cursor.getString(columns.mName);
+        //The values are kept as raw json and only decoded when they are read
+        HaloContentValues values = null;
+        if (!cursor.isNull(columns.mValues)) {
+            values = HaloContentValues.fromJson(cursor.getString(columns.mValues));
         }
-        String author = cursor.getString(cursor.getColumnIndex(HaloContentContract.ContentSearch.AUTHOR));
+        String author = cursor.getString(columns.mAuthor);
         Date publishedAt = null;
-        if (!cursor.isNull(cursor.getColumnIndex(HaloContentContract.ContentSearch.PUBLISHED))) {
-            publishedAt = new Date(cursor.getLong(cursor.getColumnIndex(HaloContentContract.ContentSearch.PUBLISHED)));
+        if (!cursor.isNull(columns.mPublished)) {
+            publishedAt = new Date(cursor.getLong(columns.mPublished));
         }
         Date removedAt = null;
-        if (!cursor.isNull(cursor.getColumnIndex(HaloContentContract.ContentSearch.REMOVED))) {
-            removedAt = new Date(cursor.getLong(cursor.getColumnIndex(HaloContentContract.ContentSearch.REMOVED)));
+        if (!cursor.isNull(columns.mRemoved)) {
+            removedAt = new Date(cursor.getLong(columns.mRemoved));
         }
         Date createdAt = null;
-        if (!cursor.isNull(cursor.getColumnIndex(HaloContentContract.ContentSearch.CREATED_AT))) {
-            createdAt = new Date(cursor.getLong(cursor.getColumnIndex(HaloContentContract.ContentSearch.CREATED_AT)));
+        if (!cursor.isNull(columns.mCreatedAt)) {
+            createdAt = new Date(cursor.getLong(columns.mCreatedAt));
         }
         Date updatedAt = null;
-        if (!cursor.isNull(cursor.getColumnIndex(HaloContentContract.ContentSearch.UPDATED_AT))) {
-            updatedAt = new Date(cursor.getLong(cursor.getColumnIndex(HaloContentContract.ContentSearch.UPDATED_AT)));
-        }
-        if (close) {
-            cursor.close();
+        if (!cursor.isNull(columns.mUpdatedAt)) {
+            updatedAt = new Date(cursor.getLong(columns.mUpdatedAt));
         }
         //TODO store modulename, archivedAt and segmentation tags on database migration
-        return new HaloContentInstance(itemId, null, moduleId, name, values, author, null, createdAt, updatedAt, publishedAt, removedAt, null);
+        HaloContentInstance.Builder builder = new HaloContentInstance.Builder(null);
+        if (itemId != null) {
+            builder.withId(itemId);
+        }
+        if (moduleId != null) {
+            builder.withModuleId(moduleId);
+        }
+        if (name != null) {
+            builder.withName(name);
+        }
+        if (values != null) {
+            builder.withValues(values);
+        }
+        if (author != null) {
+            builder.withAuthor(author);
+        }
+        if (createdAt != null) {
+            builder.withCreationDate(createdAt);
+        }
+        if (updatedAt != null) {
+            builder.withLastUpdateDate(updatedAt);
+        }
+        if (publishedAt != null) {
+            builder.withPublishDate(publishedAt);
+        }
+        if (removedAt != null) {
+            builder.withRemovalDate(removedAt);
+        }
+        return builder.build();
     }
 
     /**
@@ -233,8 +303,9 @@ public final class HaloContentHelper {
     public static List<HaloContentInstance> createList(Cursor cursor, boolean shouldClose) throws HaloStorageParseException {
         List<HaloContentInstance> instances = new ArrayList<>(cursor.getCount());
         if (cursor.moveToFirst()) {
+            ContentColumns columns = new ContentColumns(cursor);
             do {
-                instances.add(fromCursor(cursor, false));
+                instances.add(fromCursor(cursor, columns));
             } while (cursor.moveToNext());
         }
         if (shouldClose) {
@@ -245,7 +316,8 @@ public final class HaloContentHelper {
 
 
     /**
-     * Creates a list of model generated elements from a raw.
+     * Creates a list of model generated elements from a raw. The mapper generated for the model is used
+     * when available, otherwise the constructor is invoked with reflection.
      *
      * @param cursor      The raw that will be used to fromCursor the items.
      * @return The list of elements.
@@ -253,6 +325,16 @@ public final class HaloContentHelper {
      */
     @NonNull
     public static <T> List<T> createList(Cursor cursor,@NonNull Class<T> clazz) throws HaloStorageParseException {
+        GeneratedModelMapper<T> mapper = GeneratedModelMapper.forClass(clazz);
+        if (mapper != null) {
+            try {
+                return mapper.createList(cursor);
+            } finally {
+                if (!cursor.isClosed()) {
+                    cursor.close();
+                }
+            }
+        }
         List<T> instances = new ArrayList<>(cursor.getCount());
         if (cursor.moveToFirst()) {
             do {
@@ -278,15 +360,47 @@ public final class HaloContentHelper {
      * @return The
      */
     @NonNull
+    @SuppressWarnings("unchecked")
     public static <T> List<T> createList(@NonNull Cursor cursor, boolean shouldClose, @NonNull Class<T> clazz, @NonNull Parser.Factory parser) throws HaloStorageParseException, HaloParsingException {
-        List<T> instances = new ArrayList<>(cursor.getCount());
-        if (cursor.moveToFirst()) {
-            do {
-                instances.add(from(fromCursor(cursor, false), clazz, parser));
-            } while (cursor.moveToNext());
+        Parser<InputStream, T> deserializer = (Parser<InputStream, T>) parser.deserialize(clazz);
+        if (deserializer == null) {
+            throw new HaloParsingException("There is no parser available for " + clazz.getName(), null);
         }
-        if (shouldClose) {
-            cursor.close();
+        return createList(cursor, shouldClose, deserializer);
+    }
+
+    /**
+     * Creates a list of models decoding the stored values of every row directly with the deserializer,
+     * without creating the content instances.
+     *
+     * @param cursor       The cursor with the content instances.
+     * @param shouldClose  Tells if the cursor should be closed.
+     * @param deserializer The deserializer of the model.
+     * @param <T>          The type of the model.
+     * @return The list of models, with null for the rows without values.
+     * @throws HaloParsingException Error parsing the values.
+     */
+    @Api(2.4)
+    @NonNull
+    public static <T> List<T> createList(@NonNull Cursor cursor, boolean shouldClose, @NonNull Parser<InputStream, T> deserializer) throws HaloParsingException {
+        List<T> instances = new ArrayList<>(cursor.getCount());
+        try {
+            if (cursor.moveToFirst()) {
+                int valuesColumn = cursor.getColumnIndexOrThrow(HaloContentContract.ContentSearch.VALUES);
+                do {
+                    T instance = null;
+                    if (!cursor.isNull(valuesColumn)) {
+                        instance = deserializer.convert(new ByteArrayInputStream(cursor.getString(valuesColumn).getBytes(UTF_8)));
+                    }
+                    instances.add(instance);
+                } while (cursor.moveToNext());
+            }
+        } catch (IOException e) {
+            throw new HaloParsingException("Error parsing the values object.", e);
+        } finally {
+            if (shouldClose) {
+                cursor.close();
+            }
         }
         return instances;
     }
@@ -305,9 +419,10 @@ public final class HaloContentHelper {
     @Api(2.0)
     @Nullable
     public static <T> T from(@NonNull HaloContentInstance instance, TypeReference<T> typeToken, Parser.Factory parser) throws HaloParsingException {
-        if (instance.getValues() != null) {
+        HaloContentValues contentValues = instance.getContentValues();
+        if (contentValues != null) {
             try {
-                return (T) parser.deserialize(typeToken.getType()).convert(new ByteArrayInputStream(instance.getValues().toString().getBytes()));
+                return (T) parser.deserialize(typeToken.getType()).convert(contentValues.stream());
             } catch (IOException e) {
                 throw new HaloParsingException("Error parsing the values object.", e);
             }
@@ -328,9 +443,10 @@ public final class HaloContentHelper {
     @Api(2.0)
     @Nullable
     public static <T> T from(@NonNull HaloContentInstance instance, @NonNull Class<T> clazz, @NonNull Parser.Factory parser) throws HaloParsingException {
-        if (instance.getValues() != null) {
+        HaloContentValues contentValues = instance.getContentValues();
+        if (contentValues != null) {
             try {
-                return (T) parser.deserialize(clazz).convert(new ByteArrayInputStream(instance.getValues().toString().getBytes()));
+                return (T) parser.deserialize(clazz).convert(contentValues.stream());
             } catch (IOException e) {
                 throw new HaloParsingException("Error parsing the values object.", e);
             }
@@ -387,4 +503,86 @@ public final class HaloContentHelper {
         }
         return finalList;
     }
+
+    /**
+     * Reads the current value of the parser as raw json text, without building any intermediate
+     * map or object. The parser is left at the last token of the value.
+     *
+     * @param parser The parser positioned at the start of the value.
+     * @return The raw json or null if the value is null.
+     * @throws IOException Error reading the value.
+     */
+    @Nullable
+    public static String readRawJson(@NonNull JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == null || parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        StringWriter writer = new StringWriter();
+        JsonGenerator generator = LoganSquare.JSON_FACTORY.createGenerator(writer);
+        try {
+            generator.copyCurrentStructure(parser);
+        } finally {
+            generator.close();
+        }
+        return writer.toString();
+    }
+
+    /**
+     * The indexes of the content columns of a cursor, resolved once for all its rows.
+     */
+    private static class ContentColumns {
+        /**
+         * The id column.
+         */
+        private final int mId;
+        /**
+         * The module id column.
+         */
+        private final int mModuleId;
+        /**
+         * The name column.
+         */
+        private final int mName;
+        /**
+         * The values column.
+         */
+        private final int mValues;
+        /**
+         * The author column.
+         */
+        private final int mAuthor;
+        /**
+         * The published date column.
+         */
+        private final int mPublished;
+        /**
+         * The removal date column.
+         */
+        private final int mRemoved;
+        /**
+         * The creation date column.
+         */
+        private final int mCreatedAt;
+        /**
+         * The update date column.
+         */
+        private final int mUpdatedAt;
+
+        /**
+         * Resolves the columns of the cursor.
+         *
+         * @param cursor The cursor.
+         */
+        private ContentColumns(@NonNull Cursor cursor) {
+            mId = cursor.getColumnIndex(HaloContentContract.ContentSearch.ID);
+            mModuleId = cursor.getColumnIndex(HaloContentContract.ContentSearch.MODULE_ID);
+            mName = cursor.getColumnIndex(HaloContentContract.ContentSearch.NAME);
+            mValues = cursor.getColumnIndex(HaloContentContract.ContentSearch.VALUES);
+            mAuthor = cursor.getColumnIndex(HaloContentContract.ContentSearch.AUTHOR);
+            mPublished = cursor.getColumnIndex(HaloContentContract.ContentSearch.PUBLISHED);
+            mRemoved = cursor.getColumnIndex(HaloContentContract.ContentSearch.REMOVED);
+            mCreatedAt = cursor.getColumnIndex(HaloContentContract.ContentSearch.CREATED_AT);
+            mUpdatedAt = cursor.getColumnIndex(HaloContentContract.ContentSearch.UPDATED_AT);
+        }
+    }
 }
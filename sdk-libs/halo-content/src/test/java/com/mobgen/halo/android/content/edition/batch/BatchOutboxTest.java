@@ -0,0 +1,122 @@
+package com.mobgen.halo.android.content.edition.batch;
+
+import com.mobgen.halo.android.content.HaloContentApi;
+import com.mobgen.halo.android.content.models.BatchOperations;
+import com.mobgen.halo.android.content.models.BatchOperator;
+import com.mobgen.halo.android.content.models.HaloContentInstance;
+import com.mobgen.halo.android.content.spec.HaloContentContract;
+import com.mobgen.halo.android.sdk.api.Halo;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+import com.mobgen.halo.android.testing.MockServer;
+
+import org.junit.Test;
+
+import static com.mobgen.halo.android.content.mock.instrumentation.HaloMock.givenADefaultHalo;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class BatchOutboxTest extends HaloRobolectricTest {
+
+    private MockServer mMockServer;
+    private Halo mHalo;
+    private BatchOutbox mOutbox;
+
+    @Override
+    public void onStart() throws Exception {
+        mMockServer = MockServer.create();
+        mHalo = givenADefaultHalo(mMockServer.start());
+        HaloContentApi.with(mHalo);
+        mOutbox = new BatchOutbox(mHalo.framework().storage(HaloContentContract.HALO_CONTENT_STORAGE));
+    }
+
+    @Override
+    public void onDestroy() throws Exception {
+        mHalo.uninstall();
+        mMockServer.shutdown();
+    }
+
+    private static HaloContentInstance givenAnInstance(String id, String name) {
+        return new HaloContentInstance.Builder("myModule")
+                .withId(id)
+                .withName(name)
+                .build();
+    }
+
+    @Test
+    public void thatADeleteSupersedesAPendingUpdate() throws Exception {
+        mOutbox.enqueue(BatchOperations.builder().update(givenAnInstance("1", "updated")).build());
+        mOutbox.enqueue(BatchOperations.builder().delete(givenAnInstance("1", "deleted")).build());
+        BatchOperations pending = mOutbox.getAll();
+        assertThat(mOutbox.count()).isEqualTo(1);
+        assertThat(pending.getUpdated()).isNull();
+        assertThat(pending.getDeleted()).hasSize(1);
+    }
+
+    @Test
+    public void thatACreateAndADeleteCancelEachOther() throws Exception {
+        mOutbox.enqueue(BatchOperations.builder().create(givenAnInstance("1", "created")).build());
+        mOutbox.enqueue(BatchOperations.builder().delete(givenAnInstance("1", "deleted")).build());
+        assertThat(mOutbox.count()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatTheOperationsAreTakenInChunks() throws Exception {
+        mOutbox.enqueue(BatchOperations.builder()
+                .update(givenAnInstance("1", "first"), givenAnInstance("2", "second"), givenAnInstance("3", "third"))
+                .build());
+        BatchOutbox.Chunk chunk = mOutbox.takeChunk(2, System.currentTimeMillis());
+        assertThat(chunk.size()).isEqualTo(2);
+        assertThat(chunk.getAttempts()).isEqualTo(1);
+        mOutbox.acknowledge(chunk);
+        chunk = mOutbox.takeChunk(2, System.currentTimeMillis());
+        assertThat(chunk.size()).isEqualTo(1);
+        mOutbox.acknowledge(chunk);
+        assertThat(mOutbox.takeChunk(2, System.currentTimeMillis())).isNull();
+    }
+
+    @Test
+    public void thatASentOperationIsNotSuperseded() throws Exception {
+        mOutbox.enqueue(BatchOperations.builder().update(givenAnInstance("1", "updated")).build());
+        mOutbox.takeChunk(10, System.currentTimeMillis());
+        mOutbox.enqueue(BatchOperations.builder().delete(givenAnInstance("1", "deleted")).build());
+        assertThat(mOutbox.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void thatAReleasedChunkIsNotCountedAndCanBeSuperseded() throws Exception {
+        mOutbox.enqueue(BatchOperations.builder().update(givenAnInstance("1", "updated")).build());
+        BatchOutbox.Chunk chunk = mOutbox.takeChunk(10, System.currentTimeMillis());
+        mOutbox.release(chunk);
+        assertThat(chunk.getAttempts()).isEqualTo(0);
+        mOutbox.enqueue(BatchOperations.builder().delete(givenAnInstance("1", "deleted")).build());
+        assertThat(mOutbox.count()).isEqualTo(1);
+        assertThat(mOutbox.takeChunk(10, System.currentTimeMillis()).getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatAFailedChunkWaitsForTheBackoff() throws Exception {
+        long now = System.currentTimeMillis();
+        mOutbox.enqueue(BatchOperations.builder().update(givenAnInstance("1", "updated")).build());
+        BatchOutbox.Chunk chunk = mOutbox.takeChunk(10, now);
+        long delay = mOutbox.backoff(chunk, now);
+        assertThat(delay).isEqualTo(BatchOutbox.BASE_BACKOFF);
+        chunk = mOutbox.takeChunk(10, now);
+        assertThat(chunk.getWaitTime()).isEqualTo(delay);
+        assertThat(chunk.getAttempts()).isEqualTo(1);
+        chunk = mOutbox.takeChunk(10, now + delay);
+        assertThat(chunk.getWaitTime()).isEqualTo(0);
+        assertThat(chunk.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    public void thatTheBackoffIsBounded() {
+        assertThat(BatchOutbox.backoffDelay(2)).isEqualTo(2 * BatchOutbox.BASE_BACKOFF);
+        assertThat(BatchOutbox.backoffDelay(32)).isEqualTo(BatchOutbox.MAX_BACKOFF);
+    }
+
+    @Test
+    public void thatTheSupersedingRulesKeepTheStrongestOperation() {
+        assertThat(BatchOutbox.supersede(BatchOperator.CREATE, BatchOperator.UPDATE)).isEqualTo(BatchOperator.CREATE);
+        assertThat(BatchOutbox.supersede(BatchOperator.UPDATE, BatchOperator.CREATEORUPDATE)).isEqualTo(BatchOperator.CREATEORUPDATE);
+        assertThat(BatchOutbox.supersede(BatchOperator.DELETE, BatchOperator.UPDATE)).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+package com.mobgen.halo.android.content.edition.batch;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.content.HaloContentApi;
+import com.mobgen.halo.android.content.edition.HaloContentEditApi;
+import com.mobgen.halo.android.content.models.BatchOperationResults;
+import com.mobgen.halo.android.content.models.BatchOperations;
+import com.mobgen.halo.android.content.models.HaloContentInstance;
+import com.mobgen.halo.android.content.spec.HaloContentContract;
+import com.mobgen.halo.android.framework.api.HaloStorageApi;
+import com.mobgen.halo.android.framework.common.helpers.subscription.ISubscription;
+import com.mobgen.halo.android.framework.toolbox.data.HaloStatus;
+import com.mobgen.halo.android.sdk.api.Halo;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+import com.mobgen.halo.android.testing.MockServer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mobgen.halo.android.content.mock.instrumentation.HaloMock.givenADefaultHalo;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class BatchRepositoryTest extends HaloRobolectricTest {
+
+    private MockServer mMockServer;
+    private Halo mHalo;
+    private BatchLocalDataSource mLocalDataSource;
+    private BatchRepository mRepository;
+
+    @Override
+    public void onStart() throws Exception {
+        mMockServer = MockServer.create();
+        mHalo = givenADefaultHalo(mMockServer.start());
+        HaloStorageApi storage = mHalo.framework().storage(HaloContentContract.HALO_CONTENT_STORAGE);
+        mLocalDataSource = new BatchLocalDataSource(storage);
+        mRepository = new BatchRepository(HaloContentApi.with(mHalo),
+                new BatchRemoteDataSource(mHalo.framework().network()),
+                mLocalDataSource,
+                false);
+    }
+
+    @Override
+    public void onDestroy() throws Exception {
+        mHalo.uninstall();
+        mMockServer.shutdown();
+    }
+
+    private void givenAPendingUpdate() throws Exception {
+        mLocalDataSource.getOutbox().enqueue(BatchOperations.builder()
+                .update(new HaloContentInstance.Builder("myModule")
+                        .withId("1")
+                        .withName("updated")
+                        .build())
+                .build());
+    }
+
+    @Test
+    public void thatAChunkIsKeptWhileTheServerFails() throws Exception {
+        givenAPendingUpdate();
+        mMockServer.enqueue(500);
+
+        int sent = mRepository.flushOutbox();
+
+        assertThat(sent).isEqualTo(0);
+        assertThat(mLocalDataSource.getOutbox().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatARejectedChunkIsDiscardedAndNotified() throws Exception {
+        final List<HaloStatus> statuses = new ArrayList<>();
+        ISubscription subscription = HaloContentEditApi.with(mHalo).subscribeToBatch(new HaloContentEditApi.HaloBatchListener() {
+            @Override
+            public void onBatchConflict(@Nullable BatchOperations operations) {
+                //No conflicts expected
+            }
+
+            @Override
+            public void onBatchRetryCompleted(@NonNull HaloStatus status, @Nullable BatchOperationResults operations) {
+                statuses.add(status);
+            }
+        });
+        givenAPendingUpdate();
+        mMockServer.enqueue(400, "{}");
+
+        int sent = mRepository.flushOutbox();
+        subscription.unsubscribe();
+
+        assertThat(sent).isEqualTo(0);
+        assertThat(mLocalDataSource.getOutbox().count()).isEqualTo(0);
+        assertThat(statuses).hasSize(1);
+        assertThat(statuses.get(0).isError()).isTrue();
+    }
+}
@@ -0,0 +1,80 @@
+package com.mobgen.halo.android.content.edition.batch;
+
+import com.mobgen.halo.android.content.HaloContentApi;
+import com.mobgen.halo.android.content.spec.HaloContentContract;
+import com.mobgen.halo.android.content.sync.ContentSyncLocalDatasource;
+import com.mobgen.halo.android.sdk.api.Halo;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+import com.mobgen.halo.android.testing.MockServer;
+
+import org.junit.Test;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Collections;
+
+import static com.mobgen.halo.android.content.mock.fixtures.ServerFixtures.enqueueServerError;
+import static com.mobgen.halo.android.content.mock.instrumentation.HaloMock.givenADefaultHalo;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class BatchSyncCoalescerTest extends HaloRobolectricTest {
+
+    private MockServer mMockServer;
+    private Halo mHalo;
+    private HaloContentApi mContentApi;
+
+    @Override
+    public void onStart() throws Exception {
+        mMockServer = MockServer.create();
+        mHalo = givenADefaultHalo(mMockServer.start());
+        mContentApi = HaloContentApi.with(mHalo);
+    }
+
+    @Override
+    public void onDestroy() throws Exception {
+        mHalo.uninstall();
+        mMockServer.shutdown();
+    }
+
+    @Test
+    public void thatTheSyncsOfTheSameModuleAreCoalesced() {
+        BatchSyncCoalescer coalescer = new BatchSyncCoalescer(mContentApi);
+        coalescer.request("myModule", BatchRepository.DEFAULT_SYNC_DEBOUNCE);
+        coalescer.request("myModule", BatchRepository.DEFAULT_SYNC_DEBOUNCE);
+        assertThat(coalescer.pending()).isEqualTo(1);
+        coalescer.request("otherModule", BatchRepository.DEFAULT_SYNC_DEBOUNCE);
+        assertThat(coalescer.pending()).isEqualTo(2);
+        enqueueServerError(mMockServer, 404);
+        enqueueServerError(mMockServer, 404);
+        coalescer.flush();
+        assertThat(coalescer.pending()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatTheSyncsAreOnlyCoalescedWithinTheSameCoalescer() {
+        BatchSyncCoalescer coalescer = new BatchSyncCoalescer(mContentApi);
+        BatchSyncCoalescer otherCoalescer = new BatchSyncCoalescer(mContentApi);
+        coalescer.request("myModule", BatchRepository.DEFAULT_SYNC_DEBOUNCE);
+        otherCoalescer.request("myModule", BatchRepository.DEFAULT_SYNC_DEBOUNCE);
+        assertThat(coalescer.pending()).isEqualTo(1);
+        assertThat(otherCoalescer.pending()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatAShorterDebounceBringsTheSyncsForward() {
+        BatchSyncCoalescer coalescer = new BatchSyncCoalescer(mContentApi);
+        coalescer.request("myModule", BatchRepository.DEFAULT_SYNC_DEBOUNCE);
+        ShadowLooper.runUiThreadTasks();
+        assertThat(coalescer.pending()).isEqualTo(1);
+        coalescer.request("otherModule", 0);
+        enqueueServerError(mMockServer, 404);
+        enqueueServerError(mMockServer, 404);
+        ShadowLooper.runUiThreadTasks();
+        assertThat(coalescer.pending()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatADeltaIsNotAppliedToAModuleNeverSynced() throws Exception {
+        ContentSyncLocalDatasource datasource = new ContentSyncLocalDatasource(mHalo.framework().storage(HaloContentContract.HALO_CONTENT_STORAGE));
+        assertThat(datasource.applyDelta("neverSynced", null, Collections.EMPTY_LIST, Collections.EMPTY_LIST)).isFalse();
+    }
+}
@@ -0,0 +1,88 @@
+package com.mobgen.halo.android.content.generated;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.content.mock.dummy.DummyObject;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class GeneratedModelMapperTest extends HaloRobolectricTest {
+
+    @Test
+    public void thatMapsTheColumnsByNameIgnoringTheCase() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{"DATE", "count", "name", "enabled"});
+        cursor.addRow(new Object[]{1000L, 3, "first", 1});
+        cursor.addRow(new Object[]{null, null, "second", "true"});
+
+        List<Row> rows = new RowMapper().createList(cursor);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).mName).isEqualTo("first");
+        assertThat(rows.get(0).mCount).isEqualTo(3);
+        assertThat(rows.get(0).mEnabled).isTrue();
+        assertThat(rows.get(0).mDate.getTime()).isEqualTo(1000L);
+        assertThat(rows.get(1).mCount).isNull();
+        assertThat(rows.get(1).mDate).isNull();
+        assertThat(rows.get(1).mEnabled).isTrue();
+        assertThat(rows.get(1).mMissing).isEqualTo(0L);
+    }
+
+    @Test
+    public void thatAnEmptyCursorGivesAnEmptyList() {
+        assertThat(new RowMapper().createList(new MatrixCursor(new String[]{"name"}))).isEmpty();
+    }
+
+    @Test
+    public void thatThereIsNoMapperForAClassWithoutGeneratedMapper() {
+        assertThat(GeneratedModelMapper.forClass(Row.class)).isNull();
+        assertThat(GeneratedModelMapper.forClass(Row.class)).isNull();
+    }
+
+    @Test
+    public void thatTheGeneratedMapperIsFoundForAnnotatedModels() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{"field"});
+        cursor.addRow(new Object[]{"value"});
+
+        GeneratedModelMapper<DummyObject> mapper = GeneratedModelMapper.forClass(DummyObject.class);
+
+        assertThat(mapper).isNotNull();
+        assertThat(mapper.createList(cursor).get(0).field).isEqualTo("value");
+    }
+
+    private static class Row {
+        private final String mName;
+        private final Integer mCount;
+        private final boolean mEnabled;
+        private final Date mDate;
+        private final long mMissing;
+
+        private Row(String name, Integer count, boolean enabled, Date date, long missing) {
+            mName = name;
+            mCount = count;
+            mEnabled = enabled;
+            mDate = date;
+            mMissing = missing;
+        }
+    }
+
+    private static class RowMapper extends GeneratedModelMapper<Row> {
+
+        private RowMapper() {
+            super(new String[]{"name", "count", "enabled", "date", "missing"});
+        }
+
+        @Override
+        protected Row map(@NonNull Cursor cursor, @NonNull int[] columns) {
+            return new Row(readString(cursor, columns[0]), readInteger(cursor, columns[1]),
+                    readBooleanValue(cursor, columns[2]), readDate(cursor, columns[3]), readLongValue(cursor, columns[4]));
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.Date;
 import java.util.List;
@@ -35,6 +36,7 @@ import static com.mobgen.halo.android.content.mock.instrumentation.HaloMock.give
 import static com.mobgen.halo.android.content.mock.instrumentation.HaloMock.givenASingleThreadedWithParserConfig;
 import static com.mobgen.halo.android.testing.CallbackFlag.newCallbackFlag;
 import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -165,6 +167,40 @@ public class HaloGeneratedContentTest extends HaloRobolectricTest {
         assertThat(mCallbackFlag.isFlagged()).isTrue();
     }
 
+    @Test
+    public void thatTheFieldIndexesAreUnique() {
+        Cursor cursor = database.rawQuery("SELECT sql FROM sqlite_master WHERE type = 'index' AND name = 'fooindex'", null);
+        assertThat(cursor.moveToFirst()).isTrue();
+        assertThat(cursor.getString(0)).startsWith("CREATE UNIQUE INDEX");
+        cursor.close();
+    }
+
+    @Test
+    public void thatTheArgumentsAreBoundWithTheirStorageClass() {
+        GeneratedContentQueriesLocalDataSource dataSource = new GeneratedContentQueriesLocalDataSource(mHalo.framework());
+        Cursor cursor = dataSource.perfomQuery("SELECT typeof(?), typeof(?), typeof(?), typeof(?), ?, ?",
+                new Object[]{1, 2.5, now, "foo", true, null});
+        assertThat(cursor.getString(0)).isEqualTo("integer");
+        assertThat(cursor.getString(1)).isEqualTo("real");
+        assertThat(cursor.getString(2)).isEqualTo("integer");
+        assertThat(cursor.getString(3)).isEqualTo("text");
+        assertThat(cursor.getString(4)).isEqualTo("true");
+        assertThat(cursor.getString(5)).isEqualTo("");
+        cursor.close();
+    }
+
+    @Test
+    public void thatAnArgumentThatCanNotBeSerializedIsBoundAsEmptyText() throws IOException {
+        Parser<Object, String> parser = mock(Parser.class);
+        when(parser.convert(any())).thenThrow(new IOException("Not serializable"));
+        when(mParserFactory.serialize(Object.class)).thenReturn((Parser) parser);
+        GeneratedContentQueriesLocalDataSource dataSource = new GeneratedContentQueriesLocalDataSource(mHalo.framework());
+        Cursor cursor = dataSource.perfomQuery("SELECT typeof(?), ?", new Object[]{new DummyObject("field"), new DummyObject("field")});
+        assertThat(cursor.getString(0)).isEqualTo("text");
+        assertThat(cursor.getString(1)).isEqualTo("");
+        cursor.close();
+    }
+
     @Test
     public void thatCanConvertCursorToAnyModelAsList() throws HaloStorageParseException {
         Cursor cursor = initMockCursors();
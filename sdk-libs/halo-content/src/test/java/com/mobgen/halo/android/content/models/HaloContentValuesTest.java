@@ -0,0 +1,96 @@
+package com.mobgen.halo.android.content.models;
+
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class HaloContentValuesTest extends HaloRobolectricTest {
+
+    private static final String VALUES = "{\"title\": \"Halo\", \"count\": 3, \"rate\": 4.5, \"visible\": true, " +
+            "\"nothing\": null, \"nested\": {\"foo\": \"bar\"}, \"list\": [1, 2, 3]}";
+
+    @Test
+    public void thatReadsSingleFieldsWithoutMaterialising() {
+        HaloContentValues values = HaloContentValues.fromJson(VALUES);
+
+        assertThat(values.optString("title")).isEqualTo("Halo");
+        assertThat(((Number) values.opt("count")).intValue()).isEqualTo(3);
+        assertThat(values.opt("rate")).isEqualTo(4.5);
+        assertThat(values.opt("visible")).isEqualTo(Boolean.TRUE);
+        assertThat(values.opt("nothing")).isEqualTo(JSONObject.NULL);
+        assertThat(values.optString("nothing")).isNull();
+        assertThat(values.opt("missing")).isNull();
+        assertThat(values.has("title")).isTrue();
+        assertThat(values.has("missing")).isFalse();
+    }
+
+    @Test
+    public void thatNestedFieldsAreJsonObjects() throws JSONException {
+        HaloContentValues values = HaloContentValues.fromJson(VALUES);
+
+        assertThat(((JSONObject) values.opt("nested")).getString("foo")).isEqualTo("bar");
+        assertThat(((JSONArray) values.opt("list")).length()).isEqualTo(3);
+    }
+
+    @Test
+    public void thatTheHashIsStable() throws JSONException {
+        HaloContentValues values = HaloContentValues.fromJson(VALUES);
+        HaloContentValues same = HaloContentValues.fromJson(VALUES);
+        HaloContentValues other = HaloContentValues.fromJson("{\"title\": \"Other\"}");
+
+        assertThat(values.hash()).isEqualTo(same.hash());
+        assertThat(values).isEqualTo(same);
+        assertThat(values.hash()).isNotEqualTo(other.hash());
+        assertThat(values).isNotEqualTo(other);
+    }
+
+    @Test
+    public void thatMaterialisesTheValues() throws JSONException {
+        HaloContentValues values = HaloContentValues.fromJson(VALUES);
+
+        JSONObject object = values.toJSONObject();
+
+        assertThat(object.getString("title")).isEqualTo("Halo");
+        assertThat(HaloContentValues.from(object).toJSONObject().getInt("count")).isEqualTo(3);
+    }
+
+    @Test
+    public void thatTheInstanceKeepsTheChangesOfItsValues() throws JSONException {
+        Date now = new Date();
+        HaloContentInstance instance = new HaloContentInstance.Builder("fakeModuleName")
+                .withId("fakeId")
+                .withValues(HaloContentValues.fromJson(VALUES))
+                .withCreationDate(now)
+                .build();
+
+        instance.getValues().put("title", "Changed");
+
+        assertThat(instance.getValues()).isSameAs(instance.getValues());
+        assertThat(instance.getContentValues().optString("title")).isEqualTo("Changed");
+    }
+
+    @Test
+    public void thatTheInstanceKeepsASingleFormOfItsValues() throws JSONException {
+        JSONObject object = new JSONObject(VALUES);
+        HaloContentInstance instance = new HaloContentInstance("fakeId", "fakeModuleName", "fakeModuleId", "name", object,
+                null, null, null, null, null, null, null);
+
+        object.put("title", "Changed");
+        assertThat(instance.mValuesObject).isNull();
+        assertThat(instance.getContentValues()).isSameAs(instance.getContentValues());
+        assertThat(instance.getContentValues().optString("title")).isEqualTo("Halo");
+
+        JSONObject values = instance.getValues();
+        assertThat(instance.mValues).isNull();
+        values.put("title", "Changed");
+        assertThat(instance.getContentValues().optString("title")).isEqualTo("Changed");
+        assertThat(instance.mValuesObject).isNull();
+    }
+}
@@ -8,6 +8,7 @@ import com.mobgen.halo.android.content.mock.dummy.DummyItem;
 import com.mobgen.halo.android.content.models.HaloContentInstance;
 import com.mobgen.halo.android.content.models.Paginated;
 import com.mobgen.halo.android.content.models.SearchQuery;
+import com.mobgen.halo.android.content.spec.HaloContentContract;
 import com.mobgen.halo.android.framework.network.interceptors.HaloCurlInterceptor;
 import com.mobgen.halo.android.framework.toolbox.data.CallbackV2;
 import com.mobgen.halo.android.framework.toolbox.data.Data;
@@ -24,6 +25,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.Headers;
 import okhttp3.Interceptor;
@@ -378,4 +380,29 @@ public class HaloContentSearchTest extends HaloRobolectricTest {
         remoteDatasource.findByQuery(query);
     }
 
+    @Test
+    public void thatASearchWithMoreIdsThanBoundVariablesIsReadInOrder() throws Exception {
+        int count = ContentSearchLocalDatasource.MAX_BOUND_IDS + 201;
+        SearchQuery query = givenTimedCacheQuery(TimeUnit.MINUTES.toMillis(10));
+        List<HaloContentInstance> instances = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            instances.add(new HaloContentInstance.Builder("module")
+                    .withModuleId("sampleId")
+                    .withId("instance" + i)
+                    .withName("name" + i)
+                    .build());
+        }
+        ContentSearchLocalDatasource localDatasource = new ContentSearchLocalDatasource(mHalo.framework().storage(HaloContentContract.HALO_CONTENT_STORAGE));
+
+        localDatasource.save(query, new Paginated<>(instances));
+        Cursor cursor = localDatasource.findInStorage(query);
+
+        assertThat(cursor.getCount()).isEqualTo(count);
+        int idColumn = cursor.getColumnIndexOrThrow(HaloContentContract.ContentSearch.ID);
+        for (int i = 0; cursor.moveToNext(); i++) {
+            assertThat(cursor.getString(idColumn)).isEqualTo("instance" + i);
+        }
+        cursor.close();
+    }
+
 }
@@ -0,0 +1,159 @@
+package com.mobgen.halo.android.content.search;
+
+import com.mobgen.halo.android.content.models.HaloContentInstance;
+import com.mobgen.halo.android.content.models.HaloContentValues;
+import com.mobgen.halo.android.content.models.Paginated;
+import com.mobgen.halo.android.content.models.SearchQuery;
+import com.mobgen.halo.android.sdk.core.selectors.Revalidations;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class SearchResultCacheTest extends HaloRobolectricTest {
+
+    private static final long FUTURE = Long.MAX_VALUE;
+
+    @Test
+    public void thatACachedResultIsProvided() {
+        SearchResultCache cache = new SearchResultCache(10 * SearchResultCache.INSTANCE_OVERHEAD);
+        cache.put("hash", givenAQuery("moduleId"), givenAResult("moduleId", 2), 0, FUTURE, cache.generation());
+
+        SearchResultCache.CachedResult result = cache.get("hash");
+
+        assertThat(result).isNotNull();
+        assertThat(result.getResult().data()).hasSize(2);
+        assertThat(cache.size()).isEqualTo(2 * SearchResultCache.INSTANCE_OVERHEAD);
+    }
+
+    @Test
+    public void thatAnExpiredResultIsNotProvided() {
+        SearchResultCache cache = new SearchResultCache(10 * SearchResultCache.INSTANCE_OVERHEAD);
+        cache.put("hash", givenAQuery("moduleId"), givenAResult("moduleId", 2), 0, System.currentTimeMillis() - 1, cache.generation());
+
+        assertThat(cache.get("hash")).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatTheLeastRecentlyUsedResultsAreEvicted() {
+        SearchResultCache cache = new SearchResultCache(5 * SearchResultCache.INSTANCE_OVERHEAD);
+        cache.put("first", givenAQuery("moduleId"), givenAResult("moduleId", 2), 0, FUTURE, cache.generation());
+        cache.put("second", givenAQuery("moduleId"), givenAResult("moduleId", 2), 0, FUTURE, cache.generation());
+        cache.get("first");
+        cache.put("third", givenAQuery("moduleId"), givenAResult("moduleId", 2), 0, FUTURE, cache.generation());
+
+        assertThat(cache.get("first")).isNotNull();
+        assertThat(cache.get("second")).isNull();
+        assertThat(cache.get("third")).isNotNull();
+        assertThat(cache.size()).isEqualTo(4 * SearchResultCache.INSTANCE_OVERHEAD);
+    }
+
+    @Test
+    public void thatResultsBiggerThanTheCacheAreNotCached() {
+        SearchResultCache cache = new SearchResultCache(1 * SearchResultCache.INSTANCE_OVERHEAD);
+        cache.put("hash", givenAQuery("moduleId"), givenAResult("moduleId", 2), 0, FUTURE, cache.generation());
+
+        assertThat(cache.get("hash")).isNull();
+    }
+
+    @Test
+    public void thatWritingAModuleInvalidatesItsResults() {
+        SearchResultCache cache = new SearchResultCache(10 * SearchResultCache.INSTANCE_OVERHEAD);
+        cache.put("written", givenAQuery("written"), givenAResult("written", 1), 0, FUTURE, cache.generation());
+        cache.put("other", givenAQuery("other"), givenAResult("other", 1), 0, FUTURE, cache.generation());
+
+        cache.invalidateModules(Collections.singletonList("written"));
+
+        assertThat(cache.get("written")).isNull();
+        assertThat(cache.get("other")).isNotNull();
+    }
+
+    @Test
+    public void thatWritingAModuleInvalidatesTheSearchesNotLimitedToModules() {
+        SearchResultCache cache = new SearchResultCache(10 * SearchResultCache.INSTANCE_OVERHEAD);
+        cache.put("tagged", SearchQuery.builder().searchTag("tag").build(), givenAResult("other", 1), 0, FUTURE, cache.generation());
+
+        cache.invalidateModules(Collections.singletonList("written"));
+
+        assertThat(cache.get("tagged")).isNull();
+    }
+
+    @Test
+    public void thatTheCachedResultIsACopy() {
+        SearchResultCache cache = new SearchResultCache(10 * SearchResultCache.INSTANCE_OVERHEAD);
+        cache.put("hash", givenAQuery("moduleId"), givenAResult("moduleId", 2), 0, FUTURE, cache.generation());
+
+        cache.get("hash").getResult().data().clear();
+
+        assertThat(cache.get("hash").getResult().data()).hasSize(2);
+    }
+
+    @Test
+    public void thatAResultReadBeforeAnInvalidationIsNotCached() {
+        SearchResultCache cache = new SearchResultCache(10 * SearchResultCache.INSTANCE_OVERHEAD);
+        long generation = cache.generation();
+        cache.invalidateModules(Collections.singletonList("moduleId"));
+        cache.put("hash", givenAQuery("moduleId"), givenAResult("moduleId", 2), 0, FUTURE, generation);
+
+        assertThat(cache.get("hash")).isNull();
+    }
+
+    @Test
+    public void thatTheFingerprintOfTheRowsIsCached() {
+        SearchResultCache cache = new SearchResultCache(10 * SearchResultCache.INSTANCE_OVERHEAD);
+        cache.put("hash", givenAQuery("moduleId"), givenAResult("moduleId", 2), 42, FUTURE, cache.generation());
+
+        assertThat(cache.get("hash").getFingerprint()).isEqualTo(42);
+    }
+
+    @Test
+    public void thatTheValuesCountInTheSizeOfAResult() throws JSONException {
+        SearchResultCache cache = new SearchResultCache(10 * SearchResultCache.INSTANCE_OVERHEAD);
+        HaloContentInstance instance = new HaloContentInstance.Builder("moduleName")
+                .withId("big")
+                .withModuleId("moduleId")
+                .withValues(HaloContentValues.fromJson(new JSONObject().put("text", new String(new char[20 * SearchResultCache.INSTANCE_OVERHEAD]).replace('\0', 'a')).toString()))
+                .build();
+        cache.put("hash", givenAQuery("moduleId"), new Paginated<>(Collections.singletonList(instance)), 0, FUTURE, cache.generation());
+
+        assertThat(cache.get("hash")).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatTheResultsAreDroppedWhenTheSessionIsFlushed() {
+        SearchResultCache cache = new SearchResultCache(10 * SearchResultCache.INSTANCE_OVERHEAD);
+        cache.put("hash", givenAQuery("moduleId"), givenAResult("moduleId", 2), 0, FUTURE, cache.generation());
+
+        Revalidations.clear();
+
+        assertThat(cache.get("hash")).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    private static SearchQuery givenAQuery(String moduleId) {
+        return SearchQuery.builder()
+                .moduleIds(moduleId)
+                .build();
+    }
+
+    private static Paginated<HaloContentInstance> givenAResult(String moduleId, int size) {
+        List<HaloContentInstance> instances = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            instances.add(new HaloContentInstance.Builder("moduleName")
+                    .withId(moduleId + i)
+                    .withModuleId(moduleId)
+                    .withName("Instance " + i)
+                    .build());
+        }
+        return new Paginated<>(instances);
+    }
+}
@@ -1,11 +1,16 @@
 package com.mobgen.halo.android.content.sync;
 
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
 import com.mobgen.halo.android.content.HaloContentApi;
 import com.mobgen.halo.android.content.mock.dummy.DummyItem;
 import com.mobgen.halo.android.content.models.HaloContentInstance;
 import com.mobgen.halo.android.content.models.HaloSyncLog;
 import com.mobgen.halo.android.content.models.SyncQuery;
+import com.mobgen.halo.android.content.spec.HaloContentContract;
 import com.mobgen.halo.android.framework.common.helpers.subscription.ISubscription;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
 import com.mobgen.halo.android.framework.toolbox.data.CallbackV2;
 import com.mobgen.halo.android.framework.toolbox.threading.Threading;
 import com.mobgen.halo.android.sdk.api.Halo;
@@ -17,6 +22,9 @@ import com.mobgen.halo.android.testing.MockServer;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import static com.mobgen.halo.android.content.mock.fixtures.ServerFixtures.SYNC_CREATE_MODULE;
@@ -163,4 +171,97 @@ public class HaloContentSyncTest extends HaloRobolectricTest {
         mHalo.framework().network().client().overrideOk(givenAOkClientWithCustomInterceptor(mHalo.framework().network().client(), "15"));
         mHaloContentApi.sync(QUERY_CACHE, true);
     }
+
+    @Test
+    public void thatABulkSyncWritesAndDeletesAllTheInstances() throws Exception {
+        ContentSyncLocalDatasource datasource = new ContentSyncLocalDatasource(mHalo.framework().storage(HaloContentContract.HALO_CONTENT_STORAGE));
+        List<HaloContentInstance> created = givenInstances(0, 1234, "moduleId");
+        List<HaloContentInstance> deleted = givenInstances(0, 567, "moduleId");
+        List<HaloContentInstance> empty = Collections.emptyList();
+
+        datasource.sync(true, QUERY, givenASource(created, empty, empty));
+        assertThat(countSyncedItems(datasource)).isEqualTo(1234);
+
+        datasource.sync(false, QUERY, givenASource(empty, created, deleted));
+        assertThat(countSyncedItems(datasource)).isEqualTo(1234 - 567);
+    }
+
+    @Test
+    public void thatInstancesOfOtherModuleIdsAreCleaned() throws Exception {
+        ContentSyncLocalDatasource datasource = new ContentSyncLocalDatasource(mHalo.framework().storage(HaloContentContract.HALO_CONTENT_STORAGE));
+        List<HaloContentInstance> empty = Collections.emptyList();
+        datasource.sync(true, QUERY, givenASource(givenInstances(0, 10, "moduleId"), empty, empty));
+
+        ContentSyncLocalDatasource.SyncResult sameModule = datasource.sync(false, QUERY, givenASource(givenInstances(10, 5, "moduleId"), empty, empty));
+        assertThat(sameModule.isDatabaseClean()).isTrue();
+        assertThat(countSyncedItems(datasource)).isEqualTo(15);
+
+        ContentSyncLocalDatasource.SyncResult otherModule = datasource.sync(false, QUERY, givenASource(givenInstances(15, 5, "otherModuleId"), empty, empty));
+        assertThat(otherModule.isDatabaseClean()).isFalse();
+        assertThat(countSyncedItems(datasource)).isEqualTo(5);
+    }
+
+    @Test
+    public void thatTheSyncDateIsOnlyStoredWhenTheSyncSucceeds() throws Exception {
+        ContentSyncLocalDatasource datasource = new ContentSyncLocalDatasource(mHalo.framework().storage(HaloContentContract.HALO_CONTENT_STORAGE));
+        final List<HaloContentInstance> created = givenInstances(0, 10, "moduleId");
+        try {
+            datasource.sync(true, QUERY, new SyncResponseReader.Source() {
+                @Override
+                public void readInto(@NonNull SyncResponseReader.Handler handler) throws HaloNetException {
+                    handler.onSyncDate(new Date());
+                    for (HaloContentInstance instance : created) {
+                        handler.onCreated(SyncResponseReader.Row.from(instance));
+                    }
+                    throw new HaloNetException("Connection lost");
+                }
+            });
+        } catch (HaloNetException e) {
+            //Expected
+        }
+        assertThat(datasource.getLastSyncDate(MODULE_NAME_FAKE, null)).isNull();
+
+        datasource.sync(true, QUERY, givenASource(created, Collections.<HaloContentInstance>emptyList(), Collections.<HaloContentInstance>emptyList()));
+        assertThat(datasource.getLastSyncDate(MODULE_NAME_FAKE, null)).isNotNull();
+        assertThat(countSyncedItems(datasource)).isEqualTo(10);
+    }
+
+    private static SyncResponseReader.Source givenASource(final List<HaloContentInstance> created, final List<HaloContentInstance> updated, final List<HaloContentInstance> deleted) {
+        return new SyncResponseReader.Source() {
+            @Override
+            public void readInto(@NonNull SyncResponseReader.Handler handler) {
+                handler.onSyncDate(new Date());
+                for (HaloContentInstance instance : created) {
+                    handler.onCreated(SyncResponseReader.Row.from(instance));
+                }
+                for (HaloContentInstance instance : updated) {
+                    handler.onUpdated(SyncResponseReader.Row.from(instance));
+                }
+                for (HaloContentInstance instance : deleted) {
+                    handler.onDeleted(instance.getItemId());
+                }
+            }
+        };
+    }
+
+    private static List<HaloContentInstance> givenInstances(int from, int count, String moduleId) {
+        List<HaloContentInstance> instances = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            instances.add(new HaloContentInstance.Builder(MODULE_NAME_FAKE)
+                    .withId("id" + i)
+                    .withModuleId(moduleId)
+                    .withName("name" + i)
+                    .build());
+        }
+        return instances;
+    }
+
+    private static int countSyncedItems(ContentSyncLocalDatasource datasource) {
+        Cursor cursor = datasource.getSyncedModuleItems(MODULE_NAME_FAKE);
+        try {
+            return cursor.getCount();
+        } finally {
+            cursor.close();
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package com.mobgen.halo.android.content.sync;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class SyncResponseReaderTest extends HaloRobolectricTest {
+
+    private static final String SYNC_RESPONSE = "{" +
+            "\"syncTimestamp\": 1473088966483," +
+            "\"created\": [{\"id\": \"1\", \"module\": \"fakeId\", \"name\": \"Instance A\", \"customerId\": 1," +
+            "\"values\": {\"foo\": \"bar\", \"list\": [1, 2]}, \"tags\": [], \"createdAt\": 1473088771682, \"removedAt\": null}]," +
+            "\"updated\": [{\"id\": \"2\", \"module\": \"fakeId\", \"values\": null, \"updatedAt\": 1473088966483}]," +
+            "\"deleted\": [{\"id\": \"3\"}]" +
+            "}";
+
+    private static final String LATE_TIMESTAMP_RESPONSE = "{" +
+            "\"created\": [{\"id\": \"1\", \"module\": \"fakeId\"}]," +
+            "\"deleted\": [{\"id\": \"3\"}]," +
+            "\"syncTimestamp\": 1473088966483" +
+            "}";
+
+    @Test
+    public void thatReadsTheInstancesOfAResponse() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+
+        Date syncDate = SyncResponseReader.read(givenAStream(SYNC_RESPONSE), handler);
+
+        assertThat(syncDate.getTime()).isEqualTo(1473088966483L);
+        assertThat(handler.mEvents).containsExactly("date", "created:1", "updated:2", "deleted:3");
+        SyncResponseReader.Row created = handler.mCreated.get(0);
+        assertThat(created.mModuleId).isEqualTo("fakeId");
+        assertThat(created.mName).isEqualTo("Instance A");
+        assertThat(created.mCreatedAt.getTime()).isEqualTo(1473088771682L);
+        assertThat(created.mRemovedAt).isNull();
+        assertThat(new JSONObject(created.mValues).getString("foo")).isEqualTo("bar");
+        assertThat(new JSONObject(created.mValues).getJSONArray("list").length()).isEqualTo(2);
+        assertThat(handler.mUpdated.get(0).mValues).isNull();
+    }
+
+    @Test
+    public void thatInstancesBeforeTheTimestampAreDeliveredAfterIt() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+
+        SyncResponseReader.read(givenAStream(LATE_TIMESTAMP_RESPONSE), handler);
+
+        assertThat(handler.mEvents).containsExactly("date", "created:1", "deleted:3");
+    }
+
+    @Test(expected = IOException.class)
+    public void thatAResponseWithoutTimestampFails() throws Exception {
+        SyncResponseReader.read(givenAStream("{\"created\": []}"), new RecordingHandler());
+    }
+
+    private static InputStream givenAStream(String json) {
+        return new ByteArrayInputStream(json.getBytes());
+    }
+
+    private static class RecordingHandler implements SyncResponseReader.Handler {
+
+        private final List<String> mEvents = new ArrayList<>();
+        private final List<SyncResponseReader.Row> mCreated = new ArrayList<>();
+        private final List<SyncResponseReader.Row> mUpdated = new ArrayList<>();
+
+        @Override
+        public void onSyncDate(@NonNull Date syncDate) {
+            mEvents.add("date");
+        }
+
+        @Override
+        public void onCreated(@NonNull SyncResponseReader.Row row) {
+            mEvents.add("created:" + row.mItemId);
+            mCreated.add(row);
+        }
+
+        @Override
+        public void onUpdated(@NonNull SyncResponseReader.Row row) {
+            mEvents.add("updated:" + row.mItemId);
+            mUpdated.add(row);
+        }
+
+        @Override
+        public void onDeleted(@Nullable String itemId) {
+            mEvents.add("deleted:" + itemId);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mobgen.halo.android.content.utils;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import com.mobgen.halo.android.content.mock.dummy.DummyItem;
+import com.mobgen.halo.android.content.spec.HaloContentContract;
+import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
+import com.mobgen.halo.android.framework.toolbox.data.HaloResultV2;
+import com.mobgen.halo.android.framework.toolbox.data.HaloStatus;
+import com.mobgen.halo.android.sdk.api.Halo;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.mobgen.halo.android.content.mock.instrumentation.HaloMock.givenADefaultHalo;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ContentCursor2ClassConverterTest extends HaloRobolectricTest {
+
+    private Halo mHalo;
+
+    @Override
+    public void onStart() throws IOException, HaloParsingException {
+        mHalo = givenADefaultHalo("");
+    }
+
+    @Override
+    public void onDestroy() throws IOException {
+        mHalo.uninstall();
+    }
+
+    @Test
+    public void thatDecodesTheStoredValuesIntoTheModel() throws Exception {
+        MatrixCursor cursor = new MatrixCursor(new String[]{HaloContentContract.ContentSearch.ID, HaloContentContract.ContentSearch.VALUES});
+        cursor.addRow(new Object[]{"1", "{\"foo\": \"first\", \"fooInt\": 1}"});
+        cursor.addRow(new Object[]{"2", null});
+        cursor.addRow(new Object[]{"3", "{\"foo\": \"third\", \"fooBool\": true}"});
+        ContentCursor2ClassConverter<DummyItem> converter = new ContentCursor2ClassConverter<>(DummyItem.class, mHalo.framework().parser());
+
+        HaloResultV2<List<DummyItem>> result = converter.convert(new HaloResultV2<Cursor>(HaloStatus.builder().build(), cursor));
+
+        List<DummyItem> items = result.data();
+        assertThat(items).hasSize(3);
+        assertThat(items.get(0).foo).isEqualTo("first");
+        assertThat(items.get(0).fooInt).isEqualTo(1);
+        assertThat(items.get(1)).isNull();
+        assertThat(items.get(2).fooBool).isTrue();
+        assertThat(cursor.isClosed()).isFalse();
+    }
+}
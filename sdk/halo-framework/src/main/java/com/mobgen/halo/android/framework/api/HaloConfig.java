@@ -10,13 +10,14 @@ import com.mobgen.halo.android.framework.common.helpers.builder.IBuilder;
 import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
 import com.mobgen.halo.android.framework.common.helpers.logger.PrintLog;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.network.client.cache.HaloHttpCache;
 import com.mobgen.halo.android.framework.network.client.endpoint.HaloEndpoint;
 import com.mobgen.halo.android.framework.network.client.endpoint.HaloEndpointCluster;
 import com.mobgen.halo.android.framework.network.client.response.Parser;
 import com.mobgen.halo.android.framework.toolbox.bus.EventBus;
-import com.mobgen.halo.android.framework.toolbox.bus.HaloEventBus;
-import com.mobgen.halo.android.framework.toolbox.threading.DefaultThreadManager;
+import com.mobgen.halo.android.framework.toolbox.bus.LocalEventBus;
 import com.mobgen.halo.android.framework.toolbox.threading.HaloThreadManager;
+import com.mobgen.halo.android.framework.toolbox.threading.PriorityThreadManager;
 import com.mobgen.halo.android.framework.toolbox.scheduler.HaloJobScheduler;
 
 import okhttp3.OkHttpClient;
@@ -107,6 +108,17 @@ public class HaloConfig {
         return mBuilder.mOkHttpClientBuilder;
     }
 
+    /**
+     * Provides the client side http cache.
+     *
+     * @return The http cache or null if there is no cache configured.
+     */
+    @Api(2.4)
+    @Nullable
+    public HaloHttpCache getHttpCache() {
+        return mBuilder.mHttpCache;
+    }
+
     /**
      * Provides the network response parser.
      *
@@ -181,6 +193,10 @@ public class HaloConfig {
          * The event hub.
          */
         private EventBus mEventHub;
+        /**
+         * True if the events of the default event hub are also broadcasted to other processes.
+         */
+        private boolean mCrossProcessEvents;
         /**
          * The job scheduler.
          */
@@ -196,6 +212,11 @@ public class HaloConfig {
          */
         private OkHttpClient.Builder mOkHttpClientBuilder;
 
+        /**
+         * The client side http cache.
+         */
+        private HaloHttpCache mHttpCache;
+
         /**
          * Constructor for the builder that takes the context.
          *
@@ -246,6 +267,20 @@ public class HaloConfig {
             return this;
         }
 
+        /**
+         * Makes the default event hub broadcast the events emitted so they can be received
+         * by other processes. By default the events are only dispatched inside this process.
+         *
+         * @param crossProcess True to broadcast the events.
+         * @return The current builder.
+         */
+        @Api(2.4)
+        @NonNull
+        public Builder crossProcessEvents(boolean crossProcess) {
+            mCrossProcessEvents = crossProcess;
+            return this;
+        }
+
         /**
          * Overrides the job scheduler.
          *
@@ -285,6 +320,20 @@ public class HaloConfig {
             return this;
         }
 
+        /**
+         * Sets the client side http cache. It is installed on the okhttp client when the configuration
+         * is built, replacing any cache the client had.
+         *
+         * @param httpCache The http cache.
+         * @return The current builder.
+         */
+        @Api(2.4)
+        @NonNull
+        public Builder httpCache(@Nullable HaloHttpCache httpCache) {
+            mHttpCache = httpCache;
+            return this;
+        }
+
         /**
          * Sets the response parser.
          *
@@ -305,13 +354,18 @@ public class HaloConfig {
             if (mOkHttpClientBuilder == null) {
                 mOkHttpClientBuilder = new OkHttpClient.Builder();
             }
+            if (mHttpCache != null) {
+                mHttpCache.install(mOkHttpClientBuilder);
+            }
 
             //Sync
             if (mThreadManager == null) {
-                mThreadManager = new DefaultThreadManager();
+                mThreadManager = new PriorityThreadManager();
             }
             if (mEventHub == null) {
-                mEventHub = HaloEventBus.create(mContext);
+                mEventHub = mCrossProcessEvents
+                        ? LocalEventBus.createCrossProcess(mContext, mThreadManager)
+                        : LocalEventBus.create(mThreadManager);
             }
             if (mJobScheduler == null) {
                 mJobScheduler = new HaloJobScheduler(mContext, mThreadManager);
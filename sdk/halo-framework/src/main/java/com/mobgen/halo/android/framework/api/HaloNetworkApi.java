@@ -2,9 +2,11 @@ package com.mobgen.halo.android.framework.api;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.network.client.HaloNetClient;
+import com.mobgen.halo.android.framework.network.client.cache.HaloHttpCache;
 
 /**
  * Networking api that contains all items needed to make calls on the network.
@@ -21,6 +23,11 @@ public class HaloNetworkApi {
      */
     private HaloNetClient mClient;
 
+    /**
+     * The client side http cache.
+     */
+    private HaloHttpCache mHttpCache;
+
     /**
      * Constructs the networking api.
      *
@@ -43,7 +50,9 @@ public class HaloNetworkApi {
     @NonNull
     public static HaloNetworkApi newNetworkApi(@NonNull HaloFramework framework, @NonNull HaloConfig configuration) {
         HaloNetClient client = new HaloNetClient(configuration.getContext(), configuration.getOkHttpBuilder(), configuration.getEndpointCluster());
-        return new HaloNetworkApi(framework, client);
+        HaloNetworkApi networkApi = new HaloNetworkApi(framework, client);
+        networkApi.mHttpCache = configuration.getHttpCache();
+        return networkApi;
     }
 
     /**
@@ -57,6 +66,17 @@ public class HaloNetworkApi {
         return mClient;
     }
 
+    /**
+     * Provides the client side http cache, with the metrics of how the requests were served.
+     *
+     * @return The http cache or null if there is no cache configured.
+     */
+    @Api(2.4)
+    @Nullable
+    public HaloHttpCache httpCache() {
+        return mHttpCache;
+    }
+
     /**
      * Provides the context.
      *
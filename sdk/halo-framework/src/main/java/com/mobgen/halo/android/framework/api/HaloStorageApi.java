@@ -7,8 +7,11 @@ import android.support.annotation.Nullable;
 import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.common.exceptions.HaloConfigurationException;
 import com.mobgen.halo.android.framework.storage.database.HaloDataLite;
+import com.mobgen.halo.android.framework.storage.database.dsl.queries.QueryTracer;
 import com.mobgen.halo.android.framework.storage.preference.HaloPreferencesStorage;
 
+import java.util.List;
+
 /**
  * Builder factory that allows the developer to configure with the properly validations a storage
  * api, with possibility to access to preferences as well as a database.
@@ -91,6 +94,29 @@ public class HaloStorageApi {
         return mDatabase;
     }
 
+    /**
+     * Enables or disables the tracing of the queries executed with the storage DSL on this storage
+     * database. While enabled the sql shape, rows and duration of every query are kept in a bounded
+     * buffer. Use {@link QueryTracer#enable(boolean)} to trace all the databases of the process.
+     *
+     * @param enable True to enable the tracing.
+     */
+    @Api(2.4)
+    public void traceQueries(boolean enable) {
+        QueryTracer.enable(mDatabase.getDatabase().getPath(), enable);
+    }
+
+    /**
+     * Provides the most recent queries traced on this storage database, the oldest first.
+     *
+     * @return The query traces.
+     */
+    @Api(2.4)
+    @NonNull
+    public List<QueryTracer.QueryTrace> queryTraces() {
+        return QueryTracer.traces(mDatabase.getDatabase().getPath());
+    }
+
     /**
      * Provides the current context.
      *
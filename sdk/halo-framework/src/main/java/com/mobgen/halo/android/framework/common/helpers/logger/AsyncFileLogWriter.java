@@ -0,0 +1,375 @@
+package com.mobgen.halo.android.framework.common.helpers.logger;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log backend that writes the log lines to a file from a single background thread. Threads that
+ * log never take a lock: the lines are published in a bounded multi producer single consumer
+ * ring buffer that the writer drains in batches into a long lived buffered writer. When the file
+ * grows over the max size it is rotated keeping a limited number of old files. If the ring is
+ * full the line is dropped and counted instead of blocking the caller.
+ */
+class AsyncFileLogWriter {
+
+    /**
+     * Default number of lines that can be pending to be written.
+     */
+    static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Default max size of a log file before it is rotated.
+     */
+    static final long DEFAULT_MAX_FILE_SIZE = 1024 * 1024;
+
+    /**
+     * Max time the writer sleeps before flushing what it has.
+     */
+    private static final long FLUSH_INTERVAL_NANOS = 250 * 1000 * 1000L;
+
+    /**
+     * Size of the buffer of the file writer.
+     */
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * The log file.
+     */
+    private final File mFile;
+
+    /**
+     * The max size of the log file.
+     */
+    private final long mMaxFileSize;
+
+    /**
+     * The number of rotated files kept apart from the current one.
+     */
+    private final int mMaxBackupFiles;
+
+    /**
+     * The ring buffer slots.
+     */
+    private final AtomicReferenceArray<LogLine> mSlots;
+
+    /**
+     * Mask to get the slot from a sequence. The capacity is a power of two.
+     */
+    private final int mMask;
+
+    /**
+     * Next sequence to be claimed by a producer.
+     */
+    private final AtomicLong mProducerSequence;
+
+    /**
+     * Number of lines dropped because the ring was full.
+     */
+    private final AtomicLong mDropped;
+
+    /**
+     * Next sequence to be read by the writer. Only written by the writer thread.
+     */
+    private volatile long mConsumerSequence;
+
+    /**
+     * True while the writer is alive.
+     */
+    private volatile boolean mRunning;
+
+    /**
+     * The writer thread.
+     */
+    private final Thread mThread;
+
+    /**
+     * The current file writer. Only accessed from the writer thread.
+     */
+    private Writer mWriter;
+
+    /**
+     * The bytes written in the current file. Only accessed from the writer thread.
+     */
+    private long mFileSize;
+
+    /**
+     * Creates the writer and starts the background thread.
+     *
+     * @param file           The log file.
+     * @param capacity       The number of lines that can be pending.
+     * @param maxFileSize    The max size of a file before rotating it.
+     * @param maxBackupFiles The number of rotated files to keep.
+     * @param append         True to append to an existing file, false to start a new one.
+     */
+    AsyncFileLogWriter(@NonNull File file, int capacity, long maxFileSize, int maxBackupFiles, boolean append) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mFile = file;
+        mMaxFileSize = maxFileSize;
+        mMaxBackupFiles = maxBackupFiles;
+        mSlots = new AtomicReferenceArray<>(size);
+        mMask = size - 1;
+        mProducerSequence = new AtomicLong();
+        mDropped = new AtomicLong();
+        mRunning = true;
+        if (!append && file.exists()) {
+            file.delete();
+        }
+        mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drainLoop();
+            }
+        }, "HaloLogWriter");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    /**
+     * Provides the file where the log is being written.
+     *
+     * @return The log file.
+     */
+    @NonNull
+    File file() {
+        return mFile;
+    }
+
+    /**
+     * Provides the number of lines dropped because the writer could not keep up.
+     *
+     * @return The number of dropped lines.
+     */
+    long dropped() {
+        return mDropped.get();
+    }
+
+    /**
+     * Publishes a line to be written. Never blocks.
+     *
+     * @param clazz   The class used as context.
+     * @param message The message.
+     * @return True if the line was accepted, false if it was dropped.
+     */
+    boolean offer(@NonNull Class<?> clazz, @Nullable String message) {
+        if (!mRunning) {
+            return false;
+        }
+        LogLine line = new LogLine(System.currentTimeMillis(), clazz, message);
+        int capacity = mMask + 1;
+        while (true) {
+            long sequence = mProducerSequence.get();
+            long pending = sequence - mConsumerSequence;
+            if (pending >= capacity) {
+                mDropped.incrementAndGet();
+                return false;
+            }
+            if (mProducerSequence.compareAndSet(sequence, sequence + 1)) {
+                mSlots.lazySet((int) (sequence & mMask), line);
+                //Wake up the writer early if the ring is getting full
+                if (pending == capacity / 2) {
+                    LockSupport.unpark(mThread);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Stops the writer after writing all the pending lines.
+     */
+    void close() {
+        mRunning = false;
+        LockSupport.unpark(mThread);
+    }
+
+    /**
+     * Waits until the writer thread has written all the pending lines after being closed.
+     *
+     * @param millis The max time to wait.
+     * @return True if the writer finished, false if the time elapsed first.
+     * @throws InterruptedException The waiting thread was interrupted.
+     */
+    boolean awaitTermination(long millis) throws InterruptedException {
+        mThread.join(millis);
+        return !mThread.isAlive();
+    }
+
+    /**
+     * Loop of the writer thread.
+     */
+    private void drainLoop() {
+        try {
+            while (mRunning || mConsumerSequence != mProducerSequence.get()) {
+                if (drain() == 0) {
+                    flush();
+                    if (mRunning) {
+                        LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+                    }
+                }
+            }
+        } finally {
+            flush();
+            closeWriter();
+        }
+    }
+
+    /**
+     * Writes all the lines published.
+     *
+     * @return The number of lines written.
+     */
+    private int drain() {
+        int written = 0;
+        long sequence = mConsumerSequence;
+        while (true) {
+            int index = (int) (sequence & mMask);
+            LogLine line = mSlots.get(index);
+            if (line == null) {
+                //Empty or the producer has not published the line yet
+                break;
+            }
+            mSlots.lazySet(index, null);
+            sequence++;
+            mConsumerSequence = sequence;
+            write(line);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Writes a line into the file, rotating it if needed.
+     *
+     * @param line The line.
+     */
+    private void write(@NonNull LogLine line) {
+        try {
+            if (mWriter == null) {
+                openWriter();
+            }
+            String text = new Date(line.mTime).toString() + "/" + line.mClass.getSimpleName() + "\t\t|" + line.mMessage + "\r\n";
+            mWriter.write(text);
+            mFileSize += text.length();
+            if (mFileSize >= mMaxFileSize) {
+                rotate();
+            }
+        } catch (IOException e) {
+            //The log cannot be printed, discard the line
+            closeWriter();
+        }
+    }
+
+    /**
+     * Opens the writer of the current file.
+     *
+     * @throws IOException Error opening the file.
+     */
+    private void openWriter() throws IOException {
+        File directory = mFile.getParentFile();
+        if (directory != null && !directory.exists()) {
+            directory.mkdirs();
+        }
+        mFileSize = mFile.length();
+        mWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(mFile, true), Charset.forName("UTF-8")), WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Moves the current file to the backups and starts a new one.
+     */
+    private void rotate() {
+        closeWriter();
+        if (mMaxBackupFiles > 0) {
+            for (int i = mMaxBackupFiles - 1; i >= 1; i--) {
+                File older = backupFile(i);
+                if (older.exists()) {
+                    older.renameTo(backupFile(i + 1));
+                }
+            }
+            mFile.renameTo(backupFile(1));
+        } else {
+            mFile.delete();
+        }
+        mFileSize = 0;
+    }
+
+    /**
+     * Provides the backup file for a given position.
+     *
+     * @param position The position, 1 being the most recent.
+     * @return The file.
+     */
+    @NonNull
+    private File backupFile(int position) {
+        return new File(mFile.getPath() + "." + position);
+    }
+
+    /**
+     * Flushes the pending bytes of the writer.
+     */
+    private void flush() {
+        if (mWriter != null) {
+            try {
+                mWriter.flush();
+            } catch (IOException e) {
+                closeWriter();
+            }
+        }
+    }
+
+    /**
+     * Closes the writer.
+     */
+    private void closeWriter() {
+        if (mWriter != null) {
+            try {
+                mWriter.close();
+            } catch (IOException e) {
+                //Nothing to do
+            }
+            mWriter = null;
+        }
+    }
+
+    /**
+     * A line pending to be written.
+     */
+    private static final class LogLine {
+        /**
+         * Time of the log.
+         */
+        private final long mTime;
+        /**
+         * The class used as context.
+         */
+        private final Class<?> mClass;
+        /**
+         * The message.
+         */
+        private final String mMessage;
+
+        /**
+         * Constructor for the line.
+         *
+         * @param time    The time.
+         * @param clazz   The class.
+         * @param message The message.
+         */
+        private LogLine(long time, @NonNull Class<?> clazz, @Nullable String message) {
+            mTime = time;
+            mClass = clazz;
+            mMessage = message;
+        }
+    }
+}
@@ -1,60 +1,43 @@
 package com.mobgen.halo.android.framework.common.helpers.logger;
 
-import android.os.Environment;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.api.HaloFramework;
 import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
-import com.mobgen.halo.android.framework.toolbox.threading.Threading;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.sql.Timestamp;
-import java.util.Date;
 
 /**
  * Logger class to help on the halo logging stuff.
  */
 public class Halog {
 
-    /**
-     * Makes the log synchronized.
-     */
-    private static final Object SYNCHRONIZED_REFERENCE = new Object();
-
     /**
      * Determines if the log should print information.
      */
-    private static boolean mPrintDebug;
-
-    /**
-     * Determines if the print mode is enabled
-     */
-    private static int mPrintLogToFilePolicy = PrintLog.NO_FILE_POLICY;
+    private static volatile boolean mPrintDebug;
 
     /**
      * The formatter.
      */
-    private static LoggerFormatter mFormatter = new DefaultLogFormatter();
+    private static volatile LoggerFormatter mFormatter = new DefaultLogFormatter();
 
     /**
      * The filename to store logs
      */
-    private static String filename = "/HALO_LOG_%s.txt";
+    private static final String FILENAME = "/HALO_LOG_%s.txt";
 
     /**
-     * The log file.
+     * Number of rotated files kept with the multiple file policy.
      */
-    private static File mLogFile;
+    private static final int MULTIPLE_FILE_BACKUPS = 4;
 
     /**
-     * mHaloFramework
+     * The file writer, null if the log is not printed to file.
      */
-    private static HaloFramework mHaloFramework;
+    private static volatile AsyncFileLogWriter mFileWriter;
 
     /**
      * Constructor to avoid instances.
@@ -91,13 +74,9 @@ public class Halog {
      */
     @Api(1.0)
     public static void d(Class<?> clazz, String message) {
-        synchronized (SYNCHRONIZED_REFERENCE) {
-            if (mPrintDebug) {
-                mFormatter.d(clazz, message);
-                if(mPrintLogToFilePolicy!= PrintLog.NO_FILE_POLICY){
-                    enqueuePrintLogToFile(clazz,message);
-                }
-            }
+        if (mPrintDebug) {
+            mFormatter.d(clazz, message);
+            printToFile(clazz, message);
         }
     }
 
@@ -109,13 +88,9 @@ public class Halog {
      */
     @Api(1.0)
     public static void v(Class<?> clazz, String message) {
-        synchronized (SYNCHRONIZED_REFERENCE) {
-            if (mPrintDebug) {
-                mFormatter.v(clazz, message);
-                if(mPrintLogToFilePolicy!= PrintLog.NO_FILE_POLICY){
-                    enqueuePrintLogToFile(clazz,message);
-                }
-            }
+        if (mPrintDebug) {
+            mFormatter.v(clazz, message);
+            printToFile(clazz, message);
         }
     }
 
@@ -127,11 +102,9 @@ public class Halog {
      */
     @Api(1.0)
     public static void i(Class<?> clazz, String message) {
-        synchronized (SYNCHRONIZED_REFERENCE) {
-            mFormatter.i(clazz, message);
-            if(mPrintLogToFilePolicy!= PrintLog.NO_FILE_POLICY && mPrintDebug){
-                enqueuePrintLogToFile(clazz,message);
-            }
+        mFormatter.i(clazz, message);
+        if (mPrintDebug) {
+            printToFile(clazz, message);
         }
     }
 
@@ -143,11 +116,9 @@ public class Halog {
      */
     @Api(1.0)
     public static void w(Class<?> clazz, String message) {
-        synchronized (SYNCHRONIZED_REFERENCE) {
-            mFormatter.w(clazz, message);
-            if(mPrintLogToFilePolicy!= PrintLog.NO_FILE_POLICY && mPrintDebug){
-                enqueuePrintLogToFile(clazz,message);
-            }
+        mFormatter.w(clazz, message);
+        if (mPrintDebug) {
+            printToFile(clazz, message);
         }
     }
 
@@ -159,11 +130,9 @@ public class Halog {
      */
     @Api(1.0)
     public static void e(Class<?> clazz, String message) {
-        synchronized (SYNCHRONIZED_REFERENCE) {
-            mFormatter.e(clazz, message);
-            if(mPrintLogToFilePolicy!= PrintLog.NO_FILE_POLICY && mPrintDebug){
-                enqueuePrintLogToFile(clazz,message);
-            }
+        mFormatter.e(clazz, message);
+        if (mPrintDebug) {
+            printToFile(clazz, message);
         }
     }
 
@@ -176,11 +145,9 @@ public class Halog {
      */
     @Api(1.4)
     public static void e(Class<?> clazz, String message, Exception e) {
-        synchronized (SYNCHRONIZED_REFERENCE) {
-            mFormatter.e(clazz, message, e);
-            if(mPrintLogToFilePolicy!= PrintLog.NO_FILE_POLICY && mPrintDebug) {
-                enqueuePrintLogToFile(clazz,message);
-            }
+        mFormatter.e(clazz, message, e);
+        if (mPrintDebug) {
+            printToFile(clazz, message);
         }
     }
 
@@ -192,13 +159,9 @@ public class Halog {
      */
     @Api(1.0)
     public static void wtf(Class<?> clazz, String message) {
-        synchronized (SYNCHRONIZED_REFERENCE) {
-            if (mPrintDebug) {
-                mFormatter.wtf(clazz, message);
-                if(mPrintLogToFilePolicy!= PrintLog.NO_FILE_POLICY){
-                    enqueuePrintLogToFile(clazz,message);
-                }
-            }
+        if (mPrintDebug) {
+            mFormatter.wtf(clazz, message);
+            printToFile(clazz, message);
         }
     }
 
@@ -213,111 +176,61 @@ public class Halog {
     }
 
     /**
-     * Setup the file if its enable
+     * Setup the file if its enable. The lines are written from a background writer into a single
+     * file that is rotated by size. The single file policy starts a new file on every setup and
+     * keeps one rotated file, the multiple file policy appends to the previous executions and keeps
+     * some rotated files.
+     *
      * @param haloFramework The halo framework instance
      */
-    @NonNull
     @Api(2.3)
     public static void setupPrintLogToFile(@NonNull HaloFramework haloFramework) {
-        AssertionUtils.notNull(haloFramework,"haloFramework");
+        AssertionUtils.notNull(haloFramework, "haloFramework");
         if (mPrintDebug) {
-            mHaloFramework = haloFramework;
-            mPrintLogToFilePolicy = haloFramework.printToFilePolicy();
-            if (mPrintLogToFilePolicy == PrintLog.SINGLE_FILE_POLICY) {
-                filename = String.format(filename, "SINGLE");
-            } else if (mPrintLogToFilePolicy == PrintLog.MULTIPLE_FILE_POLICY) {
-                Date now = new Date();
-                Timestamp timestamp = new Timestamp(now.getTime());
-                filename = String.format(filename, timestamp.toString());
+            int policy = haloFramework.printToFilePolicy();
+            AsyncFileLogWriter oldWriter = mFileWriter;
+            mFileWriter = null;
+            if (oldWriter != null) {
+                oldWriter.close();
             }
-
-            //run on background thread
-            mHaloFramework.toolbox().queue().enqueue(Threading.SINGLE_QUEUE_POLICY, new Runnable() {
-                @Override
-                public void run() {
-                    if (mPrintLogToFilePolicy != PrintLog.NO_FILE_POLICY) {
-                        mLogFile = new File(mHaloFramework.context().getExternalFilesDir(null).getAbsolutePath() + filename);
-                        try {
-                            //create directory
-                            File directory = mLogFile.getParentFile();
-                            if (!directory.exists()) {
-                                directory.mkdirs();
-                            }
-                            if (mLogFile.exists()) {
-                                mLogFile.delete();
-                            }
-                            mLogFile.createNewFile();
-                        } catch (IOException e) {
-                        }
-                    }
+            File directory = haloFramework.context().getExternalFilesDir(null);
+            if (directory != null) {
+                if (policy == PrintLog.SINGLE_FILE_POLICY) {
+                    File file = new File(directory.getAbsolutePath() + String.format(FILENAME, "SINGLE"));
+                    mFileWriter = new AsyncFileLogWriter(file, AsyncFileLogWriter.DEFAULT_CAPACITY, AsyncFileLogWriter.DEFAULT_MAX_FILE_SIZE, 1, false);
+                } else if (policy == PrintLog.MULTIPLE_FILE_POLICY) {
+                    File file = new File(directory.getAbsolutePath() + String.format(FILENAME, "ROTATING"));
+                    mFileWriter = new AsyncFileLogWriter(file, AsyncFileLogWriter.DEFAULT_CAPACITY, AsyncFileLogWriter.DEFAULT_MAX_FILE_SIZE, MULTIPLE_FILE_BACKUPS, true);
                 }
-            });
+            }
         }
     }
 
     /**
      * Get the path of the printed log file.
      *
-     * @return The path to log file or the last modified file if multiple file policy.
+     * @return The path to the current log file.
      */
     @Nullable
-    @Api (2.2)
+    @Api(2.2)
     public static File getLogFilePath() {
-        if (mPrintDebug) {
-            if (mPrintLogToFilePolicy == PrintLog.SINGLE_FILE_POLICY) {
-                return mLogFile;
-            }
-            else if (mPrintLogToFilePolicy == PrintLog.MULTIPLE_FILE_POLICY) {//return last modified file
-                File[] files = mLogFile.getParentFile().listFiles();
-                if (files.length > 0) {
-                    File lastModifiedFile = files[0];
-                    for (int i = 1; i < files.length; i++) {
-                        if (lastModifiedFile.lastModified() < files[i].lastModified()) {
-                            lastModifiedFile = files[i];
-                        }
-                    }
-                    return lastModifiedFile;
-                }
-            }
+        AsyncFileLogWriter writer = mFileWriter;
+        if (mPrintDebug && writer != null) {
+            return writer.file();
         }
         return null;
     }
 
     /**
-     * Enqueue print task on a single thread.
+     * Sends the message to the file writer if there is one.
      *
-     * @param clazz The classname
+     * @param clazz   The classname
      * @param message The message to print to file.
      */
-    private static void enqueuePrintLogToFile(final Class<?> clazz,final String message)  {
-
-        mHaloFramework.toolbox().queue().enqueue(Threading.SINGLE_QUEUE_POLICY, new Runnable() {
-            @Override
-            public void run() {
-                printMessageToFile(clazz,message);
-            }
-        });
-    }
-
-    /**
-     * Tries to print Halo log messages to file.
-     * @param clazz The classname
-     * @param message The message to print to file.
-     */
-    private static void printMessageToFile(Class<?> clazz,String message){
-        String state = Environment.getExternalStorageState();
-        if (Environment.MEDIA_MOUNTED.equals(state)) {
-            try {
-                Date now = new Date();
-                String tag = now.toString() + "/" + clazz.getSimpleName();
-                BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(mLogFile, true));
-                bufferedWriter.write(tag + "\t\t|" + message + "\r");
-                bufferedWriter.newLine();
-                bufferedWriter.flush();
-                bufferedWriter.close();
-            } catch (IOException e) {
-            }
-
+    private static void printToFile(Class<?> clazz, String message) {
+        AsyncFileLogWriter writer = mFileWriter;
+        if (writer != null) {
+            writer.offer(clazz, message);
         }
     }
 }
@@ -0,0 +1,65 @@
+package com.mobgen.halo.android.framework.network.client;
+
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
+import com.mobgen.halo.android.framework.network.exceptions.HaloUnknownServerException;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A request in flight. The leader completes it once and every waiter receives the same result
+ * or error.
+ *
+ * @param <T> The type of the result.
+ * @hide
+ */
+public class Flight<T> {
+    /**
+     * Released when the request finishes.
+     */
+    private final CountDownLatch mLatch = new CountDownLatch(1);
+    /**
+     * The result.
+     */
+    private T mResult;
+    /**
+     * The error.
+     */
+    private HaloNetException mError;
+
+    /**
+     * Finishes the flight and releases the waiters.
+     *
+     * @param result The result.
+     * @param error  The error.
+     */
+    @Api(2.4)
+    public void complete(@Nullable T result, @Nullable HaloNetException error) {
+        mResult = result;
+        mError = error;
+        mLatch.countDown();
+    }
+
+    /**
+     * Waits for the flight to finish.
+     *
+     * @return The result.
+     * @throws HaloNetException The error of the request.
+     */
+    @Api(2.4)
+    @Nullable
+    public T await() throws HaloNetException {
+        try {
+            mLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HaloUnknownServerException("Interrupted while waiting for the request in flight.", e);
+        }
+        if (mError != null) {
+            throw mError;
+        }
+        return mResult;
+    }
+}
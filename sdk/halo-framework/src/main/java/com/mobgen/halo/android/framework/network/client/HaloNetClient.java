@@ -2,6 +2,7 @@ package com.mobgen.halo.android.framework.network.client;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
@@ -12,6 +13,8 @@ import com.mobgen.halo.android.framework.network.client.response.TypeReference;
 import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
 import com.mobgen.halo.android.framework.network.exceptions.HaloNetParseException;
 import com.mobgen.halo.android.framework.network.exceptions.HaloNetworkExceptionResolver;
+import com.mobgen.halo.android.framework.network.sessions.HaloSession;
+import com.mobgen.halo.android.framework.network.sessions.HaloSessionManager;
 
 import java.io.IOException;
 
@@ -40,6 +43,21 @@ public class HaloNetClient {
      */
     private OkHttpClient mClient;
 
+    /**
+     * Shares the parsed result of the identical requests in flight.
+     */
+    private final RequestCoalescer mCoalescer;
+
+    /**
+     * The session manager with the session added to the requests by the interceptors.
+     */
+    private volatile HaloSessionManager mCoalescingSessions;
+
+    /**
+     * The name of the session added to the requests by the interceptors.
+     */
+    private volatile String mCoalescingSessionName;
+
     /**
      * Deep copy constructor.
      *
@@ -54,6 +72,7 @@ public class HaloNetClient {
         mContext = context;
         mEndpoints = endpoints;
         mClient = buildCertificates(clientBuilder).build();
+        mCoalescer = new RequestCoalescer();
     }
 
     /**
@@ -98,7 +117,8 @@ public class HaloNetClient {
     }
 
     /**
-     * Performs a request based on its parameters.
+     * Performs a request based on its parameters. If an identical request is in flight its parsed
+     * result is shared instead of doing another request.
      *
      * @param haloRequest The request to perform.
      * @param type        The response class that will be used to cast the data.
@@ -107,17 +127,23 @@ public class HaloNetClient {
      */
     @SuppressWarnings("unchecked")
     @Api(2.0)
-    public <T> T request(@NonNull HaloRequest haloRequest, @NonNull final TypeReference<T> type) throws HaloNetException {
-        Response stream = request(haloRequest);
-        try {
-            return (T) haloRequest.getParser().deserialize(type.getType()).convert(stream.body().byteStream());
-        } catch (IOException e) {
-            throw new HaloNetParseException("Error parsing the stream", e);
-        }
+    public <T> T request(@NonNull final HaloRequest haloRequest, @NonNull final TypeReference<T> type) throws HaloNetException {
+        return mCoalescer.execute(coalescingKey(haloRequest, type.getType().toString()), new RequestCoalescer.Call<T>() {
+            @Override
+            public T execute() throws HaloNetException {
+                Response stream = request(haloRequest);
+                try {
+                    return (T) haloRequest.getParser().deserialize(type.getType()).convert(stream.body().byteStream());
+                } catch (IOException e) {
+                    throw new HaloNetParseException("Error parsing the stream", e);
+                }
+            }
+        });
     }
 
     /**
-     * Performs a request based on its parameters.
+     * Performs a request based on its parameters. If an identical request is in flight its parsed
+     * result is shared instead of doing another request.
      *
      * @param haloRequest The request to perform.
      * @param clazz       The response class that will be used to cast the data.
@@ -126,13 +152,58 @@ public class HaloNetClient {
      */
     @SuppressWarnings("unchecked")
     @Api(2.0)
-    public <T> T request(@NonNull HaloRequest haloRequest, @NonNull Class<T> clazz) throws HaloNetException {
-        Response stream = request(haloRequest);
-        try {
-            return (T) haloRequest.getParser().deserialize(clazz).convert(stream.body().byteStream());
-        } catch (IOException e) {
-            throw new HaloNetParseException("Error parsing the stream", e);
+    public <T> T request(@NonNull final HaloRequest haloRequest, @NonNull final Class<T> clazz) throws HaloNetException {
+        return mCoalescer.execute(coalescingKey(haloRequest, clazz.getName()), new RequestCoalescer.Call<T>() {
+            @Override
+            public T execute() throws HaloNetException {
+                Response stream = request(haloRequest);
+                try {
+                    return (T) haloRequest.getParser().deserialize(clazz).convert(stream.body().byteStream());
+                } catch (IOException e) {
+                    throw new HaloNetParseException("Error parsing the stream", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the session that the interceptors add to the requests after they are built, so the
+     * requests made with different sessions are never coalesced.
+     *
+     * @param sessionManager The session manager.
+     * @param sessionName    The name of the session.
+     * @hide
+     */
+    @Api(2.4)
+    public void coalescingSession(@NonNull HaloSessionManager sessionManager, @NonNull String sessionName) {
+        AssertionUtils.notNull(sessionManager, "sessionManager");
+        AssertionUtils.notNull(sessionName, "sessionName");
+        mCoalescingSessionName = sessionName;
+        mCoalescingSessions = sessionManager;
+    }
+
+    /**
+     * Provides the key to coalesce a request parsed to a type, since the same response parsed to
+     * different types can not be shared. It includes the current session added by the interceptors.
+     *
+     * @param haloRequest The request.
+     * @param type        The name of the type of the result.
+     * @return The key or null if the request is not coalesced.
+     */
+    @Nullable
+    private String coalescingKey(@NonNull HaloRequest haloRequest, @NonNull String type) {
+        String key = haloRequest.getCoalescingKey();
+        if (key == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(key).append('\n').append(type);
+        HaloSessionManager sessions = mCoalescingSessions;
+        String sessionName = mCoalescingSessionName;
+        if (sessions != null && sessionName != null) {
+            HaloSession session = sessions.getSession(sessionName);
+            builder.append('\n').append(session == null ? null : session.getSessionAuthentication());
         }
+        return builder.toString();
     }
 
     /**
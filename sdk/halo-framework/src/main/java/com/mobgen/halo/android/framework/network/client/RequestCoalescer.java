@@ -0,0 +1,108 @@
+package com.mobgen.halo.android.framework.network.client;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
+import com.mobgen.halo.android.framework.network.exceptions.HaloUnknownServerException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single flight layer for the requests. While a request is in flight, the identical requests
+ * wait for it and receive its parsed result instead of doing another round trip. All of them
+ * receive the same instance, so only the requests whose result is not modified are coalesced.
+ */
+class RequestCoalescer {
+
+    /**
+     * The requests in flight by key.
+     */
+    private final Map<String, Flight<Object>> mFlights;
+
+    /**
+     * Constructor for the coalescer.
+     */
+    RequestCoalescer() {
+        mFlights = new HashMap<>();
+    }
+
+    /**
+     * Executes the call or joins the call in flight with the same key.
+     *
+     * @param key  The key of the call, null to execute it without coalescing.
+     * @param call The call.
+     * @param <T>  The type of the result.
+     * @return The result of the call.
+     * @throws HaloNetException Error in the call.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(@Nullable String key, @NonNull Call<T> call) throws HaloNetException {
+        if (key == null) {
+            return call.execute();
+        }
+        Flight<Object> flight;
+        boolean leader = false;
+        synchronized (mFlights) {
+            flight = mFlights.get(key);
+            if (flight == null) {
+                flight = new Flight<>();
+                mFlights.put(key, flight);
+                leader = true;
+            }
+        }
+        if (!leader) {
+            return (T) flight.await();
+        }
+        T result = null;
+        HaloNetException error = null;
+        boolean succeeded = false;
+        try {
+            result = call.execute();
+            succeeded = true;
+            return result;
+        } catch (HaloNetException e) {
+            error = e;
+            throw e;
+        } catch (RuntimeException e) {
+            error = new HaloUnknownServerException("The coalesced request failed.", e);
+            throw e;
+        } finally {
+            synchronized (mFlights) {
+                mFlights.remove(key);
+            }
+            //Release the waiters even if the call ended with an error
+            if (!succeeded && error == null) {
+                error = new HaloUnknownServerException("The coalesced request failed.");
+            }
+            flight.complete(result, error);
+        }
+    }
+
+    /**
+     * Tells the number of requests in flight.
+     *
+     * @return The number of requests.
+     */
+    int inFlight() {
+        synchronized (mFlights) {
+            return mFlights.size();
+        }
+    }
+
+    /**
+     * A call that can be coalesced.
+     *
+     * @param <T> The type of the result.
+     */
+    interface Call<T> {
+        /**
+         * Executes the call.
+         *
+         * @return The result.
+         * @throws HaloNetException Error in the call.
+         */
+        T execute() throws HaloNetException;
+    }
+}
@@ -7,7 +7,11 @@ import com.mobgen.halo.android.framework.common.annotations.Api;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
 
 import okhttp3.FormBody;
 import okhttp3.RequestBody;
@@ -85,4 +89,25 @@ public class HaloBodyFactory {
         return RequestBody.create(haloMediaType.parseType(), file);
     }
 
+    /**
+     * Creates a gzip compressed request body from a string. The request must also send the
+     * header Content-Encoding with the value gzip.
+     *
+     * @param haloMediaType The media type of the uncompressed content.
+     * @param stringBody    The string body to post.
+     * @return The request body.
+     * @throws IOException Error compressing the body.
+     */
+    @Api(2.4)
+    @NonNull
+    public static RequestBody gzipBody(@NonNull HaloMediaType haloMediaType, @NonNull String stringBody) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+        try {
+            gzip.write(stringBody.getBytes(Charset.forName("UTF-8")));
+        } finally {
+            gzip.close();
+        }
+        return RequestBody.create(haloMediaType.parseType(), compressed.toByteArray());
+    }
 }
@@ -0,0 +1,124 @@
+package com.mobgen.halo.android.framework.network.client.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Interceptor that applies the cache policies. As a network interceptor it adds the freshness of
+ * the policy to the responses without it, so they are stored and revalidated. As an application
+ * interceptor it records the metrics and serves stale responses when the network fails.
+ */
+class HaloCacheInterceptor implements Interceptor {
+
+    /**
+     * Code of a revalidated response.
+     */
+    static final int HTTP_NOT_MODIFIED = 304;
+
+    /**
+     * Code of a request that can not be served from the cache only.
+     */
+    private static final int HTTP_GATEWAY_TIMEOUT = 504;
+
+    /**
+     * The cache.
+     */
+    private final HaloHttpCache mHttpCache;
+
+    /**
+     * True if it is installed as network interceptor.
+     */
+    private final boolean mNetwork;
+
+    /**
+     * Constructor for the interceptor.
+     *
+     * @param httpCache The cache.
+     * @param network   True if it is installed as network interceptor.
+     */
+    HaloCacheInterceptor(@NonNull HaloHttpCache httpCache, boolean network) {
+        mHttpCache = httpCache;
+        mNetwork = network;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        HaloCachePolicy policy = "GET".equals(request.method()) ? mHttpCache.policyFor(request.url()) : null;
+        return mNetwork ? interceptNetwork(chain, request, policy) : interceptApplication(chain, request, policy);
+    }
+
+    /**
+     * Adds the freshness of the policy to the response if the server did not send it.
+     *
+     * @param chain   The chain.
+     * @param request The request.
+     * @param policy  The policy.
+     * @return The response.
+     * @throws IOException Error in the request.
+     */
+    @NonNull
+    private Response interceptNetwork(@NonNull Chain chain, @NonNull Request request, @Nullable HaloCachePolicy policy) throws IOException {
+        Response response = chain.proceed(request);
+        if (policy != null && response.isSuccessful() && !hasExplicitCaching(response.cacheControl())) {
+            response = response.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", "max-age=" + policy.getMaxAge())
+                    .build();
+        }
+        return response;
+    }
+
+    /**
+     * Records the metrics and serves a stale response if the network fails and the policy allows it.
+     *
+     * @param chain   The chain.
+     * @param request The request.
+     * @param policy  The policy.
+     * @return The response.
+     * @throws IOException Error in the request without stale response.
+     */
+    @NonNull
+    private Response interceptApplication(@NonNull Chain chain, @NonNull Request request, @Nullable HaloCachePolicy policy) throws IOException {
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            if (policy == null || policy.getMaxStale() == 0) {
+                throw e;
+            }
+            Response stale = chain.proceed(request.newBuilder()
+                    .cacheControl(new CacheControl.Builder()
+                            .onlyIfCached()
+                            .maxStale(policy.getMaxStale(), TimeUnit.SECONDS)
+                            .build())
+                    .build());
+            if (stale.code() == HTTP_GATEWAY_TIMEOUT) {
+                stale.close();
+                throw e;
+            }
+            mHttpCache.recordStale();
+            return stale;
+        }
+        mHttpCache.record(response);
+        return response;
+    }
+
+    /**
+     * Tells if the server decided how to cache the response.
+     *
+     * @param cacheControl The cache control of the response.
+     * @return True if it has its own caching.
+     */
+    private static boolean hasExplicitCaching(@NonNull CacheControl cacheControl) {
+        return cacheControl.noStore() || cacheControl.noCache() || cacheControl.maxAgeSeconds() != -1;
+    }
+}
@@ -0,0 +1,163 @@
+package com.mobgen.halo.android.framework.network.client.cache;
+
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.common.helpers.builder.IBuilder;
+import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Cache policy for the GET requests of an endpoint path. It is applied when the server does not send
+ * its own freshness information, and allows to serve stale responses when the network fails.
+ */
+public class HaloCachePolicy {
+
+    /**
+     * The path of the requests.
+     */
+    private final String mPath;
+
+    /**
+     * The time the response is fresh.
+     */
+    private final int mMaxAge;
+
+    /**
+     * The time a response can be served stale when the network fails.
+     */
+    private final int mMaxStale;
+
+    /**
+     * Constructor for the policy.
+     *
+     * @param builder The builder.
+     */
+    private HaloCachePolicy(@NonNull Builder builder) {
+        mPath = builder.mPath;
+        mMaxAge = builder.mMaxAge;
+        mMaxStale = builder.mMaxStale;
+    }
+
+    /**
+     * Creates the builder of a policy for the requests that contain a path.
+     *
+     * @param path The path of the requests, without the query.
+     * @return The builder.
+     */
+    @Api(2.4)
+    @NonNull
+    public static Builder builder(@NonNull String path) {
+        AssertionUtils.notNull(path, "path");
+        return new Builder(path);
+    }
+
+    /**
+     * Tells if the policy applies to the url.
+     *
+     * @param url The url.
+     * @return True if it applies.
+     */
+    @Api(2.4)
+    public boolean matches(@NonNull HttpUrl url) {
+        return url.encodedPath().contains(mPath);
+    }
+
+    /**
+     * Provides the path.
+     *
+     * @return The path.
+     */
+    @Api(2.4)
+    @NonNull
+    public String getPath() {
+        return mPath;
+    }
+
+    /**
+     * Provides the time in seconds a response is fresh. With 0 the response is revalidated
+     * with its ETag or last modified date on every request.
+     *
+     * @return The max age.
+     */
+    @Api(2.4)
+    public int getMaxAge() {
+        return mMaxAge;
+    }
+
+    /**
+     * Provides the time in seconds a response can be served stale when the network fails.
+     *
+     * @return The max stale.
+     */
+    @Api(2.4)
+    public int getMaxStale() {
+        return mMaxStale;
+    }
+
+    /**
+     * Builder for the policy.
+     */
+    public static class Builder implements IBuilder<HaloCachePolicy> {
+
+        /**
+         * The path of the requests.
+         */
+        private String mPath;
+
+        /**
+         * The time the response is fresh.
+         */
+        private int mMaxAge;
+
+        /**
+         * The time a response can be served stale.
+         */
+        private int mMaxStale;
+
+        /**
+         * Constructor for the builder.
+         *
+         * @param path The path.
+         */
+        private Builder(@NonNull String path) {
+            mPath = path;
+        }
+
+        /**
+         * Sets the time in seconds a response is fresh. By default it is 0, so the response is
+         * always revalidated.
+         *
+         * @param seconds The seconds.
+         * @return The current builder.
+         */
+        @Api(2.4)
+        @NonNull
+        public Builder maxAge(int seconds) {
+            mMaxAge = Math.max(seconds, 0);
+            return this;
+        }
+
+        /**
+         * Sets the time in seconds a response can be served stale when the network fails. By default
+         * it is 0, so the error is not hidden.
+         *
+         * @param seconds The seconds.
+         * @return The current builder.
+         */
+        @Api(2.4)
+        @NonNull
+        public Builder maxStale(int seconds) {
+            mMaxStale = Math.max(seconds, 0);
+            return this;
+        }
+
+        @Api(2.4)
+        @NonNull
+        @Override
+        public HaloCachePolicy build() {
+            return new HaloCachePolicy(this);
+        }
+    }
+}
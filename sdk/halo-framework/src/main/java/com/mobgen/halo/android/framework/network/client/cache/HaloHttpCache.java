@@ -0,0 +1,266 @@
+package com.mobgen.halo.android.framework.network.client.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.common.helpers.builder.IBuilder;
+import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Cache;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+/**
+ * Client side http cache for the halo requests. The responses are stored on disk and revalidated with
+ * their ETag or last modified date, following the policy of the endpoint path when the server does not
+ * send its own. It also keeps the metrics of how the requests were served.
+ */
+public class HaloHttpCache {
+
+    /**
+     * The disk cache.
+     */
+    private final Cache mCache;
+
+    /**
+     * The policies by path.
+     */
+    private final List<HaloCachePolicy> mPolicies;
+
+    /**
+     * Requests that went through the cache.
+     */
+    private final AtomicLong mRequestCount;
+
+    /**
+     * Requests served from the cache without network.
+     */
+    private final AtomicLong mHitCount;
+
+    /**
+     * Requests revalidated by the server without downloading the body.
+     */
+    private final AtomicLong mRevalidatedCount;
+
+    /**
+     * Requests that downloaded the body.
+     */
+    private final AtomicLong mNetworkCount;
+
+    /**
+     * Stale responses served because the network failed.
+     */
+    private final AtomicLong mStaleCount;
+
+    /**
+     * Constructor for the cache.
+     *
+     * @param builder The builder.
+     */
+    private HaloHttpCache(@NonNull Builder builder) {
+        mCache = new Cache(builder.mDirectory, builder.mMaxSize);
+        mPolicies = Collections.unmodifiableList(new ArrayList<>(builder.mPolicies));
+        mRequestCount = new AtomicLong();
+        mHitCount = new AtomicLong();
+        mRevalidatedCount = new AtomicLong();
+        mNetworkCount = new AtomicLong();
+        mStaleCount = new AtomicLong();
+    }
+
+    /**
+     * Creates the builder of the cache.
+     *
+     * @param directory The directory of the cache.
+     * @param maxSize   The maximum size in bytes.
+     * @return The builder.
+     */
+    @Api(2.4)
+    @NonNull
+    public static Builder builder(@NonNull File directory, long maxSize) {
+        AssertionUtils.notNull(directory, "directory");
+        return new Builder(directory, maxSize);
+    }
+
+    /**
+     * Installs the cache and its interceptors in the client.
+     *
+     * @param okBuilder The client builder.
+     * @return The client builder.
+     */
+    @Api(2.4)
+    @NonNull
+    public OkHttpClient.Builder install(@NonNull OkHttpClient.Builder okBuilder) {
+        return okBuilder.cache(mCache)
+                .addInterceptor(new HaloCacheInterceptor(this, false))
+                .addNetworkInterceptor(new HaloCacheInterceptor(this, true));
+    }
+
+    /**
+     * Provides the policy for the url.
+     *
+     * @param url The url.
+     * @return The policy or null if there is no policy for it.
+     */
+    @Api(2.4)
+    @Nullable
+    public HaloCachePolicy policyFor(@NonNull HttpUrl url) {
+        for (HaloCachePolicy policy : mPolicies) {
+            if (policy.matches(url)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Provides the disk cache.
+     *
+     * @return The cache.
+     */
+    @Api(2.4)
+    @NonNull
+    public Cache cache() {
+        return mCache;
+    }
+
+    /**
+     * Provides the number of requests that went through the cache.
+     *
+     * @return The number of requests.
+     */
+    @Api(2.4)
+    public long requestCount() {
+        return mRequestCount.get();
+    }
+
+    /**
+     * Provides the number of requests served from the cache without using the network.
+     *
+     * @return The number of hits.
+     */
+    @Api(2.4)
+    public long hitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * Provides the number of requests the server revalidated without sending the body again.
+     *
+     * @return The number of revalidations.
+     */
+    @Api(2.4)
+    public long revalidatedCount() {
+        return mRevalidatedCount.get();
+    }
+
+    /**
+     * Provides the number of requests that downloaded the body.
+     *
+     * @return The number of requests.
+     */
+    @Api(2.4)
+    public long networkCount() {
+        return mNetworkCount.get();
+    }
+
+    /**
+     * Provides the number of stale responses served because the network failed.
+     *
+     * @return The number of stale responses.
+     */
+    @Api(2.4)
+    public long staleCount() {
+        return mStaleCount.get();
+    }
+
+    /**
+     * Records how a response was served.
+     *
+     * @param response The response.
+     */
+    void record(@NonNull Response response) {
+        mRequestCount.incrementAndGet();
+        Response networkResponse = response.networkResponse();
+        if (response.cacheResponse() != null) {
+            if (networkResponse == null) {
+                mHitCount.incrementAndGet();
+            } else if (networkResponse.code() == HaloCacheInterceptor.HTTP_NOT_MODIFIED) {
+                mRevalidatedCount.incrementAndGet();
+            } else {
+                mNetworkCount.incrementAndGet();
+            }
+        } else if (networkResponse != null) {
+            mNetworkCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records a stale response served because the network failed.
+     */
+    void recordStale() {
+        mRequestCount.incrementAndGet();
+        mStaleCount.incrementAndGet();
+    }
+
+    /**
+     * Builder for the cache.
+     */
+    public static class Builder implements IBuilder<HaloHttpCache> {
+
+        /**
+         * The directory of the cache.
+         */
+        private File mDirectory;
+
+        /**
+         * The maximum size in bytes.
+         */
+        private long mMaxSize;
+
+        /**
+         * The policies by path.
+         */
+        private List<HaloCachePolicy> mPolicies;
+
+        /**
+         * Constructor for the builder.
+         *
+         * @param directory The directory.
+         * @param maxSize   The maximum size.
+         */
+        private Builder(@NonNull File directory, long maxSize) {
+            mDirectory = directory;
+            mMaxSize = maxSize;
+            mPolicies = new ArrayList<>();
+        }
+
+        /**
+         * Adds the policy of an endpoint path. The first policy that matches a request is applied.
+         *
+         * @param policy The policy.
+         * @return The current builder.
+         */
+        @Api(2.4)
+        @NonNull
+        public Builder addPolicy(@NonNull HaloCachePolicy policy) {
+            AssertionUtils.notNull(policy, "policy");
+            mPolicies.add(policy);
+            return this;
+        }
+
+        @Api(2.4)
+        @NonNull
+        @Override
+        public HaloHttpCache build() {
+            return new HaloHttpCache(this);
+        }
+    }
+}
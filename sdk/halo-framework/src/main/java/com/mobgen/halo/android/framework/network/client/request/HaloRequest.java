@@ -14,11 +14,13 @@ import com.mobgen.halo.android.framework.network.client.response.TypeReference;
 import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
 import com.mobgen.halo.android.framework.network.sessions.HaloSession;
 
+import java.io.IOException;
 import java.util.Map;
 
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okio.Buffer;
 
 /**
  * Request wrapper to be executed.
@@ -55,6 +57,11 @@ public class HaloRequest {
      */
     private final HaloNetClient mNetworkClient;
 
+    /**
+     * Tells if the identical requests in flight can share the response.
+     */
+    private final boolean mCoalesce;
+
     /**
      * Constructor for the halo request.
      *
@@ -64,6 +71,7 @@ public class HaloRequest {
         mNetworkClient = builder.mNetworkApi.client();
         mRequestBuilder = builder.mRequestBuilder;
         mResponseParser = builder.mResponseParser;
+        mCoalesce = builder.mCoalesce;
     }
 
     /**
@@ -141,6 +149,36 @@ public class HaloRequest {
         return mResponseParser;
     }
 
+    /**
+     * Provides the key that identifies the identical requests, made of the method, the url, the headers
+     * (including the session set on the request) and a hash of the body.
+     *
+     * @return The key or null if this request must not be coalesced.
+     */
+    @Api(2.4)
+    @Nullable
+    public String getCoalescingKey() {
+        if (!mCoalesce) {
+            return null;
+        }
+        Request request = buildOkRequest();
+        StringBuilder key = new StringBuilder()
+                .append(request.method()).append(' ')
+                .append(request.url()).append('\n')
+                .append(request.headers());
+        RequestBody body = request.body();
+        if (body != null) {
+            Buffer buffer = new Buffer();
+            try {
+                body.writeTo(buffer);
+            } catch (IOException e) {
+                return null;
+            }
+            key.append(body.contentType()).append('\n').append(buffer.sha1().hex());
+        }
+        return key.toString();
+    }
+
     /**
      * Installer for the request.
      */
@@ -177,6 +215,11 @@ public class HaloRequest {
          */
         private HaloSession mSession;
 
+        /**
+         * Tells if the request can be coalesced.
+         */
+        private boolean mCoalesce;
+
         /**
          * Constructor for the request builder.
          *
@@ -363,6 +406,22 @@ public class HaloRequest {
             return this;
         }
 
+        /**
+         * Tells if identical requests issued while this one is in flight can wait for it and share its
+         * parsed result instead of doing another round trip. By default no request is coalesced.
+         * Enable it only for requests without side effects and whose result is not modified by the
+         * callers, since all of them receive the same instance.
+         *
+         * @param coalesce True to coalesce the request, false otherwise.
+         * @return The current builder.
+         */
+        @Api(2.4)
+        @NonNull
+        public Builder coalesce(boolean coalesce) {
+            mCoalesce = coalesce;
+            return this;
+        }
+
         /**
          * Sets the response parser for this request in case it is needed.
          *
@@ -5,26 +5,33 @@ import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.common.annotations.Api;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * It is a manager that can hold the session objects created by halo and other
- * application components.
+ * application components. The sessions are read from many threads, so they are kept
+ * in an immutable snapshot that is replaced on every change.
  */
 public class HaloSessionManager {
 
     /**
-     * The session map with all the sessions.
+     * The snapshot with all the sessions.
      */
-    private final Map<String, HaloSession> mSessionHolder;
+    private volatile Map<String, HaloSession> mSessionHolder;
+
+    /**
+     * Lock for the changes of the sessions.
+     */
+    private final Object mWriteLock = new Object();
 
     /**
      * Constructor for the session manager.
      */
     @Api(1.0)
     public HaloSessionManager() {
-        mSessionHolder = new HashMap<>(1);
+        mSessionHolder = Collections.emptyMap();
     }
 
     /**
@@ -36,7 +43,11 @@ public class HaloSessionManager {
      */
     @Api(1.0)
     public void setSession(@NonNull String sessionName, @NonNull HaloSession session) {
-        mSessionHolder.put(sessionName, session);
+        synchronized (mWriteLock) {
+            Map<String, HaloSession> sessions = new HashMap<>(mSessionHolder);
+            sessions.put(sessionName, session);
+            mSessionHolder = Collections.unmodifiableMap(sessions);
+        }
     }
 
     /**
@@ -51,6 +62,18 @@ public class HaloSessionManager {
         return mSessionHolder.get(session);
     }
 
+    /**
+     * Provides all the sessions as they are now. The snapshot does not change with the sessions
+     * set or flushed later.
+     *
+     * @return The sessions by name.
+     */
+    @Api(2.4)
+    @NonNull
+    public Map<String, HaloSession> snapshot() {
+        return mSessionHolder;
+    }
+
     /**
      * Flushes the session specified.
      *
@@ -58,6 +81,12 @@ public class HaloSessionManager {
      */
     @Api(1.0)
     public void flushSession(@NonNull String sessionName) {
-        mSessionHolder.remove(sessionName);
+        synchronized (mWriteLock) {
+            if (mSessionHolder.containsKey(sessionName)) {
+                Map<String, HaloSession> sessions = new HashMap<>(mSessionHolder);
+                sessions.remove(sessionName);
+                mSessionHolder = Collections.unmodifiableMap(sessions);
+            }
+        }
     }
 }
@@ -10,9 +10,13 @@ import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.common.exceptions.HaloConfigurationException;
 import com.mobgen.halo.android.framework.common.helpers.builder.IBuilder;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.storage.database.dsl.queries.Query;
 import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageException;
 import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageGeneralException;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 
 /**
  * Database creation helper that manages the connections and transactions.
@@ -34,6 +38,16 @@ public class HaloDataLite extends SQLiteOpenHelper implements Corruptible {
      */
     private final Context mContext;
 
+    /**
+     * Compiled statements cache keyed by the sql so they can be reused with different arguments.
+     */
+    private final StatementCache mStatementCache;
+
+    /**
+     * Default size for the compiled statements cache.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 25;
+
     /**
      * Creates the helper for the database.
      *
@@ -43,11 +57,13 @@ public class HaloDataLite extends SQLiteOpenHelper implements Corruptible {
      * @param version The version for this database.
      * @param manager The database version manager used to create all the versions for this database.
      * @param handler The error handler to avoid corrupted databases to be used and produce exceptions.
+     * @param statementCacheSize The max number of compiled statements kept.
      */
-    private HaloDataLite(@NonNull Context context, @NonNull String name, int version, @NonNull HaloDatabaseVersionManager manager, @NonNull HaloDatabaseErrorHandler handler) {
+    private HaloDataLite(@NonNull Context context, @NonNull String name, int version, @NonNull HaloDatabaseVersionManager manager, @NonNull HaloDatabaseErrorHandler handler, int statementCacheSize) {
         super(context, name, null, version, handler);
         mContext = context;
         mDatabaseVersionManager = manager;
+        mStatementCache = new StatementCache(statementCacheSize);
         //Make sure the error handler belongs a reference to the data lite helper.
         handler.setCorruptible(this);
     }
@@ -96,10 +112,61 @@ public class HaloDataLite extends SQLiteOpenHelper implements Corruptible {
         //Singleton instance for the database.
         if (mDatabase == null) {
             mDatabase = getWritableDatabase();
+            //Let sqlite keep the prepared selects for the same shapes we cache ourselves
+            mDatabase.setMaxSqlCacheSize(Math.min(SQLiteDatabase.MAX_SQL_CACHE_SIZE, mStatementCache.maxSize()));
         }
         return mDatabase;
     }
 
+    /**
+     * Executes an update or delete sql statement compiling it only the first time this sql shape is
+     * seen. Arguments are bound to the placeholders of the sql with its native type. The statement is
+     * taken out of the cache while it is executed, so the cache lock is never held while waiting for
+     * the database.
+     *
+     * @param sql       The sql with the placeholders.
+     * @param arguments The arguments.
+     * @return The number of rows affected.
+     */
+    @Api(2.4)
+    public int executeUpdateDelete(@NonNull String sql, @NonNull Object[] arguments) {
+        AssertionUtils.notNull(sql, "sql");
+        AssertionUtils.notNull(arguments, "arguments");
+        SQLiteDatabase database = getDatabase();
+        SQLiteStatement statement;
+        synchronized (mStatementCache) {
+            statement = mStatementCache.remove(sql);
+        }
+        if (statement == null) {
+            statement = database.compileStatement(sql);
+        }
+        try {
+            statement.clearBindings();
+            Query.bindArguments(statement, arguments);
+            return statement.executeUpdateDelete();
+        } finally {
+            releaseStatement(database, sql, statement);
+        }
+    }
+
+    /**
+     * Gives back an executed statement to the cache. It is closed instead if the database was closed
+     * meanwhile or another thread already cached a statement for the same sql.
+     *
+     * @param database  The database the statement was compiled for.
+     * @param sql       The sql of the statement.
+     * @param statement The statement.
+     */
+    private void releaseStatement(@NonNull SQLiteDatabase database, @NonNull String sql, @NonNull SQLiteStatement statement) {
+        synchronized (mStatementCache) {
+            if (database.isOpen() && !mStatementCache.containsKey(sql)) {
+                mStatementCache.put(sql, statement);
+                return;
+            }
+        }
+        statement.close();
+    }
+
     /**
      * Ensure that the database is ready.
      */
@@ -122,6 +189,10 @@ public class HaloDataLite extends SQLiteOpenHelper implements Corruptible {
      */
     @Api(1.0)
     public void deleteDatabase() {
+        //Compiled statements belong to the database that is going to be closed
+        synchronized (mStatementCache) {
+            mStatementCache.evictAll();
+        }
         //Remove the database instance
         if (mDatabase != null) {
             mDatabase.close();
@@ -190,6 +261,55 @@ public class HaloDataLite extends SQLiteOpenHelper implements Corruptible {
         void onTransaction(@NonNull SQLiteDatabase database) throws HaloStorageException;
     }
 
+    /**
+     * Lru cache of compiled statements that closes the statements when they are evicted.
+     */
+    private static class StatementCache extends LinkedHashMap<String, SQLiteStatement> {
+
+        /**
+         * The max number of statements.
+         */
+        private final int mMaxSize;
+
+        /**
+         * Constructor for the cache.
+         *
+         * @param maxSize The max number of statements.
+         */
+        private StatementCache(int maxSize) {
+            super(maxSize, 0.75f, true);
+            mMaxSize = maxSize;
+        }
+
+        /**
+         * Provides the max size of the cache.
+         *
+         * @return The max size.
+         */
+        private int maxSize() {
+            return mMaxSize;
+        }
+
+        /**
+         * Closes and removes all the statements.
+         */
+        private void evictAll() {
+            for (SQLiteStatement statement : values()) {
+                statement.close();
+            }
+            clear();
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SQLiteStatement> eldest) {
+            if (size() > mMaxSize) {
+                eldest.getValue().close();
+                return true;
+            }
+            return false;
+        }
+    }
+
     /**
      * The internal builder for the database helper. Should not be created
      * by the user since it is something internal to the SDK.
@@ -216,6 +336,10 @@ public class HaloDataLite extends SQLiteOpenHelper implements Corruptible {
          * The error handler.
          */
         private HaloDatabaseErrorHandler mErrorHandler;
+        /**
+         * The compiled statements cache size.
+         */
+        private int mStatementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
 
         /**
          * Constructor for the builder that needs he context.
@@ -278,6 +402,19 @@ public class HaloDataLite extends SQLiteOpenHelper implements Corruptible {
             return this;
         }
 
+        /**
+         * Sets the number of compiled statements that will be kept to be reused.
+         *
+         * @param statementCacheSize The cache size.
+         * @return The current builder.
+         */
+        @NonNull
+        @Api(2.4)
+        public Builder setStatementCacheSize(int statementCacheSize) {
+            mStatementCacheSize = statementCacheSize;
+            return this;
+        }
+
         /**
          * Builds the database helper object. That does not mean the database is created at all
          * until you call to open it.
@@ -300,7 +437,10 @@ public class HaloDataLite extends SQLiteOpenHelper implements Corruptible {
             if (mErrorHandler == null) {
                 throw new HaloConfigurationException("The error handler must not be is null");
             }
-            return new HaloDataLite(mContext, mDatabaseName, mDatabaseVersion, mVersionManager, mErrorHandler);
+            if (mStatementCacheSize <= 0) {
+                throw new HaloConfigurationException("The statement cache size should be greater than 0.");
+            }
+            return new HaloDataLite(mContext, mDatabaseName, mDatabaseVersion, mVersionManager, mErrorHandler, mStatementCacheSize);
         }
     }
 }
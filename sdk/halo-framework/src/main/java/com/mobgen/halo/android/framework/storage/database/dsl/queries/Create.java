@@ -4,6 +4,7 @@ import android.database.sqlite.SQLiteDatabase;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.common.utils.ReflectionUtils;
 import com.mobgen.halo.android.framework.storage.database.dsl.HaloTable;
 import com.mobgen.halo.android.framework.storage.database.dsl.ORMUtils;
@@ -125,9 +126,13 @@ public class Create extends Query {
          * @param table     The table on which the index should be constructed.
          * @param indexName The index name.
          * @param columns   The columns.
+         * @param unique    True if the index is unique.
          */
-        private IndexSyntax(@NonNull Class<? extends HaloTable> table, @NonNull String indexName, @NonNull String[] columns) {
-            builder().append("UNIQUE INDEX ");
+        private IndexSyntax(@NonNull Class<? extends HaloTable> table, @NonNull String indexName, @NonNull String[] columns, boolean unique) {
+            if (unique) {
+                builder().append("UNIQUE ");
+            }
+            builder().append("INDEX IF NOT EXISTS ");
             builder().append(indexName).append(" ");
             builder().append("ON ").append(ORMUtils.getTableName(table)).append(" ");
             builder().append("(");
@@ -173,7 +178,21 @@ public class Create extends Query {
      * @return The index syntax grammar.
      */
     public static IndexSyntax index(@NonNull Class<? extends HaloTable> table, @NonNull String indexName, @NonNull String[] columns) {
-        return new Create().indexInner(table, indexName, columns);
+        return index(table, indexName, columns, true);
+    }
+
+    /**
+     * Creates an index if it does not exist yet.
+     *
+     * @param table     The table where the index will be created.
+     * @param indexName The index name.
+     * @param columns   The columns that will be indexed, in the order they are used by the queries.
+     * @param unique    True if the values of the columns must be unique.
+     * @return The index syntax grammar.
+     */
+    @Api(2.4)
+    public static IndexSyntax index(@NonNull Class<? extends HaloTable> table, @NonNull String indexName, @NonNull String[] columns, boolean unique) {
+        return new Create().indexInner(table, indexName, columns, unique);
     }
 
     /**
@@ -192,10 +211,11 @@ public class Create extends Query {
      * @param table     The table to act.
      * @param indexName The index name.
      * @param columns   The columns for the index.
+     * @param unique    True if the index is unique.
      * @return The index syntax.
      */
-    private IndexSyntax indexInner(@NonNull Class<? extends HaloTable> table, @NonNull String indexName, @NonNull String[] columns) {
-        return new IndexSyntax(table, indexName, columns);
+    private IndexSyntax indexInner(@NonNull Class<? extends HaloTable> table, @NonNull String indexName, @NonNull String[] columns, boolean unique) {
+        return new IndexSyntax(table, indexName, columns, unique);
     }
 
     /**
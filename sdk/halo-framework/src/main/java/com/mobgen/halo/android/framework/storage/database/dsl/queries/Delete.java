@@ -8,7 +8,6 @@ import com.mobgen.halo.android.framework.storage.database.HaloDataLite;
 import com.mobgen.halo.android.framework.storage.database.dsl.HaloTable;
 import com.mobgen.halo.android.framework.storage.database.dsl.ORMUtils;
 
-import java.util.Date;
 
 /**
  * Delete request builder query.
@@ -62,9 +61,10 @@ public class Delete extends Query {
          *
          * @param storage      The database.
          * @param descriptions Descriptions.
+         * @return The number of rows deleted.
          */
-        public void on(@NonNull HaloDataLite storage, @Nullable String... descriptions) {
-            on(storage.getDatabase(), descriptions);
+        public int on(@NonNull HaloDataLite storage, @Nullable String... descriptions) {
+            return Delete.this.on(storage, descriptions);
         }
     }
 
@@ -175,7 +175,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax eq(@Nullable Object obj) {
-            builder().append("= ").append(objToString(obj)).append(" ");
+            builder().append("= ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -187,7 +188,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax neq(@Nullable Object obj) {
-            builder().append("!= ").append(objToString(obj)).append(" ");
+            builder().append("!= ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -199,7 +201,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax gt(@Nullable Object obj) {
-            builder().append("> ").append(objToString(obj)).append(" ");
+            builder().append("> ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -211,7 +214,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax gte(@Nullable Object obj) {
-            builder().append(">= ").append(objToString(obj)).append(" ");
+            builder().append(">= ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -223,7 +227,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax lt(@Nullable Object obj) {
-            builder().append("< ").append(objToString(obj)).append(" ");
+            builder().append("< ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -235,7 +240,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax lte(@Nullable Object obj) {
-            builder().append("<= ").append(objToString(obj)).append(" ");
+            builder().append("<= ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -247,7 +253,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax is(@Nullable Object obj) {
-            builder().append("IS ").append(objToString(obj)).append(" ");
+            builder().append("IS ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -259,7 +266,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax isNot(@Nullable Object obj) {
-            builder().append("IS NOT ").append(objToString(obj)).append(" ");
+            builder().append("IS NOT ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -271,7 +279,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax like(@Nullable Object obj) {
-            builder().append("LIKE '").append(objToString(obj)).append("' ");
+            builder().append("LIKE ");
+            appendValue(String.valueOf(obj)).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -283,7 +292,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax glob(@Nullable Object obj) {
-            builder().append("GLOB '").append(objToString(obj)).append("' ");
+            builder().append("GLOB ");
+            appendValue(String.valueOf(obj)).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -295,7 +305,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax in(@NonNull Object[] objs) {
-            builder().append("IN ").append(objArrayToString(objs)).append(" ");
+            builder().append("IN ");
+            appendValues(objs, "").append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -307,7 +318,8 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax notIn(@Nullable Object[] objs) {
-            builder().append("NOT IN ").append(objArrayToString(objs)).append(" ");
+            builder().append("NOT IN ");
+            appendValues(objs, "").append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -320,7 +332,9 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax between(@Nullable Object elem1, Object elem2) {
-            builder().append("BETWEEN ").append(objToString(elem1)).append(" AND ").append(objToString(elem2)).append(" ");
+            builder().append("BETWEEN ");
+            appendValue(elem1).append(" AND ");
+            appendValue(elem2).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -332,52 +346,9 @@ public class Delete extends Query {
          */
         @NonNull
         public WhereJoinSyntax exists(@NonNull Select otherQuery) {
-            builder().append("(").append(otherQuery.toString()).append(") ");
+            appendQuery(otherQuery).append(" ");
             return new WhereJoinSyntax();
         }
-
-        /**
-         * Creates a string from an object array.
-         *
-         * @param objs The object array.
-         * @return The string returned.
-         */
-        private String objArrayToString(Object[] objs) {
-            StringBuilder statement = new StringBuilder();
-            statement.append("(");
-            boolean addComma = false;
-            for (Object object : objs) {
-                if (addComma) {
-                    statement.append(",");
-                }
-                statement.append(objToString(object));
-                addComma = true;
-            }
-            statement.append(")");
-            return statement.toString();
-        }
-
-
-        /**
-         * Prints the value of an object.
-         *
-         * @param obj ge object to print.
-         * @return The string representation or 'NULL'.
-         */
-        @NonNull
-        private String objToString(@Nullable Object obj) {
-            if (obj != null) {
-                if (obj instanceof String) {
-                    return "'" + obj.toString() + "'";
-                } else if (obj instanceof Date) {
-                    return "date('" + ((Date) obj).getTime() + "')";
-                } else {
-                    return obj.toString();
-                }
-            } else {
-                return "NULL";
-            }
-        }
     }
 
     /**
@@ -387,6 +358,33 @@ public class Delete extends Query {
      * @param descriptions Query descriptions.
      */
     public void on(@NonNull SQLiteDatabase database, @Nullable String... descriptions) {
-        database.execSQL(print(descriptions));
+        String sql = print(descriptions);
+        if (!QueryTracer.isEnabled(database)) {
+            database.execSQL(sql, arguments());
+            return;
+        }
+        long start = System.nanoTime();
+        database.execSQL(sql, arguments());
+        QueryTracer.trace(database.getPath(), sql, -1, start);
+    }
+
+    /**
+     * Executes the request on the database helper, reusing the compiled statement
+     * if there is already one for the same sql.
+     *
+     * @param storage      The database.
+     * @param descriptions Query descriptions.
+     * @return The number of rows deleted.
+     */
+    public int on(@NonNull HaloDataLite storage, @Nullable String... descriptions) {
+        String sql = print(descriptions);
+        SQLiteDatabase database = storage.getDatabase();
+        if (!QueryTracer.isEnabled(database)) {
+            return storage.executeUpdateDelete(sql, arguments());
+        }
+        long start = System.nanoTime();
+        int rows = storage.executeUpdateDelete(sql, arguments());
+        QueryTracer.trace(database.getPath(), sql, rows, start);
+        return rows;
     }
 }
@@ -1,12 +1,20 @@
 package com.mobgen.halo.android.framework.storage.database.dsl.queries;
 
 
+import android.database.sqlite.SQLiteProgram;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
 /**
- * Abstract class to generate a query with the DSL.
+ * Abstract class to generate a query with the DSL. Values provided to the query are not inlined
+ * in the sql, instead a placeholder is written and the value is kept as a bound argument so the
+ * same sql shape can be reused by the database for different values.
  */
 public abstract class Query {
 
@@ -15,11 +23,17 @@ public abstract class Query {
      */
     private final StringBuilder mBuilder;
 
+    /**
+     * The arguments bound to the placeholders of this query.
+     */
+    private final List<Object> mArguments;
+
     /**
      * The query that will be done.
      */
     public Query() {
         mBuilder = new StringBuilder();
+        mArguments = new ArrayList<>();
     }
 
     /**
@@ -32,21 +46,122 @@ public abstract class Query {
     }
 
     /**
-     * Prints the query.
+     * Provides the arguments bound to this query in the same order the placeholders appear.
+     *
+     * @return The bound arguments.
+     */
+    @NonNull
+    public Object[] arguments() {
+        return mArguments.toArray();
+    }
+
+    /**
+     * Appends a value to the query. Strings, numbers, booleans and dates are written as a
+     * placeholder and kept as arguments, null values are written as NULL and any other
+     * object is inlined using its string representation.
+     *
+     * @param obj The object to append.
+     * @return The builder.
+     */
+    @NonNull
+    protected StringBuilder appendValue(@Nullable Object obj) {
+        if (obj == null) {
+            return mBuilder.append("NULL");
+        } else if (obj instanceof Date) {
+            mArguments.add(String.valueOf(((Date) obj).getTime()));
+            return mBuilder.append("date(?)");
+        } else if (obj instanceof String) {
+            mArguments.add(obj);
+        } else if (obj instanceof Boolean) {
+            mArguments.add((Boolean) obj ? 1L : 0L);
+        } else if (obj instanceof Float || obj instanceof Double) {
+            mArguments.add(((Number) obj).doubleValue());
+        } else if (obj instanceof Number) {
+            mArguments.add(((Number) obj).longValue());
+        } else {
+            return mBuilder.append(obj.toString());
+        }
+        return mBuilder.append("?");
+    }
+
+    /**
+     * Appends a list of values between parenthesis.
+     *
+     * @param objs        The values.
+     * @param emptyValues The value to write if the list is empty.
+     * @return The builder.
+     */
+    @NonNull
+    protected StringBuilder appendValues(@NonNull Object[] objs, @NonNull String emptyValues) {
+        mBuilder.append("(");
+        if (objs.length != 0) {
+            boolean addComma = false;
+            for (Object object : objs) {
+                if (addComma) {
+                    mBuilder.append(",");
+                }
+                appendValue(object);
+                addComma = true;
+            }
+        } else {
+            mBuilder.append(emptyValues);
+        }
+        return mBuilder.append(")");
+    }
+
+    /**
+     * Appends another query as a sub query, taking also its bound arguments.
+     *
+     * @param query The query to append.
+     * @return The builder.
+     */
+    @NonNull
+    protected StringBuilder appendQuery(@NonNull Query query) {
+        mArguments.addAll(query.mArguments);
+        return mBuilder.append("(").append(query.toString()).append(")");
+    }
+
+    /**
+     * Binds the arguments provided with its native type in the program given.
+     *
+     * @param program   The compiled program.
+     * @param arguments The arguments to bind.
+     */
+    public static void bindArguments(@NonNull SQLiteProgram program, @NonNull Object[] arguments) {
+        for (int i = 0; i < arguments.length; i++) {
+            Object argument = arguments[i];
+            int index = i + 1;
+            if (argument == null) {
+                program.bindNull(index);
+            } else if (argument instanceof Long) {
+                program.bindLong(index, (Long) argument);
+            } else if (argument instanceof Double) {
+                program.bindDouble(index, (Double) argument);
+            } else if (argument instanceof byte[]) {
+                program.bindBlob(index, (byte[]) argument);
+            } else {
+                program.bindString(index, argument.toString());
+            }
+        }
+    }
+
+    /**
+     * Prints the query. The query is only logged when the debug log is enabled.
      *
      * @param descriptions Supports descriptions for the query.
      * @return Prints the query.
      */
     public String print(@Nullable String... descriptions) {
-        String query = mBuilder.toString().trim();
-        query += ";";
-        Halog.d(getClass(), "-------------------------");
-        if (descriptions != null) {
-            for (String description : descriptions) {
-                Halog.d(getClass(), description);
+        String query = mBuilder.toString().trim() + ";";
+        if (Halog.isPrinting()) {
+            Halog.d(getClass(), "-------------------------");
+            if (descriptions != null) {
+                for (String description : descriptions) {
+                    Halog.d(getClass(), description);
+                }
             }
+            Halog.d(getClass(), query);
         }
-        Halog.d(getClass(), query);
         return query;
     }
 
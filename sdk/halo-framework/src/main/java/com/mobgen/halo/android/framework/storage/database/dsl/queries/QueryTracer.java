@@ -0,0 +1,288 @@
+package com.mobgen.halo.android.framework.storage.database.dsl.queries;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the timing of the queries executed with the DSL when tracing is enabled, for all the
+ * databases of the process or only for some of them. The traces are kept in a bounded ring buffer so
+ * only the most recent ones are available. When tracing is disabled executing a query does not touch
+ * this class beyond reading a flag.
+ */
+public final class QueryTracer {
+
+    /**
+     * The default number of traces kept.
+     */
+    public static final int DEFAULT_CAPACITY = 200;
+
+    /**
+     * Lock for the ring buffer, only taken while tracing.
+     */
+    private static final Object LOCK = new Object();
+
+    /**
+     * Tells if the tracing is enabled for all the databases.
+     */
+    private static volatile boolean sEnabled;
+
+    /**
+     * The paths of the databases traced individually. It is replaced on every change so it can be
+     * read without the lock.
+     */
+    private static volatile Set<String> sDatabases = Collections.emptySet();
+
+    /**
+     * The ring buffer with the traces.
+     */
+    private static QueryTrace[] sTraces = new QueryTrace[DEFAULT_CAPACITY];
+
+    /**
+     * The total number of traces recorded. The next position is this count modulo the capacity.
+     */
+    private static long sCount;
+
+    /**
+     * Constructor to avoid instances.
+     */
+    private QueryTracer() {
+        //Do nothing in this constructor
+    }
+
+    /**
+     * Enables or disables the tracing of the queries of all the databases of the process.
+     *
+     * @param enable True to enable the tracing.
+     */
+    @Api(2.4)
+    public static void enable(boolean enable) {
+        sEnabled = enable;
+    }
+
+    /**
+     * Enables or disables the tracing of the queries of a single database.
+     *
+     * @param database The path of the database.
+     * @param enable   True to enable the tracing.
+     */
+    @Api(2.4)
+    public static void enable(@NonNull String database, boolean enable) {
+        synchronized (LOCK) {
+            Set<String> databases = new HashSet<>(sDatabases);
+            if (enable) {
+                databases.add(database);
+            } else {
+                databases.remove(database);
+            }
+            sDatabases = Collections.unmodifiableSet(databases);
+        }
+    }
+
+    /**
+     * Determines if the tracing is enabled for all the databases.
+     *
+     * @return True if it is enabled, false otherwise.
+     */
+    @Api(2.4)
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Determines if the tracing is enabled for the given database.
+     *
+     * @param database The database.
+     * @return True if it is enabled, false otherwise.
+     */
+    @Api(2.4)
+    public static boolean isEnabled(@NonNull SQLiteDatabase database) {
+        if (sEnabled) {
+            return true;
+        }
+        Set<String> databases = sDatabases;
+        return !databases.isEmpty() && databases.contains(database.getPath());
+    }
+
+    /**
+     * Changes the number of traces kept. Removes all the current traces.
+     *
+     * @param capacity The new capacity.
+     */
+    @Api(2.4)
+    public static void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be greater than 0.");
+        }
+        synchronized (LOCK) {
+            sTraces = new QueryTrace[capacity];
+            sCount = 0;
+        }
+    }
+
+    /**
+     * Removes all the traces recorded.
+     */
+    @Api(2.4)
+    public static void clear() {
+        synchronized (LOCK) {
+            sTraces = new QueryTrace[sTraces.length];
+            sCount = 0;
+        }
+    }
+
+    /**
+     * Records a trace for a query.
+     *
+     * @param database       The path of the database where the query was executed.
+     * @param sql            The sql shape executed.
+     * @param rows           The number of rows returned or affected. -1 if unknown.
+     * @param startNanoTime  The nano time when the query started.
+     */
+    static void trace(@Nullable String database, @NonNull String sql, int rows, long startNanoTime) {
+        long durationNanos = System.nanoTime() - startNanoTime;
+        QueryTrace trace = new QueryTrace(database, sql, rows, durationNanos, System.currentTimeMillis());
+        synchronized (LOCK) {
+            sTraces[(int) (sCount % sTraces.length)] = trace;
+            sCount++;
+        }
+    }
+
+    /**
+     * Provides the traces recorded, the oldest first.
+     *
+     * @param database The database path to filter the traces. Null to get all of them.
+     * @return The traces.
+     */
+    @Api(2.4)
+    @NonNull
+    public static List<QueryTrace> traces(@Nullable String database) {
+        synchronized (LOCK) {
+            int size = (int) Math.min(sCount, sTraces.length);
+            List<QueryTrace> traces = new ArrayList<>(size);
+            long first = sCount - size;
+            for (long i = first; i < sCount; i++) {
+                QueryTrace trace = sTraces[(int) (i % sTraces.length)];
+                if (database == null || database.equals(trace.database())) {
+                    traces.add(trace);
+                }
+            }
+            return traces;
+        }
+    }
+
+    /**
+     * The trace of a single query execution.
+     */
+    public static final class QueryTrace {
+
+        /**
+         * The database path.
+         */
+        private final String mDatabase;
+        /**
+         * The sql shape.
+         */
+        private final String mSql;
+        /**
+         * The rows returned or affected.
+         */
+        private final int mRows;
+        /**
+         * The duration in nanoseconds.
+         */
+        private final long mDurationNanos;
+        /**
+         * The time when the query finished.
+         */
+        private final long mTimestamp;
+
+        /**
+         * Constructor for the trace.
+         *
+         * @param database      The database path.
+         * @param sql           The sql shape.
+         * @param rows          The rows.
+         * @param durationNanos The duration in nanoseconds.
+         * @param timestamp     The time when it finished.
+         */
+        private QueryTrace(@Nullable String database, @NonNull String sql, int rows, long durationNanos, long timestamp) {
+            mDatabase = database;
+            mSql = sql;
+            mRows = rows;
+            mDurationNanos = durationNanos;
+            mTimestamp = timestamp;
+        }
+
+        /**
+         * Provides the database path.
+         *
+         * @return The database path.
+         */
+        @Api(2.4)
+        @Nullable
+        public String database() {
+            return mDatabase;
+        }
+
+        /**
+         * Provides the sql shape, with placeholders instead of the values.
+         *
+         * @return The sql.
+         */
+        @Api(2.4)
+        @NonNull
+        public String sql() {
+            return mSql;
+        }
+
+        /**
+         * Provides the rows returned or affected by the query, -1 if unknown.
+         *
+         * @return The number of rows.
+         */
+        @Api(2.4)
+        public int rows() {
+            return mRows;
+        }
+
+        /**
+         * Provides the duration of the query in nanoseconds.
+         *
+         * @return The duration.
+         */
+        @Api(2.4)
+        public long durationNanos() {
+            return mDurationNanos;
+        }
+
+        /**
+         * Provides the time when the query finished.
+         *
+         * @return The timestamp in millis.
+         */
+        @Api(2.4)
+        public long timestamp() {
+            return mTimestamp;
+        }
+
+        @Override
+        public String toString() {
+            return "QueryTrace{" +
+                    "database='" + mDatabase + '\'' +
+                    ", sql='" + mSql + '\'' +
+                    ", rows=" + mRows +
+                    ", durationNanos=" + mDurationNanos +
+                    ", timestamp=" + mTimestamp +
+                    '}';
+        }
+    }
+}
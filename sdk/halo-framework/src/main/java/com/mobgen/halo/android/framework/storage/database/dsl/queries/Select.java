@@ -1,7 +1,10 @@
 package com.mobgen.halo.android.framework.storage.database.dsl.queries;
 
 import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQuery;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.StringDef;
@@ -12,7 +15,6 @@ import com.mobgen.halo.android.framework.storage.database.dsl.ORMUtils;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
-import java.util.Date;
 
 /**
  * Creates a select query to get some data from the database.
@@ -140,7 +142,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax eq(@Nullable Object obj) {
-            builder().append("= ").append(objToString(obj)).append(" ");
+            builder().append("= ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -152,7 +155,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax neq(@Nullable Object obj) {
-            builder().append("!= ").append(objToString(obj)).append(" ");
+            builder().append("!= ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -164,7 +168,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax gt(@Nullable Object obj) {
-            builder().append("> ").append(objToString(obj)).append(" ");
+            builder().append("> ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -176,7 +181,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax gte(@Nullable Object obj) {
-            builder().append(">= ").append(objToString(obj)).append(" ");
+            builder().append(">= ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -188,7 +194,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax lt(@Nullable Object obj) {
-            builder().append("< ").append(objToString(obj)).append(" ");
+            builder().append("< ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -200,7 +207,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax lte(@Nullable Object obj) {
-            builder().append("<= ").append(objToString(obj)).append(" ");
+            builder().append("<= ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -212,7 +220,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax is(@Nullable Object obj) {
-            builder().append("IS ").append(objToString(obj)).append(" ");
+            builder().append("IS ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -224,7 +233,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax isNot(@Nullable Object obj) {
-            builder().append("IS NOT ").append(objToString(obj)).append(" ");
+            builder().append("IS NOT ");
+            appendValue(obj).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -236,7 +246,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax like(@Nullable Object obj) {
-            builder().append("LIKE '").append(objToString(obj)).append("' ");
+            builder().append("LIKE ");
+            appendValue(String.valueOf(obj)).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -248,7 +259,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax glob(@Nullable Object obj) {
-            builder().append("GLOB '").append(objToString(obj)).append("' ");
+            builder().append("GLOB ");
+            appendValue(String.valueOf(obj)).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -260,7 +272,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax in(@NonNull Object[] objs) {
-            builder().append("IN ").append(objArrayToString(objs)).append(" ");
+            builder().append("IN ");
+            appendValues(objs, "\"\"").append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -272,7 +285,8 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax notIn(@Nullable Object[] objs) {
-            builder().append("NOT IN ").append(objArrayToString(objs)).append(" ");
+            builder().append("NOT IN ");
+            appendValues(objs, "\"\"").append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -285,7 +299,9 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax between(@Nullable Object elem1, Object elem2) {
-            builder().append("BETWEEN ").append(objToString(elem1)).append(" AND ").append(objToString(elem2)).append(" ");
+            builder().append("BETWEEN ");
+            appendValue(elem1).append(" AND ");
+            appendValue(elem2).append(" ");
             return new WhereJoinSyntax();
         }
 
@@ -297,56 +313,9 @@ public class Select extends Query {
          */
         @NonNull
         public WhereJoinSyntax exists(@NonNull Select otherQuery) {
-            builder().append("(").append(otherQuery.toString()).append(") ");
+            appendQuery(otherQuery).append(" ");
             return new WhereJoinSyntax();
         }
-
-        /**
-         * Creates a string from an object array.
-         *
-         * @param objs The object array.
-         * @return The string returned.
-         */
-        private String objArrayToString(Object[] objs) {
-            StringBuilder statement = new StringBuilder();
-            statement.append("(");
-            boolean addComma = false;
-            if(objs.length != 0) {
-                for (Object object : objs) {
-                    if (addComma) {
-                        statement.append(",");
-                    }
-                    statement.append(objToString(object));
-                    addComma = true;
-                }
-            }else{
-                statement.append("\"\"");
-            }
-            statement.append(")");
-            return statement.toString();
-        }
-
-
-        /**
-         * Prints the value of an object.
-         *
-         * @param obj ge object to print.
-         * @return The string representation or 'NULL'.
-         */
-        @NonNull
-        private String objToString(@Nullable Object obj) {
-            if (obj != null) {
-                if (obj instanceof String) {
-                    return "'" + obj.toString() + "'";
-                } else if (obj instanceof Date) {
-                    return "date('" + ((Date) obj).getTime() + "')";
-                } else {
-                    return obj.toString();
-                }
-            } else {
-                return "NULL";
-            }
-        }
     }
 
     /**
@@ -581,6 +550,41 @@ public class Select extends Query {
      * @return The raw for this select.
      */
     public Cursor on(@NonNull SQLiteDatabase database, @Nullable String... descriptions) {
-        return database.rawQuery(print(descriptions), null);
+        String sql = print(descriptions);
+        if (!QueryTracer.isEnabled(database)) {
+            return database.rawQueryWithFactory(new BindingCursorFactory(arguments()), sql, null, null);
+        }
+        long start = System.nanoTime();
+        Cursor cursor = database.rawQueryWithFactory(new BindingCursorFactory(arguments()), sql, null, null);
+        //Getting the count executes the query so the trace measures the real cost
+        QueryTracer.trace(database.getPath(), sql, cursor.getCount(), start);
+        return cursor;
+    }
+
+    /**
+     * Cursor factory that binds the arguments of the query with its native type before the
+     * cursor is created, so numeric values are not compared as text.
+     */
+    private static class BindingCursorFactory implements SQLiteDatabase.CursorFactory {
+
+        /**
+         * The arguments to bind.
+         */
+        private final Object[] mArguments;
+
+        /**
+         * Constructor for the factory.
+         *
+         * @param arguments The arguments to bind.
+         */
+        private BindingCursorFactory(@NonNull Object[] arguments) {
+            mArguments = arguments;
+        }
+
+        @Override
+        public Cursor newCursor(SQLiteDatabase db, SQLiteCursorDriver masterQuery, String editTable, SQLiteQuery query) {
+            bindArguments(query, mArguments);
+            return new SQLiteCursor(masterQuery, editTable, query);
+        }
     }
 }
@@ -0,0 +1,302 @@
+package com.mobgen.halo.android.framework.toolbox.bus;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.CheckResult;
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.toolbox.threading.HaloThreadManager;
+import com.mobgen.halo.android.framework.toolbox.threading.Threading;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event bus that dispatches the events inside the process without going through the system.
+ * Subscribers are kept in copy on write arrays by event id, so emitting an event does not take
+ * any lock nor allocate apart from the delivery to other threads. Optionally the events can also
+ * be broadcasted to other processes using a {@link HaloEventBus}. In that case every subscriber is
+ * also registered in the cross process bus to receive the events of the other processes, while the
+ * broadcasts sent by this process are ignored since they were already delivered locally.
+ */
+public class LocalEventBus implements EventBus {
+
+    /**
+     * Determines in which thread the events are delivered to a subscriber.
+     */
+    @IntDef({DELIVERY_MAIN_THREAD, DELIVERY_WORKER_THREAD, DELIVERY_EMITTER_THREAD})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Delivery {
+    }
+
+    /**
+     * Delivers the event in the main thread.
+     */
+    @Api(2.4)
+    public static final int DELIVERY_MAIN_THREAD = 0;
+    /**
+     * Delivers the event in a worker thread of the thread manager.
+     */
+    @Api(2.4)
+    public static final int DELIVERY_WORKER_THREAD = 1;
+    /**
+     * Delivers the event in the same thread that emits it.
+     */
+    @Api(2.4)
+    public static final int DELIVERY_EMITTER_THREAD = 2;
+
+    /**
+     * Extra of the broadcasted events with the id of the process that emitted them.
+     */
+    private static final String EXTRA_EMITTER_PROCESS = "com.mobgen.halo.android.framework.bus.emitter_process";
+
+    /**
+     * Empty subscriptions.
+     */
+    private static final LocalSubscriber[] EMPTY = new LocalSubscriber[0];
+
+    /**
+     * The subscribers by event id.
+     */
+    private final ConcurrentHashMap<String, LocalSubscriber[]> mSubscribers;
+
+    /**
+     * The thread manager for the worker deliveries.
+     */
+    private final HaloThreadManager mThreadManager;
+
+    /**
+     * The main thread handler.
+     */
+    private final Handler mMainHandler;
+
+    /**
+     * The bus that broadcasts the events to other processes, null if it is not enabled.
+     */
+    @Nullable
+    private final HaloEventBus mCrossProcessBus;
+
+    /**
+     * Private constructor to use the create.
+     *
+     * @param threadManager   The thread manager for the worker deliveries.
+     * @param crossProcessBus The cross process bus or null.
+     */
+    private LocalEventBus(@NonNull HaloThreadManager threadManager, @Nullable HaloEventBus crossProcessBus) {
+        mSubscribers = new ConcurrentHashMap<>();
+        mThreadManager = threadManager;
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mCrossProcessBus = crossProcessBus;
+    }
+
+    /**
+     * Creates an in process event bus.
+     *
+     * @param threadManager The thread manager for the worker deliveries.
+     * @return The event bus created.
+     */
+    @Api(2.4)
+    @NonNull
+    public static LocalEventBus create(@NonNull HaloThreadManager threadManager) {
+        AssertionUtils.notNull(threadManager, "threadManager");
+        return new LocalEventBus(threadManager, null);
+    }
+
+    /**
+     * Creates an in process event bus that also broadcasts every event emitted, so
+     * subscribers of other processes can receive them.
+     *
+     * @param context       The context to send the broadcasts.
+     * @param threadManager The thread manager for the worker deliveries.
+     * @return The event bus created.
+     */
+    @Api(2.4)
+    @NonNull
+    public static LocalEventBus createCrossProcess(@NonNull Context context, @NonNull HaloThreadManager threadManager) {
+        AssertionUtils.notNull(context, "context");
+        AssertionUtils.notNull(threadManager, "threadManager");
+        return new LocalEventBus(threadManager, HaloEventBus.create(context));
+    }
+
+    @NonNull
+    @Override
+    @CheckResult(suggest = "Subscription.unsubscribe() to avoid memory leaks")
+    public Subscription subscribe(@NonNull Subscriber eventSubscriber, @NonNull EventId id) {
+        return subscribe(eventSubscriber, id, DELIVERY_MAIN_THREAD);
+    }
+
+    /**
+     * Subscribes to a given event id choosing the thread where the events are delivered.
+     *
+     * @param eventSubscriber The subscriber.
+     * @param id              The id to subscribe.
+     * @param delivery        The delivery thread.
+     * @return The subscription created.
+     */
+    @Api(2.4)
+    @NonNull
+    @CheckResult(suggest = "Subscription.unsubscribe() to avoid memory leaks")
+    public Subscription subscribe(@NonNull Subscriber eventSubscriber, @NonNull EventId id, @Delivery int delivery) {
+        AssertionUtils.notNull(eventSubscriber, "eventSubscriber");
+        AssertionUtils.notNull(id, "id");
+        final LocalSubscriber subscriber = new LocalSubscriber(eventSubscriber, id, delivery);
+        if (mCrossProcessBus != null) {
+            subscriber.mCrossProcessSubscription = mCrossProcessBus.subscribe(new Subscriber() {
+                @Override
+                public void onEventReceived(@NonNull Event event) {
+                    Bundle data = event.getData();
+                    if (data == null || data.getInt(EXTRA_EMITTER_PROCESS, -1) != Process.myPid()) {
+                        if (data != null) {
+                            data.remove(EXTRA_EMITTER_PROCESS);
+                        }
+                        deliver(subscriber, event);
+                    }
+                }
+            }, id);
+        }
+        synchronized (mSubscribers) {
+            LocalSubscriber[] current = mSubscribers.get(id.getId());
+            if (current == null) {
+                current = EMPTY;
+            }
+            LocalSubscriber[] updated = new LocalSubscriber[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = subscriber;
+            mSubscribers.put(id.getId(), updated);
+        }
+        return new Subscription(this, subscriber, id);
+    }
+
+    @Override
+    public void unsubscribe(@NonNull SubscriberAdapter eventSubscriber, @NonNull EventId eventId) {
+        synchronized (mSubscribers) {
+            LocalSubscriber[] current = mSubscribers.get(eventId.getId());
+            if (current == null) {
+                return;
+            }
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == eventSubscriber) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index == -1) {
+                return;
+            }
+            current[index].mSubscribed = false;
+            if (current[index].mCrossProcessSubscription != null) {
+                current[index].mCrossProcessSubscription.unsubscribe();
+            }
+            if (current.length == 1) {
+                mSubscribers.remove(eventId.getId());
+            } else {
+                LocalSubscriber[] updated = new LocalSubscriber[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                mSubscribers.put(eventId.getId(), updated);
+            }
+        }
+    }
+
+    @Override
+    public void emit(@NonNull Event event) {
+        AssertionUtils.notNull(event, "event");
+        LocalSubscriber[] subscribers = mSubscribers.get(event.getEventId().getId());
+        if (subscribers != null) {
+            for (LocalSubscriber subscriber : subscribers) {
+                deliver(subscriber, event);
+            }
+        }
+        if (mCrossProcessBus != null) {
+            Bundle data = event.getData() != null ? new Bundle(event.getData()) : new Bundle();
+            data.putInt(EXTRA_EMITTER_PROCESS, Process.myPid());
+            mCrossProcessBus.emit(new Event(event.getEventId(), data));
+        }
+    }
+
+    /**
+     * Delivers the event to the subscriber in its thread.
+     *
+     * @param subscriber The subscriber.
+     * @param event      The event.
+     */
+    private void deliver(@NonNull final LocalSubscriber subscriber, @NonNull final Event event) {
+        switch (subscriber.mDelivery) {
+            case DELIVERY_EMITTER_THREAD:
+                subscriber.deliver(event);
+                break;
+            case DELIVERY_WORKER_THREAD:
+                mThreadManager.enqueue(Threading.POOL_QUEUE_POLICY, new Runnable() {
+                    @Override
+                    public void run() {
+                        subscriber.deliver(event);
+                    }
+                });
+                break;
+            case DELIVERY_MAIN_THREAD:
+            default:
+                if (Looper.myLooper() == Looper.getMainLooper()) {
+                    subscriber.deliver(event);
+                } else {
+                    mMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            subscriber.deliver(event);
+                        }
+                    });
+                }
+                break;
+        }
+    }
+
+    /**
+     * Subscriber registered in the local bus. It stays subscribed until the subscription is cancelled.
+     */
+    private static class LocalSubscriber extends SubscriberAdapter {
+
+        /**
+         * The delivery thread.
+         */
+        private final int mDelivery;
+
+        /**
+         * False once unsubscribed, so events already posted to other threads are dropped.
+         */
+        private volatile boolean mSubscribed;
+
+        /**
+         * The subscription in the cross process bus, null if it is not enabled.
+         */
+        @Nullable
+        private Subscription mCrossProcessSubscription;
+
+        /**
+         * Constructor for the local subscriber.
+         *
+         * @param subscriber The subscriber.
+         * @param eventId    The event id.
+         * @param delivery   The delivery thread.
+         */
+        private LocalSubscriber(@NonNull Subscriber subscriber, @NonNull EventId eventId, @Delivery int delivery) {
+            super(subscriber, eventId);
+            mDelivery = delivery;
+            mSubscribed = true;
+        }
+
+        @Override
+        void deliver(@NonNull Event event) {
+            if (mSubscribed) {
+                super.deliver(event);
+            }
+        }
+    }
+}
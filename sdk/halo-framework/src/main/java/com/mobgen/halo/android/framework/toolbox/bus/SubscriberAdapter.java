@@ -38,6 +38,15 @@ public class SubscriberAdapter extends BroadcastReceiver {
 
     @Override
     public void onReceive(@NonNull Context context, @NonNull Intent intent) {
-        mSubscriber.onEventReceived(new Event(mEventId, intent.getExtras()));
+        deliver(new Event(mEventId, intent.getExtras()));
+    }
+
+    /**
+     * Delivers an event to the adapted subscriber.
+     *
+     * @param event The event.
+     */
+    void deliver(@NonNull Event event) {
+        mSubscriber.onEventReceived(event);
     }
 }
@@ -22,7 +22,7 @@ public final class Data {
      * Synchronization execution mode annotation to allow static analysis on the sdk. It allows us
      * to make the sdk more easy to match with the client implementation.
      */
-    @IntDef({NETWORK_AND_STORAGE, NETWORK_ONLY, STORAGE_ONLY})
+    @IntDef({NETWORK_AND_STORAGE, NETWORK_ONLY, STORAGE_ONLY, STALE_WHILE_REVALIDATE})
     @Retention(RetentionPolicy.SOURCE)
     public @interface Policy {
     }
@@ -45,4 +45,11 @@ public final class Data {
      */
     @Api(1.3)
     public static final int STORAGE_ONLY = 2;
+    /**
+     * Provides the data from the local storage immediately and revalidates it in background with the
+     * network once the max age of the request expires. The callback receives the revalidated data only if
+     * it has changed.
+     */
+    @Api(2.4)
+    public static final int STALE_WHILE_REVALIDATE = 3;
 }
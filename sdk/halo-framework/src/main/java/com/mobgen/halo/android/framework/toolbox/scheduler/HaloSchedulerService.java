@@ -23,12 +23,16 @@ import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
 import com.mobgen.halo.android.framework.toolbox.threading.HaloThreadManager;
+import com.mobgen.halo.android.framework.toolbox.threading.Threading;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -65,14 +69,6 @@ public final class HaloSchedulerService extends Service {
      * Deadline broadcast.
      */
     private static final String DEADLINE_BROADCAST = "com.mobgen.halo.android.framework.toolbox.scheduler.DEADLINE_CHECK";
-    /**
-     * Dir for persisting.
-     */
-    private static final String JOB_PERSIST_DIR = "job_persist";
-    /**
-     * Dir for the backups.
-     */
-    private static final String JOB_BACKUP_DIR = "job_backup";
 
     /**
      * The jobs to be triggered.
@@ -82,6 +78,23 @@ public final class HaloSchedulerService extends Service {
      * The receivers.
      */
     private ConcurrentHashMap<String, BroadcastReceiver> mReceivers;
+    /**
+     * The identities of the jobs waiting on each trigger or status key. The jobs waiting on a trigger
+     * are also the references to its receiver, that is unregistered when there is none left.
+     */
+    private HashMap<String, Set<String>> mJobsByCondition;
+    /**
+     * The pending deadlines, the soonest first. A single alarm or delayed check is kept for the first one.
+     */
+    private PriorityQueue<Deadline> mDeadlines;
+    /**
+     * The intent of the deadline alarm.
+     */
+    private PendingIntent mDeadlineIntent;
+    /**
+     * The delayed check for a deadline that is close.
+     */
+    private Runnable mShortDeadlineCheck;
     /**
      * The scheduler binder.
      */
@@ -118,6 +131,10 @@ public final class HaloSchedulerService extends Service {
      * A handler thread.
      */
     private HandlerThread mHandlerThread;
+    /**
+     * The store of the jobs that survive the service or the device restarts.
+     */
+    private JobJournal mJournal;
 
     /**
      * Creates a new intent.
@@ -178,10 +195,19 @@ public final class HaloSchedulerService extends Service {
         super.onCreate();
         mJobsSet = new ConcurrentHashMap<>();
         mReceivers = new ConcurrentHashMap<>();
+        mJobsByCondition = new HashMap<>();
+        mDeadlines = new PriorityQueue<>();
         mBinder = new HaloSchedulerBinder();
         mAlarmManager = (AlarmManager) getSystemService(ALARM_SERVICE);
         mShortDeadlineHandler = new Handler();
         mDeadlineCheck = new DeadlineCheck();
+        mDeadlineIntent = PendingIntent.getBroadcast(this, 0, new Intent(DEADLINE_BROADCAST), 0);
+        mShortDeadlineCheck = new Runnable() {
+            @Override
+            public void run() {
+                mChecker.checkDeadline();
+            }
+        };
         mDeviceStatus = StatusDevice.get(this);
         registerReceiver(mDeadlineCheck, new IntentFilter(DEADLINE_BROADCAST));
         PowerManager pm = (PowerManager) getSystemService(POWER_SERVICE);
@@ -198,33 +224,23 @@ public final class HaloSchedulerService extends Service {
         mHandlerThread = new HandlerThread("HaloJobScheduler-HandlerThread");
         mHandlerThread.start();
         mChecker = new CheckHandler(mHandlerThread.getLooper());
-        //TODO move from main thread
-        mayRecoverJobsFromFile();
+        mJournal = new JobJournal(getFilesDir());
+        mayRecoverJobs();
     }
 
     /**
-     * Checks if there are jobs that must be recovered form a file that is persisted.
+     * Recovers the jobs stored before the service was destroyed. The journal is read in its
+     * writer and the jobs are added from the handler thread.
      */
-    private void mayRecoverJobsFromFile() {
-        File recoverDir = new File(getFilesDir(), JOB_BACKUP_DIR);
-        if (!recoverDir.exists()) {
-            return;
-        }
-        if (recoverDir.listFiles() == null) {
-            return;
-        }
-        for (File file : recoverDir.listFiles()) {
-            Job job = null;
-            try {
-                job = Job.createJobFromPersistInfo(Job.JobInfo.readFromFile(file));
-            } catch (IOException e) {
-                Halog.e(getClass(), "The job could not be recreated: " + file.getName(), e);
-            }
-            file.delete();
-            if (job != null) {
-                addJob(job, true);
+    private void mayRecoverJobs() {
+        mJournal.recover(false, new JobJournal.RecoverCallback() {
+            @Override
+            public void onRecovered(@NonNull List<Job.JobInfo> infos) {
+                if (!infos.isEmpty()) {
+                    mChecker.recoverJobs(infos, false);
+                }
             }
-        }
+        });
     }
 
     /**
@@ -233,33 +249,11 @@ public final class HaloSchedulerService extends Service {
      * @param job The job.
      */
     private void tryCreateBackups(@NonNull Job job) {
-        //TODO move from main thread
         if (!job.canBePersisted()) {
             return;
         }
-        File recoverDir = new File(getFilesDir(), JOB_BACKUP_DIR);
-        if (!recoverDir.exists()) {
-            recoverDir.mkdirs();
-        }
-        try {
-            job.info().writeToFile(recoverDir);
-        } catch (IOException e) {
-            Halog.e(getClass(), "Can not create backup for job: " + job.info().mIdentity);
-        }
-        //try to persist job that needs to be valid after reboot
-        if (!job.info().mPersistAfterReboot) {
-            return;
-        }
-        //TODO move from main thread
-        final File dir = new File(getFilesDir(), JOB_PERSIST_DIR);
-        if (!dir.exists()) {
-            dir.mkdirs();
-        }
-        try {
-            job.info().writeToFile(dir);
-        } catch (IOException ignore) {
-            Halog.e(getClass(), "Can not persist the job: " + job.info().mIdentity);
-        }
+        //The journal keeps if it must survive a reboot
+        mJournal.put(job.info());
     }
 
     /**
@@ -268,18 +262,9 @@ public final class HaloSchedulerService extends Service {
      * @param job The job.
      */
     private void deleteBackup(@NonNull Job job) {
-        //TODO move from main thread
-        File recoverDir = new File(getFilesDir(), JOB_BACKUP_DIR);
-        if (!recoverDir.exists())
-            return;
-        job.info().tryDelete(recoverDir);
-        final File dir = new File(getFilesDir(), JOB_PERSIST_DIR);
-        if (!dir.exists()) {
-            return;
+        if (job.canBePersisted()) {
+            mJournal.remove(job.info().mIdentity);
         }
-        if (!job.info().mPersistAfterReboot)
-            return;
-        job.info().tryDelete(dir);
     }
 
     @Override
@@ -287,6 +272,7 @@ public final class HaloSchedulerService extends Service {
         super.onDestroy();
         mDeviceStatus.onDestroy();
         mHandlerThread.quit();
+        mJournal.close();
         mThreadManager = null;
         unregisterReceiver(mDeadlineCheck);
     }
@@ -332,16 +318,26 @@ public final class HaloSchedulerService extends Service {
         mJobsSet.put(job.info().mIdentity, job);
         tryCreateBackups(job);
 
-        // Receiver handle
-        for (Trigger trigger : job.triggers()) {
-            if (!mReceivers.containsKey(trigger.getIdentify())) {
-                IntentFilter filter = new IntentFilter();
-                for (String act : trigger.getAction()) {
-                    filter.addAction(act);
+        // Index the conditions and register the receivers of the first job waiting on them
+        synchronized (mJobsByCondition) {
+            for (String key : conditionKeys(job)) {
+                Set<String> waiting = mJobsByCondition.get(key);
+                if (waiting == null) {
+                    waiting = new HashSet<>();
+                    mJobsByCondition.put(key, waiting);
+                }
+                waiting.add(job.info().mIdentity);
+            }
+            for (Trigger trigger : job.triggers()) {
+                if (!mReceivers.containsKey(trigger.getIdentify())) {
+                    IntentFilter filter = new IntentFilter();
+                    for (String act : trigger.getAction()) {
+                        filter.addAction(act);
+                    }
+                    ReceiverInner rec = new ReceiverInner(trigger);
+                    registerReceiver(rec, filter);
+                    mReceivers.put(trigger.getIdentify(), rec);
                 }
-                ReceiverInner rec = new ReceiverInner(trigger);
-                registerReceiver(rec, filter);
-                mReceivers.put(trigger.getIdentify(), rec);
             }
         }
 
@@ -369,25 +365,89 @@ public final class HaloSchedulerService extends Service {
                 mChecker.trigger(job);
                 return;
             }
-            if (df > 60 * 1000) { //Set an alarm for it
-                PendingIntent pendingIntent = PendingIntent.getBroadcast(this, 0, new Intent(DEADLINE_BROADCAST), 0);
-                if (Build.VERSION.SDK_INT >= 19) {
-                    mAlarmManager.setExact(AlarmManager.RTC_WAKEUP, job.info().mDeadline, pendingIntent);
-                } else {
-                    mAlarmManager.set(AlarmManager.RTC_WAKEUP, job.info().mDeadline, pendingIntent);
-                }
-                job.mDeadLineObj = pendingIntent;
-            } else { //Delay instead of adding an alarm
-                Runnable runnable = new Runnable() {
-                    @Override
-                    public void run() {
-                        mChecker.checkDeadline();
+            synchronized (mDeadlines) {
+                mDeadlines.add(new Deadline(job.info().mDeadline, job.info().mIdentity));
+                scheduleNextDeadline();
+            }
+        }
+    }
+
+    /**
+     * Provides the keys of the conditions a job is waiting on.
+     *
+     * @param job The job.
+     * @return The trigger identities and status keys.
+     */
+    @NonNull
+    private static Set<String> conditionKeys(@NonNull Job job) {
+        Set<String> keys = new HashSet<>(job.conditionsOk().keySet());
+        for (Trigger trigger : job.triggers()) {
+            keys.add(trigger.getIdentify());
+        }
+        return keys;
+    }
+
+    /**
+     * Provides the jobs waiting on a condition.
+     *
+     * @param key The trigger identity or status key.
+     * @return The jobs waiting.
+     */
+    @NonNull
+    private List<Job> jobsWaitingOn(@NonNull String key) {
+        List<Job> jobs = new ArrayList<>();
+        synchronized (mJobsByCondition) {
+            Set<String> waiting = mJobsByCondition.get(key);
+            if (waiting != null) {
+                for (String identity : waiting) {
+                    Job job = mJobsSet.get(identity);
+                    if (job != null) {
+                        jobs.add(job);
                     }
-                };
-                job.mDeadLineObj = runnable;
-                mShortDeadlineHandler.postDelayed(runnable, df);
+                }
             }
         }
+        return jobs;
+    }
+
+    /**
+     * Schedules a single check for the soonest deadline, with an alarm if it is far or with
+     * a delayed check otherwise. The deadlines of jobs that are not waiting anymore are discarded
+     * first so they never wake up the device. Must be called holding the deadlines lock.
+     */
+    private void scheduleNextDeadline() {
+        mShortDeadlineHandler.removeCallbacks(mShortDeadlineCheck);
+        Deadline next = mDeadlines.peek();
+        while (next != null && isStale(next)) {
+            mDeadlines.poll();
+            next = mDeadlines.peek();
+        }
+        if (next == null) {
+            mAlarmManager.cancel(mDeadlineIntent);
+            return;
+        }
+        long df = next.mTime - System.currentTimeMillis();
+        if (df > 60 * 1000) { //Set an alarm for it
+            if (Build.VERSION.SDK_INT >= 19) {
+                mAlarmManager.setExact(AlarmManager.RTC_WAKEUP, next.mTime, mDeadlineIntent);
+            } else {
+                mAlarmManager.set(AlarmManager.RTC_WAKEUP, next.mTime, mDeadlineIntent);
+            }
+        } else { //Delay instead of adding an alarm
+            mAlarmManager.cancel(mDeadlineIntent);
+            mShortDeadlineHandler.postDelayed(mShortDeadlineCheck, Math.max(df, 0));
+        }
+    }
+
+    /**
+     * Tells if a deadline belongs to a job that is not waiting for it anymore.
+     *
+     * @param deadline The deadline.
+     * @return True if the job was removed or has another deadline now.
+     */
+    private boolean isStale(@NonNull Deadline deadline) {
+        Job job = mJobsSet.get(deadline.mIdentity);
+        return job == null || job.info().mDeadline != deadline.mTime;
     }
 
     /**
@@ -422,33 +482,36 @@ public final class HaloSchedulerService extends Service {
             return;
         }
         deleteBackup(removed);
-        List<String> removedConds = new ArrayList<>();
-        //Get all receivers
-        for (Receiver receiver : removed.triggers()) {
-            removedConds.add(receiver.getIdentify());
-        }
-
-        // If this trigger is present on another job remove it
-        for (Map.Entry<String, Job> entry : mJobsSet.entrySet()) {
-            for (Receiver condition : entry.getValue().triggers()) {
-                if (removedConds.indexOf(condition.getIdentify()) != -1) {
-                    removedConds.remove(condition.getIdentify());
+        // Unregister the receivers no other job is waiting on
+        synchronized (mJobsByCondition) {
+            for (String condition : conditionKeys(removed)) {
+                Set<String> waiting = mJobsByCondition.get(condition);
+                if (waiting == null) {
+                    continue;
+                }
+                waiting.remove(removed.info().mIdentity);
+                if (waiting.isEmpty()) {
+                    mJobsByCondition.remove(condition);
+                    BroadcastReceiver receiver = mReceivers.remove(condition);
+                    if (receiver != null) {
+                        unregisterReceiver(receiver);
+                    }
                 }
             }
         }
-
-        // Unregister the conditions
-        for (String k : removedConds) {
-            unregisterReceiver(mReceivers.get(k));
-            mReceivers.remove(k);
-        }
-
-        // Deadline handle
+        // Discard the deadlines of the job and move the check if one of them was the next one
         if (removed.info().mDeadline != -1L) {
-            if (removed.mDeadLineObj instanceof PendingIntent) {
-                mAlarmManager.cancel((PendingIntent) removed.mDeadLineObj);
-            } else if (removed.mDeadLineObj instanceof Runnable) {
-                mShortDeadlineHandler.removeCallbacks((Runnable) removed.mDeadLineObj);
+            synchronized (mDeadlines) {
+                Deadline next = mDeadlines.peek();
+                Iterator<Deadline> iterator = mDeadlines.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().mIdentity.equals(removed.info().mIdentity)) {
+                        iterator.remove();
+                    }
+                }
+                if (next != mDeadlines.peek()) {
+                    scheduleNextDeadline();
+                }
             }
         }
     }
@@ -459,43 +522,22 @@ public final class HaloSchedulerService extends Service {
     void cleanUpAll() {
         mChecker.cleanup();
         for (Map.Entry<String, Job> entry : mJobsSet.entrySet()) {
-            Job job = entry.getValue();
-            job.resetConds();
-            if (job.mDeadLineObj != null) {
-                if (job.mDeadLineObj instanceof PendingIntent) {
-                    mAlarmManager.cancel((PendingIntent) job.mDeadLineObj);
-                } else if (job.mDeadLineObj instanceof Runnable) {
-                    mShortDeadlineHandler.removeCallbacks((Runnable) job.mDeadLineObj);
-                }
-            }
+            entry.getValue().resetConds();
         }
         mJobsSet.clear();
-        for (Map.Entry<String, BroadcastReceiver> entry : mReceivers.entrySet()) {
-            BroadcastReceiver r = entry.getValue();
-            unregisterReceiver(r);
-        }
-        mReceivers.clear();
-        deleteDir(new File(getFilesDir(), JOB_BACKUP_DIR));
-        deleteDir(new File(getFilesDir(), JOB_PERSIST_DIR));
-    }
-
-    /**
-     * Deletes the dir of the given file.
-     *
-     * @param file The file.
-     */
-    private void deleteDir(@NonNull File file) {
-        if (!file.exists() || !file.isDirectory()) {
-            return;
-        }
-        for (File f : file.listFiles()) {
-            if (f.isDirectory()) {
-                deleteDir(f);
-            } else {
-                f.delete();
+        synchronized (mDeadlines) {
+            mDeadlines.clear();
+            scheduleNextDeadline();
+        }
+        synchronized (mJobsByCondition) {
+            mJobsByCondition.clear();
+            for (Map.Entry<String, BroadcastReceiver> entry : mReceivers.entrySet()) {
+                BroadcastReceiver r = entry.getValue();
+                unregisterReceiver(r);
             }
+            mReceivers.clear();
         }
-        file.delete();
+        mJournal.clear();
     }
 
     @Override
@@ -597,6 +639,10 @@ public final class HaloSchedulerService extends Service {
          * message for removing a job by tag.
          */
         private final int MSG_REMOVE_TAG_JOB = 5;
+        /**
+         * Message for the jobs recovered from the journal.
+         */
+        private final int MSG_RECOVER_JOBS = 6;
 
         /**
          * The looper to which this handler is attached.
@@ -608,6 +654,7 @@ public final class HaloSchedulerService extends Service {
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public void handleMessage(Message msg) {
             switch (msg.what) {
                 case MSG_TRIGGER_SATISFY:
@@ -625,6 +672,9 @@ public final class HaloSchedulerService extends Service {
                 case MSG_REMOVE_TAG_JOB:
                     removePersistJobWithTagImpl((String) msg.obj);
                     break;
+                case MSG_RECOVER_JOBS:
+                    recoverJobsImpl((List<Job.JobInfo>) msg.obj, msg.arg1 == 1);
+                    break;
                 default:
                     break;
             }
@@ -636,21 +686,14 @@ public final class HaloSchedulerService extends Service {
          * @param trigger The trigger.
          */
         private void checkTriggerSatisfyImpl(@NonNull TriggerDesc trigger) {
+            List<Job> jobs = jobsWaitingOn(trigger.mIdentity);
+            if (jobs.isEmpty()) {
+                return;
+            }
             tryAcquireLock();
-            for (Map.Entry<String, Job> entry : mJobsSet.entrySet()) {
-                final Job job = entry.getValue();
-                boolean hit = true;
-                for (String key : job.conditionsOk().keySet()) {
-                    if (key.equals(trigger.mIdentity)) {
-                        job.conditionsOk().put(key, trigger.mSatisfy);
-                    }
-                    if (hit) {
-                        hit = job.conditionsOk().get(key);
-                    }
-                }
-                if (hit) {
-                    trigger(job);
-                }
+            for (Job job : jobs) {
+                job.conditionsOk().put(trigger.mIdentity, trigger.mSatisfy);
+                mayTriggerAfterCheck(job);
             }
             tryReleaseLock();
         }
@@ -662,11 +705,14 @@ public final class HaloSchedulerService extends Service {
          * @param which The triggered change.
          */
         private void checkStatusChangedImpl(@NonNull final String which) {
+            //while code runs here, all status have been refreshed, we just check the jobs waiting
+            //on this status and try to find out which can be triggered.
+            List<Job> jobs = jobsWaitingOn(which);
+            if (jobs.isEmpty()) {
+                return;
+            }
             tryAcquireLock();
-            //while code runs here, all status have been refreshed, we just check all jobs here and
-            //try to find out which can be triggered.
-            for (String key : mJobsSet.keySet()) {
-                Job job = mJobsSet.get(key);
+            for (Job job : jobs) {
                 switch (which) {
                     case Job.STATUS_CHARGING_KEY:
                         if (job.conditionsOk().containsKey(Job.STATUS_CHARGING_KEY)) {
@@ -700,10 +746,22 @@ public final class HaloSchedulerService extends Service {
          * Checks the deadline.
          */
         private void checkDeadlineImpl() {
-            tryAcquireLock();
             long now = System.currentTimeMillis();
-            for (Map.Entry<String, Job> entry : mJobsSet.entrySet()) {
-                final Job job = entry.getValue();
+            List<Job> reached = new ArrayList<>();
+            synchronized (mDeadlines) {
+                while (!mDeadlines.isEmpty() && mDeadlines.peek().mTime <= now) {
+                    Job job = mJobsSet.get(mDeadlines.poll().mIdentity);
+                    if (job != null && !reached.contains(job)) {
+                        reached.add(job);
+                    }
+                }
+                scheduleNextDeadline();
+            }
+            if (reached.isEmpty()) {
+                return;
+            }
+            tryAcquireLock();
+            for (Job job : reached) {
                 if (job.info().mHappen == -1L && (job.info().mDeadline > 0 && job.info().mDeadline <= now)) { //not mHappen yet
                     trigger(job);
                 }
@@ -715,29 +773,35 @@ public final class HaloSchedulerService extends Service {
          * Checks the device is on.
          */
         private void checkDeviceOnImpl() {
+            mJournal.recover(true, new JobJournal.RecoverCallback() {
+                @Override
+                public void onRecovered(@NonNull List<Job.JobInfo> infos) {
+                    if (!infos.isEmpty()) {
+                        recoverJobs(infos, true);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Adds the jobs recovered from the journal. The ones that can not be recreated are removed.
+         *
+         * @param infos The jobs recovered.
+         * @param boot  True if the device has just started.
+         */
+        private void recoverJobsImpl(@NonNull List<Job.JobInfo> infos, boolean boot) {
             tryAcquireLock();
-            final File dir = new File(getFilesDir(), JOB_PERSIST_DIR);
-            if (dir.listFiles() == null)
-                return;
-            for (File f : dir.listFiles()) {
-                if (!f.getName().startsWith("1553")) {
-                    f.delete();
+            for (Job.JobInfo info : infos) {
+                Job job = Job.createJobFromPersistInfo(info);
+                if (job == null) {
+                    Halog.e(getClass(), "The job could not be recreated: " + info.mIdentity);
+                    mJournal.remove(info.mIdentity);
                     continue;
                 }
-                Job.JobInfo info = null;
-                try {
-                    info = Job.JobInfo.readFromFile(f);
-                } catch (IOException ignore) {
-                }
-                if (info != null) {
-                    Job job = Job.createJobFromPersistInfo(info);
-                    if (job != null) {
-                        job.info().mHappen = -1L;
-                        addJob(job, true);
-                    }
-                } else {
-                    f.delete();
+                if (boot) {
+                    job.info().mHappen = -1L;
                 }
+                addJob(job, true);
             }
             tryReleaseLock();
         }
@@ -748,33 +812,7 @@ public final class HaloSchedulerService extends Service {
          * @param tag The tag.
          */
         private void removePersistJobWithTagImpl(String tag) {
-            File backupDir = new File(getFilesDir(), JOB_BACKUP_DIR);
-            File persistDir = new File(getFilesDir(), JOB_PERSIST_DIR);
-            //Remove from backups
-            if (backupDir.exists() && backupDir.listFiles() != null) {
-                for (File file : backupDir.listFiles()) {
-                    try {
-                        Job.JobInfo info = Job.JobInfo.readFromFile(file);
-                        if (info != null && info.mTag.equals(tag)) {
-                            file.delete();
-                        }
-                    } catch (IOException ignore) {
-                    }
-                }
-            }
-
-            //Remove from persisted
-            if (persistDir.exists() && persistDir.listFiles() != null) {
-                for (File f : persistDir.listFiles()) {
-                    try {
-                        Job.JobInfo info = Job.JobInfo.readFromFile(f);
-                        if (info != null && info.mTag.equals(tag)) {
-                            f.delete();
-                        }
-                    } catch (IOException ignore) {
-                    }
-                }
-            }
+            mJournal.removeTag(tag);
         }
 
         /**
@@ -818,7 +856,7 @@ public final class HaloSchedulerService extends Service {
                     }
                 }
             };
-            mThreadManager.enqueue(job.info().mThreadPolicy, runnable);
+            mThreadManager.enqueue(job.info().mThreadPolicy, Threading.PRIORITY_BACKGROUND, runnable);
             job.info().mHappen = SystemClock.elapsedRealtime();
             removeOne(job.info().mIdentity);
             job.resetConds();
@@ -868,6 +906,16 @@ public final class HaloSchedulerService extends Service {
             obtainMessage(MSG_REMOVE_TAG_JOB, tag).sendToTarget();
         }
 
+        /**
+         * Adds the jobs recovered from the journal in the handler thread.
+         *
+         * @param infos The jobs recovered.
+         * @param boot  True if the device has just started.
+         */
+        public void recoverJobs(@NonNull List<Job.JobInfo> infos, boolean boot) {
+            obtainMessage(MSG_RECOVER_JOBS, boot ? 1 : 0, 0, infos).sendToTarget();
+        }
+
         /**
          * Cleanups all the pending messages.
          */
@@ -876,6 +924,36 @@ public final class HaloSchedulerService extends Service {
         }
     }
 
+    /**
+     * The deadline of a job in the deadlines queue.
+     */
+    private static class Deadline implements Comparable<Deadline> {
+        /**
+         * The time of the deadline.
+         */
+        private final long mTime;
+        /**
+         * The identity of the job.
+         */
+        private final String mIdentity;
+
+        /**
+         * Constructor for the deadline.
+         *
+         * @param time     The time of the deadline.
+         * @param identity The identity of the job.
+         */
+        private Deadline(long time, @NonNull String identity) {
+            mTime = time;
+            mIdentity = identity;
+        }
+
+        @Override
+        public int compareTo(@NonNull Deadline other) {
+            return mTime < other.mTime ? -1 : (mTime == other.mTime ? 0 : 1);
+        }
+    }
+
     /**
      * Deadline broadcast checker if a job reaches the deadline.
      */
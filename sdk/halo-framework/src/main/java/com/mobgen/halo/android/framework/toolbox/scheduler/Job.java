@@ -79,11 +79,6 @@ public final class Job {
      */
     private Builder mBuilder;
 
-    /**
-     * The mDeadline object to decide when this task should be executed.
-     */
-    Object mDeadLineObj = null; //Store mDeadline Object, list of PendingIntent(after >5min) or Runnable(otherwise)
-
     /**
      * The builder with the information.
      *
@@ -590,7 +585,7 @@ public final class Job {
          */
         @NonNull
         @SuppressWarnings("all")
-        private static JobInfo fromJson(@NonNull String data) throws IOException {
+        static JobInfo fromJson(@NonNull String data) throws IOException {
             JobInfo info = new JobInfo();
             try {
                 JSONObject json = new JSONObject(data);
@@ -606,6 +601,7 @@ public final class Job {
                 }
                 info.mActionClassName = json.getString("actname");
                 info.mTag = json.optString("tag", DEFAULT_TAG);
+                info.mIdentity = json.optString("identity", null);
             } catch (JSONException e) {
                 throw new IOException("Error parsing the data", e);
             }
@@ -634,6 +630,7 @@ public final class Job {
                 json.put("triggers", triggersArray);
                 json.put("actname", info.mActionClassName);
                 json.put("tag", info.mTag);
+                json.put("identity", info.mIdentity);
             } catch (JSONException e) {
                 throw new IOException("Error while creating the job json object.", e);
             }
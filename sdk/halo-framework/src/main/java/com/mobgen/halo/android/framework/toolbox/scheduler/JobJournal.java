@@ -0,0 +1,616 @@
+package com.mobgen.halo.android.framework.toolbox.scheduler;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Durable store for the jobs of the scheduler. All the jobs are kept in a single append only journal
+ * file with one line per change, and an index by identity and by tag is kept in memory. Every change is
+ * applied in a background writer that commits all the pending changes with a single write, and the
+ * journal is compacted once most of its lines are obsolete. The journal is loaded in the writer the first
+ * time it is needed, so no operation does disk I/O in the calling thread.
+ */
+final class JobJournal {
+
+    /**
+     * Callback for the jobs recovered from the journal.
+     */
+    interface RecoverCallback {
+        /**
+         * Called from the writer thread with the jobs stored.
+         *
+         * @param infos The jobs stored.
+         */
+        void onRecovered(@NonNull List<Job.JobInfo> infos);
+    }
+
+    /**
+     * Name of the journal file.
+     */
+    private static final String JOURNAL_FILE = "job_journal";
+    /**
+     * Dir of the legacy job backups.
+     */
+    private static final String LEGACY_BACKUP_DIR = "job_backup";
+    /**
+     * Dir of the legacy persisted jobs.
+     */
+    private static final String LEGACY_PERSIST_DIR = "job_persist";
+    /**
+     * The line that stores a job.
+     */
+    private static final char LINE_PUT = 'P';
+    /**
+     * The line that removes a job.
+     */
+    private static final char LINE_REMOVE = 'R';
+    /**
+     * The line that removes all the jobs.
+     */
+    private static final char LINE_CLEAR = 'C';
+    /**
+     * Min number of lines in the journal before compacting it.
+     */
+    private static final int COMPACT_MIN_LINES = 64;
+    /**
+     * The charset of the journal.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The dir where the journal is stored.
+     */
+    private final File mDir;
+    /**
+     * The journal file.
+     */
+    private final File mJournal;
+    /**
+     * The writer thread.
+     */
+    private final ExecutorService mWriter;
+    /**
+     * The changes not applied yet.
+     */
+    private final ConcurrentLinkedQueue<Operation> mPending;
+    /**
+     * True if there is a commit scheduled in the writer.
+     */
+    private final AtomicBoolean mCommitScheduled;
+    /**
+     * The task that commits the pending changes.
+     */
+    private final Runnable mCommit;
+    /**
+     * The stored jobs by identity. Only accessed from the writer.
+     */
+    private final Map<String, Stored> mJobs;
+    /**
+     * The identities of the stored jobs by tag. Only accessed from the writer.
+     */
+    private final Map<String, Set<String>> mTags;
+    /**
+     * Number of lines in the journal. Only accessed from the writer.
+     */
+    private int mLines;
+    /**
+     * True once the journal has been loaded. Only accessed from the writer.
+     */
+    private boolean mLoaded;
+
+    /**
+     * Creates the journal. Nothing is read until the first operation is committed.
+     *
+     * @param dir The dir where the journal is stored.
+     */
+    JobJournal(@NonNull File dir) {
+        mDir = dir;
+        mJournal = new File(dir, JOURNAL_FILE);
+        mWriter = Executors.newSingleThreadExecutor();
+        mPending = new ConcurrentLinkedQueue<>();
+        mCommitScheduled = new AtomicBoolean();
+        mJobs = new LinkedHashMap<>();
+        mTags = new HashMap<>();
+        mCommit = new Runnable() {
+            @Override
+            public void run() {
+                commit();
+            }
+        };
+    }
+
+    /**
+     * Stores the job, replacing any previous one with the same identity. The job is
+     * serialized in the calling thread, so later changes on it are not stored.
+     *
+     * @param info The job.
+     */
+    void put(@NonNull Job.JobInfo info) {
+        String json;
+        try {
+            json = info.toJson(info);
+        } catch (IOException e) {
+            Halog.e(getClass(), "Can not store the job: " + info.mIdentity, e);
+            return;
+        }
+        Operation operation = new Operation(LINE_PUT);
+        operation.mKey = info.mIdentity;
+        operation.mJson = json;
+        operation.mTag = info.mTag;
+        operation.mPersistAfterReboot = info.mPersistAfterReboot;
+        enqueue(operation);
+    }
+
+    /**
+     * Removes the job with the given identity.
+     *
+     * @param identity The identity.
+     */
+    void remove(@NonNull String identity) {
+        Operation operation = new Operation(LINE_REMOVE);
+        operation.mKey = identity;
+        enqueue(operation);
+    }
+
+    /**
+     * Removes all the jobs with the given tag.
+     *
+     * @param tag The tag.
+     */
+    void removeTag(@NonNull String tag) {
+        Operation operation = new Operation(LINE_REMOVE);
+        operation.mTag = tag;
+        enqueue(operation);
+    }
+
+    /**
+     * Removes all the jobs.
+     */
+    void clear() {
+        enqueue(new Operation(LINE_CLEAR));
+    }
+
+    /**
+     * Provides the jobs stored once all the previous changes are applied.
+     *
+     * @param persistedOnly True to provide only the jobs that must survive a reboot.
+     * @param callback      The callback, called from the writer thread.
+     */
+    void recover(boolean persistedOnly, @NonNull RecoverCallback callback) {
+        Operation operation = new Operation(LINE_PUT);
+        operation.mPersistAfterReboot = persistedOnly;
+        operation.mCallback = callback;
+        enqueue(operation);
+    }
+
+    /**
+     * Commits the pending changes and stops the writer.
+     */
+    void close() {
+        mWriter.shutdown();
+    }
+
+    /**
+     * Enqueues an operation and schedules a commit if there is none pending.
+     *
+     * @param operation The operation.
+     */
+    private void enqueue(@NonNull Operation operation) {
+        mPending.add(operation);
+        if (mCommitScheduled.compareAndSet(false, true)) {
+            try {
+                mWriter.execute(mCommit);
+            } catch (RejectedExecutionException e) {
+                Halog.w(getClass(), "The job journal is already closed");
+            }
+        }
+    }
+
+    /**
+     * Applies all the pending operations and writes them in the journal at once.
+     */
+    private void commit() {
+        mCommitScheduled.set(false);
+        if (!mLoaded) {
+            load();
+            mLoaded = true;
+        }
+        StringBuilder lines = new StringBuilder();
+        int count = 0;
+        Operation operation;
+        while ((operation = mPending.poll()) != null) {
+            if (operation.mCallback != null) {
+                //Everything before the recovery must be stored before providing the jobs
+                write(lines, count);
+                lines.setLength(0);
+                count = 0;
+                operation.mCallback.onRecovered(snapshot(operation.mPersistAfterReboot));
+            } else {
+                count += apply(operation, lines);
+            }
+        }
+        write(lines, count);
+        if (mLines > COMPACT_MIN_LINES && mLines > 2 * mJobs.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Applies an operation in memory and adds its lines to the journal.
+     *
+     * @param operation The operation.
+     * @param lines     The lines of the journal.
+     * @return The number of lines added.
+     */
+    private int apply(@NonNull Operation operation, @NonNull StringBuilder lines) {
+        switch (operation.mType) {
+            case LINE_PUT:
+                if (operation.mKey == null) {
+                    return 0;
+                }
+                store(operation.mKey, new Stored(operation.mJson, operation.mTag, operation.mPersistAfterReboot));
+                lines.append(LINE_PUT).append(operation.mJson).append('\n');
+                return 1;
+            case LINE_REMOVE:
+                if (operation.mKey != null) {
+                    if (delete(operation.mKey) == null) {
+                        return 0;
+                    }
+                    lines.append(LINE_REMOVE).append(operation.mKey).append('\n');
+                    return 1;
+                }
+                Set<String> tagged = mTags.get(operation.mTag);
+                if (tagged == null) {
+                    return 0;
+                }
+                int removed = 0;
+                for (String key : new ArrayList<>(tagged)) {
+                    delete(key);
+                    lines.append(LINE_REMOVE).append(key).append('\n');
+                    removed++;
+                }
+                return removed;
+            case LINE_CLEAR:
+                if (mJobs.isEmpty() && mLines == 0) {
+                    return 0;
+                }
+                mJobs.clear();
+                mTags.clear();
+                lines.append(LINE_CLEAR).append('\n');
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Stores a job in the memory index.
+     *
+     * @param key    The identity.
+     * @param stored The job.
+     */
+    private void store(@NonNull String key, @NonNull Stored stored) {
+        delete(key);
+        mJobs.put(key, stored);
+        Set<String> tagged = mTags.get(stored.mTag);
+        if (tagged == null) {
+            tagged = new HashSet<>();
+            mTags.put(stored.mTag, tagged);
+        }
+        tagged.add(key);
+    }
+
+    /**
+     * Removes a job from the memory index.
+     *
+     * @param key The identity.
+     * @return The job removed or null if it was not stored.
+     */
+    @Nullable
+    private Stored delete(@NonNull String key) {
+        Stored stored = mJobs.remove(key);
+        if (stored != null) {
+            Set<String> tagged = mTags.get(stored.mTag);
+            if (tagged != null) {
+                tagged.remove(key);
+                if (tagged.isEmpty()) {
+                    mTags.remove(stored.mTag);
+                }
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Creates the jobs from the memory index.
+     *
+     * @param persistedOnly True to provide only the jobs that must survive a reboot.
+     * @return The jobs.
+     */
+    @NonNull
+    private List<Job.JobInfo> snapshot(boolean persistedOnly) {
+        List<Job.JobInfo> infos = new ArrayList<>(mJobs.size());
+        for (Map.Entry<String, Stored> entry : mJobs.entrySet()) {
+            Stored stored = entry.getValue();
+            if (persistedOnly && !stored.mPersistAfterReboot) {
+                continue;
+            }
+            try {
+                Job.JobInfo info = Job.JobInfo.fromJson(stored.mJson);
+                info.mIdentity = entry.getKey();
+                infos.add(info);
+            } catch (IOException e) {
+                Halog.e(getClass(), "The job could not be recreated: " + entry.getKey(), e);
+            }
+        }
+        return infos;
+    }
+
+    /**
+     * Appends the lines to the journal.
+     *
+     * @param lines The lines.
+     * @param count The number of lines.
+     */
+    private void write(@NonNull StringBuilder lines, int count) {
+        if (lines.length() == 0) {
+            return;
+        }
+        FileOutputStream stream = null;
+        try {
+            stream = new FileOutputStream(mJournal, true);
+            stream.write(lines.toString().getBytes(UTF_8));
+            stream.getFD().sync();
+            mLines += count;
+        } catch (IOException e) {
+            Halog.e(getClass(), "The jobs could not be written in the journal", e);
+        } finally {
+            closeQuietly(stream);
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the jobs stored.
+     *
+     * @return True if the journal was rewritten.
+     */
+    private boolean compact() {
+        File temp = new File(mDir, JOURNAL_FILE + ".tmp");
+        StringBuilder lines = new StringBuilder();
+        for (Stored stored : mJobs.values()) {
+            lines.append(LINE_PUT).append(stored.mJson).append('\n');
+        }
+        FileOutputStream stream = null;
+        try {
+            stream = new FileOutputStream(temp, false);
+            stream.write(lines.toString().getBytes(UTF_8));
+            stream.getFD().sync();
+            stream.close();
+            stream = null;
+            if (temp.renameTo(mJournal)) {
+                mLines = mJobs.size();
+                return true;
+            }
+            Halog.e(getClass(), "The compacted job journal could not replace the previous one");
+        } catch (IOException e) {
+            Halog.e(getClass(), "The job journal could not be compacted", e);
+        } finally {
+            closeQuietly(stream);
+        }
+        return false;
+    }
+
+    /**
+     * Loads the journal in memory and migrates the jobs stored in files by older versions. The legacy
+     * files are only removed once the journal with the migrated jobs is written, so they are migrated
+     * again on the next load if it fails.
+     */
+    private void load() {
+        if (mJournal.exists()) {
+            BufferedReader reader = null;
+            try {
+                reader = new BufferedReader(new InputStreamReader(new FileInputStream(mJournal), UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    mLines++;
+                    readLine(line);
+                }
+            } catch (IOException e) {
+                Halog.e(getClass(), "The job journal could not be read", e);
+            } finally {
+                closeQuietly(reader);
+            }
+        }
+        File backupDir = new File(mDir, LEGACY_BACKUP_DIR);
+        File persistDir = new File(mDir, LEGACY_PERSIST_DIR);
+        boolean migrated = migrate(backupDir, false);
+        migrated |= migrate(persistDir, true);
+        if (migrated && compact()) {
+            deleteDir(backupDir);
+            deleteDir(persistDir);
+        }
+    }
+
+    /**
+     * Applies a line of the journal in memory. Incomplete lines from an interrupted write are ignored.
+     *
+     * @param line The line.
+     */
+    private void readLine(@NonNull String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+        switch (line.charAt(0)) {
+            case LINE_PUT:
+                String json = line.substring(1);
+                try {
+                    Job.JobInfo info = Job.JobInfo.fromJson(json);
+                    if (info.mIdentity != null) {
+                        store(info.mIdentity, new Stored(json, info.mTag, info.mPersistAfterReboot));
+                    }
+                } catch (IOException e) {
+                    Halog.w(getClass(), "Ignoring a corrupted job in the journal");
+                }
+                break;
+            case LINE_REMOVE:
+                delete(line.substring(1));
+                break;
+            case LINE_CLEAR:
+                mJobs.clear();
+                mTags.clear();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Loads the jobs stored as files in a legacy dir. The files are not removed.
+     *
+     * @param dir                The legacy dir.
+     * @param persistAfterReboot True if the jobs of the dir must survive a reboot.
+     * @return True if there was any job migrated.
+     */
+    private boolean migrate(@NonNull File dir, boolean persistAfterReboot) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return false;
+        }
+        for (File file : files) {
+            try {
+                Job.JobInfo info = Job.JobInfo.readFromFile(file);
+                String key = file.getName().replace(".job", "");
+                info.mIdentity = key;
+                info.mPersistAfterReboot |= persistAfterReboot;
+                store(key, new Stored(info.toJson(info), info.mTag, info.mPersistAfterReboot));
+            } catch (IOException e) {
+                Halog.e(getClass(), "The job could not be migrated: " + file.getName(), e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes a legacy dir with all its files.
+     *
+     * @param dir The dir.
+     */
+    private static void deleteDir(@NonNull File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * Closes a stream ignoring the errors.
+     *
+     * @param closeable The stream.
+     */
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignore) {
+                //Nothing to do
+            }
+        }
+    }
+
+    /**
+     * A job stored in the journal.
+     */
+    private static class Stored {
+        /**
+         * The json of the job.
+         */
+        private final String mJson;
+        /**
+         * The tag.
+         */
+        private final String mTag;
+        /**
+         * True if the job must survive a reboot.
+         */
+        private final boolean mPersistAfterReboot;
+
+        /**
+         * Constructor for the stored job.
+         *
+         * @param json               The json.
+         * @param tag                The tag.
+         * @param persistAfterReboot True if it must survive a reboot.
+         */
+        private Stored(@NonNull String json, @Nullable String tag, boolean persistAfterReboot) {
+            mJson = json;
+            mTag = tag;
+            mPersistAfterReboot = persistAfterReboot;
+        }
+    }
+
+    /**
+     * A change pending to be applied in the writer.
+     */
+    private static class Operation {
+        /**
+         * The type of line of the operation.
+         */
+        private final char mType;
+        /**
+         * The identity of the job.
+         */
+        private String mKey;
+        /**
+         * The json of the job.
+         */
+        private String mJson;
+        /**
+         * The tag of the job.
+         */
+        private String mTag;
+        /**
+         * True if the job must survive a reboot, or if only those must be recovered.
+         */
+        private boolean mPersistAfterReboot;
+        /**
+         * The recovery callback.
+         */
+        private RecoverCallback mCallback;
+
+        /**
+         * Constructor for the operation.
+         *
+         * @param type The type of line.
+         */
+        private Operation(char type) {
+            mType = type;
+        }
+    }
+}
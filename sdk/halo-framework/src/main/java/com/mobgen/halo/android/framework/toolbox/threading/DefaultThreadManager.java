@@ -66,6 +66,7 @@ public class DefaultThreadManager extends HaloThreadManager {
         Future<?> future;
         switch (thread) {
             case Threading.POOL_QUEUE_POLICY:
+            case Threading.CPU_QUEUE_POLICY:
                 future = mPoolQueue.submit(runnable);
                 break;
             case Threading.SINGLE_QUEUE_POLICY:
@@ -17,4 +17,17 @@ public abstract class HaloThreadManager {
      * @return The future created after enqueue.
      */
     public abstract Future enqueue(@Threading.Policy int thread, @NonNull Runnable runnable);
+
+    /**
+     * Enqueues a runnable with a priority. Thread managers that do not support priorities
+     * enqueue it as a normal runnable, and the cpu queue falls back to the pool queue.
+     *
+     * @param thread   The threading policy.
+     * @param priority The priority of the runnable.
+     * @param runnable The runnable to enqueue.
+     * @return The future created after enqueue.
+     */
+    public Future enqueue(@Threading.Policy int thread, @Threading.Priority int priority, @NonNull Runnable runnable) {
+        return enqueue(thread == Threading.CPU_QUEUE_POLICY ? Threading.POOL_QUEUE_POLICY : thread, runnable);
+    }
 }
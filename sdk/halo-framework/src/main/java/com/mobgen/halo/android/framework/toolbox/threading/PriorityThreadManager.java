@@ -0,0 +1,360 @@
+package com.mobgen.halo.android.framework.toolbox.threading;
+
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.common.exceptions.HaloConfigurationException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread manager with two lanes: the {@link Threading#POOL_QUEUE_POLICY} lane is sized for
+ * I/O bound work like network and database operations and the {@link Threading#CPU_QUEUE_POLICY}
+ * lane is sized for the number of cores. Both lanes order the pending tasks by its
+ * {@link Threading.Priority} so interactive requests are taken before background ones, and the
+ * I/O lane grows up to its max size when the pending queue is full. If a lane is saturated the
+ * task is queued over the bound and counted, so it never runs in the thread that enqueued it, which
+ * is usually the main thread.
+ */
+public class PriorityThreadManager extends HaloThreadManager {
+
+    /**
+     * The number of cores available.
+     */
+    private static final int NUMBER_OF_CORES = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The core size of the I/O lane.
+     */
+    private static final int IO_CORE_POOL_SIZE = NUMBER_OF_CORES + 1;
+
+    /**
+     * The max size of the I/O lane.
+     */
+    private static final int IO_MAXIMUM_POOL_SIZE = NUMBER_OF_CORES * 4 + 1;
+
+    /**
+     * The size of the cpu lane.
+     */
+    private static final int CPU_POOL_SIZE = Math.max(2, NUMBER_OF_CORES);
+
+    /**
+     * Max number of pending tasks on each lane before the lane grows or rejects.
+     */
+    private static final int MAXIMUM_PENDING_TASKS = 128;
+
+    /**
+     * Time to keep an idle thread over the core size.
+     */
+    private static final int KEEP_ALIVE_TIME_SECONDS = 30;
+
+    /**
+     * The I/O lane.
+     */
+    private final LaneExecutor mIoLane;
+
+    /**
+     * The cpu lane.
+     */
+    private final LaneExecutor mCpuLane;
+
+    /**
+     * The single thread queue.
+     */
+    private final ExecutorService mSingleQueue;
+
+    /**
+     * Sequence to keep the order of the tasks with the same priority.
+     */
+    private final AtomicLong mSequence;
+
+    /**
+     * Number of tasks queued over the bound of a saturated lane.
+     */
+    private final AtomicLong mRejected;
+
+    /**
+     * Creates the thread manager with the default sizes.
+     */
+    public PriorityThreadManager() {
+        this(IO_CORE_POOL_SIZE, IO_MAXIMUM_POOL_SIZE, CPU_POOL_SIZE, MAXIMUM_PENDING_TASKS);
+    }
+
+    /**
+     * Creates the thread manager.
+     *
+     * @param ioCoreSize   The core size of the I/O lane.
+     * @param ioMaxSize    The max size of the I/O lane.
+     * @param cpuSize      The size of the cpu lane.
+     * @param maxPending   The max pending tasks on each lane.
+     */
+    public PriorityThreadManager(int ioCoreSize, int ioMaxSize, int cpuSize, int maxPending) {
+        mSequence = new AtomicLong();
+        mRejected = new AtomicLong();
+        RejectedExecutionHandler overflow = new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("The lane is shut down.");
+                }
+                mRejected.incrementAndGet();
+                ((BoundedPriorityQueue) executor.getQueue()).overflow(runnable);
+            }
+        };
+        mIoLane = new LaneExecutor(ioCoreSize, ioMaxSize, maxPending, "HaloIO", overflow);
+        mCpuLane = new LaneExecutor(cpuSize, cpuSize, maxPending, "HaloCPU", overflow);
+        mSingleQueue = Executors.newSingleThreadExecutor();
+    }
+
+    @Override
+    public Future enqueue(@Threading.Policy int thread, @NonNull Runnable runnable) {
+        return enqueue(thread, Threading.PRIORITY_DEFAULT, runnable);
+    }
+
+    @Override
+    public Future enqueue(@Threading.Policy int thread, @Threading.Priority int priority, @NonNull Runnable runnable) {
+        Future<?> future;
+        switch (thread) {
+            case Threading.POOL_QUEUE_POLICY:
+                future = mIoLane.submit(new PriorityRunnable(runnable, priority, mSequence.getAndIncrement()));
+                break;
+            case Threading.CPU_QUEUE_POLICY:
+                future = mCpuLane.submit(new PriorityRunnable(runnable, priority, mSequence.getAndIncrement()));
+                break;
+            case Threading.SINGLE_QUEUE_POLICY:
+                future = mSingleQueue.submit(runnable);
+                break;
+            case Threading.SAME_THREAD_POLICY:
+                future = new FutureTask<>(runnable, null);
+                runnable.run();
+                break;
+            default:
+                throw new HaloConfigurationException("Unsupported option or an Action operation");
+        }
+        return future;
+    }
+
+    /**
+     * Provides the number of tasks that were queued over the bound because a lane was saturated.
+     *
+     * @return The number of rejected tasks.
+     */
+    @Api(2.4)
+    public long rejectedCount() {
+        return mRejected.get();
+    }
+
+    /**
+     * Provides the number of tasks waiting in the lanes.
+     *
+     * @return The pending tasks.
+     */
+    @Api(2.4)
+    public int pendingCount() {
+        return mIoLane.getQueue().size() + mCpuLane.getQueue().size();
+    }
+
+    /**
+     * Provides the number of threads currently alive in the lanes.
+     *
+     * @return The number of threads.
+     */
+    @Api(2.4)
+    public int poolSize() {
+        return mIoLane.getPoolSize() + mCpuLane.getPoolSize();
+    }
+
+    /**
+     * Provides the largest number of threads that have been alive at the same time in the lanes.
+     *
+     * @return The largest number of threads.
+     */
+    @Api(2.4)
+    public int largestPoolSize() {
+        return mIoLane.getLargestPoolSize() + mCpuLane.getLargestPoolSize();
+    }
+
+    /**
+     * Provides the number of tasks completed in the lanes.
+     *
+     * @return The completed tasks.
+     */
+    @Api(2.4)
+    public long completedCount() {
+        return mIoLane.getCompletedTaskCount() + mCpuLane.getCompletedTaskCount();
+    }
+
+    /**
+     * Executor of a lane. Pending tasks are ordered by priority and the executor grows over
+     * the core size only when the pending queue is full.
+     */
+    private static class LaneExecutor extends ThreadPoolExecutor {
+
+        /**
+         * Constructor for the lane.
+         *
+         * @param coreSize   The core size.
+         * @param maxSize    The max size.
+         * @param maxPending The max pending tasks.
+         * @param name       The name of the threads.
+         * @param handler    The rejection handler.
+         */
+        private LaneExecutor(int coreSize, int maxSize, int maxPending, @NonNull String name, @NonNull RejectedExecutionHandler handler) {
+            super(coreSize, maxSize, KEEP_ALIVE_TIME_SECONDS, TimeUnit.SECONDS, new BoundedPriorityQueue(maxPending), new LaneThreadFactory(name), handler);
+        }
+
+        @Override
+        protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+            return new PriorityFutureTask<>((PriorityRunnable) runnable, value);
+        }
+    }
+
+    /**
+     * Priority queue that refuses new tasks when it is full so the executor can grow. Once the
+     * executor cannot grow anymore the tasks are queued over the bound.
+     */
+    private static class BoundedPriorityQueue extends PriorityBlockingQueue<Runnable> {
+
+        /**
+         * The max number of tasks.
+         */
+        private final int mCapacity;
+
+        /**
+         * Constructor for the queue.
+         *
+         * @param capacity The capacity.
+         */
+        private BoundedPriorityQueue(int capacity) {
+            super(Math.min(capacity, 11));
+            mCapacity = capacity;
+        }
+
+        @Override
+        public boolean offer(Runnable runnable) {
+            return size() < mCapacity && super.offer(runnable);
+        }
+
+        /**
+         * Queues a task ignoring the capacity.
+         *
+         * @param runnable The task.
+         */
+        private void overflow(@NonNull Runnable runnable) {
+            super.offer(runnable);
+        }
+    }
+
+    /**
+     * Runnable with the priority and the order it was enqueued.
+     */
+    private static class PriorityRunnable implements Runnable {
+
+        /**
+         * The runnable to run.
+         */
+        private final Runnable mRunnable;
+        /**
+         * The priority.
+         */
+        private final int mPriority;
+        /**
+         * The order of the task.
+         */
+        private final long mSequence;
+
+        /**
+         * Constructor for the runnable.
+         *
+         * @param runnable The runnable.
+         * @param priority The priority.
+         * @param sequence The order.
+         */
+        private PriorityRunnable(@NonNull Runnable runnable, int priority, long sequence) {
+            mRunnable = runnable;
+            mPriority = priority;
+            mSequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            mRunnable.run();
+        }
+    }
+
+    /**
+     * Future that can be compared by priority and then by its order.
+     */
+    private static class PriorityFutureTask<T> extends FutureTask<T> implements Comparable<PriorityFutureTask<?>> {
+
+        /**
+         * The priority.
+         */
+        private final int mPriority;
+        /**
+         * The order of the task.
+         */
+        private final long mSequence;
+
+        /**
+         * Constructor for the task.
+         *
+         * @param runnable The runnable.
+         * @param value    The value.
+         */
+        private PriorityFutureTask(@NonNull PriorityRunnable runnable, T value) {
+            super(runnable, value);
+            mPriority = runnable.mPriority;
+            mSequence = runnable.mSequence;
+        }
+
+        @Override
+        public int compareTo(@NonNull PriorityFutureTask<?> other) {
+            if (mPriority != other.mPriority) {
+                return mPriority < other.mPriority ? -1 : 1;
+            }
+            return mSequence < other.mSequence ? -1 : (mSequence == other.mSequence ? 0 : 1);
+        }
+    }
+
+    /**
+     * Names the threads of a lane.
+     */
+    private static class LaneThreadFactory implements ThreadFactory {
+
+        /**
+         * The thread counter.
+         */
+        private final AtomicInteger mCount = new AtomicInteger();
+        /**
+         * The name of the lane.
+         */
+        private final String mName;
+
+        /**
+         * Constructor for the factory.
+         *
+         * @param name The name of the lane.
+         */
+        private LaneThreadFactory(@NonNull String name) {
+            mName = name;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(runnable, mName + "-" + mCount.incrementAndGet());
+        }
+    }
+}
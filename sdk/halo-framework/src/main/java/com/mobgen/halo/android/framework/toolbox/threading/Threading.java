@@ -19,7 +19,7 @@ public final class Threading {
     /**
      * Determines the policy to use when running the actions.
      */
-    @IntDef({SINGLE_QUEUE_POLICY, POOL_QUEUE_POLICY, SAME_THREAD_POLICY})
+    @IntDef({SINGLE_QUEUE_POLICY, POOL_QUEUE_POLICY, SAME_THREAD_POLICY, CPU_QUEUE_POLICY})
     @Retention(RetentionPolicy.SOURCE)
     public @interface Policy {
     }
@@ -39,4 +39,34 @@ public final class Threading {
      */
     @Api(1.3)
     public static final int SAME_THREAD_POLICY = 2;
+    /**
+     * Adds the toolbox action to a pool of threads sized for cpu bound work. Thread managers
+     * without a specific lane for it use the pool queue.
+     */
+    @Api(2.4)
+    public static final int CPU_QUEUE_POLICY = 3;
+
+    /**
+     * Determines the priority of an action inside its queue.
+     */
+    @IntDef({PRIORITY_INTERACTIVE, PRIORITY_DEFAULT, PRIORITY_BACKGROUND})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Priority {
+    }
+
+    /**
+     * Actions that the user is waiting for. They are taken before any other pending action.
+     */
+    @Api(2.4)
+    public static final int PRIORITY_INTERACTIVE = 0;
+    /**
+     * Default priority for the actions.
+     */
+    @Api(2.4)
+    public static final int PRIORITY_DEFAULT = 1;
+    /**
+     * Actions that can wait, like synchronizations or batch uploads.
+     */
+    @Api(2.4)
+    public static final int PRIORITY_BACKGROUND = 2;
 }
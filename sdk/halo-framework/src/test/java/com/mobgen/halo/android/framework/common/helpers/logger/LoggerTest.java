@@ -9,9 +9,18 @@ import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.mobgen.halo.android.framework.mock.FrameworkMock.createSameThreadFrameworkWithFilePolicy;
 import static org.assertj.core.api.Java6Assertions.assertThat;
@@ -153,4 +162,47 @@ public class LoggerTest extends HaloRobolectricTest {
         Halog.v(LoggerTest.class,"test msg");
         assertThat(Halog.getLogFilePath()).isNotNull();
     }
+
+    @Test
+    public void thatFileWriterWritesAndRotatesInBackground() throws InterruptedException, IOException {
+        File directory = new File(RuntimeEnvironment.application.getCacheDir(), "logtest");
+        File file = new File(directory, "log.txt");
+        AsyncFileLogWriter writer = new AsyncFileLogWriter(file, 16, 200, 1, false);
+        List<String> accepted = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            if (writer.offer(LoggerTest.class, "message " + i)) {
+                accepted.add("message " + i);
+            }
+        }
+        writer.close();
+        assertThat(writer.awaitTermination(5000)).isTrue();
+
+        File rotated = new File(file.getPath() + ".1");
+        List<String> lines = readMessages(rotated);
+        lines.addAll(readMessages(file));
+        assertThat(accepted.size() + writer.dropped()).isEqualTo(50);
+        assertThat(rotated.exists()).isTrue();
+        assertThat(new File(file.getPath() + ".2").exists()).isFalse();
+        assertThat(lines).isNotEmpty();
+        assertThat(accepted).containsSubsequence(lines.toArray(new String[lines.size()]));
+        assertThat(lines.get(lines.size() - 1)).isEqualTo(accepted.get(accepted.size() - 1));
+    }
+
+    private static List<String> readMessages(File file) throws IOException {
+        List<String> messages = new ArrayList<>();
+        if (file.exists()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        messages.add(line.substring(line.lastIndexOf('|') + 1));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return messages;
+    }
 }
@@ -0,0 +1,137 @@
+package com.mobgen.halo.android.framework.network.client;
+
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNotFoundException;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class RequestCoalescerTest extends HaloRobolectricTest {
+
+    private RequestCoalescer mCoalescer;
+    private AtomicInteger mCalls;
+
+    @Before
+    public void initialize() {
+        mCoalescer = new RequestCoalescer();
+        mCalls = new AtomicInteger();
+    }
+
+    @Test
+    public void thatIdenticalRequestsInFlightShareTheResult() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Object result = new Object();
+        final AtomicReference<Object> leaderResult = new AtomicReference<>();
+        Thread leader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    leaderResult.set(mCoalescer.execute("key", new RequestCoalescer.Call<Object>() {
+                        @Override
+                        public Object execute() throws HaloNetException {
+                            mCalls.incrementAndGet();
+                            started.countDown();
+                            try {
+                                release.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return result;
+                        }
+                    }));
+                } catch (HaloNetException e) {
+                    leaderResult.set(e);
+                }
+            }
+        });
+        leader.start();
+        started.await(5, TimeUnit.SECONDS);
+
+        final AtomicReference<Object> waiterResult = new AtomicReference<>();
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    waiterResult.set(mCoalescer.execute("key", countingCall(new Object())));
+                } catch (HaloNetException e) {
+                    waiterResult.set(e);
+                }
+            }
+        });
+        waiter.start();
+        //Let the waiter join the flight
+        Thread.sleep(100);
+        release.countDown();
+        leader.join(5000);
+        waiter.join(5000);
+
+        assertThat(mCalls.get()).isEqualTo(1);
+        assertThat(leaderResult.get()).isSameAs(result);
+        assertThat(waiterResult.get()).isSameAs(result);
+        assertThat(mCoalescer.inFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatSequentialRequestsAreNotCoalesced() throws HaloNetException {
+        mCoalescer.execute("key", countingCall(new Object()));
+        mCoalescer.execute("key", countingCall(new Object()));
+        assertThat(mCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void thatRequestsWithoutKeyAreNotTracked() throws HaloNetException {
+        Object result = new Object();
+        assertThat(mCoalescer.execute(null, countingCall(result))).isSameAs(result);
+        assertThat(mCoalescer.inFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatTheFlightIsReleasedOnError() {
+        try {
+            mCoalescer.execute("key", new RequestCoalescer.Call<Object>() {
+                @Override
+                public Object execute() throws HaloNetException {
+                    throw new HaloNotFoundException("Not found");
+                }
+            });
+        } catch (HaloNetException e) {
+            assertThat(e).isInstanceOf(HaloNotFoundException.class);
+        }
+        assertThat(mCoalescer.inFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatTheFlightIsReleasedWhenTheCallFailsUnexpectedly() throws HaloNetException {
+        try {
+            mCoalescer.execute("key", new RequestCoalescer.Call<Object>() {
+                @Override
+                public Object execute() throws HaloNetException {
+                    throw new StackOverflowError();
+                }
+            });
+        } catch (StackOverflowError e) {
+            assertThat(mCoalescer.inFlight()).isEqualTo(0);
+        }
+        Object result = new Object();
+        assertThat(mCoalescer.execute("key", countingCall(result))).isSameAs(result);
+    }
+
+    private RequestCoalescer.Call<Object> countingCall(final Object result) {
+        return new RequestCoalescer.Call<Object>() {
+            @Override
+            public Object execute() throws HaloNetException {
+                mCalls.incrementAndGet();
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.mobgen.halo.android.framework.network.client.cache;
+
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+import com.mobgen.halo.android.testing.MockServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class HaloHttpCacheTest extends HaloRobolectricTest {
+
+    private MockServer mMockServer;
+    private String mEndpointURL;
+    private HaloHttpCache mHttpCache;
+    private OkHttpClient mClient;
+
+    @Before
+    public void initialize() throws IOException {
+        mMockServer = MockServer.create();
+        mEndpointURL = mMockServer.start();
+        File directory = new File(RuntimeEnvironment.application.getCacheDir(), "http-test");
+        mHttpCache = HaloHttpCache.builder(directory, 1024 * 1024)
+                .addPolicy(HaloCachePolicy.builder("api/fresh")
+                        .maxAge(60)
+                        .build())
+                .addPolicy(HaloCachePolicy.builder("api/revalidated")
+                        .maxStale(60)
+                        .build())
+                .build();
+        mHttpCache.cache().evictAll();
+        mClient = mHttpCache.install(new OkHttpClient.Builder().retryOnConnectionFailure(false)).build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mMockServer.shutdown();
+        mHttpCache.cache().delete();
+    }
+
+    @Test
+    public void thatFreshResponsesAreServedFromTheCache() throws IOException {
+        mMockServer.enqueue(200, "fresh");
+        assertThat(get("api/fresh")).isEqualTo("fresh");
+        assertThat(get("api/fresh")).isEqualTo("fresh");
+        assertThat(mHttpCache.requestCount()).isEqualTo(2);
+        assertThat(mHttpCache.networkCount()).isEqualTo(1);
+        assertThat(mHttpCache.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatResponsesAreRevalidatedWithTheEtag() throws IOException {
+        mMockServer.enqueue(new MockResponse().setBody("content").setHeader("ETag", "\"v1\""));
+        mMockServer.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+        assertThat(get("api/revalidated")).isEqualTo("content");
+        assertThat(get("api/revalidated")).isEqualTo("content");
+        assertThat(mHttpCache.networkCount()).isEqualTo(1);
+        assertThat(mHttpCache.revalidatedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatStaleResponseIsServedWhenTheNetworkFails() throws IOException {
+        mMockServer.enqueue(new MockResponse().setBody("content").setHeader("ETag", "\"v1\""));
+        mMockServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        assertThat(get("api/revalidated")).isEqualTo("content");
+        assertThat(get("api/revalidated")).isEqualTo("content");
+        assertThat(mHttpCache.staleCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatRequestsWithoutPolicyAreNotStored() throws IOException {
+        mMockServer.enqueue(200, "first");
+        mMockServer.enqueue(200, "second");
+        assertThat(get("api/other")).isEqualTo("first");
+        assertThat(get("api/other")).isEqualTo("second");
+        assertThat(mHttpCache.hitCount()).isEqualTo(0);
+    }
+
+    private String get(String path) throws IOException {
+        Response response = mClient.newCall(new Request.Builder().url(mEndpointURL + "/" + path).build()).execute();
+        try {
+            return response.body().string();
+        } finally {
+            response.close();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.mobgen.halo.android.framework.api.HaloFramework;
 import com.mobgen.halo.android.framework.api.HaloNetworkApi;
 import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
 import com.mobgen.halo.android.framework.mock.FrameworkMock;
+import com.mobgen.halo.android.framework.network.client.body.HaloBodyFactory;
+import com.mobgen.halo.android.framework.network.client.body.HaloMediaType;
 import com.mobgen.halo.android.framework.network.client.response.TypeReference;
 import com.mobgen.halo.android.testing.HaloRobolectricTest;
 import com.mobgen.halo.android.testing.MockServer;
@@ -26,6 +28,7 @@ import static com.mobgen.halo.android.framework.mock.instrumentation.HaloNetInst
 import static com.mobgen.halo.android.framework.mock.instrumentation.HaloNetInstrument.givenAGetRequestWithCache;
 import static com.mobgen.halo.android.framework.mock.instrumentation.HaloNetInstrument.givenAGetRequestWithParams;
 import static com.mobgen.halo.android.framework.mock.instrumentation.HaloNetInstrument.givenAGetRequestWithParamsAndSession;
+import static com.mobgen.halo.android.framework.mock.instrumentation.HaloNetInstrument.givenAPostRequestWithStringBody;
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
 public class HaloRequestTest extends HaloRobolectricTest {
@@ -120,4 +123,41 @@ public class HaloRequestTest extends HaloRobolectricTest {
         assertThat(response.isSuccessful()).isTrue();
         assertThat(request.buildOkRequest().header("cache-control")).isEqualTo("no-cache");
     }
+
+    @Test
+    public void thatIdenticalRequestsHaveTheSameCoalescingKey() {
+        HaloNetworkApi networkApi = givenAHaloNetWorkApi(mFramework, mEndpointURL);
+        String key = givenACoalescedGetRequest(networkApi).getCoalescingKey();
+        assertThat(key).isNotNull();
+        assertThat(givenACoalescedGetRequest(networkApi).getCoalescingKey()).isEqualTo(key);
+    }
+
+    @Test
+    public void thatRequestsAreOnlyCoalescedOnDemand() {
+        HaloNetworkApi networkApi = givenAHaloNetWorkApi(mFramework, mEndpointURL);
+        assertThat(givenAGetRequest(networkApi).getCoalescingKey()).isNull();
+        assertThat(givenAPostRequestWithStringBody(networkApi).getCoalescingKey()).isNull();
+        HaloRequest first = HaloRequest.builder(networkApi)
+                .url("1", "search")
+                .method(HaloRequestMethod.POST)
+                .coalesce(true)
+                .body(HaloBodyFactory.stringBody(HaloMediaType.TEXT_PLAIN, "first"))
+                .build();
+        HaloRequest second = HaloRequest.builder(networkApi)
+                .url("1", "search")
+                .method(HaloRequestMethod.POST)
+                .coalesce(true)
+                .body(HaloBodyFactory.stringBody(HaloMediaType.TEXT_PLAIN, "second"))
+                .build();
+        assertThat(first.getCoalescingKey()).isNotNull();
+        assertThat(first.getCoalescingKey()).isNotEqualTo(second.getCoalescingKey());
+    }
+
+    private static HaloRequest givenACoalescedGetRequest(HaloNetworkApi networkApi) {
+        return HaloRequest.builder(networkApi)
+                .url("1", "getSampleData")
+                .method(HaloRequestMethod.GET)
+                .coalesce(true)
+                .build();
+    }
 }
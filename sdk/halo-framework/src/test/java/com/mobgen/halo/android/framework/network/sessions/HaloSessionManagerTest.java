@@ -8,6 +8,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Map;
 
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
@@ -38,4 +39,15 @@ public class HaloSessionManagerTest extends HaloRobolectricTest {
         assertThat(haloSessionManager.getSession("myNewSession")).isNull();
     }
 
+    @Test
+    public void thatASnapshotDoesNotChangeWithTheSessions(){
+        HaloSessionManager haloSessionManager = new HaloSessionManager();
+        HaloSessionInstrument haloSessionInstrument = new HaloSessionInstrument();
+        haloSessionManager.setSession("myNewSession",haloSessionInstrument);
+        Map<String, HaloSession> snapshot = haloSessionManager.snapshot();
+        haloSessionManager.flushSession("myNewSession");
+        assertThat(snapshot.get("myNewSession")).isEqualTo(haloSessionInstrument);
+        assertThat(haloSessionManager.snapshot()).isEmpty();
+    }
+
 }
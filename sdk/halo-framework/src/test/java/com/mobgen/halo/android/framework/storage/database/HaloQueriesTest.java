@@ -9,6 +9,7 @@ import com.mobgen.halo.android.framework.mock.instrumentation.HaloManagerContrac
 import com.mobgen.halo.android.framework.storage.database.dsl.queries.Create;
 import com.mobgen.halo.android.framework.storage.database.dsl.queries.Delete;
 import com.mobgen.halo.android.framework.storage.database.dsl.queries.Drop;
+import com.mobgen.halo.android.framework.storage.database.dsl.queries.QueryTracer;
 import com.mobgen.halo.android.framework.storage.database.dsl.queries.Select;
 import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageGeneralException;
 import com.mobgen.halo.android.testing.CallbackFlag;
@@ -18,6 +19,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+
 import static com.mobgen.halo.android.framework.mock.instrumentation.HaloDatabaseInstrument.givenAHaloDataLite;
 import static com.mobgen.halo.android.framework.mock.instrumentation.HaloDatabaseInstrument.givenATransactionCallbackDelete;
 import static com.mobgen.halo.android.framework.mock.instrumentation.HaloDatabaseInstrument.givenATransactionCallbackDrop;
@@ -53,6 +56,19 @@ public class HaloQueriesTest extends HaloRobolectricTest {
         assertThat(cursor.getString(cursor.getColumnIndex("name"))).isEqualTo("haloIndexTest");
     }
 
+    @Test
+    public void thatCreateANonUniqueIndexTwice(){
+        SQLiteDatabase database =  mHaloDatabase.getDatabase();
+        String[] columns = new String[]{HaloManagerContractInstrument.HaloTableContentTest.halo};
+        Create.index(HaloManagerContractInstrument.HaloTableContentTest.class,"haloIndexTest",columns,false).on(database,"Create a index");
+        Create.index(HaloManagerContractInstrument.HaloTableContentTest.class,"haloIndexTest",columns,false).on(database,"Create a index again");
+        Cursor cursor = database.rawQuery("SELECT sql FROM sqlite_master WHERE name = ?;",new String[]{"haloIndexTest"});
+        cursor.moveToFirst();
+        assertThat(cursor.getCount()).isEqualTo(1);
+        assertThat(cursor.getString(0)).doesNotContain("UNIQUE");
+        cursor.close();
+    }
+
     @Test
     public void thatSelectDslWork() throws HaloStorageGeneralException {
         HaloDataLite.HaloDataLiteTransaction transactionCallback = givenATransactionCallbackSelect(mCallbackFlag);
@@ -222,4 +238,120 @@ public class HaloQueriesTest extends HaloRobolectricTest {
         assertThat(cursor).isNotNull();
         assertThat(cursor.getString(0)).isEqualTo("3");
     }
+
+    @Test
+    public void thatSelectBindsArgumentsInsteadOfInliningThem(){
+        Select.WhereJoinSyntax query = Select.all().from(HaloManagerContractInstrument
+                .HaloTableContentTest.class)
+                .where(HaloManagerContractInstrument.HaloTableContentTest.halo)
+                .eq("halo1")
+                .and(HaloManagerContractInstrument.HaloTableContentTest.halo_ref)
+                .in(new Integer[]{500, 501});
+        assertThat(query.toString()).doesNotContain("halo1");
+        assertThat(query.toString()).contains("IN (?,?)");
+        assertThat(Select.all().from(HaloManagerContractInstrument.HaloTableContentTest.class)
+                .where(HaloManagerContractInstrument.HaloTableContentTest.halo)
+                .eq("halo1").toString()).isEqualTo(Select.all().from(HaloManagerContractInstrument.HaloTableContentTest.class)
+                .where(HaloManagerContractInstrument.HaloTableContentTest.halo)
+                .eq("halo2").toString());
+    }
+
+    @Test
+    public void thatSelectWithBoundArgumentsReturnsTheRows(){
+        SQLiteDatabase database = mHaloDatabase.getDatabase();
+        database.execSQL("INSERT INTO halotable VALUES(1,'halo1',500,1,null)");
+        database.execSQL("INSERT INTO halotable VALUES(2,'halo2',501,2,null)");
+        Cursor cursor = Select.all().from(HaloManagerContractInstrument
+                .HaloTableContentTest.class)
+                .where(HaloManagerContractInstrument.HaloTableContentTest.halo_ref)
+                .in(new Integer[]{500, 501})
+                .and(HaloManagerContractInstrument.HaloTableContentTest.halo)
+                .neq("halo2")
+                .on(mHaloDatabase, "Select with arguments");
+        assertThat(cursor.getCount()).isEqualTo(1);
+        cursor.moveToFirst();
+        assertThat(cursor.getString(0)).isEqualTo("1");
+        cursor.close();
+    }
+
+    @Test
+    public void thatDeleteReusesTheCompiledStatement(){
+        SQLiteDatabase database = mHaloDatabase.getDatabase();
+        database.execSQL("INSERT INTO halotable VALUES(1,'halo1',500,1,null)");
+        database.execSQL("INSERT INTO halotable VALUES(2,'halo2',501,2,null)");
+        String sql = "DELETE FROM halotable WHERE halo = ?;";
+        assertThat(mHaloDatabase.executeUpdateDelete(sql, new Object[]{"halo1"})).isEqualTo(1);
+        assertThat(mHaloDatabase.executeUpdateDelete(sql, new Object[]{"halo1"})).isEqualTo(0);
+        assertThat(mHaloDatabase.executeUpdateDelete(sql, new Object[]{"halo2"})).isEqualTo(1);
+        Cursor cursor = Select.all().from(HaloManagerContractInstrument
+                .HaloTableContentTest.class)
+                .on(mHaloDatabase, "Select all");
+        assertThat(cursor.getCount()).isEqualTo(0);
+        cursor.close();
+    }
+
+    @Test
+    public void thatTracesQueriesOnlyWhenEnabled(){
+        QueryTracer.clear();
+        Select.all().from(HaloManagerContractInstrument.HaloTableContentTest.class)
+                .on(mHaloDatabase, "Not traced").close();
+        assertThat(QueryTracer.traces(null)).isEmpty();
+
+        QueryTracer.enable(true);
+        try {
+            SQLiteDatabase database = mHaloDatabase.getDatabase();
+            database.execSQL("INSERT INTO halotable VALUES(1,'halo1',500,1,null)");
+            Select.all().from(HaloManagerContractInstrument.HaloTableContentTest.class)
+                    .where(HaloManagerContractInstrument.HaloTableContentTest.halo)
+                    .eq("halo1")
+                    .on(mHaloDatabase, "Traced").close();
+            List<QueryTracer.QueryTrace> traces = QueryTracer.traces(database.getPath());
+            assertThat(traces).hasSize(1);
+            assertThat(traces.get(0).rows()).isEqualTo(1);
+            assertThat(traces.get(0).sql()).contains("halo = ?");
+            assertThat(traces.get(0).durationNanos()).isGreaterThanOrEqualTo(0);
+        } finally {
+            QueryTracer.enable(false);
+            QueryTracer.clear();
+        }
+    }
+
+    @Test
+    public void thatTracesOnlyTheEnabledDatabase(){
+        QueryTracer.clear();
+        SQLiteDatabase database = mHaloDatabase.getDatabase();
+        QueryTracer.enable("other.db", true);
+        try {
+            Select.all().from(HaloManagerContractInstrument.HaloTableContentTest.class)
+                    .on(mHaloDatabase, "Not traced").close();
+            assertThat(QueryTracer.traces(null)).isEmpty();
+
+            QueryTracer.enable(database.getPath(), true);
+            Select.all().from(HaloManagerContractInstrument.HaloTableContentTest.class)
+                    .on(mHaloDatabase, "Traced").close();
+            assertThat(QueryTracer.traces(database.getPath())).hasSize(1);
+        } finally {
+            QueryTracer.enable("other.db", false);
+            QueryTracer.enable(database.getPath(), false);
+            QueryTracer.clear();
+        }
+    }
+
+    @Test
+    public void thatQueryTracerKeepsOnlyTheMostRecentTraces(){
+        QueryTracer.setCapacity(2);
+        QueryTracer.enable(true);
+        try {
+            for (int i = 0; i < 3; i++) {
+                Select.all().from(HaloManagerContractInstrument.HaloTableContentTest.class)
+                        .where(HaloManagerContractInstrument.HaloTableContentTest.id)
+                        .eq(i)
+                        .on(mHaloDatabase, "Traced").close();
+            }
+            assertThat(QueryTracer.traces(null)).hasSize(2);
+        } finally {
+            QueryTracer.enable(false);
+            QueryTracer.setCapacity(QueryTracer.DEFAULT_CAPACITY);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package com.mobgen.halo.android.framework.toolbox.bus;
+
+import android.os.Bundle;
+
+import com.mobgen.halo.android.framework.mock.TestThreadManager;
+import com.mobgen.halo.android.testing.CallbackFlag;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.mobgen.halo.android.framework.mock.instrumentation.HaloFrameworkInstrument.givenASubcriber;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class LocalEventBusTest extends HaloRobolectricTest {
+
+    private LocalEventBus mBus;
+    private CallbackFlag mCallbackFlag;
+    private EventId mEventId;
+
+    @Before
+    public void initialize() {
+        mBus = LocalEventBus.create(new TestThreadManager());
+        mCallbackFlag = new CallbackFlag();
+        mEventId = EventId.create("myEventId");
+    }
+
+    @Test
+    public void thatEventIsDeliveredInTheMainThread() {
+        Subscription subscription = mBus.subscribe(givenASubcriber(mCallbackFlag), mEventId);
+        mBus.emit(new Event(mEventId, new Bundle()));
+        assertThat(mCallbackFlag.timesExecuted()).isEqualTo(1);
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void thatEveryDeliveryThreadReceivesTheEvent() {
+        Subscription emitter = mBus.subscribe(givenASubcriber(mCallbackFlag), mEventId, LocalEventBus.DELIVERY_EMITTER_THREAD);
+        Subscription worker = mBus.subscribe(givenASubcriber(mCallbackFlag), mEventId, LocalEventBus.DELIVERY_WORKER_THREAD);
+        mBus.emit(new Event(mEventId, new Bundle()));
+        assertThat(mCallbackFlag.timesExecuted()).isEqualTo(2);
+        emitter.unsubscribe();
+        worker.unsubscribe();
+    }
+
+    @Test
+    public void thatOtherEventsAreNotDelivered() {
+        Subscription subscription = mBus.subscribe(givenASubcriber(mCallbackFlag), mEventId);
+        mBus.emit(new Event(EventId.create("otherEventId"), new Bundle()));
+        assertThat(mCallbackFlag.isFlagged()).isFalse();
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void thatUnsubscribedSubscriberDoesNotReceiveEvents() {
+        CallbackFlag otherFlag = new CallbackFlag();
+        Subscription subscription = mBus.subscribe(givenASubcriber(mCallbackFlag), mEventId);
+        Subscription other = mBus.subscribe(givenASubcriber(otherFlag), mEventId);
+        subscription.unsubscribe();
+        mBus.emit(new Event(mEventId, new Bundle()));
+        assertThat(mCallbackFlag.isFlagged()).isFalse();
+        assertThat(otherFlag.timesExecuted()).isEqualTo(1);
+        other.unsubscribe();
+    }
+
+    @Test
+    public void thatEmitterDeliveryHappensInTheEmitterThread() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Thread[] deliveryThread = new Thread[1];
+        Subscription subscription = mBus.subscribe(new Subscriber() {
+            @Override
+            public void onEventReceived(Event event) {
+                deliveryThread[0] = Thread.currentThread();
+                latch.countDown();
+            }
+        }, mEventId, LocalEventBus.DELIVERY_EMITTER_THREAD);
+        Thread emitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                mBus.emit(new Event(mEventId, new Bundle()));
+            }
+        });
+        emitter.start();
+        assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(deliveryThread[0]).isEqualTo(emitter);
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void thatCrossProcessBusReceivesTheEventsOfOtherProcesses() {
+        LocalEventBus bus = LocalEventBus.createCrossProcess(RuntimeEnvironment.application, new TestThreadManager());
+        Subscription subscription = bus.subscribe(givenASubcriber(mCallbackFlag), mEventId);
+        Bundle data = new Bundle();
+        data.putString("key", "value");
+        HaloEventBus.create(RuntimeEnvironment.application).emit(new Event(mEventId, data));
+        assertThat(mCallbackFlag.timesExecuted()).isEqualTo(1);
+        subscription.unsubscribe();
+        HaloEventBus.create(RuntimeEnvironment.application).emit(new Event(mEventId, data));
+        assertThat(mCallbackFlag.timesExecuted()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatCrossProcessBusDeliversItsOwnEventsOnce() {
+        LocalEventBus bus = LocalEventBus.createCrossProcess(RuntimeEnvironment.application, new TestThreadManager());
+        Subscription subscription = bus.subscribe(givenASubcriber(mCallbackFlag), mEventId);
+        bus.emit(new Event(mEventId, new Bundle()));
+        assertThat(mCallbackFlag.timesExecuted()).isEqualTo(1);
+        subscription.unsubscribe();
+    }
+}
@@ -0,0 +1,121 @@
+package com.mobgen.halo.android.framework.toolbox.scheduler;
+
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.testing.CallbackFlag;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.mobgen.halo.android.framework.mock.instrumentation.HaloThreadInstrument.givenAJob;
+import static com.mobgen.halo.android.framework.mock.instrumentation.HaloThreadInstrument.givenAJobWithoutDeadline;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class JobJournalTest extends HaloRobolectricTest {
+
+    private File mDir;
+
+    @Before
+    public void initialize() {
+        mDir = new File(RuntimeEnvironment.application.getFilesDir(), "journal_test");
+        mDir.mkdirs();
+        for (File file : mDir.listFiles()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void thatRecoversTheJobsFromAnotherJournal() throws Exception {
+        Job job = givenAJob(new CallbackFlag(), "job");
+        JobJournal journal = new JobJournal(mDir);
+        journal.put(job.info());
+        recover(journal, false);
+        journal.close();
+
+        List<Job.JobInfo> infos = recover(new JobJournal(mDir), false);
+
+        assertThat(infos).hasSize(1);
+        assertThat(infos.get(0).mIdentity).isEqualTo(job.info().mIdentity);
+        assertThat(infos.get(0).mTag).isEqualTo("job");
+    }
+
+    @Test
+    public void thatRemovesTheJobsByTag() throws Exception {
+        JobJournal journal = new JobJournal(mDir);
+        journal.put(givenAJob(new CallbackFlag(), "first").info());
+        journal.put(givenAJob(new CallbackFlag(), "first").info());
+        Job other = givenAJob(new CallbackFlag(), "second");
+        journal.put(other.info());
+
+        journal.removeTag("first");
+        recover(journal, false);
+        journal.close();
+
+        List<Job.JobInfo> infos = recover(new JobJournal(mDir), false);
+        assertThat(infos).hasSize(1);
+        assertThat(infos.get(0).mIdentity).isEqualTo(other.info().mIdentity);
+    }
+
+    @Test
+    public void thatOnlyRecoversPersistedJobsOnBoot() throws Exception {
+        JobJournal journal = new JobJournal(mDir);
+        journal.put(givenAJob(new CallbackFlag(), "job").info());
+        Job persisted = givenAJobWithoutDeadline(new CallbackFlag());
+        journal.put(persisted.info());
+
+        List<Job.JobInfo> infos = recover(journal, true);
+
+        assertThat(infos).hasSize(1);
+        assertThat(infos.get(0).mIdentity).isEqualTo(persisted.info().mIdentity);
+        journal.close();
+    }
+
+    @Test
+    public void thatCompactsTheJournal() throws Exception {
+        Job job = givenAJob(new CallbackFlag(), "job");
+        JobJournal journal = new JobJournal(mDir);
+        for (int i = 0; i < 200; i++) {
+            journal.put(job.info());
+            journal.remove(job.info().mIdentity);
+        }
+        journal.put(job.info());
+        recover(journal, false);
+        journal.close();
+
+        assertThat(new File(mDir, "job_journal").length()).isLessThan(200L * 10);
+        assertThat(recover(new JobJournal(mDir), false)).hasSize(1);
+    }
+
+    @Test
+    public void thatClearsAllTheJobs() throws Exception {
+        JobJournal journal = new JobJournal(mDir);
+        journal.put(givenAJob(new CallbackFlag(), "job").info());
+        journal.clear();
+        recover(journal, false);
+        journal.close();
+
+        assertThat(recover(new JobJournal(mDir), false)).isEmpty();
+    }
+
+    private static List<Job.JobInfo> recover(JobJournal journal, boolean persistedOnly) throws InterruptedException {
+        final List<Job.JobInfo> recovered = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        journal.recover(persistedOnly, new JobJournal.RecoverCallback() {
+            @Override
+            public void onRecovered(@NonNull List<Job.JobInfo> infos) {
+                recovered.addAll(infos);
+                latch.countDown();
+            }
+        });
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        return recovered;
+    }
+}
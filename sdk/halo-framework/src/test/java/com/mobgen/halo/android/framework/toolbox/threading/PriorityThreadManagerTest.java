@@ -0,0 +1,105 @@
+package com.mobgen.halo.android.framework.toolbox.threading;
+
+import com.mobgen.halo.android.framework.common.exceptions.HaloConfigurationException;
+import com.mobgen.halo.android.testing.CallbackFlag;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.mobgen.halo.android.framework.mock.instrumentation.HaloThreadInstrument.givenARunnable;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class PriorityThreadManagerTest extends HaloRobolectricTest {
+
+    private CallbackFlag mCallbackFlag;
+
+    @Before
+    public void initialize() {
+        mCallbackFlag = new CallbackFlag();
+    }
+
+    @Test
+    public void thatCanEnqueueOnEveryPolicy() {
+        PriorityThreadManager threadManager = new PriorityThreadManager();
+        assertThat(threadManager.enqueue(Threading.POOL_QUEUE_POLICY, givenARunnable(mCallbackFlag))).isNotNull();
+        assertThat(threadManager.enqueue(Threading.CPU_QUEUE_POLICY, givenARunnable(mCallbackFlag))).isNotNull();
+        assertThat(threadManager.enqueue(Threading.SINGLE_QUEUE_POLICY, givenARunnable(mCallbackFlag))).isNotNull();
+        assertThat(threadManager.enqueue(Threading.SAME_THREAD_POLICY, givenARunnable(mCallbackFlag))).isNotNull();
+    }
+
+    @Test(expected = HaloConfigurationException.class)
+    public void thatUnsupportedPolicyThrowsAnException() {
+        new PriorityThreadManager().enqueue(5, givenARunnable(mCallbackFlag));
+    }
+
+    @Test
+    public void thatPendingTasksRunByPriority() throws Exception {
+        PriorityThreadManager threadManager = new PriorityThreadManager(1, 1, 1, 10);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        threadManager.enqueue(Threading.POOL_QUEUE_POLICY, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        threadManager.enqueue(Threading.POOL_QUEUE_POLICY, Threading.PRIORITY_BACKGROUND, givenAnOrderedRunnable(order, "background"));
+        threadManager.enqueue(Threading.POOL_QUEUE_POLICY, Threading.PRIORITY_DEFAULT, givenAnOrderedRunnable(order, "default"));
+        Future last = threadManager.enqueue(Threading.POOL_QUEUE_POLICY, Threading.PRIORITY_INTERACTIVE, givenAnOrderedRunnable(order, "interactive"));
+        blocker.countDown();
+        last.get(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        assertThat(order).containsExactly("interactive", "default", "background");
+    }
+
+    @Test
+    public void thatSaturatedLaneQueuesInsteadOfRunningInTheCallerThread() throws Exception {
+        PriorityThreadManager threadManager = new PriorityThreadManager(1, 1, 1, 1);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        threadManager.enqueue(Threading.POOL_QUEUE_POLICY, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        threadManager.enqueue(Threading.POOL_QUEUE_POLICY, givenARunnable(new CallbackFlag()));
+        Future overflowed = threadManager.enqueue(Threading.POOL_QUEUE_POLICY, new Runnable() {
+            @Override
+            public void run() {
+                threads.add(Thread.currentThread());
+            }
+        });
+        assertThat(threads).isEmpty();
+        assertThat(threadManager.rejectedCount()).isEqualTo(1);
+        blocker.countDown();
+        overflowed.get(5, TimeUnit.SECONDS);
+        assertThat(threads).hasSize(1);
+        assertThat(threads.get(0)).isNotSameAs(Thread.currentThread());
+    }
+
+    private static Runnable givenAnOrderedRunnable(final List<String> order, final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(name);
+            }
+        };
+    }
+}
@@ -14,6 +14,8 @@ import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.common.exceptions.HaloConfigurationException;
 import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.network.client.cache.HaloCachePolicy;
+import com.mobgen.halo.android.framework.network.client.cache.HaloHttpCache;
 import com.mobgen.halo.android.framework.network.client.endpoint.HaloEndpoint;
 import com.mobgen.halo.android.framework.network.sessions.HaloSessionManager;
 import com.mobgen.halo.android.sdk.core.HaloCore;
@@ -22,13 +24,17 @@ import com.mobgen.halo.android.sdk.core.internal.parser.LoganSquareParserFactory
 import com.mobgen.halo.android.sdk.core.internal.startup.ReadyChecker;
 import com.mobgen.halo.android.sdk.core.internal.startup.StartupManager;
 import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.HaloReadyListener;
+import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.StartupInstrumentation;
 import com.mobgen.halo.android.sdk.core.internal.startup.processes.StartupProcess;
 import com.mobgen.halo.android.sdk.core.internal.startup.processes.SyncDeviceStartupProcess;
 import com.mobgen.halo.android.sdk.core.internal.startup.processes.VersionCheckStartupProcess;
 import com.mobgen.halo.android.sdk.core.management.HaloManagerApi;
 import com.mobgen.halo.android.sdk.core.management.models.Credentials;
+import com.mobgen.halo.android.sdk.core.management.modules.ModulesRemoteDatasource;
 import com.mobgen.halo.android.sdk.core.management.segmentation.DefaultCollectorFactory;
 import com.mobgen.halo.android.sdk.core.management.segmentation.TagCollector;
+import com.mobgen.halo.android.sdk.core.management.version.VersionRemoteDatasource;
+import com.mobgen.halo.android.sdk.core.selectors.Revalidations;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -36,7 +42,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
-import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 
 
@@ -73,12 +78,14 @@ public class Halo {
      *                             provided in the gradle plugin configuration if available.
      * @param tagCollectors        The tag collectors to provide information of the current device.
      * @param processes            The startup processes that will be run during the installation of halo.
+     * @param instrumentation      The instrumentation that receives the timing of the startup.
      */
     Halo(@NonNull HaloConfig.Builder configurationBuilder,
          @NonNull HaloSessionManager sessionManager,
          @Nullable Credentials credentials,
          @Nullable List<TagCollector> tagCollectors,
-         @Nullable StartupProcess[] processes) {
+         @Nullable StartupProcess[] processes,
+         @Nullable StartupInstrumentation instrumentation) {
         AssertionUtils.notNull(configurationBuilder, "configurationBuilder");
         AssertionUtils.notNull(sessionManager, "sessionManager");
 
@@ -106,8 +113,12 @@ public class Halo {
 
         //Startup initialization
         StartupManager startupManager = new StartupManager(this);
+        startupManager.setInstrumentation(instrumentation);
         mReadyChecker = new ReadyChecker(startupManager);
         startupManager.execute(processes);
+
+        //Send the events queued in a previous execution
+        mCore.manager().flushLeftoverEvents();
     }
 
     /**
@@ -155,6 +166,10 @@ public class Halo {
     @Api(1.3)
     public void uninstall() {
         if (isInitialized()) {
+            if (mCore != null) {
+                mCore.segmentationCache().release();
+            }
+            Revalidations.clear();
             sHalo = null;
             mCore = null;
             mReadyChecker = null;
@@ -228,6 +243,20 @@ public class Halo {
         }
     }
 
+    /**
+     * Parks a task until halo is ready without blocking the current thread. The task runs in the thread
+     * that finishes the installation, so it should only dispatch the real work to an executor.
+     *
+     * @param task The task to park.
+     * @return True if the task was parked, false if halo is ready and the task must be run now.
+     */
+    @Keep
+    @Api(2.4)
+    public boolean parkUntilReady(@NonNull Runnable task) {
+        ensureExists();
+        return mReadyChecker.parkUntilReady(task);
+    }
+
     /**
      * Provides the application context.
      *
@@ -308,6 +337,11 @@ public class Halo {
          */
         private StartupProcess[] mEndStartupProcesses;
 
+        /**
+         * Instrumentation for the startup.
+         */
+        private StartupInstrumentation mStartupInstrumentation;
+
         /**
          * Disables the pinning.
          */
@@ -326,11 +360,23 @@ public class Halo {
             long timeout = 1;
             File cacheDir = new File(ctx.getApplicationInfo().dataDir, "cache");
 
+            //Modules and versions are revalidated with the server and served stale when offline
+            int maxStale = (int) TimeUnit.DAYS.toSeconds(1);
+            HaloHttpCache httpCache = HaloHttpCache.builder(cacheDir, cacheSize)
+                    .addPolicy(HaloCachePolicy.builder(ModulesRemoteDatasource.PATH_MODULES)
+                            .maxStale(maxStale)
+                            .build())
+                    .addPolicy(HaloCachePolicy.builder(VersionRemoteDatasource.URL_VERSION)
+                            .maxAge((int) TimeUnit.HOURS.toSeconds(1))
+                            .maxStale(maxStale)
+                            .build())
+                    .build();
+
             //This is using the default builder that will be used for normal execution
             mConfigurationBuilder = HaloConfig.builder(ctx)
                     .setParser(LoganSquareParserFactory.create())
+                    .httpCache(httpCache)
                     .setOkClient(new OkHttpClient.Builder()
-                            .cache(new Cache(cacheDir, cacheSize))
                             .connectTimeout(timeout, TimeUnit.MINUTES)
                             .readTimeout(timeout, TimeUnit.MINUTES)
                             .writeTimeout(timeout, TimeUnit.MINUTES));
@@ -403,6 +449,19 @@ public class Halo {
             return this;
         }
 
+        /**
+         * Sets the instrumentation that receives the timing of every startup process and phase.
+         *
+         * @param instrumentation The instrumentation.
+         * @return The installer.
+         */
+        @Api(2.4)
+        @NonNull
+        public Installer startupInstrumentation(@Nullable StartupInstrumentation instrumentation) {
+            mStartupInstrumentation = instrumentation;
+            return this;
+        }
+
         /**
          * Registers a tag to be collected on the application startup.
          *
@@ -525,7 +584,8 @@ public class Halo {
                     sessionManager,
                     credentials,
                     tagCollectors,
-                    processes);
+                    processes,
+                    mStartupInstrumentation);
         }
     }
 }
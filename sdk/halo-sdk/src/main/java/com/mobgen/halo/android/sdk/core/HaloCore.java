@@ -23,6 +23,7 @@ import com.mobgen.halo.android.sdk.core.management.authentication.HaloAuthentica
 import com.mobgen.halo.android.sdk.core.management.models.Credentials;
 import com.mobgen.halo.android.sdk.core.management.models.HaloServerVersion;
 import com.mobgen.halo.android.sdk.core.management.segmentation.HaloSegmentationTag;
+import com.mobgen.halo.android.sdk.core.management.segmentation.SegmentationCache;
 import com.mobgen.halo.android.sdk.core.management.segmentation.TagCollector;
 
 import java.util.ArrayList;
@@ -62,6 +63,10 @@ public class HaloCore {
      * The list of tag collectors.
      */
     private List<TagCollector> mTagCollectors;
+    /**
+     * The cache of the segmentation tags.
+     */
+    private SegmentationCache mSegmentationCache;
     /**
      * Keeps the reference to the version check system with the
      * server.
@@ -98,6 +103,7 @@ public class HaloCore {
         if (tagCollectors != null) {
             mTagCollectors.addAll(tagCollectors);
         }
+        mSegmentationCache = new SegmentationCache(mTagCollectors);
 
         //Setup networking interceptors
         setupNetworking();
@@ -294,6 +300,19 @@ public class HaloCore {
         return new ArrayList<>(mTagCollectors);
     }
 
+    /**
+     * Provides the cache of the segmentation tags, that can be invalidated when the tags
+     * collected may have changed.
+     *
+     * @return The segmentation cache.
+     */
+    @Keep
+    @Api(2.4)
+    @NonNull
+    public SegmentationCache segmentationCache() {
+        return mSegmentationCache;
+    }
+
     /**
      * Provides the server version check.
      *
@@ -323,7 +342,8 @@ public class HaloCore {
     }
 
     /**
-     * Provides the list of segmentation tags.
+     * Provides the list of segmentation tags. Only the tags that are not cached or are stale
+     * are collected.
      *
      * @return The tags.
      */
@@ -331,13 +351,9 @@ public class HaloCore {
     public List<HaloSegmentationTag> segmentationTags() {
         StringBuilder builder = new StringBuilder("\n");
         builder.append("-------------------- USER TAGS --------------------\n");
-        List<HaloSegmentationTag> segmentationTags = new ArrayList<>(mTagCollectors.size());
-        for (TagCollector collector : mTagCollectors) {
-            HaloSegmentationTag tag = collector.collect(mFramework.context());
-            if (tag != null) {
-                builder.append(tag.toString()).append("\n");
-                segmentationTags.add(tag);
-            }
+        List<HaloSegmentationTag> segmentationTags = mSegmentationCache.collect(mFramework.context());
+        for (HaloSegmentationTag tag : segmentationTags) {
+            builder.append(tag.toString()).append("\n");
         }
         builder.append("-------------------- USER TAGS --------------------\n");
         //Log the tags being sent
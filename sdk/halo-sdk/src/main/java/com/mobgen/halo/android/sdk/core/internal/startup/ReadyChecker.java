@@ -10,6 +10,8 @@ import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
 import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.HaloInstallationListener;
 import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.HaloReadyListener;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 /**
@@ -32,6 +34,16 @@ public class ReadyChecker implements HaloInstallationListener {
      */
     private BackgroundThreadContextChecked mBackgroundContextChecker;
 
+    /**
+     * The tasks parked until the installation finishes.
+     */
+    private List<Runnable> mParkedTasks;
+
+    /**
+     * True once the installation has finished. Guarded by the parked tasks.
+     */
+    private boolean mReady;
+
     /**
      * Constructor for the ready checker.
      *
@@ -43,6 +55,7 @@ public class ReadyChecker implements HaloInstallationListener {
 
         mMainThreadContextChecker = new MainThreadContextChecker(new Handler(Looper.getMainLooper()));
         mBackgroundContextChecker = new BackgroundThreadContextChecked();
+        mParkedTasks = new ArrayList<>();
 
         mStartupManager.setInstallationListener(this);
     }
@@ -68,8 +81,36 @@ public class ReadyChecker implements HaloInstallationListener {
         }
     }
 
+    /**
+     * Parks a task until the installation finishes without blocking the current thread. The parked
+     * tasks are run in the thread that finishes the installation, so they should only dispatch the
+     * real work to its executor.
+     *
+     * @param task The task to park.
+     * @return True if the task was parked, false if halo is ready and the task must be run now.
+     */
+    public boolean parkUntilReady(@NonNull Runnable task) {
+        AssertionUtils.notNull(task, "task");
+        synchronized (mParkedTasks) {
+            if (mReady || mStartupManager.hasFinished()) {
+                return false;
+            }
+            mParkedTasks.add(task);
+            return true;
+        }
+    }
+
     @Override
     public void onFinishedInstallation() {
+        List<Runnable> parkedTasks;
+        synchronized (mParkedTasks) {
+            mReady = true;
+            parkedTasks = new ArrayList<>(mParkedTasks);
+            mParkedTasks.clear();
+        }
+        for (Runnable task : parkedTasks) {
+            task.run();
+        }
         mMainThreadContextChecker.notifyReady();
         mBackgroundContextChecker.notifyReady();
     }
@@ -92,7 +133,8 @@ public class ReadyChecker implements HaloInstallationListener {
     }
 
     /**
-     * Background thread checker to make sure everything is executed in the proper moment.
+     * Background thread checker to make sure everything is executed in the proper moment. It blocks
+     * the calling thread, so the interactors use {@link #parkUntilReady(Runnable)} instead.
      */
     private static class BackgroundThreadContextChecked implements ThreadChecker {
 
@@ -2,25 +2,31 @@ package com.mobgen.halo.android.sdk.core.internal.startup;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.toolbox.threading.Threading;
 import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.HaloInstallationListener;
 import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.ProcessListener;
+import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.StartupInstrumentation;
 import com.mobgen.halo.android.sdk.core.internal.startup.processes.StartupProcess;
 import com.mobgen.halo.android.sdk.core.internal.startup.processes.StartupRunnableAdapter;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Manages the startup process to handle the different actions that should be performed
- * in the sdk.
+ * in the sdk. The processes run as a graph: every process starts once its dependencies
+ * have finished, the critical ones run in parallel with a timeout and halo is ready when
+ * all of them finish. The deferred processes run after that in background.
  */
-public class StartupManager implements ProcessListener {
+public class StartupManager {
     /**
      * The core.
      */
@@ -30,9 +36,29 @@ public class StartupManager implements ProcessListener {
      */
     private HaloInstallationListener mInstallationListener;
     /**
-     * Counter for pending processes.
+     * The instrumentation to report the timing of the startup.
      */
-    private AtomicInteger mCounter;
+    private StartupInstrumentation mInstrumentation;
+    /**
+     * The processes of the startup.
+     */
+    private List<ProcessNode> mNodes;
+    /**
+     * Number of critical processes pending.
+     */
+    private int mPendingCritical;
+    /**
+     * Number of deferred processes pending.
+     */
+    private int mPendingDeferred;
+    /**
+     * Tells if the deferred processes can start.
+     */
+    private boolean mDeferredStarted;
+    /**
+     * The time when the startup started.
+     */
+    private long mStartTime;
     /**
      * Checks if the manager has started.
      */
@@ -45,6 +71,14 @@ public class StartupManager implements ProcessListener {
      * The handler for the main thread.
      */
     private Handler mHandler;
+    /**
+     * Number of processes visited while looking for cycles.
+     */
+    private int mVisited;
+    /**
+     * The processes visited whose cycle is not known yet.
+     */
+    private List<ProcessNode> mStack;
 
     /**
      * The startup manager constructor that can handle the startup process.
@@ -54,7 +88,7 @@ public class StartupManager implements ProcessListener {
     public StartupManager(@NonNull Halo halo) {
         AssertionUtils.notNull(halo, "halo");
         mHalo = halo;
-        mCounter = new AtomicInteger(0);
+        mNodes = new ArrayList<>();
         mHandler = new Handler(Looper.getMainLooper());
     }
 
@@ -88,6 +122,16 @@ public class StartupManager implements ProcessListener {
         mInstallationListener = listener;
     }
 
+    /**
+     * Sets the instrumentation that receives the timing of every process and phase.
+     *
+     * @param instrumentation The instrumentation.
+     */
+    @Api(2.4)
+    public void setInstrumentation(@Nullable StartupInstrumentation instrumentation) {
+        mInstrumentation = instrumentation;
+    }
+
     /**
      * Starts the process of the startup.
      *
@@ -95,6 +139,7 @@ public class StartupManager implements ProcessListener {
      */
     @Api(1.3)
     public synchronized void execute(@Nullable StartupProcess... processes) {
+        mStartTime = SystemClock.elapsedRealtime();
         if (processes == null || processes.length == 0) {
             notifyFinished();
         } else {
@@ -102,29 +147,20 @@ public class StartupManager implements ProcessListener {
         }
     }
 
-    @Override
-    public synchronized void onProcessFinished() {
-        Halog.d(getClass(), "Process finished");
-        if (mCounter.decrementAndGet() == 0) {
-            mHandler.post(new Runnable() {
-                @Override
-                public void run() {
-                    notifyFinished();
-                }
-            });
-        }
-    }
-
     /**
      * Notifies the callbacks and clears the callbacks to avoid keeping references
-     * from them.
+     * from them. The deferred processes start after it.
      */
     private synchronized void notifyFinished() {
         if (!mIsFinished) {
             mIsFinished = true;
             mIsRunning = false;
+            if (mInstrumentation != null) {
+                mInstrumentation.onPhaseFinished(StartupProcess.CRITICAL, SystemClock.elapsedRealtime() - mStartTime);
+            }
             mInstallationListener.onFinishedInstallation();
             Halog.d(getClass(), "--- HALO SETUP FINISHED ---");
+            startDeferred();
         }
     }
 
@@ -134,13 +170,287 @@ public class StartupManager implements ProcessListener {
     private synchronized void runProcesses(@NonNull StartupProcess... processes) {
         mIsFinished = false;
         mIsRunning = true;
+        mDeferredStarted = false;
+        mNodes.clear();
         for (StartupProcess process : processes) {
-            mCounter.incrementAndGet();
+            ProcessNode node = new ProcessNode(process);
             //Set listener
-            process.setProcessListener(this);
-            //Run
-            StartupRunnableAdapter runnable = new StartupRunnableAdapter(mHalo, process);
-            mHalo.framework().toolbox().queue().enqueue(process.getThreadPolicy(), runnable);
+            process.setProcessListener(node);
+            mNodes.add(node);
+        }
+        linkDependencies();
+        mPendingCritical = 0;
+        mPendingDeferred = 0;
+        for (ProcessNode node : mNodes) {
+            if (node.mCritical) {
+                mPendingCritical++;
+            } else {
+                mPendingDeferred++;
+            }
+        }
+        if (mPendingCritical == 0) {
+            notifyFinished();
+        } else {
+            startReadyNodes();
+        }
+    }
+
+    /**
+     * Links every process with the processes it depends on. A deferred process needed by a critical
+     * one becomes critical, and the dependencies between processes of the same cycle are ignored.
+     */
+    private void linkDependencies() {
+        for (ProcessNode node : mNodes) {
+            for (Class<? extends StartupProcess> dependency : node.mProcess.getDependencies()) {
+                for (ProcessNode candidate : mNodes) {
+                    if (candidate != node && dependency.isInstance(candidate.mProcess) && !node.mDependencies.contains(candidate)) {
+                        node.mDependencies.add(candidate);
+                        candidate.mDependents.add(node);
+                    }
+                }
+            }
+        }
+        //Promote the dependencies of the critical processes
+        boolean promoted = true;
+        while (promoted) {
+            promoted = false;
+            for (ProcessNode node : mNodes) {
+                if (node.mCritical) {
+                    for (ProcessNode dependency : node.mDependencies) {
+                        if (!dependency.mCritical) {
+                            dependency.mCritical = true;
+                            promoted = true;
+                        }
+                    }
+                }
+            }
+        }
+        //Break the cycles, keeping the dependencies on the processes of a cycle from outside of it
+        mVisited = 0;
+        mStack = new ArrayList<>();
+        for (ProcessNode node : mNodes) {
+            node.mVisitIndex = -1;
+        }
+        for (ProcessNode node : mNodes) {
+            if (node.mVisitIndex == -1) {
+                findCycles(node);
+            }
+        }
+        mStack = null;
+        for (ProcessNode node : mNodes) {
+            for (int i = node.mDependencies.size() - 1; i >= 0; i--) {
+                ProcessNode dependency = node.mDependencies.get(i);
+                if (dependency.mCycle == node.mCycle) {
+                    Halog.w(getClass(), "The startup processes " + node.mProcess.getClass() + " and " + dependency.mProcess.getClass()
+                            + " have cyclic dependencies, the dependency between them is ignored.");
+                    node.mDependencies.remove(i);
+                    dependency.mDependents.remove(node);
+                }
+            }
+        }
+        for (ProcessNode node : mNodes) {
+            node.mPendingDependencies = node.mDependencies.size();
+        }
+    }
+
+    /**
+     * Finds the strongly connected components of the graph with the Tarjan algorithm. The processes
+     * that depend on each other end with the same cycle number.
+     *
+     * @param node The process to visit.
+     */
+    private void findCycles(@NonNull ProcessNode node) {
+        node.mVisitIndex = mVisited;
+        node.mLowLink = mVisited;
+        mVisited++;
+        mStack.add(node);
+        node.mOnStack = true;
+        for (ProcessNode dependency : node.mDependencies) {
+            if (dependency.mVisitIndex == -1) {
+                findCycles(dependency);
+                node.mLowLink = Math.min(node.mLowLink, dependency.mLowLink);
+            } else if (dependency.mOnStack) {
+                node.mLowLink = Math.min(node.mLowLink, dependency.mVisitIndex);
+            }
+        }
+        if (node.mLowLink == node.mVisitIndex) {
+            ProcessNode member;
+            do {
+                member = mStack.remove(mStack.size() - 1);
+                member.mOnStack = false;
+                member.mCycle = node.mVisitIndex;
+            } while (member != node);
+        }
+    }
+
+    /**
+     * Starts all the processes that can run now.
+     */
+    private void startReadyNodes() {
+        for (ProcessNode node : mNodes) {
+            if (canStart(node)) {
+                startNode(node);
+            }
+        }
+    }
+
+    /**
+     * Starts the deferred processes once halo is ready.
+     */
+    private void startDeferred() {
+        mDeferredStarted = true;
+        if (mPendingDeferred > 0) {
+            startReadyNodes();
+        }
+    }
+
+    /**
+     * Tells if the process can start.
+     *
+     * @param node The process.
+     * @return True if it can start.
+     */
+    private boolean canStart(@NonNull ProcessNode node) {
+        return !node.mStarted && node.mPendingDependencies == 0 && (node.mCritical || mDeferredStarted);
+    }
+
+    /**
+     * Enqueues a process in its thread, the deferred ones with background priority.
+     *
+     * @param node The process.
+     */
+    private void startNode(@NonNull final ProcessNode node) {
+        node.mStarted = true;
+        node.mStartTime = SystemClock.elapsedRealtime();
+        long timeout = node.mProcess.getTimeout();
+        if (node.mCritical && timeout > 0) {
+            node.mTimeout = new Runnable() {
+                @Override
+                public void run() {
+                    Halog.w(StartupManager.class, "The startup process " + node.mProcess.getClass() + " timed out, halo will not wait for it.");
+                    onNodeFinished(node, true);
+                }
+            };
+            mHandler.postDelayed(node.mTimeout, timeout);
+        }
+        StartupRunnableAdapter runnable = new StartupRunnableAdapter(mHalo, node.mProcess);
+        mHalo.framework().toolbox().queue().enqueue(node.mProcess.getThreadPolicy(),
+                node.mCritical ? Threading.PRIORITY_DEFAULT : Threading.PRIORITY_BACKGROUND, runnable);
+    }
+
+    /**
+     * Called when a process finishes or times out. Starts the processes that were waiting for it and
+     * finishes the phase if it was the last one.
+     *
+     * @param node     The process.
+     * @param timedOut True if the timeout expired.
+     */
+    private synchronized void onNodeFinished(@NonNull ProcessNode node, boolean timedOut) {
+        if (node.mFinished) {
+            return;
+        }
+        node.mFinished = true;
+        if (node.mTimeout != null) {
+            mHandler.removeCallbacks(node.mTimeout);
+            node.mTimeout = null;
+        }
+        long now = SystemClock.elapsedRealtime();
+        Halog.d(getClass(), "Process finished " + node.mProcess.getClass() + " in " + (now - node.mStartTime) + "ms");
+        if (mInstrumentation != null) {
+            mInstrumentation.onProcessFinished(node.mProcess, now - node.mStartTime, timedOut);
+        }
+        for (ProcessNode dependent : node.mDependents) {
+            dependent.mPendingDependencies--;
+            if (canStart(dependent)) {
+                startNode(dependent);
+            }
+        }
+        if (node.mCritical) {
+            if (--mPendingCritical == 0) {
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        notifyFinished();
+                    }
+                });
+            }
+        } else if (--mPendingDeferred == 0 && mInstrumentation != null) {
+            mInstrumentation.onPhaseFinished(StartupProcess.DEFERRED, now - mStartTime);
+        }
+    }
+
+    /**
+     * A process in the startup graph.
+     */
+    private class ProcessNode implements ProcessListener {
+        /**
+         * The process.
+         */
+        private final StartupProcess mProcess;
+        /**
+         * The processes this one waits for.
+         */
+        private final List<ProcessNode> mDependencies;
+        /**
+         * The processes waiting for this one.
+         */
+        private final List<ProcessNode> mDependents;
+        /**
+         * Number of dependencies not finished yet.
+         */
+        private int mPendingDependencies;
+        /**
+         * Tells if halo waits for this process.
+         */
+        private boolean mCritical;
+        /**
+         * Tells if the process has been enqueued.
+         */
+        private boolean mStarted;
+        /**
+         * Tells if the process has finished or timed out.
+         */
+        private boolean mFinished;
+        /**
+         * The time the process started.
+         */
+        private long mStartTime;
+        /**
+         * The timeout of the process while it is running.
+         */
+        private Runnable mTimeout;
+        /**
+         * The order in which the process was visited looking for cycles, -1 if not visited.
+         */
+        private int mVisitIndex;
+        /**
+         * The lowest visit order reachable from this process.
+         */
+        private int mLowLink;
+        /**
+         * Tells if the process is in the stack of the cycle search.
+         */
+        private boolean mOnStack;
+        /**
+         * The cycle of the process. The processes that depend on each other have the same one.
+         */
+        private int mCycle;
+
+        /**
+         * Constructor for the node.
+         *
+         * @param process The process.
+         */
+        private ProcessNode(@NonNull StartupProcess process) {
+            mProcess = process;
+            mDependencies = new ArrayList<>();
+            mDependents = new ArrayList<>();
+            mCritical = process.getCriticality() == StartupProcess.CRITICAL;
+        }
+
+        @Override
+        public void onProcessFinished() {
+            onNodeFinished(this, false);
         }
     }
 }
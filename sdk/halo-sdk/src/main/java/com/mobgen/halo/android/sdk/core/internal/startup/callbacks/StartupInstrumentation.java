@@ -0,0 +1,33 @@
+package com.mobgen.halo.android.sdk.core.internal.startup.callbacks;
+
+import android.support.annotation.Keep;
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.sdk.core.internal.startup.processes.StartupProcess;
+
+/**
+ * Receives the timing of the startup, to find which process delays halo from being ready.
+ */
+@Keep
+public interface StartupInstrumentation {
+
+    /**
+     * A process has finished or its timeout has expired.
+     *
+     * @param process       The process.
+     * @param elapsedMillis The time since the process started.
+     * @param timedOut      True if the timeout expired before the process finished.
+     */
+    @Api(2.4)
+    void onProcessFinished(@NonNull StartupProcess process, long elapsedMillis, boolean timedOut);
+
+    /**
+     * All the processes of a phase have finished.
+     *
+     * @param phase         The phase, that is the criticality of its processes.
+     * @param elapsedMillis The time since the startup started.
+     */
+    @Api(2.4)
+    void onPhaseFinished(@StartupProcess.Criticality int phase, long elapsedMillis);
+}
@@ -1,5 +1,6 @@
 package com.mobgen.halo.android.sdk.core.internal.startup.processes;
 
+import android.support.annotation.IntDef;
 import android.support.annotation.Keep;
 import android.support.annotation.NonNull;
 
@@ -9,12 +10,41 @@ import com.mobgen.halo.android.framework.toolbox.threading.Threading;
 import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.ProcessListener;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
 /**
- * Base class for a startup process.
+ * Base class for a startup process. A process can declare the processes it depends on, if halo
+ * must wait for it to be ready and the maximum time it can delay the startup.
  */
 @Keep
 public abstract class StartupProcess {
 
+    /**
+     * Determines when the process runs during the startup.
+     */
+    @IntDef({CRITICAL, DEFERRED})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Criticality {
+    }
+
+    /**
+     * Halo is not ready until the process finishes or its timeout expires.
+     */
+    @Api(2.4)
+    public static final int CRITICAL = 0;
+    /**
+     * The process runs in background once halo is ready.
+     */
+    @Api(2.4)
+    public static final int DEFERRED = 1;
+
+    /**
+     * The process can delay the startup until it finishes. This is the default.
+     */
+    @Api(2.4)
+    public static final long NO_TIMEOUT = 0;
+
     /**
      * Listener for the process.
      */
@@ -55,6 +85,42 @@ public abstract class StartupProcess {
     @Threading.Policy
     public abstract int getThreadPolicy();
 
+    /**
+     * Provides when this process must run. By default the processes are critical.
+     *
+     * @return The criticality.
+     */
+    @Api(2.4)
+    @Criticality
+    public int getCriticality() {
+        return CRITICAL;
+    }
+
+    /**
+     * Provides the classes of the processes that must finish before this one starts. The
+     * dependencies that are not part of the startup are ignored.
+     *
+     * @return The dependencies.
+     */
+    @Api(2.4)
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public Class<? extends StartupProcess>[] getDependencies() {
+        return new Class[0];
+    }
+
+    /**
+     * Provides the time in milliseconds this process can delay the startup once it has been started.
+     * When it expires the process is considered finished even if it keeps running. By default there is
+     * no timeout, so halo is not ready until the critical processes finish. Override it to opt in.
+     *
+     * @return The timeout in milliseconds or {@link #NO_TIMEOUT}.
+     */
+    @Api(2.4)
+    public long getTimeout() {
+        return NO_TIMEOUT;
+    }
+
     /**
      * Performs synchronous operations to notify for the startup process.
      *
@@ -10,7 +10,7 @@ import com.mobgen.halo.android.sdk.core.management.models.HaloServerVersion;
 
 /**
  * Checks the version and logs a warning in case the version does not match the
- * needed requirements.
+ * needed requirements. It runs once halo is ready.
  */
 public class VersionCheckStartupProcess extends StartupProcess {
 
@@ -19,6 +19,12 @@ public class VersionCheckStartupProcess extends StartupProcess {
         return Threading.POOL_QUEUE_POLICY;
     }
 
+    @Override
+    public int getCriticality() {
+        //Only logs a warning, halo does not need to wait for it
+        return DEFERRED;
+    }
+
     @Override
     protected void onStart(@NonNull final Halo halo) {
         halo.getCore().manager().getServerVersion()
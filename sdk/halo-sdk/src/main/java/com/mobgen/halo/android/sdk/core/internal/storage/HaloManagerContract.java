@@ -21,7 +21,7 @@ public final class HaloManagerContract {
     /**
      * The database version for the HALO cache.
      */
-    public static final int CURRENT_VERSION = HaloMigration2$0$0.VERSION;
+    public static final int CURRENT_VERSION = HaloMigration2$4$0.VERSION;
 
     /**
      * Private constructor to avoid new instances.
@@ -83,4 +83,30 @@ public final class HaloManagerContract {
         @Column(type = Column.Type.DATE)
         String UPDATED_AT = "RM_UPDATE_DATE";
     }
+
+    /**
+     * The contract for the tracking events waiting to be sent.
+     */
+    @Keep
+    @Table("HALO_EVENT_QUEUE")
+    public interface EventQueue extends HaloTable {
+        /**
+         * The id of the queued event, assigned in insertion order.
+         */
+        @Keep
+        @Column(type = Column.Type.INTEGER, isPrimaryKey = true)
+        String ID = "EQ_ID";
+        /**
+         * The event serialized as json.
+         */
+        @Keep
+        @Column(type = Column.Type.TEXT)
+        String EVENT = "EQ_EVENT";
+        /**
+         * The date when the event was queued.
+         */
+        @Keep
+        @Column(type = Column.Type.DATE)
+        String CREATED_AT = "EQ_CREATED_AT";
+    }
 }
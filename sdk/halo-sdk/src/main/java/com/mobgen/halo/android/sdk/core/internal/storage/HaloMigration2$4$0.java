@@ -0,0 +1,30 @@
+package com.mobgen.halo.android.sdk.core.internal.storage;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.framework.storage.database.HaloDatabaseMigration;
+import com.mobgen.halo.android.framework.storage.database.dsl.queries.Create;
+
+
+/**
+ * Creates the queue of tracking events that are waiting to be sent.
+ * Once working it should never be modified.
+ */
+public class HaloMigration2$4$0 extends HaloDatabaseMigration {
+
+    /**
+     * The version of the database for this script.
+     */
+    public static final int VERSION = 2;
+
+    @Override
+    public void updateDatabase(@NonNull SQLiteDatabase database) {
+        Create.table(HaloManagerContract.EventQueue.class).on(database, "Create event queue table");
+    }
+
+    @Override
+    public int getDatabaseVersion() {
+        return VERSION;
+    }
+}
@@ -23,6 +23,7 @@ import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.api.HaloPluginApi;
 import com.mobgen.halo.android.sdk.core.internal.storage.HaloManagerContract;
 import com.mobgen.halo.android.sdk.core.internal.storage.HaloMigration2$0$0;
+import com.mobgen.halo.android.sdk.core.internal.storage.HaloMigration2$4$0;
 import com.mobgen.halo.android.sdk.core.management.authentication.RequestTokenInteractor;
 import com.mobgen.halo.android.sdk.core.management.authentication.TokenRemoteDatasource;
 import com.mobgen.halo.android.sdk.core.management.authentication.TokenRepository;
@@ -35,8 +36,10 @@ import com.mobgen.halo.android.sdk.core.management.device.RemoveDeviceTagInterac
 import com.mobgen.halo.android.sdk.core.management.device.SendDeviceInteractor;
 import com.mobgen.halo.android.sdk.core.management.device.SetNotificationTokenInteractor;
 import com.mobgen.halo.android.sdk.core.management.device.SyncDeviceSegmentedInteractor;
+import com.mobgen.halo.android.sdk.core.management.events.EventLocalDatasource;
 import com.mobgen.halo.android.sdk.core.management.events.EventRemoteDatasource;
 import com.mobgen.halo.android.sdk.core.management.events.EventRepository;
+import com.mobgen.halo.android.sdk.core.management.events.QueueTrackEventInteractor;
 import com.mobgen.halo.android.sdk.core.management.events.SendTrackEventInteractor;
 import com.mobgen.halo.android.sdk.core.management.models.Credentials;
 import com.mobgen.halo.android.sdk.core.management.models.Device;
@@ -112,7 +115,8 @@ public class HaloManagerApi extends HaloPluginApi {
                 .storageName(HaloManagerContract.HALO_MANAGER_STORAGE)
                 .databaseVersion(HaloManagerContract.CURRENT_VERSION)
                 .addMigrations(
-                        new HaloMigration2$0$0()
+                        new HaloMigration2$0$0(),
+                        new HaloMigration2$4$0()
                 )
                 .build()
         );
@@ -120,7 +124,7 @@ public class HaloManagerApi extends HaloPluginApi {
         mVersionRepository = new VersionRepository(new VersionRemoteDatasource(halo.framework().network()));
         mTokenRepository = new TokenRepository(new TokenRemoteDatasource(halo.framework().network()));
         mDeviceRepository = new DeviceRepository(framework().parser(), new DeviceRemoteDatasource(halo.framework().network()), new DeviceLocalDatasource(mManagerStorage));
-        mEventRespository = new EventRepository(new EventRemoteDatasource(halo.framework().network()));
+        mEventRespository = new EventRepository(halo, new EventRemoteDatasource(halo.framework().network()), new EventLocalDatasource(mManagerStorage));
     }
 
     /**
@@ -164,7 +168,7 @@ public class HaloManagerApi extends HaloPluginApi {
                 null,
                 dataMode,
                 "Get modules request"
-        );
+        ).revalidationKey("modules");
     }
 
     /**
@@ -514,4 +518,57 @@ public class HaloManagerApi extends HaloPluginApi {
                 new SendTrackEventInteractor(mEventRespository, haloEvent)
         );
     }
+
+    /**
+     * Queues a tracking analytic event of the current user on the device. The queued events are
+     * coalesced and sent once the network is available, in compressed batches if they are enabled with
+     * {@link #batchEvents(boolean)}, so it is the preferred way to track many events. The result contains
+     * the same event queued.
+     *
+     * @param haloEvent The event to track.
+     * @return The executor.
+     */
+    @Keep
+    @Api(2.4)
+    @NonNull
+    @CheckResult(suggest = "You may want to call execute() to run the task")
+    public HaloInteractorExecutor<HaloEvent> queueEvent(@NonNull HaloEvent haloEvent) {
+        return new HaloInteractorExecutor<>(
+                halo(),
+                "Queue event",
+                new QueueTrackEventInteractor(mEventRespository, haloEvent)
+        );
+    }
+
+    /**
+     * Sends the queued events as soon as the network is available, without waiting for the
+     * coalescing window.
+     */
+    @Keep
+    @Api(2.4)
+    public void flushEvents() {
+        mEventRespository.scheduleFlush();
+    }
+
+    /**
+     * Sends the events left in the queue by a previous execution once the network is available.
+     * Halo calls it on startup.
+     */
+    @Api(2.4)
+    public void flushLeftoverEvents() {
+        mEventRespository.flushLeftovers();
+    }
+
+    /**
+     * Enables sending the queued events in compressed batches, as a json array in a single request.
+     * Enable it only if the environment accepts batches of events, otherwise the events are sent
+     * one by one. Batches are disabled by default.
+     *
+     * @param enabled True to send the queued events in batches.
+     */
+    @Keep
+    @Api(2.4)
+    public void batchEvents(boolean enabled) {
+        mEventRespository.setBatchesEnabled(enabled);
+    }
 }
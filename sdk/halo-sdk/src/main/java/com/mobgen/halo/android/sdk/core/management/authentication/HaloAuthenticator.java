@@ -18,8 +18,8 @@ import com.mobgen.halo.android.framework.toolbox.threading.Threading;
 import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.core.management.HaloManagerApi;
 import com.mobgen.halo.android.sdk.core.management.models.Credentials;
-import com.mobgen.halo.android.sdk.core.management.models.Session;
 import com.mobgen.halo.android.sdk.core.management.models.Token;
+import com.mobgen.halo.android.sdk.core.selectors.Revalidations;
 
 import java.io.IOException;
 
@@ -77,6 +77,11 @@ public class HaloAuthenticator implements Authenticator {
      */
     private AuthenticationRecover mAuthenticationRecover;
 
+    /**
+     * The single flight refresh of the session.
+     */
+    private TokenRefresher mRefresher;
+
     /**
      * Creates the oauth provider given a client id and a client secret.
      *
@@ -97,24 +102,31 @@ public class HaloAuthenticator implements Authenticator {
         mManagementApi = managerApi;
         mSessionManager = sessionManager;
         mClientCredentials = credentials;
+        mRefresher = new TokenRefresher(this, sessionManager, framework);
         attachToFramework();
     }
 
     @Override
-    public synchronized Request authenticate(Route route, Response response) throws IOException {
+    public Request authenticate(Route route, Response response) throws IOException {
+        int generation = mRefresher.generation();
         HaloSession session = mSessionManager.getSession(HALO_SESSION_NAME);
         try {
-            if (session == null || session.isSessionExpired() || session.mayBeServerExpired()) {
-                flushSession();
+            String sentAuthentication = response.request().header(AUTHENTICATION_HEADER);
+            if (session != null && sentAuthentication != null && !sentAuthentication.equals(session.getSessionAuthentication())
+                    && !session.isSessionExpired()) {
+                //The session was refreshed while the request was in flight, retry with it
+                Halog.d(getClass(), "Retrying with the refreshed session");
+            } else if (session == null || session.isSessionExpired() || session.mayBeServerExpired()) {
                 //Do auth
-                Token token = null;
                 if (!response.request().url().toString().endsWith(TokenRemoteDatasource.URL_GET_CLIENT_TOKEN) &&
                         !response.request().url().toString().endsWith(TokenRemoteDatasource.URL_GET_USER_TOKEN)) {
-                    //request app token
-                    token = requestToken();
-                    if (token != null) {
-                        session = new Session(token);
+                    //request app token or wait for the request in flight
+                    HaloSession refreshed = mRefresher.refresh(session);
+                    if (refreshed != null) {
+                        session = refreshed;
                     }
+                } else {
+                    flushSession();
                 }
             }
         } catch (Exception e) {
@@ -122,8 +134,8 @@ public class HaloAuthenticator implements Authenticator {
             throw e;
         }
 
-        //The request authentication finished successfully
-        if (session != null) {
+        //The request authentication finished successfully, unless the session was flushed meanwhile
+        if (session != null && mRefresher.store(session, generation)) {
             //check if its a client based login to recover account
             if(getCredentials().getLoginType()==Credentials.CLIENT_BASED_LOGIN) {
                 //recover from logged user if there is a halo auth api
@@ -131,8 +143,6 @@ public class HaloAuthenticator implements Authenticator {
                     mAuthenticationRecover.recoverAccount();
                 }
             }
-            //Store the session
-            mSessionManager.setSession(HALO_SESSION_NAME, session);
             return response.request()
                     .newBuilder()
                     .header(AUTHENTICATION_HEADER, session.getSessionAuthentication())
@@ -168,7 +178,8 @@ public class HaloAuthenticator implements Authenticator {
      * @return The token retrieved or null if there is no available token.
      * @throws HaloNetException Error while retrieving a token.
      */
-    private Token requestToken() throws HaloNetException {
+    @Nullable
+    Token requestToken() throws HaloNetException {
         final Token[] token = new Token[1];
         if (mManagementApi != null) {
             mManagementApi.requestToken(getCredentials())
@@ -190,8 +201,9 @@ public class HaloAuthenticator implements Authenticator {
     private void attachToFramework() {
         OkHttpClient originalHttp = mFramework.network().client().ok();
         OkHttpClient.Builder newBuilder = originalHttp.newBuilder().authenticator(this);
-        newBuilder.interceptors().add(0, new SessionInterceptor(mSessionManager));
+        newBuilder.interceptors().add(0, new SessionInterceptor(mSessionManager, mRefresher));
         mFramework.network().client().overrideOk(newBuilder);
+        mFramework.network().client().coalescingSession(mSessionManager, HALO_SESSION_NAME);
     }
 
     /**
@@ -234,10 +246,13 @@ public class HaloAuthenticator implements Authenticator {
     }
 
     /**
-     * Flushes the current session from the session manager.
+     * Flushes the current session from the session manager. The data revalidated with the previous
+     * session is not considered fresh anymore, and the sessions requested before the flush are
+     * dropped when they arrive.
      */
     public void flushSession() {
-        mSessionManager.flushSession(HaloAuthenticator.HALO_SESSION_NAME);
+        mRefresher.flush();
+        Revalidations.clear();
     }
 
     /**
@@ -250,7 +265,8 @@ public class HaloAuthenticator implements Authenticator {
     }
 
     /**
-     * Interceptor that adds the session to the okhttp.
+     * Interceptor that adds the session to the okhttp and refreshes it in background when it is about
+     * to expire.
      */
     private static class SessionInterceptor extends RequestResponseInterceptor {
 
@@ -259,13 +275,20 @@ public class HaloAuthenticator implements Authenticator {
          */
         private HaloSessionManager mSessionManager;
 
+        /**
+         * The single flight refresh of the session.
+         */
+        private TokenRefresher mRefresher;
+
         /**
          * The session interceptor.
          *
          * @param sessionManager The session manager.
+         * @param refresher      The refresher of the session.
          */
-        public SessionInterceptor(@NonNull HaloSessionManager sessionManager) {
+        public SessionInterceptor(@NonNull HaloSessionManager sessionManager, @NonNull TokenRefresher refresher) {
             mSessionManager = sessionManager;
+            mRefresher = refresher;
         }
 
         @Override
@@ -275,6 +298,7 @@ public class HaloAuthenticator implements Authenticator {
             Request finalRequest = request;
             if (session != null && request.header(AUTHENTICATION_HEADER) == null) {
                 finalRequest = request.newBuilder().addHeader(AUTHENTICATION_HEADER, session.getSessionAuthentication()).build();
+                mRefresher.refreshAhead(session);
             }
             return finalRequest;
         }
@@ -0,0 +1,238 @@
+package com.mobgen.halo.android.sdk.core.management.authentication;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.framework.api.HaloFramework;
+import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
+import com.mobgen.halo.android.framework.network.client.Flight;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
+import com.mobgen.halo.android.framework.network.sessions.HaloSession;
+import com.mobgen.halo.android.framework.network.sessions.HaloSessionManager;
+import com.mobgen.halo.android.framework.toolbox.threading.Threading;
+import com.mobgen.halo.android.sdk.core.management.models.Session;
+import com.mobgen.halo.android.sdk.core.management.models.Token;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single flight refresh of the halo session. While a token is being requested, the requests that need
+ * a new session wait for it instead of requesting another token. The session is also refreshed in
+ * background when it is about to expire, so the requests do not stall on the expiration. Every flush of
+ * the session starts a new generation, and the sessions obtained for a previous generation are dropped.
+ */
+class TokenRefresher {
+
+    /**
+     * The time before the expiration when the session is refreshed in background.
+     */
+    static final long REFRESH_AHEAD = TimeUnit.SECONDS.toMillis(60);
+
+    /**
+     * The wait after the first failed refresh ahead, doubled on every failure.
+     */
+    static final long BASE_COOLDOWN = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * The maximum wait between the refreshes ahead.
+     */
+    static final long MAX_COOLDOWN = REFRESH_AHEAD;
+
+    /**
+     * The authenticator that requests the tokens.
+     */
+    private final HaloAuthenticator mAuthenticator;
+
+    /**
+     * The session manager.
+     */
+    private final HaloSessionManager mSessionManager;
+
+    /**
+     * The framework.
+     */
+    private final HaloFramework mFramework;
+
+    /**
+     * The refresh in flight, guarded by this.
+     */
+    private Flight<HaloSession> mFlight;
+
+    /**
+     * The generation of the session, increased on every flush, guarded by this.
+     */
+    private int mGeneration;
+
+    /**
+     * The refreshes that failed in a row, guarded by this.
+     */
+    private int mFailures;
+
+    /**
+     * The time before which the session is not refreshed ahead, guarded by this.
+     */
+    private long mCooldownUntil;
+
+    /**
+     * Constructor for the refresher.
+     *
+     * @param authenticator  The authenticator.
+     * @param sessionManager The session manager.
+     * @param framework      The framework.
+     */
+    TokenRefresher(@NonNull HaloAuthenticator authenticator, @NonNull HaloSessionManager sessionManager, @NonNull HaloFramework framework) {
+        mAuthenticator = authenticator;
+        mSessionManager = sessionManager;
+        mFramework = framework;
+    }
+
+    /**
+     * Refreshes the session or waits for the refresh in flight. If another refresh has already replaced
+     * the stale session, the new one is returned without requesting a token.
+     *
+     * @param stale The session that is not valid anymore, null if there was no session.
+     * @return The new session or null if the token could not be obtained.
+     * @throws HaloNetException Error requesting the token.
+     */
+    @Nullable
+    HaloSession refresh(@Nullable HaloSession stale) throws HaloNetException {
+        Flight<HaloSession> flight;
+        int generation;
+        boolean leader = false;
+        synchronized (this) {
+            HaloSession current = mSessionManager.getSession(HaloAuthenticator.HALO_SESSION_NAME);
+            if (current != null && current != stale && !current.isSessionExpired()) {
+                return current;
+            }
+            if (mFlight == null) {
+                mFlight = new Flight<>();
+                leader = true;
+            }
+            flight = mFlight;
+            generation = mGeneration;
+        }
+        return leader ? lead(flight, generation) : flight.await();
+    }
+
+    /**
+     * Provides the generation of the session.
+     *
+     * @return The generation.
+     */
+    synchronized int generation() {
+        return mGeneration;
+    }
+
+    /**
+     * Flushes the session and starts a new generation. The refresh in flight, if any, does not store
+     * its session, and the next refresh requests a new token.
+     */
+    synchronized void flush() {
+        mGeneration++;
+        mFlight = null;
+        mSessionManager.flushSession(HaloAuthenticator.HALO_SESSION_NAME);
+    }
+
+    /**
+     * Stores the session if it was obtained in the current generation.
+     *
+     * @param session    The session.
+     * @param generation The generation when the session was requested.
+     * @return True if it is stored, false if the session was flushed meanwhile.
+     */
+    synchronized boolean store(@NonNull HaloSession session, int generation) {
+        if (generation != mGeneration) {
+            return false;
+        }
+        mSessionManager.setSession(HaloAuthenticator.HALO_SESSION_NAME, session);
+        return true;
+    }
+
+    /**
+     * Refreshes the session in background if it is about to expire and no refresh is in flight. After
+     * a failed refresh the next one waits for a cooldown that doubles with every failure.
+     *
+     * @param session The current session.
+     */
+    void refreshAhead(@NonNull final HaloSession session) {
+        if (!(session instanceof Session) || !((Session) session).isAboutToExpire(REFRESH_AHEAD)) {
+            return;
+        }
+        final Flight<HaloSession> flight;
+        final int generation;
+        synchronized (this) {
+            if (mFlight != null || System.currentTimeMillis() < mCooldownUntil) {
+                return;
+            }
+            flight = new Flight<>();
+            mFlight = flight;
+            generation = mGeneration;
+        }
+        mFramework.toolbox().queue().enqueue(Threading.POOL_QUEUE_POLICY, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    lead(flight, generation);
+                } catch (HaloNetException e) {
+                    Halog.e(TokenRefresher.class, "The session could not be refreshed ahead of its expiration.", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Requests the token for the flight and releases the requests waiting for it. The session is
+     * dropped if it was flushed while the token was requested.
+     *
+     * @param flight     The flight.
+     * @param generation The generation of the session when the flight started.
+     * @return The new session or null if the token could not be obtained.
+     * @throws HaloNetException Error requesting the token.
+     */
+    @Nullable
+    private HaloSession lead(@NonNull Flight<HaloSession> flight, int generation) throws HaloNetException {
+        HaloSession session = null;
+        HaloNetException error = null;
+        boolean dropped = false;
+        try {
+            Token token = mAuthenticator.requestToken();
+            if (token != null) {
+                session = new Session(token);
+                if (!store(session, generation)) {
+                    Halog.d(TokenRefresher.class, "The session was flushed while the token was requested, it is dropped.");
+                    session = null;
+                    dropped = true;
+                }
+            }
+            return session;
+        } catch (HaloNetException e) {
+            error = e;
+            throw e;
+        } finally {
+            synchronized (this) {
+                if (mFlight == flight) {
+                    mFlight = null;
+                }
+                if (session != null || dropped) {
+                    mFailures = 0;
+                    mCooldownUntil = 0;
+                } else {
+                    mFailures++;
+                    mCooldownUntil = System.currentTimeMillis() + cooldown(mFailures);
+                }
+            }
+            flight.complete(session, error);
+        }
+    }
+
+    /**
+     * Provides the wait before the next refresh ahead, that doubles with every failure.
+     *
+     * @param failures The refreshes that failed in a row.
+     * @return The wait in milliseconds.
+     */
+    static long cooldown(int failures) {
+        int exponent = Math.min(Math.max(failures - 1, 0), 16);
+        return Math.min(BASE_COOLDOWN << exponent, MAX_COOLDOWN);
+    }
+}
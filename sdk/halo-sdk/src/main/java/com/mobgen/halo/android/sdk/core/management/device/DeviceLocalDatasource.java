@@ -38,14 +38,14 @@ public class DeviceLocalDatasource {
     }
 
     /**
-     * Caches the provided device.
+     * Caches the provided device. It is written to disk asynchronously.
      *
      * @param serializedDevice The device.
      * @throws HaloParsingException Error parsing the data.
      */
     public void cacheDevice(@NonNull String serializedDevice) throws HaloParsingException {
         AssertionUtils.notNull(serializedDevice, "device");
-        mStorageApi.prefs().edit().putString(DEVICE_CACHE, serializedDevice).commit();
+        mStorageApi.prefs().edit().putString(DEVICE_CACHE, serializedDevice).apply();
     }
 
     /**
@@ -70,6 +70,6 @@ public class DeviceLocalDatasource {
      * Clears the current device.
      */
     public void clearCurrentDevice() {
-        mStorageApi.prefs().edit().remove(DEVICE_CACHE).commit();
+        mStorageApi.prefs().edit().remove(DEVICE_CACHE).apply();
     }
 }
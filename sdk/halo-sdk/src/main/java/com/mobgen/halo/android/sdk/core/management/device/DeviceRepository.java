@@ -2,6 +2,7 @@ package com.mobgen.halo.android.sdk.core.management.device;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.text.TextUtils;
 
 import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
 import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
@@ -12,10 +13,16 @@ import com.mobgen.halo.android.framework.network.exceptions.HaloNotFoundExceptio
 import com.mobgen.halo.android.sdk.core.management.models.Device;
 import com.mobgen.halo.android.sdk.core.management.segmentation.HaloSegmentationTag;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
- * The device repository that interacts with all the device elements.
+ * The device repository that interacts with all the device elements. The changes on the device are
+ * recorded as pending mutations, and the concurrent sends are coalesced: while a device is being sent,
+ * the sends requested wait for it and only one of them sends the device with all the mutations
+ * recorded meanwhile. The mutations recorded while a request is in flight are applied again on the
+ * device returned by the server.
  */
 public class DeviceRepository {
 
@@ -32,9 +39,37 @@ public class DeviceRepository {
      */
     private DeviceRemoteDatasource mDeviceRemoteDatasource;
     /**
-     * The cached device unique instance.
+     * The cached device unique instance, guarded by the device lock.
      */
-    private Device mCachedDevice;
+    private volatile Device mCachedDevice;
+    /**
+     * The lock for the device and the pending mutations.
+     */
+    private final Object mDeviceLock = new Object();
+    /**
+     * The lock to send the device one request at a time.
+     */
+    private final Object mSendLock = new Object();
+    /**
+     * The mutations not sent yet, in the order they were recorded.
+     */
+    private final List<Mutation> mPendingMutations;
+    /**
+     * The sequence of the last mutation recorded.
+     */
+    private long mMutationSequence;
+    /**
+     * The number of sends requested.
+     */
+    private long mRequestedSends;
+    /**
+     * The sends requested that are already fulfilled by a request.
+     */
+    private long mFulfilledSends;
+    /**
+     * The device returned by the last request.
+     */
+    private Device mLastSentDevice;
 
     /**
      * Constructor for the repository.
@@ -49,10 +84,12 @@ public class DeviceRepository {
         mParser = parser;
         mDeviceRemoteDatasource = deviceRemoteDatasource;
         mDeviceLocalDatasource = deviceLocalDatasource;
+        mPendingMutations = new ArrayList<>();
     }
 
     /**
-     * Syncs the current device with the one in the cloud. Intended to be called on startup.
+     * Syncs the current device with the one in the cloud. Intended to be called on startup. If the device
+     * in the cloud already has the tags and there are no pending mutations, it is not updated.
      *
      * @param tags The tags.
      * @return The device synchronized.
@@ -60,12 +97,24 @@ public class DeviceRepository {
      * @throws HaloParsingException Error while serializing the device.
      */
     @NonNull
-    public synchronized Device syncDevice(@NonNull List<HaloSegmentationTag> tags) throws HaloNetException, HaloParsingException {
+    public Device syncDevice(@NonNull List<HaloSegmentationTag> tags) throws HaloNetException, HaloParsingException {
         AssertionUtils.notNull(tags, "tags");
-        mCachedDevice = getCachedDevice();
-        if (!mCachedDevice.isAnonymous()) {
+        Device device = getCachedDevice();
+        if (!device.isAnonymous()) {
             try {
-                mCachedDevice = mDeviceRemoteDatasource.getDevice(mCachedDevice);
+                Device remoteDevice = mDeviceRemoteDatasource.getDevice(device);
+                String unchangedDevice = null;
+                synchronized (mDeviceLock) {
+                    mCachedDevice = replayPendingMutations(remoteDevice);
+                    if (mPendingMutations.isEmpty() && hasTags(remoteDevice, tags)) {
+                        unchangedDevice = Device.serialize(remoteDevice, mParser);
+                    }
+                }
+                if (unchangedDevice != null) {
+                    Halog.d(getClass(), "The segmentation tags did not change, the device is not updated");
+                    mDeviceLocalDatasource.cacheDevice(unchangedDevice);
+                    return remoteDevice;
+                }
             } catch (HaloNotFoundException e) {
                 Halog.w(getClass(), "There is a cached device that is not present in the server. Creating a new one");
                 Halog.e(getClass(), "Creating new device", e);
@@ -73,43 +122,83 @@ public class DeviceRepository {
                 return syncDevice(tags);
             }
         }
-        mCachedDevice.addTags(tags, true);
+        addTags(tags, true);
         return sendDevice();
     }
 
     /**
-     * Updates the device with the one in the server.
+     * Updates the device with the one in the server. If a request is in flight, it waits for it and
+     * the device is sent once with the mutations of all the sends waiting.
      *
      * @return The device returned.
      * @throws HaloNetException     Network exception.
      * @throws HaloParsingException Parsing exception.
      */
     @NonNull
-    public synchronized Device sendDevice() throws HaloParsingException, HaloNetException {
-        mCachedDevice = getCachedDevice();
-        try {
-            mCachedDevice = mDeviceRemoteDatasource.updateDevice(mCachedDevice);
-        } catch (HaloNotFoundException e) {
-            Halog.w(getClass(), "There is a cached device that is not present in the server. Creating a new one");
-            Halog.e(getClass(), "Making the device anonymous", e);
-            mCachedDevice.makeAnonymous();
-            return sendDevice();
+    public Device sendDevice() throws HaloParsingException, HaloNetException {
+        long ticket;
+        synchronized (mDeviceLock) {
+            ticket = ++mRequestedSends;
+        }
+        synchronized (mSendLock) {
+            if (mFulfilledSends >= ticket && mLastSentDevice != null) {
+                //Another request already sent the mutations of this one
+                return getCachedDevice();
+            }
+            boolean recreated = false;
+            while (true) {
+                Device snapshot;
+                long coveredSends;
+                long coveredMutations;
+                synchronized (mDeviceLock) {
+                    snapshot = Device.deserialize(Device.serialize(getCachedDevice(), mParser), mParser);
+                    coveredSends = mRequestedSends;
+                    coveredMutations = mMutationSequence;
+                }
+                Device sentDevice;
+                try {
+                    sentDevice = mDeviceRemoteDatasource.updateDevice(snapshot);
+                } catch (HaloNotFoundException e) {
+                    if (recreated) {
+                        //The new device could not be created either
+                        throw e;
+                    }
+                    Halog.w(getClass(), "There is a cached device that is not present in the server. Creating a new one");
+                    Halog.e(getClass(), "Making the device anonymous", e);
+                    synchronized (mDeviceLock) {
+                        getCachedDevice().makeAnonymous();
+                    }
+                    recreated = true;
+                    continue;
+                }
+                String serializedDevice;
+                synchronized (mDeviceLock) {
+                    removeMutationsUntil(coveredMutations);
+                    mCachedDevice = replayPendingMutations(sentDevice);
+                    mFulfilledSends = coveredSends;
+                    mLastSentDevice = sentDevice;
+                    serializedDevice = Device.serialize(mCachedDevice, mParser);
+                }
+                mDeviceLocalDatasource.cacheDevice(serializedDevice);
+                return mCachedDevice;
+            }
         }
-        mDeviceLocalDatasource.cacheDevice(Device.serialize(mCachedDevice, mParser));
-        return mCachedDevice;
     }
 
     /**
-     * Provides the cached device. If in memory this one is brought. Otherwise, the new device will be provided.
+     * Provides the cached device. If in memory this one is brought. Otherwise, the new device will be provided
+     * with the pending mutations applied.
      *
      * @return The device.
      */
     @NonNull
-    public synchronized Device getCachedDevice() {
-        if (mCachedDevice == null) {
-            mCachedDevice = getAlwaysDevice();
+    public Device getCachedDevice() {
+        synchronized (mDeviceLock) {
+            if (mCachedDevice == null) {
+                mCachedDevice = replayPendingMutations(getAlwaysDevice());
+            }
+            return mCachedDevice;
         }
-        return mCachedDevice;
     }
 
     /**
@@ -128,11 +217,20 @@ public class DeviceRepository {
      * @param notificationToken The notifications token.
      * @return True if the token has changed
      */
-    public synchronized boolean pushNotificationToken(@Nullable String notificationToken) {
-        mCachedDevice = getCachedDevice();
-        boolean changed = mCachedDevice.getNotificationsToken() == null ? notificationToken != null : !mCachedDevice.getNotificationsToken().equals(notificationToken);
-        mCachedDevice.setNotificationsToken(notificationToken);
-        return changed;
+    public boolean pushNotificationToken(@Nullable final String notificationToken) {
+        synchronized (mDeviceLock) {
+            Device device = getCachedDevice();
+            boolean changed = device.getNotificationsToken() == null ? notificationToken != null : !device.getNotificationsToken().equals(notificationToken);
+            if (changed) {
+                record(new Mutation() {
+                    @Override
+                    void apply(@NonNull Device target) {
+                        target.setNotificationsToken(notificationToken);
+                    }
+                });
+            }
+            return changed;
+        }
     }
 
     /**
@@ -140,10 +238,16 @@ public class DeviceRepository {
      *
      * @param tags The tags.
      */
-    public synchronized void addTags(@Nullable List<HaloSegmentationTag> tags, boolean shouldOverrideTags) {
-        mCachedDevice = getCachedDevice();
+    public void addTags(@Nullable final List<HaloSegmentationTag> tags, final boolean shouldOverrideTags) {
         if (tags != null) {
-            mCachedDevice.addTags(tags, shouldOverrideTags);
+            synchronized (mDeviceLock) {
+                record(new Mutation() {
+                    @Override
+                    void apply(@NonNull Device device) {
+                        device.addTags(tags, shouldOverrideTags);
+                    }
+                });
+            }
         }
     }
 
@@ -152,15 +256,91 @@ public class DeviceRepository {
      *
      * @param tagNames The tag names.
      */
-    public synchronized void removeTags(@Nullable List<String> tagNames) {
-        mCachedDevice = getCachedDevice();
+    public void removeTags(@Nullable final List<String> tagNames) {
         if (tagNames != null) {
-            for (String tag : tagNames) {
-                if (tag != null) {
-                    mCachedDevice.removeTag(new HaloSegmentationTag(tag, null));
+            synchronized (mDeviceLock) {
+                record(new Mutation() {
+                    @Override
+                    void apply(@NonNull Device device) {
+                        for (String tag : tagNames) {
+                            if (tag != null) {
+                                device.removeTag(new HaloSegmentationTag(tag, null));
+                            }
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Provides the number of mutations not sent yet.
+     *
+     * @return The number of mutations.
+     */
+    public int getPendingMutations() {
+        synchronized (mDeviceLock) {
+            return mPendingMutations.size();
+        }
+    }
+
+    /**
+     * Applies a mutation on the cached device and keeps it until it is sent.
+     *
+     * @param mutation The mutation.
+     */
+    private void record(@NonNull Mutation mutation) {
+        mutation.mSequence = ++mMutationSequence;
+        mutation.apply(getCachedDevice());
+        mPendingMutations.add(mutation);
+    }
+
+    /**
+     * Removes the mutations already sent.
+     *
+     * @param sequence The sequence of the last mutation sent.
+     */
+    private void removeMutationsUntil(long sequence) {
+        Iterator<Mutation> iterator = mPendingMutations.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().mSequence <= sequence) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Applies the pending mutations on a device that does not have them yet.
+     *
+     * @param device The device.
+     * @return The same device.
+     */
+    @NonNull
+    private Device replayPendingMutations(@NonNull Device device) {
+        for (Mutation mutation : mPendingMutations) {
+            mutation.apply(device);
+        }
+        return device;
+    }
+
+    /**
+     * Tells if the device has the tags with the same values, so adding them would not change it.
+     *
+     * @param device The device.
+     * @param tags   The tags.
+     * @return True if the device already has the tags.
+     */
+    private static boolean hasTags(@NonNull Device device, @NonNull List<HaloSegmentationTag> tags) {
+        List<HaloSegmentationTag> deviceTags = device.getTags();
+        for (HaloSegmentationTag tag : tags) {
+            if (tag != null) {
+                int index = deviceTags.indexOf(tag);
+                if (index < 0 || index != deviceTags.lastIndexOf(tag) || !TextUtils.equals(tag.getValue(), deviceTags.get(index).getValue())) {
+                    return false;
                 }
             }
         }
+        return true;
     }
 
     /**
@@ -188,10 +368,29 @@ public class DeviceRepository {
     }
 
     /**
-     * Clears the cached device.
+     * Clears the cached device. The pending mutations are kept to apply them on the new device.
      */
     private void clearCachedDevice() {
-        mCachedDevice = null;
-        mDeviceLocalDatasource.clearCurrentDevice();
+        synchronized (mDeviceLock) {
+            mCachedDevice = null;
+            mDeviceLocalDatasource.clearCurrentDevice();
+        }
+    }
+
+    /**
+     * A change on the device that has not been sent yet.
+     */
+    private abstract static class Mutation {
+        /**
+         * The order of the mutation.
+         */
+        private long mSequence;
+
+        /**
+         * Applies the change on the device.
+         *
+         * @param device The device.
+         */
+        abstract void apply(@NonNull Device device);
     }
 }
@@ -0,0 +1,46 @@
+package com.mobgen.halo.android.sdk.core.management.events;
+
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
+import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
+import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
+import com.mobgen.halo.android.sdk.api.Halo;
+import com.mobgen.halo.android.sdk.core.threading.HaloSchedule;
+
+/**
+ * Schedule that sends the queued tracking events once the network is available. A failed flush is
+ * retried with an increasing wait.
+ */
+public class EventBatchSchedule extends HaloSchedule {
+
+    /**
+     * The event repository.
+     */
+    private EventRepository mEventRepository;
+
+    /**
+     * Constructor for the scheduler.
+     *
+     * @param halo            The halo instance.
+     * @param eventRepository The event repository.
+     */
+    public EventBatchSchedule(@NonNull Halo halo, @NonNull EventRepository eventRepository) {
+        super(halo);
+        AssertionUtils.notNull(eventRepository, "eventRepository");
+        mEventRepository = eventRepository;
+    }
+
+    @Override
+    public void executeWhenReady() {
+        try {
+            int sent = mEventRepository.flushEvents();
+            Halog.d(EventBatchSchedule.class, sent + " queued events sent");
+        } catch (HaloNetException | HaloParsingException e) {
+            //Try again later, backing off while it keeps failing
+            Halog.e(EventBatchSchedule.class, "The queued events could not be sent, the flush will be retried.", e);
+            mEventRepository.scheduleRetry();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mobgen.halo.android.sdk.core.management.events;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.SQLException;
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.framework.api.HaloStorageApi;
+import com.mobgen.halo.android.framework.storage.database.dsl.ORMUtils;
+import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageGeneralException;
+import com.mobgen.halo.android.sdk.core.internal.storage.HaloManagerContract;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Local data source that keeps the tracking events waiting to be sent, so they survive
+ * connection errors and restarts of the application.
+ */
+public class EventLocalDatasource {
+
+    /**
+     * The storage api.
+     */
+    private HaloStorageApi mStorageApi;
+
+    /**
+     * Constructor for the local datasource.
+     *
+     * @param storageApi The storage api.
+     */
+    public EventLocalDatasource(@NonNull HaloStorageApi storageApi) {
+        mStorageApi = storageApi;
+    }
+
+    /**
+     * Adds an event to the end of the queue.
+     *
+     * @param serializedEvent The event serialized as json.
+     * @throws HaloStorageGeneralException Error storing the event.
+     */
+    public void enqueue(@NonNull String serializedEvent) throws HaloStorageGeneralException {
+        ContentValues values = new ContentValues();
+        values.put(HaloManagerContract.EventQueue.EVENT, serializedEvent);
+        values.put(HaloManagerContract.EventQueue.CREATED_AT, System.currentTimeMillis());
+        try {
+            mStorageApi.db().getDatabase().insertOrThrow(ORMUtils.getTableName(HaloManagerContract.EventQueue.class), null, values);
+        } catch (SQLException e) {
+            throw new HaloStorageGeneralException("The event could not be queued.", e);
+        }
+    }
+
+    /**
+     * Provides the number of events in the queue.
+     *
+     * @return The number of events.
+     */
+    public long count() {
+        return DatabaseUtils.queryNumEntries(mStorageApi.db().getDatabase(), ORMUtils.getTableName(HaloManagerContract.EventQueue.class));
+    }
+
+    /**
+     * Provides the oldest events of the queue without removing them.
+     *
+     * @param limit The maximum number of events.
+     * @return The serialized events by id, in the order they were queued.
+     */
+    @NonNull
+    public Map<Long, String> peek(int limit) {
+        Map<Long, String> events = new LinkedHashMap<>();
+        Cursor cursor = mStorageApi.db().getDatabase().query(ORMUtils.getTableName(HaloManagerContract.EventQueue.class),
+                new String[]{HaloManagerContract.EventQueue.ID, HaloManagerContract.EventQueue.EVENT},
+                null, null, null, null, HaloManagerContract.EventQueue.ID, String.valueOf(limit));
+        try {
+            while (cursor.moveToNext()) {
+                events.put(cursor.getLong(0), cursor.getString(1));
+            }
+        } finally {
+            cursor.close();
+        }
+        return events;
+    }
+
+    /**
+     * Removes the events up to an id, included.
+     *
+     * @param lastId The id of the last event to remove.
+     */
+    public void removeUntil(long lastId) {
+        mStorageApi.db().getDatabase().delete(ORMUtils.getTableName(HaloManagerContract.EventQueue.class),
+                HaloManagerContract.EventQueue.ID + " <= ?", new String[]{String.valueOf(lastId)});
+    }
+}
@@ -5,6 +5,7 @@ import android.support.annotation.NonNull;
 import com.mobgen.halo.android.framework.api.HaloNetworkApi;
 import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
 import com.mobgen.halo.android.framework.network.client.body.HaloBodyFactory;
+import com.mobgen.halo.android.framework.network.client.body.HaloMediaType;
 import com.mobgen.halo.android.framework.network.client.request.HaloRequest;
 import com.mobgen.halo.android.framework.network.client.request.HaloRequestMethod;
 import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
@@ -12,7 +13,10 @@ import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.core.internal.network.HaloNetworkConstants;
 import com.mobgen.halo.android.sdk.core.management.models.HaloEvent;
 
-import org.json.JSONObject;
+import java.io.IOException;
+import java.util.List;
+
+import okhttp3.Response;
 
 /**
  * Created by f.souto.gonzalez on 02/06/2017.
@@ -53,20 +57,68 @@ public class EventRemoteDatasource {
      */
     @NonNull
     public HaloEvent sendEvent(@NonNull HaloEvent haloEvent) throws HaloNetException,HaloParsingException {
+        String eventSerialized = HaloEvent.serialize(haloEvent, Halo.instance().framework().parser());
+        return eventRequest(eventSerialized).execute(HaloEvent.class);
+    }
 
-        JSONObject jsonObject = null;
-        try {
-            String paramsSerialized = HaloEvent.serialize(haloEvent, Halo.instance().framework().parser());
-            jsonObject = new JSONObject(paramsSerialized);
-        } catch (Exception e) {
-            throw new HaloParsingException(e.toString(), e);
+    /**
+     * Send an event already serialized.
+     *
+     * @param serializedEvent The event serialized as a json object.
+     * @throws HaloNetException
+     */
+    public void sendEvent(@NonNull String serializedEvent) throws HaloNetException {
+        Response response = eventRequest(serializedEvent).execute();
+        if (response.body() != null) {
+            response.body().close();
         }
+    }
 
+    /**
+     * Creates the request to send a single event.
+     *
+     * @param serializedEvent The event serialized as a json object.
+     * @return The request.
+     */
+    @NonNull
+    private HaloRequest eventRequest(@NonNull String serializedEvent) {
         return HaloRequest.builder(mClientApi)
                 .url(HaloNetworkConstants.HALO_ENDPOINT_ID, URL_CREATE_EVENT)
                 .method(HaloRequestMethod.POST)
-                .body(HaloBodyFactory.jsonObjectBody(jsonObject))
-                .build().execute(HaloEvent.class);
+                .body(HaloBodyFactory.stringBody(HaloMediaType.APPLICATION_JSON, serializedEvent))
+                .build();
+    }
+
+    /**
+     * Send many events already serialized in a single gzip compressed request. The events are sent
+     * as a json array, so the environment must accept arrays in the events endpoint.
+     *
+     * @param serializedEvents The events serialized as json objects.
+     * @throws HaloNetException
+     * @throws HaloParsingException
+     */
+    public void sendEvents(@NonNull List<String> serializedEvents) throws HaloNetException, HaloParsingException {
+        StringBuilder payload = new StringBuilder(serializedEvents.size() * 128).append('[');
+        for (int i = 0; i < serializedEvents.size(); i++) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            payload.append(serializedEvents.get(i));
+        }
+        payload.append(']');
+        HaloRequest.Builder request = HaloRequest.builder(mClientApi)
+                .url(HaloNetworkConstants.HALO_ENDPOINT_ID, URL_CREATE_EVENT)
+                .method(HaloRequestMethod.POST)
+                .header("Content-Encoding", "gzip");
+        try {
+            request.body(HaloBodyFactory.gzipBody(HaloMediaType.APPLICATION_JSON, payload.toString()));
+        } catch (IOException e) {
+            throw new HaloParsingException("Error while compressing the events", e);
+        }
+        Response response = request.build().execute();
+        if (response.body() != null) {
+            response.body().close();
+        }
     }
 
 }
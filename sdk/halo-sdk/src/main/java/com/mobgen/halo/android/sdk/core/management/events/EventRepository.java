@@ -1,28 +1,156 @@
 package com.mobgen.halo.android.sdk.core.management.events;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 
 import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
+import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
+import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
 import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
+import com.mobgen.halo.android.framework.network.exceptions.HaloNotFoundException;
+import com.mobgen.halo.android.framework.network.exceptions.HaloServerException;
+import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageGeneralException;
+import com.mobgen.halo.android.framework.toolbox.scheduler.Job;
+import com.mobgen.halo.android.framework.toolbox.threading.Threading;
+import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.core.management.models.HaloEvent;
 
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Created by f.souto.gonzalez on 02/06/2017.
  */
 /**
- *
+ * Repository for the tracking events. Events can be sent one by one or queued on the device, in which
+ * case they are coalesced during a time window and sent by a job that waits for the network. The queued
+ * events are sent one by one unless batches are enabled, since the events endpoint of the environment
+ * may not accept them.
  */
 public class EventRepository {
 
+    /**
+     * The job name to flush the queued events.
+     */
+    private static final String JOB_NAME = "flushEvents";
+
+    /**
+     * The maximum number of events sent in a single request.
+     */
+    static final int MAX_EVENTS_PER_REQUEST = 50;
+
+    /**
+     * The number of events queued that flushes the queue without waiting for the window.
+     */
+    static final int FLUSH_THRESHOLD = 20;
+
+    /**
+     * The time window to coalesce the queued events.
+     */
+    static final long FLUSH_WINDOW = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * The wait before retrying a failed flush the first time. It doubles with every failure.
+     */
+    static final long BASE_RETRY_DELAY = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * The maximum wait before retrying a failed flush.
+     */
+    static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * The halo instance.
+     */
+    private Halo mHalo;
+
+    /**
+     * The event remote data source.
+     */
     EventRemoteDatasource mEventRemoteDataSource;
 
+    /**
+     * The event local data source.
+     */
+    private EventLocalDatasource mEventLocalDataSource;
+
+    /**
+     * Handler for the coalescing window.
+     */
+    private Handler mWindowHandler;
+
+    /**
+     * Closes the coalescing window.
+     */
+    private Runnable mWindowEnd;
+
+    /**
+     * Schedules the flush again after a failure.
+     */
+    private Runnable mRetry;
+
+    /**
+     * The number of consecutive flushes that failed.
+     */
+    private int mFailures;
+
+    /**
+     * The number of events queued in the current window.
+     */
+    private int mQueuedInWindow;
+
+    /**
+     * True if the coalescing window is open.
+     */
+    private boolean mWindowOpen;
+
+    /**
+     * True if the flush job is scheduled and did not start yet.
+     */
+    private boolean mFlushScheduled;
+
+    /**
+     * True if the queued events are sent in compressed batches.
+     */
+    private volatile boolean mBatchesEnabled;
+
+    /**
+     * Lock to avoid sending the same events from two flushes.
+     */
+    private final Object mFlushLock = new Object();
+
     /**
      * Constructor of the repository.
      *
+     * @param halo                  The halo instance.
      * @param eventRemoteDatasource The event remote data source.
+     * @param eventLocalDatasource  The event local data source.
      */
-    public EventRepository(@NonNull EventRemoteDatasource eventRemoteDatasource){
+    public EventRepository(@NonNull Halo halo, @NonNull EventRemoteDatasource eventRemoteDatasource, @NonNull EventLocalDatasource eventLocalDatasource) {
+        AssertionUtils.notNull(halo, "halo");
+        AssertionUtils.notNull(eventRemoteDatasource, "eventRemoteDatasource");
+        AssertionUtils.notNull(eventLocalDatasource, "eventLocalDatasource");
+        mHalo = halo;
         mEventRemoteDataSource = eventRemoteDatasource;
+        mEventLocalDataSource = eventLocalDatasource;
+        mWindowHandler = new Handler(Looper.getMainLooper());
+        mWindowEnd = new Runnable() {
+            @Override
+            public void run() {
+                scheduleFlush();
+            }
+        };
+        mRetry = new Runnable() {
+            @Override
+            public void run() {
+                synchronized (EventRepository.this) {
+                    mFlushScheduled = false;
+                }
+                scheduleFlush();
+            }
+        };
     }
 
     /**
@@ -37,4 +165,173 @@ public class EventRepository {
     public HaloEvent sendEvent(@NonNull HaloEvent haloEvent) throws HaloParsingException, HaloNetException {
         return mEventRemoteDataSource.sendEvent(haloEvent);
     }
+
+    /**
+     * Queues the event on the device. The queue is flushed when the coalescing window ends or when
+     * enough events are queued, whatever happens first.
+     *
+     * @param haloEvent The halo event to queue.
+     * @throws HaloParsingException        Error serializing the event.
+     * @throws HaloStorageGeneralException Error storing the event.
+     */
+    public void queueEvent(@NonNull HaloEvent haloEvent) throws HaloParsingException, HaloStorageGeneralException {
+        mEventLocalDataSource.enqueue(HaloEvent.serialize(haloEvent, mHalo.framework().parser()));
+        synchronized (this) {
+            mQueuedInWindow++;
+            if (mQueuedInWindow >= FLUSH_THRESHOLD) {
+                mWindowHandler.removeCallbacks(mWindowEnd);
+                scheduleFlush();
+            } else if (!mWindowOpen && !mFlushScheduled) {
+                mWindowOpen = true;
+                mWindowHandler.postDelayed(mWindowEnd, FLUSH_WINDOW);
+            }
+        }
+    }
+
+    /**
+     * Enables or disables sending the queued events in compressed batches. Batches are disabled by
+     * default.
+     *
+     * @param enabled True to send the queued events in batches.
+     */
+    public void setBatchesEnabled(boolean enabled) {
+        mBatchesEnabled = enabled;
+    }
+
+    /**
+     * Schedules the flush of the events that were left in the queue by a previous execution.
+     */
+    public void flushLeftovers() {
+        if (mEventLocalDataSource.count() > 0) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Schedules the job that flushes the queue once the network is available.
+     */
+    public synchronized void scheduleFlush() {
+        mWindowOpen = false;
+        mQueuedInWindow = 0;
+        if (mFlushScheduled) {
+            return;
+        }
+        mFlushScheduled = true;
+        mHalo.framework().toolbox().schedule(Job.builder(new EventBatchSchedule(mHalo, this))
+                .needsNetwork(Job.NETWORK_TYPE_ANY)
+                .thread(Threading.SINGLE_QUEUE_POLICY)
+                .tag(JOB_NAME)
+                .build());
+    }
+
+    /**
+     * Schedules the flush again after it failed, waiting longer after every consecutive failure. The
+     * events queued meanwhile are sent with the retry.
+     */
+    public synchronized void scheduleRetry() {
+        mFailures++;
+        mFlushScheduled = true;
+        mWindowHandler.removeCallbacks(mRetry);
+        mWindowHandler.postDelayed(mRetry, retryDelay(mFailures));
+    }
+
+    /**
+     * Provides the wait before retrying a flush.
+     *
+     * @param failures The consecutive failures.
+     * @return The wait in milliseconds.
+     */
+    static long retryDelay(int failures) {
+        int exponent = Math.min(Math.max(failures - 1, 0), 16);
+        return Math.min(BASE_RETRY_DELAY << exponent, MAX_RETRY_DELAY);
+    }
+
+    /**
+     * Sends all the queued events, in batches if they are enabled. If the server rejects a batch its
+     * events are sent one by one, so only the events rejected by the server are dropped. The events
+     * not sent stay in the queue if a request fails.
+     *
+     * @return The number of events sent.
+     * @throws HaloNetException     Error sending the events.
+     * @throws HaloParsingException Error compressing the events.
+     */
+    public int flushEvents() throws HaloNetException, HaloParsingException {
+        synchronized (this) {
+            //The events queued from now on need another flush
+            mFlushScheduled = false;
+        }
+        int sent = 0;
+        synchronized (mFlushLock) {
+            Map<Long, String> batch = mEventLocalDataSource.peek(MAX_EVENTS_PER_REQUEST);
+            while (!batch.isEmpty()) {
+                long lastId = -1;
+                for (Long id : batch.keySet()) {
+                    lastId = id;
+                }
+                if (mBatchesEnabled) {
+                    try {
+                        mEventRemoteDataSource.sendEvents(new ArrayList<>(batch.values()));
+                        sent += batch.size();
+                    } catch (HaloNetException e) {
+                        if (!isRejected(e)) {
+                            throw e;
+                        }
+                        Halog.e(getClass(), "The server rejected a batch of " + batch.size() + " events, they are sent one by one.", e);
+                        sent += sendOneByOne(batch);
+                    }
+                } else {
+                    sent += sendOneByOne(batch);
+                }
+                mEventLocalDataSource.removeUntil(lastId);
+                batch = mEventLocalDataSource.peek(MAX_EVENTS_PER_REQUEST);
+            }
+        }
+        synchronized (this) {
+            mFailures = 0;
+        }
+        return sent;
+    }
+
+    /**
+     * Sends the events of a batch one by one. The events rejected by the server are dropped. If a
+     * request fails the events already sent are removed from the queue.
+     *
+     * @param batch The serialized events by id.
+     * @return The number of events sent.
+     * @throws HaloNetException Error sending an event.
+     */
+    private int sendOneByOne(@NonNull Map<Long, String> batch) throws HaloNetException {
+        int sent = 0;
+        long doneId = -1;
+        for (Map.Entry<Long, String> event : batch.entrySet()) {
+            try {
+                mEventRemoteDataSource.sendEvent(event.getValue());
+                sent++;
+            } catch (HaloNetException e) {
+                if (!isRejected(e)) {
+                    if (doneId != -1) {
+                        mEventLocalDataSource.removeUntil(doneId);
+                    }
+                    throw e;
+                }
+                Halog.e(getClass(), "The server rejected the event " + event.getKey() + ", it is discarded.", e);
+            }
+            doneId = event.getKey();
+        }
+        return sent;
+    }
+
+    /**
+     * Tells if the request failed because the server does not accept the events, so sending them
+     * again will fail too.
+     *
+     * @param exception The exception of the request.
+     * @return True if the events are rejected.
+     */
+    private static boolean isRejected(@NonNull HaloNetException exception) {
+        if (exception instanceof HaloServerException) {
+            return ((HaloServerException) exception).getErrorCode() == 400;
+        }
+        return exception instanceof HaloNotFoundException;
+    }
 }
@@ -0,0 +1,49 @@
+package com.mobgen.halo.android.sdk.core.management.events;
+
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.framework.common.exceptions.HaloParsingException;
+import com.mobgen.halo.android.framework.storage.exceptions.HaloStorageGeneralException;
+import com.mobgen.halo.android.framework.toolbox.data.HaloResultV2;
+import com.mobgen.halo.android.framework.toolbox.data.HaloStatus;
+import com.mobgen.halo.android.sdk.core.management.models.HaloEvent;
+import com.mobgen.halo.android.sdk.core.threading.HaloInteractorExecutor;
+
+/**
+ * Interactor to queue an event track analytic of the user to send it in the next batch.
+ */
+public class QueueTrackEventInteractor implements HaloInteractorExecutor.Interactor<HaloEvent> {
+
+    /**
+     * The halo event to track.
+     */
+    private HaloEvent mHaloEvent;
+
+    /**
+     * The event repository.
+     */
+    private EventRepository mEventRepository;
+
+    /**
+     * Constructor of the interactor.
+     *
+     * @param eventRepository The event repository.
+     * @param haloEvent       The event to track.
+     */
+    public QueueTrackEventInteractor(@NonNull EventRepository eventRepository, @NonNull HaloEvent haloEvent) {
+        mEventRepository = eventRepository;
+        mHaloEvent = haloEvent;
+    }
+
+    @NonNull
+    @Override
+    public HaloResultV2<HaloEvent> executeInteractor() throws Exception {
+        HaloStatus.Builder status = HaloStatus.builder();
+        try {
+            mEventRepository.queueEvent(mHaloEvent);
+        } catch (HaloParsingException | HaloStorageGeneralException e) {
+            status.error(e);
+        }
+        return new HaloResultV2<>(status.build(), mHaloEvent);
+    }
+}
@@ -62,6 +62,20 @@ public class Session extends HaloSession {
         return (now.getTime() - mToken.getReceivedDate().getTime()) > MULTIPLE_REQUEST_WINDOW;
     }
 
+    /**
+     * Tells if the session expires within the given time. Sessions that last less than twice
+     * that time are never considered about to expire.
+     *
+     * @param margin The time in milliseconds.
+     * @return True if it expires within that time.
+     */
+    @Api(2.4)
+    public boolean isAboutToExpire(long margin) {
+        long expiresIn = mToken.getExpiresIn() != null ? mToken.getExpiresIn() : 0;
+        long remaining = mToken.getReceivedDate().getTime() + expiresIn - System.currentTimeMillis();
+        return expiresIn > 2 * margin && remaining <= margin;
+    }
+
     @NonNull
     @Override
     public String getRefreshToken() {
@@ -12,6 +12,7 @@ import com.mobgen.halo.android.sdk.core.internal.network.HaloNetworkConstants;
 import com.mobgen.halo.android.sdk.core.management.models.HaloModule;
 import com.mobgen.halo.android.sdk.core.management.models.HaloModuleQuery;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
@@ -22,10 +23,15 @@ import java.util.List;
 @Keep
 public class ModulesRemoteDatasource {
 
+    /**
+     * The path of the modules, used to apply the cache policy.
+     */
+    public static final String PATH_MODULES = "api/generalcontent/module";
+
     /**
      * The url to retrieve the modules.
      */
-    public static final String URL_GET_MODULES = "api/generalcontent/module?skip={skip}&withFields={withFields}";
+    public static final String URL_GET_MODULES = PATH_MODULES + "?skip={skip}&withFields={withFields}";
 
     /**
      * The client api.
@@ -42,7 +48,8 @@ public class ModulesRemoteDatasource {
     }
 
     /**
-     * The modules to retrieve.
+     * The modules to retrieve. The identical requests in flight are coalesced, so every caller
+     * receives its own list of the same modules.
      *
      * @return The modules obtained.
      */
@@ -51,11 +58,13 @@ public class ModulesRemoteDatasource {
         HashMap<String, String> params = new HashMap<String, String>();
         params.put("skip", String.valueOf(true));
         params.put("withFields", String.valueOf(query.withFields()));
-        return HaloRequest.builder(mClientApi)
+        List<HaloModule> modules = HaloRequest.builder(mClientApi)
                 .url(HaloNetworkConstants.HALO_ENDPOINT_ID, URL_GET_MODULES, params)
                 .cacheHeader(query.serverCahe())
                 .method(HaloRequestMethod.GET)
+                .coalesce(true)
                 .build().execute(new TypeReference<List<HaloModule>>() {
                 });
+        return modules == null ? new ArrayList<HaloModule>() : new ArrayList<>(modules);
     }
 }
@@ -1,11 +1,12 @@
 package com.mobgen.halo.android.sdk.core.management.segmentation;
 
 import android.content.Context;
+import android.content.Intent;
 
 /**
  * Tag that collects the application name.
  */
-public class ApplicationNameCollector implements TagCollector {
+public class ApplicationNameCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
@@ -16,4 +17,14 @@ public class ApplicationNameCollector implements TagCollector {
         }
         return null;
     }
+
+    @Override
+    public int getLifetime() {
+        return DYNAMIC;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return new String[]{Intent.ACTION_LOCALE_CHANGED};
+    }
 }
@@ -10,7 +10,7 @@ import com.mobgen.halo.android.sdk.BuildConfig;
 /**
  * Tag that collects the application version.
  */
-public class ApplicationVersionCollector implements TagCollector {
+public class ApplicationVersionCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
@@ -24,4 +24,14 @@ public class ApplicationVersionCollector implements TagCollector {
         }
         return tag;
     }
+
+    @Override
+    public int getLifetime() {
+        return PROCESS;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return null;
+    }
 }
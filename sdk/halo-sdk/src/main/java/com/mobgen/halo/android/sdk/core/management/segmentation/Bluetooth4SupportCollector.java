@@ -11,7 +11,7 @@ import com.mobgen.halo.android.framework.common.utils.HaloUtils;
 /**
  * Tag that determines if this device has support for bluetooth 4 protocol.
  */
-public class Bluetooth4SupportCollector implements TagCollector {
+public class Bluetooth4SupportCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
@@ -31,4 +31,14 @@ public class Bluetooth4SupportCollector implements TagCollector {
     private boolean isBLESupported(@NonNull Context context){
         return context.getPackageManager().hasSystemFeature(PackageManager.FEATURE_BLUETOOTH_LE);
     }
+
+    @Override
+    public int getLifetime() {
+        return STATIC;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return null;
+    }
 }
@@ -0,0 +1,59 @@
+package com.mobgen.halo.android.sdk.core.management.segmentation;
+
+import android.support.annotation.IntDef;
+import android.support.annotation.Keep;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Tag collector that tells how long its tag is valid, so the {@link SegmentationCache} does not collect
+ * it every time the tags are requested. The collectors that do not implement this interface are
+ * collected always.
+ */
+@Keep
+public interface CacheableTagCollector extends TagCollector {
+
+    /**
+     * The tag never changes in this device.
+     */
+    int STATIC = 0;
+    /**
+     * The tag does not change while the process is alive, but it can change in the next one.
+     */
+    int PROCESS = 1;
+    /**
+     * The tag changes while the process is alive when any of the invalidation actions is broadcasted.
+     */
+    int DYNAMIC = 2;
+
+    /**
+     * Provides the lifetime of the tag collected.
+     *
+     * @return The lifetime.
+     */
+    @Api(2.4)
+    @Lifetime
+    int getLifetime();
+
+    /**
+     * Provides the broadcast actions that make the tag collected stale. Only used for the
+     * {@link #DYNAMIC} collectors.
+     *
+     * @return The actions or null if there is no broadcast for it.
+     */
+    @Api(2.4)
+    @Nullable
+    String[] getInvalidationActions();
+
+    /**
+     * The lifetime of the tag collected.
+     */
+    @IntDef({STATIC, PROCESS, DYNAMIC})
+    @Retention(RetentionPolicy.SOURCE)
+    @interface Lifetime {
+    }
+}
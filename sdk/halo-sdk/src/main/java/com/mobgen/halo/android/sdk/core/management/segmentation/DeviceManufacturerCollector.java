@@ -6,10 +6,20 @@ import android.os.Build;
 /**
  * Tag that collects the device manufacturer name.
  */
-public class DeviceManufacturerCollector implements TagCollector {
+public class DeviceManufacturerCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
         return HaloSegmentationTag.createDeviceTag("Device Manufacturer", Build.MANUFACTURER);
     }
+
+    @Override
+    public int getLifetime() {
+        return STATIC;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return null;
+    }
 }
@@ -6,10 +6,20 @@ import android.os.Build;
 /**
  * Tag that collects the device model.
  */
-public class DeviceModelCollector implements TagCollector {
+public class DeviceModelCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
         return HaloSegmentationTag.createDeviceTag("Device Model", Build.MODEL);
     }
+
+    @Override
+    public int getLifetime() {
+        return STATIC;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return null;
+    }
 }
@@ -1,6 +1,7 @@
 package com.mobgen.halo.android.sdk.core.management.segmentation;
 
 import android.content.Context;
+import android.content.Intent;
 
 import com.mobgen.halo.android.framework.common.annotations.Api;
 import com.mobgen.halo.android.sdk.R;
@@ -8,7 +9,7 @@ import com.mobgen.halo.android.sdk.R;
 /**
  * Tag that collects the type of device. The current available types are Tablet and Phone.
  */
-public class DeviceTypeCollector implements TagCollector {
+public class DeviceTypeCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
@@ -31,4 +32,14 @@ public class DeviceTypeCollector implements TagCollector {
     private static boolean isTablet(Context ctx) {
         return ctx.getResources().getBoolean(R.bool.isTablet);
     }
+
+    @Override
+    public int getLifetime() {
+        return DYNAMIC;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return new String[]{Intent.ACTION_CONFIGURATION_CHANGED};
+    }
 }
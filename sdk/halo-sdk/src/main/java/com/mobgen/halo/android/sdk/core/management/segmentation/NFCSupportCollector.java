@@ -8,7 +8,7 @@ import android.nfc.NfcManager;
  * Tag that collects the device support for NFC. Support does not means the NFC is connected for
  * the provided adapter.
  */
-public class NFCSupportCollector implements TagCollector {
+public class NFCSupportCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
@@ -17,4 +17,14 @@ public class NFCSupportCollector implements TagCollector {
         boolean hasNFC = adapter != null;
         return HaloSegmentationTag.createDeviceTag("NFC Support", hasNFC);
     }
+
+    @Override
+    public int getLifetime() {
+        return STATIC;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return null;
+    }
 }
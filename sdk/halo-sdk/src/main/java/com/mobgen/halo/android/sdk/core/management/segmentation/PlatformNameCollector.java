@@ -8,10 +8,20 @@ import com.mobgen.halo.android.sdk.BuildConfig;
  * Tag that provides the platform name. In this case the hardcoded name is Android since this
  * is the Android SDK for HALO.
  */
-public class PlatformNameCollector implements TagCollector {
+public class PlatformNameCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
         return HaloSegmentationTag.createDeviceTag("Platform Name", BuildConfig.HALO_PLATFORM_NAME);
     }
+
+    @Override
+    public int getLifetime() {
+        return STATIC;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return null;
+    }
 }
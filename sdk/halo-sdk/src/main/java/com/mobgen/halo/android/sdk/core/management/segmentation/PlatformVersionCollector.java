@@ -6,10 +6,20 @@ import android.os.Build;
 /**
  * Tag that collects the version of the OS.
  */
-public class PlatformVersionCollector implements TagCollector {
+public class PlatformVersionCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
         return HaloSegmentationTag.createDeviceTag("Android Version", Build.VERSION.RELEASE);
     }
+
+    @Override
+    public int getLifetime() {
+        return PROCESS;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return null;
+    }
 }
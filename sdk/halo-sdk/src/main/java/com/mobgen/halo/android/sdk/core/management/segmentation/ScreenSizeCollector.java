@@ -1,6 +1,7 @@
 package com.mobgen.halo.android.sdk.core.management.segmentation;
 
 import android.content.Context;
+import android.content.Intent;
 import android.graphics.Point;
 import android.view.Display;
 import android.view.WindowManager;
@@ -8,7 +9,7 @@ import android.view.WindowManager;
 /**
  * Tag that collects the screen size of the current device.
  */
-public class ScreenSizeCollector implements TagCollector {
+public class ScreenSizeCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
@@ -20,4 +21,14 @@ public class ScreenSizeCollector implements TagCollector {
         int height = size.y;
         return HaloSegmentationTag.createDeviceTag("Screen Size", width + "x" + height);
     }
+
+    @Override
+    public int getLifetime() {
+        return DYNAMIC;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return new String[]{Intent.ACTION_CONFIGURATION_CHANGED};
+    }
 }
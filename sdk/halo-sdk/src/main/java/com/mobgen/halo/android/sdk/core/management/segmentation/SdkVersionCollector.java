@@ -7,10 +7,20 @@ import com.mobgen.halo.android.sdk.BuildConfig;
 /**
  * Collects the sdk version used for this device.
  */
-public class SdkVersionCollector implements TagCollector {
+public class SdkVersionCollector implements CacheableTagCollector {
 
     @Override
     public HaloSegmentationTag collect(Context context) {
         return HaloSegmentationTag.createDeviceTag("Android SDK Version", BuildConfig.HALO_SDK_VERSION);
     }
+
+    @Override
+    public int getLifetime() {
+        return PROCESS;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return null;
+    }
 }
@@ -0,0 +1,228 @@
+package com.mobgen.halo.android.sdk.core.management.segmentation;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memoizes the tags of the collectors. The tags of the {@link CacheableTagCollector} are collected once
+ * and kept until they are stale: the static and per process ones never go stale while the process is
+ * alive, and the dynamic ones when one of their invalidation actions is broadcasted. The rest of the
+ * collectors are collected every time.
+ */
+public class SegmentationCache {
+
+    /**
+     * The cached collectors.
+     */
+    private final List<Entry> mEntries;
+    /**
+     * The receiver of the invalidation actions.
+     */
+    private final BroadcastReceiver mReceiver;
+    /**
+     * The context where the receiver is registered, guarded by this.
+     */
+    private Context mRegisteredContext;
+
+    /**
+     * Constructor for the cache.
+     *
+     * @param collectors The collectors.
+     */
+    @Api(2.4)
+    public SegmentationCache(@NonNull List<TagCollector> collectors) {
+        AssertionUtils.notNull(collectors, "collectors");
+        mEntries = new ArrayList<>(collectors.size());
+        for (TagCollector collector : collectors) {
+            if (collector != null) {
+                mEntries.add(new Entry(collector));
+            }
+        }
+        mReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                onBroadcast(intent.getAction());
+            }
+        };
+    }
+
+    /**
+     * Provides the tags, collecting only the ones that are not cached or are stale.
+     *
+     * @param context The context.
+     * @return The tags.
+     */
+    @Api(2.4)
+    @NonNull
+    public synchronized List<HaloSegmentationTag> collect(@NonNull Context context) {
+        AssertionUtils.notNull(context, "context");
+        registerReceiver(context);
+        List<HaloSegmentationTag> tags = new ArrayList<>(mEntries.size());
+        for (Entry entry : mEntries) {
+            HaloSegmentationTag tag = entry.get(context);
+            if (tag != null) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Makes stale all the tags that can change while the process is alive, so they are collected
+     * again the next time.
+     */
+    @Api(2.4)
+    public void invalidate() {
+        for (Entry entry : mEntries) {
+            if (entry.mLifetime != CacheableTagCollector.STATIC) {
+                entry.mStale = true;
+            }
+        }
+    }
+
+    /**
+     * Stops listening to the invalidation actions.
+     */
+    @Api(2.4)
+    public synchronized void release() {
+        if (mRegisteredContext != null) {
+            mRegisteredContext.unregisterReceiver(mReceiver);
+            mRegisteredContext = null;
+        }
+    }
+
+    /**
+     * Makes stale the dynamic tags invalidated by the action.
+     *
+     * @param action The action broadcasted.
+     */
+    void onBroadcast(@Nullable String action) {
+        if (action != null) {
+            for (Entry entry : mEntries) {
+                if (entry.isInvalidatedBy(action)) {
+                    entry.mStale = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers the receiver for the invalidation actions of the dynamic collectors if it is not
+     * registered yet.
+     *
+     * @param context The context.
+     */
+    private void registerReceiver(@NonNull Context context) {
+        if (mRegisteredContext != null) {
+            return;
+        }
+        IntentFilter filter = new IntentFilter();
+        for (Entry entry : mEntries) {
+            if (entry.mActions != null) {
+                for (String action : entry.mActions) {
+                    if (!filter.hasAction(action)) {
+                        filter.addAction(action);
+                    }
+                }
+            }
+        }
+        if (filter.countActions() > 0) {
+            mRegisteredContext = context.getApplicationContext();
+            mRegisteredContext.registerReceiver(mReceiver, filter);
+        }
+    }
+
+    /**
+     * A collector with its cached tag.
+     */
+    private static class Entry {
+        /**
+         * The collector.
+         */
+        private final TagCollector mCollector;
+        /**
+         * The lifetime of the tag.
+         */
+        @CacheableTagCollector.Lifetime
+        private final int mLifetime;
+        /**
+         * The invalidation actions of a dynamic collector.
+         */
+        private final String[] mActions;
+        /**
+         * Tells if the collector must be collected again. It is set without the lock, so a broadcast
+         * received while collecting makes the tag collected stale.
+         */
+        private volatile boolean mStale;
+        /**
+         * The tag collected.
+         */
+        private HaloSegmentationTag mTag;
+
+        /**
+         * Constructor for the entry.
+         *
+         * @param collector The collector.
+         */
+        private Entry(@NonNull TagCollector collector) {
+            mCollector = collector;
+            if (collector instanceof CacheableTagCollector) {
+                CacheableTagCollector cacheable = (CacheableTagCollector) collector;
+                mLifetime = cacheable.getLifetime();
+                mActions = mLifetime == CacheableTagCollector.DYNAMIC ? cacheable.getInvalidationActions() : null;
+            } else {
+                mLifetime = CacheableTagCollector.DYNAMIC;
+                mActions = null;
+            }
+            mStale = true;
+        }
+
+        /**
+         * Tells if the tag is made stale by the action.
+         *
+         * @param action The action.
+         * @return True if the action invalidates the tag.
+         */
+        private boolean isInvalidatedBy(@NonNull String action) {
+            if (mActions != null) {
+                for (String candidate : mActions) {
+                    if (action.equals(candidate)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Provides the tag, collecting it if it is stale or it cannot be cached.
+         *
+         * @param context The context.
+         * @return The tag.
+         */
+        @Nullable
+        private HaloSegmentationTag get(@NonNull Context context) {
+            boolean cacheable = mLifetime != CacheableTagCollector.DYNAMIC || mActions != null;
+            if (mStale || !cacheable) {
+                mStale = false;
+                try {
+                    mTag = mCollector.collect(context);
+                } catch (RuntimeException e) {
+                    mStale = true;
+                    throw e;
+                }
+            }
+            return mTag;
+        }
+    }
+}
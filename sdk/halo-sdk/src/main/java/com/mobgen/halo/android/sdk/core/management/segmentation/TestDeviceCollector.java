@@ -11,7 +11,7 @@ import com.mobgen.halo.android.sdk.core.HaloCore;
  * @see HaloCore
  * @see TagCollector
  */
-public class TestDeviceCollector implements TagCollector {
+public class TestDeviceCollector implements CacheableTagCollector {
 
     /**
      * Checks if it is a test device.
@@ -31,4 +31,14 @@ public class TestDeviceCollector implements TagCollector {
     public HaloSegmentationTag collect(Context context) {
         return HaloSegmentationTag.createDeviceTag("Test Device", mIsTestDevice);
     }
+
+    @Override
+    public int getLifetime() {
+        return PROCESS;
+    }
+
+    @Override
+    public String[] getInvalidationActions() {
+        return null;
+    }
 }
@@ -12,6 +12,8 @@ import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.core.threading.HaloInteractorExecutor;
 import com.mobgen.halo.android.sdk.core.threading.InteractorExecutionCallback;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * ThreadContext that helps to do the different flows based on the needs
  * of a query.
@@ -44,6 +46,14 @@ public class HaloSelectorFactory<P, U> {
      * The name of the action to perform.
      */
     protected String mName;
+    /**
+     * The key of the request to track its revalidations.
+     */
+    protected String mRevalidationKey;
+    /**
+     * The time in milliseconds the data is fresh after a revalidation.
+     */
+    protected long mMaxAge;
 
     /**
      * The mode selector.
@@ -73,6 +83,49 @@ public class HaloSelectorFactory<P, U> {
         mName = name;
     }
 
+    /**
+     * Sets the time the data is considered fresh after it is revalidated with the
+     * {@link Data#STALE_WHILE_REVALIDATE} policy. The request does not go to the network while the data is fresh.
+     *
+     * @param unit The unit of the time.
+     * @param time The time.
+     * @return The current factory.
+     */
+    @Api(2.4)
+    @NonNull
+    public HaloSelectorFactory<P, U> maxAge(@NonNull TimeUnit unit, long time) {
+        AssertionUtils.notNull(unit, "unit");
+        mMaxAge = unit.toMillis(time);
+        return this;
+    }
+
+    /**
+     * Sets the key that identifies the request to track its revalidations. Without a key the request is
+     * revalidated always with the {@link Data#STALE_WHILE_REVALIDATE} policy.
+     *
+     * @param key The key of the request.
+     * @return The current factory.
+     */
+    @Api(2.4)
+    @NonNull
+    public HaloSelectorFactory<P, U> revalidationKey(@Nullable String key) {
+        mRevalidationKey = key;
+        return this;
+    }
+
+    /**
+     * Configures the revalidation of a selector created by this factory.
+     *
+     * @param selector The selector.
+     * @param <T>      The type of the selector.
+     * @return The same selector.
+     */
+    @Api(2.4)
+    @NonNull
+    protected <T> Selector<T> revalidating(@NonNull Selector<T> selector) {
+        return selector.revalidation(mRevalidationKey == null ? null : mName + "|" + mRevalidationKey, mMaxAge);
+    }
+
     /**
      * Provides the content as a cursor loader.
      *
@@ -85,7 +138,7 @@ public class HaloSelectorFactory<P, U> {
         return new HaloInteractorExecutor<>(
                 mHalo,
                 mName,
-                new SelectorRaw2Unparse<>(mDataProvider, mMode),
+                revalidating(new SelectorRaw2Unparse<U>(mDataProvider, mMode)),
                 mExecutionCallback);
     }
 
@@ -101,7 +154,7 @@ public class HaloSelectorFactory<P, U> {
         return new HaloInteractorExecutor<>(
                 mHalo,
                 mName,
-                new SelectorUnparse2Parse<>(mDataProvider, mConverter, mMode),
+                revalidating(new SelectorUnparse2Parse<P, U>(mDataProvider, mConverter, mMode)),
                 mExecutionCallback);
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.mobgen.halo.android.sdk.core.selectors;
+
+import android.support.annotation.Keep;
+
+import com.mobgen.halo.android.framework.common.annotations.Api;
+
+/**
+ * Data that knows its own fingerprint, so the selectors can compare it with the revalidated data
+ * without reading it. The fingerprint of a cursor must be the one of {@link Selector#fingerprint(android.database.Cursor)}
+ * over its rows.
+ */
+@Keep
+public interface IFingerprinted {
+    /**
+     * Provides the fingerprint of the data.
+     *
+     * @return The fingerprint.
+     */
+    @Api(2.4)
+    long fingerprint();
+}
@@ -0,0 +1,83 @@
+package com.mobgen.halo.android.sdk.core.selectors;
+
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @hide Keeps the time of the last revalidation of every request, so the requests with the
+ * {@link com.mobgen.halo.android.framework.toolbox.data.Data#STALE_WHILE_REVALIDATE} policy do not go
+ * to the network while their data is fresh. The revalidations are forgotten when the session or the
+ * halo instance change.
+ */
+public final class Revalidations {
+
+    /**
+     * The time of the last revalidation by request key.
+     */
+    private static final Map<String, Long> REVALIDATIONS = new HashMap<>();
+
+    /**
+     * The number of times the revalidations were forgotten, guarded by the revalidations.
+     */
+    private static long sGeneration;
+
+    private Revalidations() {
+        //No instances
+    }
+
+    /**
+     * Tells if the data of the request is still fresh.
+     *
+     * @param key    The key of the request, null if it is not tracked.
+     * @param maxAge The time in milliseconds the data is fresh after a revalidation.
+     * @return True if the request was revalidated within the max age.
+     */
+    static boolean isFresh(@Nullable String key, long maxAge) {
+        if (key == null || maxAge <= 0) {
+            return false;
+        }
+        synchronized (REVALIDATIONS) {
+            Long revalidation = REVALIDATIONS.get(key);
+            return revalidation != null && SystemClock.elapsedRealtime() - revalidation < maxAge;
+        }
+    }
+
+    /**
+     * Records the revalidation of a request.
+     *
+     * @param key The key of the request, null if it is not tracked.
+     */
+    static void revalidated(@Nullable String key) {
+        if (key != null) {
+            synchronized (REVALIDATIONS) {
+                REVALIDATIONS.put(key, SystemClock.elapsedRealtime());
+            }
+        }
+    }
+
+    /**
+     * Forgets all the revalidations.
+     */
+    public static void clear() {
+        synchronized (REVALIDATIONS) {
+            REVALIDATIONS.clear();
+            sGeneration++;
+        }
+    }
+
+    /**
+     * Provides the generation of the revalidations, that changes every time they are forgotten because
+     * the session is flushed or halo is uninstalled. The caches of data that depends on the session or
+     * the environment drop it when the generation changes.
+     *
+     * @return The generation.
+     */
+    public static long generation() {
+        synchronized (REVALIDATIONS) {
+            return sGeneration;
+        }
+    }
+}
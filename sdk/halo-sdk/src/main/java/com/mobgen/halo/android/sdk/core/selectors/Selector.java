@@ -1,22 +1,47 @@
 package com.mobgen.halo.android.sdk.core.selectors;
 
+import android.database.Cursor;
 import android.support.annotation.Keep;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.common.annotations.Api;
+import com.mobgen.halo.android.framework.common.helpers.logger.Halog;
+import com.mobgen.halo.android.framework.network.client.response.Parser;
 import com.mobgen.halo.android.framework.toolbox.data.Data;
+import com.mobgen.halo.android.framework.toolbox.data.HaloResultV2;
+import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.core.threading.HaloInteractorExecutor;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Collection;
+
 /**
  * Base selector that dispatches the threading changes and callback execution for
  * the data selection process.
  */
 @Keep
-public abstract class Selector<T> implements HaloInteractorExecutor.Interactor<T> {
+public abstract class Selector<T> implements HaloInteractorExecutor.RevalidatingInteractor<T> {
     /**
      * The data policy for the selector choosing.
      */
     @Data.Policy
     private int mDataPolicy;
+    /**
+     * The key of the request to track its revalidations or null to revalidate it always.
+     */
+    private String mRevalidationKey;
+    /**
+     * The time in milliseconds the data is considered fresh after a revalidation.
+     */
+    private long mMaxAge;
+    /**
+     * The fingerprint of the last data provided or null if it could not be computed.
+     */
+    private Long mFingerprint;
 
     /**
      * Base selector that contains all the common data needed for all the
@@ -38,4 +63,172 @@ public abstract class Selector<T> implements HaloInteractorExecutor.Interactor<T
     public int dataPolicy() {
         return mDataPolicy;
     }
-}
\ No newline at end of file
+
+    /**
+     * Configures the revalidation of the {@link Data#STALE_WHILE_REVALIDATE} policy.
+     *
+     * @param key    The key of the request or null to revalidate it always.
+     * @param maxAge The time in milliseconds the data is considered fresh after a revalidation.
+     * @return The current selector.
+     */
+    @Api(2.4)
+    @NonNull
+    public Selector<T> revalidation(@Nullable String key, long maxAge) {
+        mRevalidationKey = key;
+        mMaxAge = maxAge;
+        return this;
+    }
+
+    @Override
+    public boolean revalidates() {
+        return mDataPolicy == Data.STALE_WHILE_REVALIDATE;
+    }
+
+    @Nullable
+    @Override
+    public HaloResultV2<T> revalidate() throws Exception {
+        if (mDataPolicy != Data.STALE_WHILE_REVALIDATE || Revalidations.isFresh(mRevalidationKey, mMaxAge)) {
+            return null;
+        }
+        return revalidateInteractor();
+    }
+
+    /**
+     * Revalidates the data of a {@link Data#STALE_WHILE_REVALIDATE} request. The selectors that support
+     * this policy must override it.
+     *
+     * @return The updated result or null if the data did not change.
+     * @throws Exception Can throw any exception during the revalidation.
+     */
+    @Api(2.4)
+    @Nullable
+    protected HaloResultV2<T> revalidateInteractor() throws Exception {
+        return null;
+    }
+
+    /**
+     * Remembers the data provided from the storage to compare it with the revalidated one. It must be
+     * called before the data is converted.
+     *
+     * @param stored The result from the storage.
+     * @param <D>    The type of the data.
+     * @return The same result.
+     */
+    @Api(2.4)
+    @NonNull
+    protected <D> HaloResultV2<D> stale(@NonNull HaloResultV2<D> stored) {
+        mFingerprint = fingerprint(stored.data());
+        return stored;
+    }
+
+    /**
+     * Compares the revalidated data with the data provided before.
+     *
+     * @param revalidated The revalidated result.
+     * @param <D>         The type of the data.
+     * @return The same result if the data changed, or null if it did not change or the revalidation failed.
+     */
+    @Api(2.4)
+    @Nullable
+    protected <D> HaloResultV2<D> changed(@NonNull HaloResultV2<D> revalidated) {
+        D data = revalidated.data();
+        if (!revalidated.status().isOk() || !revalidated.status().isFresh()) {
+            Halog.w(getClass(), "The data could not be revalidated, the stale data is kept.");
+            close(data);
+            return null;
+        }
+        Revalidations.revalidated(mRevalidationKey);
+        Long fingerprint = fingerprint(data);
+        if (fingerprint != null && fingerprint.equals(mFingerprint)) {
+            close(data);
+            return null;
+        }
+        mFingerprint = fingerprint;
+        return revalidated;
+    }
+
+    /**
+     * Computes the fingerprint of the data. The data that knows its fingerprint provides it, the cursors
+     * are fingerprinted by their rows, the raw payloads by their content and the collections by their
+     * elements. The rest of the objects are fingerprinted by their json, since their hash code may not
+     * depend on their content.
+     *
+     * @param data The data.
+     * @return The fingerprint or null if it cannot be computed, so the data is always considered changed.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static Long fingerprint(@Nullable Object data) {
+        if (data == null) {
+            return 0L;
+        }
+        if (data instanceof IFingerprinted) {
+            return ((IFingerprinted) data).fingerprint();
+        }
+        if (data instanceof Cursor) {
+            return fingerprint((Cursor) data);
+        }
+        if (data instanceof byte[]) {
+            return (long) Arrays.hashCode((byte[]) data);
+        }
+        if (data instanceof CharSequence || data instanceof JSONObject || data instanceof JSONArray) {
+            return (long) data.toString().hashCode();
+        }
+        if (data instanceof Collection) {
+            long fingerprint = ((Collection) data).size();
+            for (Object element : (Collection) data) {
+                Long elementFingerprint = fingerprint(element);
+                if (elementFingerprint == null) {
+                    return null;
+                }
+                fingerprint = 31 * fingerprint + elementFingerprint;
+            }
+            return fingerprint;
+        }
+        try {
+            String json = ((Parser<Object, String>) Halo.instance().framework().parser().serialize(data.getClass())).convert(data);
+            return json == null ? null : (long) json.hashCode();
+        } catch (Exception e) {
+            Halog.w(Selector.class, "The data of type " + data.getClass() + " cannot be fingerprinted, the revalidated data is always delivered.");
+            return null;
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the rows of a cursor. The position of the cursor is kept.
+     *
+     * @param cursor The cursor.
+     * @return The fingerprint.
+     */
+    @Api(2.4)
+    public static long fingerprint(@NonNull Cursor cursor) {
+        int position = cursor.getPosition();
+        long fingerprint = cursor.getCount();
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            for (int i = 0; i < cursor.getColumnCount(); i++) {
+                int value;
+                if (cursor.getType(i) == Cursor.FIELD_TYPE_BLOB) {
+                    value = Arrays.hashCode(cursor.getBlob(i));
+                } else {
+                    String text = cursor.getString(i);
+                    value = text == null ? 0 : text.hashCode();
+                }
+                fingerprint = 31 * fingerprint + value;
+            }
+        }
+        cursor.moveToPosition(position);
+        return fingerprint;
+    }
+
+    /**
+     * Closes the data that is not delivered if it is a cursor.
+     *
+     * @param data The data.
+     */
+    private static void close(@Nullable Object data) {
+        if (data instanceof Cursor) {
+            ((Cursor) data).close();
+        }
+    }
+}
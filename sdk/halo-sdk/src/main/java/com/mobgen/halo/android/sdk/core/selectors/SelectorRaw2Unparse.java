@@ -2,6 +2,7 @@ package com.mobgen.halo.android.sdk.core.selectors;
 
 import android.support.annotation.Keep;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
 import com.mobgen.halo.android.framework.network.exceptions.HaloNetException;
@@ -43,6 +44,9 @@ public class SelectorRaw2Unparse<U> extends Selector<U> {
             case Data.STORAGE_ONLY:
                 result = mProvider.fromStorage();
                 break;
+            case Data.STALE_WHILE_REVALIDATE:
+                result = stale(mProvider.fromStorage());
+                break;
             case Data.NETWORK_ONLY:
             default:
                 throw new UnsupportedOperationException("The operation provided is not supported.");
@@ -50,4 +54,10 @@ public class SelectorRaw2Unparse<U> extends Selector<U> {
         }
         return result;
     }
+
+    @Nullable
+    @Override
+    protected HaloResultV2<U> revalidateInteractor() throws HaloNetException, HaloStorageException {
+        return changed(mProvider.fromNetworkStorage());
+    }
 }
\ No newline at end of file
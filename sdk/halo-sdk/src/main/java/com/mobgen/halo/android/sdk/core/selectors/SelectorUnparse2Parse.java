@@ -2,6 +2,7 @@ package com.mobgen.halo.android.sdk.core.selectors;
 
 import android.support.annotation.Keep;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.mobgen.halo.android.framework.common.utils.AssertionUtils;
 import com.mobgen.halo.android.framework.toolbox.data.Data;
@@ -53,9 +54,19 @@ public class SelectorUnparse2Parse<P, U> extends Selector<P> {
             case Data.NETWORK_ONLY:
                 result = mDataProvider.fromNetwork();
                 break;
+            case Data.STALE_WHILE_REVALIDATE:
+                result = mConverter.convert(stale(mDataProvider.fromStorage()));
+                break;
             default:
                 throw new UnsupportedOperationException("The operation provided is not supported.");
         }
         return result;
     }
+
+    @Nullable
+    @Override
+    protected HaloResultV2<P> revalidateInteractor() throws Exception {
+        HaloResultV2<U> result = changed(mDataProvider.fromNetworkStorage());
+        return result == null ? null : mConverter.convert(result);
+    }
 }
\ No newline at end of file
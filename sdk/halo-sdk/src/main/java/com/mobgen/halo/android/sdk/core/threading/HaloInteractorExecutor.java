@@ -39,6 +39,11 @@ public final class HaloInteractorExecutor<T> implements ICancellable, ThreadCont
      */
     @Threading.Policy
     private int mThreadPolicy;
+    /**
+     * The priority of the execution in its queue.
+     */
+    @Threading.Priority
+    private int mPriority;
     /**
      * Flag to state if the selector has been cancelled.
      */
@@ -103,6 +108,7 @@ public final class HaloInteractorExecutor<T> implements ICancellable, ThreadCont
         mInteractor = interactor;
         mExecutionCallback = executionCallback;
         mThreadPolicy = Threading.POOL_QUEUE_POLICY;
+        mPriority = Threading.PRIORITY_DEFAULT;
         if (Looper.myLooper() != null) {
             mResultHandler = new Handler(Looper.myLooper());
         }
@@ -119,8 +125,8 @@ public final class HaloInteractorExecutor<T> implements ICancellable, ThreadCont
     @Api(2.0)
     public final ICancellable execute(@Nullable final CallbackV2<T> callback) {
         mCallback = callback;
-        mHalo.framework().toolbox().queue().enqueue(mThreadPolicy,
-                new SafeRunnable<T>(mHalo, mBypassReadyCheck, mName, mCallback) {
+        mHalo.framework().toolbox().queue().enqueue(mThreadPolicy, mPriority,
+                new SafeRunnable<T>(mHalo, mBypassReadyCheck, mThreadPolicy, mPriority, mName, mCallback) {
                     @Override
                     protected void safeRun() throws Exception {
                         HaloResultV2<T> resultingData = null;
@@ -135,12 +141,41 @@ public final class HaloInteractorExecutor<T> implements ICancellable, ThreadCont
                         }
                         if (!isCancelled()) {
                             notifyEnded(resultingData);
+                            if (mInteractor instanceof RevalidatingInteractor && ((RevalidatingInteractor<T>) mInteractor).revalidates()) {
+                                revalidate((RevalidatingInteractor<T>) mInteractor);
+                            }
                         }
                     }
                 });
         return this;
     }
 
+    /**
+     * Revalidates the result delivered in background and delivers the updated result to the same
+     * callback if there is any.
+     *
+     * @param interactor The interactor that revalidates.
+     */
+    private void revalidate(@NonNull final RevalidatingInteractor<T> interactor) {
+        mHalo.framework().toolbox().queue().enqueue(mThreadPolicy, Threading.PRIORITY_BACKGROUND, new Runnable() {
+            @Override
+            public void run() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    HaloResultV2<T> revalidatedData = interactor.revalidate();
+                    if (revalidatedData != null && !isCancelled()) {
+                        Halog.d(HaloInteractorExecutor.class, "Halo request -> " + mName + " delivers the revalidated data");
+                        notifyEnded(revalidatedData);
+                    }
+                } catch (Exception e) {
+                    Halog.e(HaloInteractorExecutor.class, "Halo request -> " + mName + " could not be revalidated", e);
+                }
+            }
+        });
+    }
+
     /**
      * Executes a given operation into the thread manager.
      *
@@ -216,6 +251,20 @@ public final class HaloInteractorExecutor<T> implements ICancellable, ThreadCont
         return this;
     }
 
+    /**
+     * Provides the priority of this execution in its queue. Interactive executions are taken
+     * before any pending default or background execution.
+     *
+     * @param priority The priority.
+     * @return The current executor.
+     */
+    @NonNull
+    @Api(2.4)
+    public HaloInteractorExecutor<T> priority(@Threading.Priority int priority) {
+        mPriority = priority;
+        return this;
+    }
+
     /**
      * Bypasses the halo ready check. This check is done to ensure
      * the halo instance we are using is perfectly configured.
@@ -277,6 +326,33 @@ public final class HaloInteractorExecutor<T> implements ICancellable, ThreadCont
         HaloResultV2<T> executeInteractor() throws Exception;
     }
 
+    /**
+     * Interactor that can revalidate the result it provided. The revalidation runs in background
+     * after the result is delivered, and it is not done on inline executions.
+     */
+    @Keep
+    public interface RevalidatingInteractor<T> extends Interactor<T> {
+        /**
+         * Tells if the result provided by the last execution must be revalidated.
+         *
+         * @return True to revalidate it in background.
+         */
+        @Keep
+        @Api(2.4)
+        boolean revalidates();
+
+        /**
+         * Revalidates the result provided by the last execution.
+         *
+         * @return The updated result or null if the result did not change.
+         * @throws Exception Can throw any exception during the revalidation.
+         */
+        @Keep
+        @Api(2.4)
+        @Nullable
+        HaloResultV2<T> revalidate() throws Exception;
+    }
+
     /**
      * Runnable that ensures the errors produced during the execution of the
      * request are not dropped out, avoiding the app to crash.
@@ -296,6 +372,16 @@ public final class HaloInteractorExecutor<T> implements ICancellable, ThreadCont
          * Bypasses the ready check.
          */
         private boolean mBypassReadyCheck;
+        /**
+         * The thread policy of the execution.
+         */
+        @Threading.Policy
+        private int mThreadPolicy;
+        /**
+         * The priority of the execution.
+         */
+        @Threading.Priority
+        private int mPriority;
         /**
          * Callback on which we will drop the result.
          */
@@ -306,13 +392,18 @@ public final class HaloInteractorExecutor<T> implements ICancellable, ThreadCont
          *
          * @param halo             The halo instance.
          * @param bypassReadyCheck Avoids executing the ready check.
+         * @param threadPolicy     The thread policy of the execution.
+         * @param priority         The priority of the execution.
          * @param name             The name.
          * @param callback         The callback.
          */
-        public SafeRunnable(@NonNull Halo halo, boolean bypassReadyCheck, @NonNull String name, @Nullable CallbackV2<T> callback) {
+        public SafeRunnable(@NonNull Halo halo, boolean bypassReadyCheck, @Threading.Policy int threadPolicy,
+                            @Threading.Priority int priority, @NonNull String name, @Nullable CallbackV2<T> callback) {
             AssertionUtils.notNull(name, "name");
             mHalo = halo;
             mBypassReadyCheck = bypassReadyCheck;
+            mThreadPolicy = threadPolicy;
+            mPriority = priority;
             mName = name;
             mCallback = callback;
         }
@@ -322,13 +413,22 @@ public final class HaloInteractorExecutor<T> implements ICancellable, ThreadCont
             Halog.d(getClass(), "Executing Halo request -> " + mName);
             if (mBypassReadyCheck) {
                 wrapSafely();
-            } else {
+            } else if (mThreadPolicy == Threading.SAME_THREAD_POLICY) {
+                //The caller expects the execution in its own thread
                 mHalo.ready(new HaloReadyListener() {
                     @Override
                     public void onHaloReady() {
                         wrapSafely();
                     }
                 });
+            } else if (!mHalo.parkUntilReady(new Runnable() {
+                @Override
+                public void run() {
+                    //Dispatched again to the queue once halo is ready instead of waiting in a worker thread
+                    mHalo.framework().toolbox().queue().enqueue(mThreadPolicy, mPriority, SafeRunnable.this);
+                }
+            })) {
+                wrapSafely();
             }
         }
 
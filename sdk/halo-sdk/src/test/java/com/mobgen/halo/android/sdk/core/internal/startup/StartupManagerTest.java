@@ -1,8 +1,12 @@
 package com.mobgen.halo.android.sdk.core.internal.startup;
 
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.framework.toolbox.threading.Threading;
 import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.HaloInstallationListener;
 import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.HaloReadyListener;
+import com.mobgen.halo.android.sdk.core.internal.startup.callbacks.StartupInstrumentation;
 import com.mobgen.halo.android.sdk.core.internal.startup.processes.StartupProcess;
 import com.mobgen.halo.android.sdk.mock.HaloMock;
 import com.mobgen.halo.android.testing.CallbackFlag;
@@ -12,6 +16,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.mobgen.halo.android.sdk.mock.instrumentation.StartupManagerInstrument.givenAInstallationListener;
 import static com.mobgen.halo.android.sdk.mock.instrumentation.StartupManagerInstrument.givenAProcess;
 import static com.mobgen.halo.android.sdk.mock.instrumentation.StartupManagerInstrument.givenAReadyListener;
@@ -95,4 +102,163 @@ public class StartupManagerTest extends HaloRobolectricTest {
         assertThat(mManager.hasFinished()).isTrue();
     }
 
+    @Test
+    public void thatParkedTaskRunsWhenInstallationFinishes() {
+        boolean parked = mReadyChecker.parkUntilReady(new Runnable() {
+            @Override
+            public void run() {
+                mCallbackFlag.flagExecuted();
+            }
+        });
+        assertThat(parked).isTrue();
+        assertThat(mCallbackFlag.isFlagged()).isFalse();
+        mReadyChecker.onFinishedInstallation();
+        assertThat(mCallbackFlag.timesExecuted()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatTaskIsNotParkedWhenHaloIsReady() {
+        mReadyChecker.onFinishedInstallation();
+        boolean parked = mReadyChecker.parkUntilReady(new Runnable() {
+            @Override
+            public void run() {
+                mCallbackFlag.flagExecuted();
+            }
+        });
+        assertThat(parked).isFalse();
+        assertThat(mCallbackFlag.isFlagged()).isFalse();
+    }
+
+    @Test
+    public void thatProcessStartsAfterItsDependencies() {
+        List<String> order = new ArrayList<>();
+        mManager.execute(new DependentProcess(order), new RecordingProcess(order, "first", StartupProcess.CRITICAL));
+        assertThat(order).containsExactly("first", "dependent");
+        assertThat(mManager.hasFinished()).isTrue();
+    }
+
+    @Test
+    public void thatAProcessWaitsForACycleItDependsOn() {
+        List<String> order = new ArrayList<>();
+        mManager.execute(new CycleDependentProcess(order), new FirstCycleProcess(order), new SecondCycleProcess(order));
+        assertThat(order).containsOnly("cycle dependent", "first cycle", "second cycle");
+        assertThat(order.indexOf("cycle dependent")).isGreaterThan(order.indexOf("first cycle"));
+        assertThat(mManager.hasFinished()).isTrue();
+    }
+
+    @Test
+    public void thatDeferredProcessRunsWhenHaloIsReady() {
+        final List<String> order = new ArrayList<>();
+        mReadyChecker.parkUntilReady(new Runnable() {
+            @Override
+            public void run() {
+                order.add("ready");
+            }
+        });
+        mManager.execute(new RecordingProcess(order, "deferred", StartupProcess.DEFERRED), new RecordingProcess(order, "critical", StartupProcess.CRITICAL));
+        assertThat(order).containsExactly("critical", "ready", "deferred");
+    }
+
+    @Test
+    public void thatInstrumentationReceivesTheTiming() {
+        final List<String> events = new ArrayList<>();
+        mManager.setInstrumentation(new StartupInstrumentation() {
+            @Override
+            public void onProcessFinished(@NonNull StartupProcess process, long elapsedMillis, boolean timedOut) {
+                events.add(((RecordingProcess) process).mName + (timedOut ? " timed out" : " finished"));
+            }
+
+            @Override
+            public void onPhaseFinished(int phase, long elapsedMillis) {
+                assertThat(elapsedMillis).isGreaterThanOrEqualTo(0);
+                events.add(phase == StartupProcess.CRITICAL ? "critical phase" : "deferred phase");
+            }
+        });
+        List<String> order = new ArrayList<>();
+        mManager.execute(new RecordingProcess(order, "first", StartupProcess.CRITICAL), new RecordingProcess(order, "second", StartupProcess.DEFERRED));
+        assertThat(events).containsExactly("first finished", "critical phase", "second finished", "deferred phase");
+    }
+
+    private static class RecordingProcess extends StartupProcess {
+        private final List<String> mOrder;
+        private final String mName;
+        private final int mCriticality;
+
+        private RecordingProcess(List<String> order, String name, int criticality) {
+            mOrder = order;
+            mName = name;
+            mCriticality = criticality;
+        }
+
+        @Override
+        public int getThreadPolicy() {
+            return Threading.POOL_QUEUE_POLICY;
+        }
+
+        @Override
+        public int getCriticality() {
+            return mCriticality;
+        }
+
+        @Override
+        protected void onStart(@NonNull Halo halo) {
+            mOrder.add(mName);
+        }
+    }
+
+    private static class DependentProcess extends RecordingProcess {
+
+        private DependentProcess(List<String> order) {
+            super(order, "dependent", StartupProcess.CRITICAL);
+        }
+
+        @NonNull
+        @Override
+        @SuppressWarnings("unchecked")
+        public Class<? extends StartupProcess>[] getDependencies() {
+            return new Class[]{RecordingProcess.class};
+        }
+    }
+
+    private static class FirstCycleProcess extends RecordingProcess {
+
+        private FirstCycleProcess(List<String> order) {
+            super(order, "first cycle", StartupProcess.CRITICAL);
+        }
+
+        @NonNull
+        @Override
+        @SuppressWarnings("unchecked")
+        public Class<? extends StartupProcess>[] getDependencies() {
+            return new Class[]{SecondCycleProcess.class};
+        }
+    }
+
+    private static class SecondCycleProcess extends RecordingProcess {
+
+        private SecondCycleProcess(List<String> order) {
+            super(order, "second cycle", StartupProcess.CRITICAL);
+        }
+
+        @NonNull
+        @Override
+        @SuppressWarnings("unchecked")
+        public Class<? extends StartupProcess>[] getDependencies() {
+            return new Class[]{FirstCycleProcess.class};
+        }
+    }
+
+    private static class CycleDependentProcess extends RecordingProcess {
+
+        private CycleDependentProcess(List<String> order) {
+            super(order, "cycle dependent", StartupProcess.CRITICAL);
+        }
+
+        @NonNull
+        @Override
+        @SuppressWarnings("unchecked")
+        public Class<? extends StartupProcess>[] getDependencies() {
+            return new Class[]{FirstCycleProcess.class};
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.mobgen.halo.android.sdk.core.management.authentication;
 
 import com.mobgen.halo.android.framework.api.HaloFramework;
+import com.mobgen.halo.android.framework.network.sessions.HaloSession;
 import com.mobgen.halo.android.framework.network.sessions.HaloSessionManager;
 import com.mobgen.halo.android.sdk.api.Halo;
 import com.mobgen.halo.android.sdk.core.management.models.Credentials;
@@ -215,4 +216,92 @@ public class HaloAuthenticatorTest extends HaloRobolectricTest {
         assertThat(newRequest).isNull();
         assertThat(mAuthenticator.getCredentials()).isNull();
     }
+
+    @Test
+    public void thatConcurrentAuthenticationsShareTheSameRefresh() throws Exception {
+        enqueueServerFile(mMockServer, AUTHENTICATE);
+        enqueueServerError(mMockServer, 401);
+        final Session expiredSession = new Session(givenAExpiredToken());
+        mSessionManager.setSession(HaloAuthenticator.HALO_SESSION_NAME, expiredSession);
+        final Request[] requests = new Request[2];
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        requests[index] = mAuthenticator.authenticate(null, givenA401Response());
+                    } catch (IOException e) {
+                        requests[index] = null;
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(requests[0].header("Authorization")).contains("Bearer LSD4fw4NLBTESfF18tTVEST6q9vsaLW8tMfEGLJa");
+        assertThat(requests[1].header("Authorization")).isEqualTo(requests[0].header("Authorization"));
+    }
+
+    @Test
+    public void thatARequestWithAReplacedSessionRetriesWithTheCurrentOne() throws IOException {
+        Session currentSession = new Session(givenARefreshToken());
+        mSessionManager.setSession(HaloAuthenticator.HALO_SESSION_NAME, currentSession);
+        Response response = new Response.Builder()
+                .request(new Request.Builder().url("http://google.com")
+                        .header("Authorization", new Session(givenAExpiredToken()).getSessionAuthentication())
+                        .build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(401).build();
+        Request newRequest = mAuthenticator.authenticate(null, response);
+        assertThat(newRequest.header("Authorization")).isEqualTo(currentSession.getSessionAuthentication());
+    }
+
+    @Test
+    public void thatASessionRequestedBeforeAFlushIsDropped() throws IOException {
+        HaloAuthenticator authenticator = mock(HaloAuthenticator.class);
+        final TokenRefresher refresher = new TokenRefresher(authenticator, mSessionManager, mFramework);
+        when(authenticator.requestToken()).thenAnswer(new Answer<Token>() {
+            @Override
+            public Token answer(InvocationOnMock invocation) throws Throwable {
+                refresher.flush();
+                return givenAToken();
+            }
+        });
+
+        HaloSession session = refresher.refresh(null);
+
+        assertThat(session).isNull();
+        assertThat(mSessionManager.getSession(HaloAuthenticator.HALO_SESSION_NAME)).isNull();
+    }
+
+    @Test
+    public void thatAFlushDuringTheAuthenticationDoesNotRestoreTheSession() throws IOException {
+        Session session = new Session(givenAExpiredToken());
+        mSessionManager.setSession(HaloAuthenticator.HALO_SESSION_NAME, session);
+        Response response = givenA401ClientTokenResponse();
+
+        Request newRequest = mAuthenticator.authenticate(null, response);
+
+        assertThat(newRequest).isNull();
+        assertThat(mSessionManager.getSession(HaloAuthenticator.HALO_SESSION_NAME)).isNull();
+    }
+
+    @Test
+    public void thatASessionIsAboutToExpireBeforeItsExpiration() {
+        Session session = new Session(new Token("access", "refresh", TokenRefresher.REFRESH_AHEAD * 3, "bearer"));
+        assertThat(session.isAboutToExpire(TokenRefresher.REFRESH_AHEAD)).isFalse();
+        assertThat(session.isAboutToExpire(TokenRefresher.REFRESH_AHEAD * 3)).isFalse();
+        assertThat(new Session(givenACustomTypeToken()).isAboutToExpire(TokenRefresher.REFRESH_AHEAD)).isFalse();
+    }
+
+    @Test
+    public void thatTheRefreshAheadCooldownIsBounded() {
+        assertThat(TokenRefresher.cooldown(1)).isEqualTo(TokenRefresher.BASE_COOLDOWN);
+        assertThat(TokenRefresher.cooldown(2)).isEqualTo(2 * TokenRefresher.BASE_COOLDOWN);
+        assertThat(TokenRefresher.cooldown(100)).isEqualTo(TokenRefresher.MAX_COOLDOWN);
+    }
 }
@@ -0,0 +1,151 @@
+package com.mobgen.halo.android.sdk.core.management.device;
+
+import com.mobgen.halo.android.framework.network.exceptions.HaloNotFoundException;
+import com.mobgen.halo.android.sdk.api.Halo;
+import com.mobgen.halo.android.sdk.core.management.models.Device;
+import com.mobgen.halo.android.sdk.core.management.segmentation.HaloSegmentationTag;
+import com.mobgen.halo.android.sdk.mock.HaloMock;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeviceRepositoryTest extends HaloRobolectricTest {
+
+    private Halo mHalo;
+    private DeviceRemoteDatasource mRemoteDatasource;
+    private DeviceLocalDatasource mLocalDatasource;
+    private DeviceRepository mRepository;
+
+    @Before
+    public void initialize() {
+        mHalo = HaloMock.create();
+        mRemoteDatasource = mock(DeviceRemoteDatasource.class);
+        mLocalDatasource = mock(DeviceLocalDatasource.class);
+        mRepository = new DeviceRepository(mHalo.framework().parser(), mRemoteDatasource, mLocalDatasource);
+    }
+
+    @After
+    public void tearDown() {
+        mHalo.uninstall();
+    }
+
+    @Test
+    public void thatTheSendsWaitingForARequestAreCoalesced() throws Exception {
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRequest = new CountDownLatch(1);
+        when(mRemoteDatasource.updateDevice(any(Device.class))).thenAnswer(new Answer<Device>() {
+            @Override
+            public Device answer(InvocationOnMock invocation) throws Throwable {
+                requestStarted.countDown();
+                releaseRequest.await();
+                return new Device(null, "deviceId", null, null, null);
+            }
+        });
+        Thread first = givenASendingThread();
+        first.start();
+        requestStarted.await();
+        mRepository.addTags(Collections.singletonList(new HaloSegmentationTag("tag", "value")), true);
+        Thread second = givenASendingThread();
+        Thread third = givenASendingThread();
+        second.start();
+        third.start();
+        waitUntilBlocked(second);
+        waitUntilBlocked(third);
+        releaseRequest.countDown();
+        first.join();
+        second.join();
+        third.join();
+
+        verify(mRemoteDatasource, times(2)).updateDevice(any(Device.class));
+        assertThat(mRepository.getPendingMutations()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatAMutationDuringARequestIsKept() throws Exception {
+        final HaloSegmentationTag tag = new HaloSegmentationTag("tag", "value");
+        when(mRemoteDatasource.updateDevice(any(Device.class))).thenAnswer(new Answer<Device>() {
+            @Override
+            public Device answer(InvocationOnMock invocation) throws Throwable {
+                mRepository.addTags(Collections.singletonList(tag), true);
+                return new Device(null, "deviceId", null, null, null);
+            }
+        });
+        Device device = mRepository.sendDevice();
+
+        assertThat(device.getId()).isEqualTo("deviceId");
+        assertThat(device.getTags()).contains(tag);
+        assertThat(mRepository.getPendingMutations()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatASyncWithTheSameTagsDoesNotUpdateTheDevice() throws Exception {
+        Device remoteDevice = new Device(null, "deviceId", null, null, null);
+        remoteDevice.addTag(new HaloSegmentationTag("tag", "value"));
+        when(mRemoteDatasource.updateDevice(any(Device.class))).thenReturn(new Device(null, "deviceId", null, null, null));
+        when(mRemoteDatasource.getDevice(any(Device.class))).thenReturn(remoteDevice);
+        mRepository.sendDevice();
+
+        Device device = mRepository.syncDevice(Collections.singletonList(new HaloSegmentationTag("tag", "value")));
+
+        verify(mRemoteDatasource, times(1)).updateDevice(any(Device.class));
+        assertThat(device.getTags().get(0).getValue()).isEqualTo("value");
+    }
+
+    @Test
+    public void thatASyncWithAChangedTagUpdatesTheDevice() throws Exception {
+        Device remoteDevice = new Device(null, "deviceId", null, null, null);
+        remoteDevice.addTag(new HaloSegmentationTag("tag", "value"));
+        when(mRemoteDatasource.updateDevice(any(Device.class))).thenReturn(new Device(null, "deviceId", null, null, null));
+        when(mRemoteDatasource.getDevice(any(Device.class))).thenReturn(remoteDevice);
+        mRepository.sendDevice();
+
+        mRepository.syncDevice(Collections.singletonList(new HaloSegmentationTag("tag", "newValue")));
+
+        verify(mRemoteDatasource, times(2)).updateDevice(any(Device.class));
+    }
+
+    @Test
+    public void thatADeviceNotFoundIsOnlyRecreatedOnce() throws Exception {
+        when(mRemoteDatasource.updateDevice(any(Device.class))).thenThrow(new HaloNotFoundException("Not found"));
+        try {
+            mRepository.sendDevice();
+        } catch (HaloNotFoundException e) {
+            assertThat(e).isNotNull();
+        }
+
+        verify(mRemoteDatasource, times(2)).updateDevice(any(Device.class));
+    }
+
+    private Thread givenASendingThread() {
+        return new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mRepository.sendDevice();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+    }
+
+    private static void waitUntilBlocked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.BLOCKED) {
+            Thread.sleep(5);
+        }
+    }
+}
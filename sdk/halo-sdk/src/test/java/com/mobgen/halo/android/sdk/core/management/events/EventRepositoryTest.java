@@ -0,0 +1,118 @@
+package com.mobgen.halo.android.sdk.core.management.events;
+
+import com.mobgen.halo.android.framework.network.exceptions.HaloServerException;
+import com.mobgen.halo.android.sdk.api.Halo;
+import com.mobgen.halo.android.sdk.mock.HaloMock;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+import com.mobgen.halo.android.testing.MockServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static com.mobgen.halo.android.sdk.mock.instrumentation.HaloManagerApiInstrument.givenAHaloEvent;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class EventRepositoryTest extends HaloRobolectricTest {
+
+    private Halo mHalo;
+    private MockServer mMockServer;
+    private EventLocalDatasource mLocalDatasource;
+    private EventRepository mRepository;
+
+    @Before
+    public void initialize() throws IOException {
+        mMockServer = MockServer.create();
+        mHalo = HaloMock.create(mMockServer.start());
+        mLocalDatasource = new EventLocalDatasource(mHalo.manager().storage());
+        mRepository = new EventRepository(mHalo, new EventRemoteDatasource(mHalo.framework().network()), mLocalDatasource);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mHalo.uninstall();
+        mMockServer.shutdown();
+    }
+
+    @Test
+    public void thatQueuedEventsAreSentInBatches() throws Exception {
+        mRepository.setBatchesEnabled(true);
+        int events = EventRepository.MAX_EVENTS_PER_REQUEST + 1;
+        for (int i = 0; i < events; i++) {
+            mRepository.queueEvent(givenAHaloEvent());
+        }
+        mMockServer.enqueue(200);
+        mMockServer.enqueue(200);
+
+        int sent = mRepository.flushEvents();
+
+        assertThat(sent).isEqualTo(events);
+        assertThat(mLocalDatasource.count()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatEventsRejectedByTheServerAreDiscarded() throws Exception {
+        mRepository.queueEvent(givenAHaloEvent());
+        mMockServer.enqueue(400, "{}");
+
+        int sent = mRepository.flushEvents();
+
+        assertThat(sent).isEqualTo(0);
+        assertThat(mLocalDatasource.count()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatARejectedBatchIsSentOneByOne() throws Exception {
+        mRepository.setBatchesEnabled(true);
+        mRepository.queueEvent(givenAHaloEvent());
+        mRepository.queueEvent(givenAHaloEvent());
+        mMockServer.enqueue(404, "{}");
+        mMockServer.enqueue(200, "{}");
+        mMockServer.enqueue(400, "{}");
+
+        int sent = mRepository.flushEvents();
+
+        assertThat(sent).isEqualTo(1);
+        assertThat(mLocalDatasource.count()).isEqualTo(0);
+    }
+
+    @Test
+    public void thatQueuedEventsAreSentOneByOneByDefault() throws Exception {
+        mRepository.queueEvent(givenAHaloEvent());
+        mRepository.queueEvent(givenAHaloEvent());
+        mMockServer.enqueue(200, "{}");
+        mMockServer.enqueue(500, "{}");
+
+        try {
+            mRepository.flushEvents();
+        } catch (HaloServerException e) {
+            //Expected while the server fails
+        }
+
+        assertThat(mLocalDatasource.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void thatEventsStayQueuedWhenTheServerFails() throws Exception {
+        mRepository.queueEvent(givenAHaloEvent());
+        mRepository.queueEvent(givenAHaloEvent());
+        mMockServer.enqueue(500, "{}");
+
+        try {
+            mRepository.flushEvents();
+        } catch (HaloServerException e) {
+            //Expected while the server fails
+        }
+
+        assertThat(mLocalDatasource.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void thatFailedFlushesAreRetriedWithBackoff() {
+        assertThat(EventRepository.retryDelay(1)).isEqualTo(EventRepository.BASE_RETRY_DELAY);
+        assertThat(EventRepository.retryDelay(2)).isEqualTo(EventRepository.BASE_RETRY_DELAY * 2);
+        assertThat(EventRepository.retryDelay(30)).isEqualTo(EventRepository.MAX_RETRY_DELAY);
+    }
+}
@@ -0,0 +1,125 @@
+package com.mobgen.halo.android.sdk.core.management.segmentation;
+
+import android.content.Context;
+import android.content.Intent;
+
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.junit.After;
+import org.junit.Test;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class SegmentationCacheTest extends HaloRobolectricTest {
+
+    private SegmentationCache mCache;
+
+    @After
+    public void tearDown() {
+        if (mCache != null) {
+            mCache.release();
+        }
+    }
+
+    @Test
+    public void thatStaticAndProcessTagsAreCollectedOnce() {
+        CountingCollector staticCollector = new CountingCollector("static", CacheableTagCollector.STATIC);
+        CountingCollector processCollector = new CountingCollector("process", CacheableTagCollector.PROCESS);
+        mCache = new SegmentationCache(Arrays.<TagCollector>asList(staticCollector, processCollector));
+
+        mCache.collect(RuntimeEnvironment.application);
+        List<HaloSegmentationTag> tags = mCache.collect(RuntimeEnvironment.application);
+
+        assertThat(tags).hasSize(2);
+        assertThat(staticCollector.mCollections).isEqualTo(1);
+        assertThat(processCollector.mCollections).isEqualTo(1);
+    }
+
+    @Test
+    public void thatDynamicTagsAreCollectedAgainOnlyWhenTheActionIsBroadcasted() {
+        CountingCollector dynamicCollector = new CountingCollector("dynamic", CacheableTagCollector.DYNAMIC, Intent.ACTION_LOCALE_CHANGED);
+        mCache = new SegmentationCache(Arrays.<TagCollector>asList(dynamicCollector));
+
+        mCache.collect(RuntimeEnvironment.application);
+        mCache.onBroadcast(Intent.ACTION_CONFIGURATION_CHANGED);
+        mCache.collect(RuntimeEnvironment.application);
+        assertThat(dynamicCollector.mCollections).isEqualTo(1);
+
+        mCache.onBroadcast(Intent.ACTION_LOCALE_CHANGED);
+        List<HaloSegmentationTag> tags = mCache.collect(RuntimeEnvironment.application);
+        assertThat(dynamicCollector.mCollections).isEqualTo(2);
+        assertThat(tags.get(0).getValue()).isEqualTo("2");
+    }
+
+    @Test
+    public void thatNotCacheableCollectorsAreCollectedAlways() {
+        final int[] collections = new int[1];
+        mCache = new SegmentationCache(Arrays.<TagCollector>asList(new TagCollector() {
+            @Override
+            public HaloSegmentationTag collect(Context context) {
+                collections[0]++;
+                return new HaloSegmentationTag("custom", collections[0]);
+            }
+        }));
+
+        mCache.collect(RuntimeEnvironment.application);
+        mCache.collect(RuntimeEnvironment.application);
+
+        assertThat(collections[0]).isEqualTo(2);
+    }
+
+    @Test
+    public void thatInvalidateKeepsTheStaticTags() {
+        CountingCollector staticCollector = new CountingCollector("static", CacheableTagCollector.STATIC);
+        CountingCollector processCollector = new CountingCollector("process", CacheableTagCollector.PROCESS);
+        mCache = new SegmentationCache(Arrays.<TagCollector>asList(staticCollector, processCollector));
+
+        mCache.collect(RuntimeEnvironment.application);
+        mCache.invalidate();
+        mCache.collect(RuntimeEnvironment.application);
+
+        assertThat(staticCollector.mCollections).isEqualTo(1);
+        assertThat(processCollector.mCollections).isEqualTo(2);
+    }
+
+    @Test
+    public void thatDefaultCollectorsAreCached() {
+        for (TagCollector collector : DefaultCollectorFactory.getDefaultTags(true)) {
+            assertThat(collector).isInstanceOf(CacheableTagCollector.class);
+        }
+    }
+
+    private static class CountingCollector implements CacheableTagCollector {
+
+        private final String mName;
+        private final int mLifetime;
+        private final String[] mActions;
+        private int mCollections;
+
+        private CountingCollector(String name, @Lifetime int lifetime, String... actions) {
+            mName = name;
+            mLifetime = lifetime;
+            mActions = actions.length == 0 ? null : actions;
+        }
+
+        @Override
+        public HaloSegmentationTag collect(Context context) {
+            mCollections++;
+            return new HaloSegmentationTag(mName, mCollections);
+        }
+
+        @Override
+        public int getLifetime() {
+            return mLifetime;
+        }
+
+        @Override
+        public String[] getInvalidationActions() {
+            return mActions;
+        }
+    }
+}
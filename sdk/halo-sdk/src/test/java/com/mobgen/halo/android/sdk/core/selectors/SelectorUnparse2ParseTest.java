@@ -0,0 +1,193 @@
+package com.mobgen.halo.android.sdk.core.selectors;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.support.annotation.NonNull;
+
+import com.mobgen.halo.android.framework.toolbox.data.Data;
+import com.mobgen.halo.android.framework.toolbox.data.HaloResultV2;
+import com.mobgen.halo.android.framework.toolbox.data.HaloStatus;
+import com.mobgen.halo.android.sdk.mock.HaloMock;
+import com.mobgen.halo.android.testing.HaloRobolectricTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class SelectorUnparse2ParseTest extends HaloRobolectricTest {
+
+    private FakeProvider mProvider;
+
+    @Before
+    public void initialize() {
+        Revalidations.clear();
+        mProvider = new FakeProvider();
+    }
+
+    @Test
+    public void thatStaleWhileRevalidateProvidesTheStorageFirst() throws Exception {
+        mProvider.mStored = "stored";
+        SelectorUnparse2Parse<String, Cursor> selector = givenASelector(0);
+
+        HaloResultV2<String> result = selector.executeInteractor();
+
+        assertThat(result.data()).isEqualTo("stored");
+        assertThat(mProvider.mNetworkRequests).isEqualTo(0);
+    }
+
+    @Test
+    public void thatTheRevalidationWithTheSameDataIsNotDelivered() throws Exception {
+        mProvider.mStored = "stored";
+        SelectorUnparse2Parse<String, Cursor> selector = givenASelector(0);
+
+        selector.executeInteractor();
+        HaloResultV2<String> revalidated = selector.revalidate();
+
+        assertThat(revalidated).isNull();
+        assertThat(mProvider.mNetworkRequests).isEqualTo(1);
+    }
+
+    @Test
+    public void thatTheRevalidationWithChangedDataIsDelivered() throws Exception {
+        mProvider.mStored = "stored";
+        SelectorUnparse2Parse<String, Cursor> selector = givenASelector(0);
+
+        selector.executeInteractor();
+        mProvider.mStored = "updated";
+        HaloResultV2<String> revalidated = selector.revalidate();
+
+        assertThat(revalidated).isNotNull();
+        assertThat(revalidated.data()).isEqualTo("updated");
+    }
+
+    @Test
+    public void thatFreshDataIsNotRevalidated() throws Exception {
+        mProvider.mStored = "stored";
+        SelectorUnparse2Parse<String, Cursor> first = givenASelector(60000);
+        first.executeInteractor();
+        first.revalidate();
+
+        SelectorUnparse2Parse<String, Cursor> second = givenASelector(60000);
+        second.executeInteractor();
+        HaloResultV2<String> revalidated = second.revalidate();
+
+        assertThat(revalidated).isNull();
+        assertThat(mProvider.mNetworkRequests).isEqualTo(1);
+    }
+
+    @Test
+    public void thatTheRevalidationsAreForgottenOnUninstall() throws Exception {
+        mProvider.mStored = "stored";
+        SelectorUnparse2Parse<String, Cursor> first = givenASelector(60000);
+        first.executeInteractor();
+        first.revalidate();
+
+        HaloMock.create().uninstall();
+        SelectorUnparse2Parse<String, Cursor> second = givenASelector(60000);
+        second.executeInteractor();
+        second.revalidate();
+
+        assertThat(mProvider.mNetworkRequests).isEqualTo(2);
+    }
+
+    @Test
+    public void thatAFailedRevalidationIsNotDelivered() throws Exception {
+        mProvider.mStored = "stored";
+        mProvider.mNetworkFails = true;
+        SelectorUnparse2Parse<String, Cursor> selector = givenASelector(0);
+
+        selector.executeInteractor();
+        mProvider.mStored = "updated";
+
+        assertThat(selector.revalidate()).isNull();
+    }
+
+    @Test
+    public void thatOnlyTheStaleWhileRevalidatePolicyRevalidates() {
+        SelectorUnparse2Parse<String, Cursor> selector = new SelectorUnparse2Parse<>(mProvider, new ISelectorConverter<String, Cursor>() {
+            @NonNull
+            @Override
+            public HaloResultV2<String> convert(@NonNull HaloResultV2<Cursor> item) throws Exception {
+                return new HaloResultV2<>(item.status(), null);
+            }
+        }, Data.NETWORK_AND_STORAGE);
+
+        assertThat(selector.revalidates()).isFalse();
+        assertThat(givenASelector(0).revalidates()).isTrue();
+    }
+
+    @Test
+    public void thatARawPayloadWithTheSameContentIsNotDelivered() throws Exception {
+        SelectorUnparse2Parse<String, StringBuilder> selector = new SelectorUnparse2Parse<>(new SelectorProviderAdapter<String, StringBuilder>() {
+            @NonNull
+            @Override
+            public HaloResultV2<StringBuilder> fromStorage() {
+                return new HaloResultV2<>(HaloStatus.builder().dataLocal().build(), new StringBuilder("stored"));
+            }
+
+            @NonNull
+            @Override
+            public HaloResultV2<StringBuilder> fromNetworkStorage() {
+                return new HaloResultV2<>(HaloStatus.builder().build(), new StringBuilder("stored"));
+            }
+        }, new ISelectorConverter<String, StringBuilder>() {
+            @NonNull
+            @Override
+            public HaloResultV2<String> convert(@NonNull HaloResultV2<StringBuilder> item) throws Exception {
+                return new HaloResultV2<>(item.status(), item.data().toString());
+            }
+        }, Data.STALE_WHILE_REVALIDATE);
+        selector.revalidation("key", 0);
+
+        selector.executeInteractor();
+
+        assertThat(selector.revalidate()).isNull();
+    }
+
+    private SelectorUnparse2Parse<String, Cursor> givenASelector(long maxAge) {
+        SelectorUnparse2Parse<String, Cursor> selector = new SelectorUnparse2Parse<>(mProvider, new ISelectorConverter<String, Cursor>() {
+            @NonNull
+            @Override
+            public HaloResultV2<String> convert(@NonNull HaloResultV2<Cursor> item) throws Exception {
+                Cursor cursor = item.data();
+                cursor.moveToFirst();
+                String value = cursor.getString(0);
+                cursor.close();
+                return new HaloResultV2<>(item.status(), value);
+            }
+        }, Data.STALE_WHILE_REVALIDATE);
+        selector.revalidation("key", maxAge);
+        return selector;
+    }
+
+    private static class FakeProvider extends SelectorProviderAdapter<String, Cursor> {
+
+        private String mStored;
+        private int mNetworkRequests;
+        private boolean mNetworkFails;
+
+        @NonNull
+        @Override
+        public HaloResultV2<Cursor> fromStorage() {
+            return new HaloResultV2<>(HaloStatus.builder().dataLocal().build(), cursor());
+        }
+
+        @NonNull
+        @Override
+        public HaloResultV2<Cursor> fromNetworkStorage() {
+            mNetworkRequests++;
+            HaloStatus.Builder status = HaloStatus.builder();
+            if (mNetworkFails) {
+                status.error(new IllegalStateException("No network"));
+            }
+            return new HaloResultV2<>(status.build(), cursor());
+        }
+
+        private Cursor cursor() {
+            MatrixCursor cursor = new MatrixCursor(new String[]{"value"});
+            cursor.addRow(new Object[]{mStored});
+            return cursor;
+        }
+    }
+}